@@ -0,0 +1,143 @@
+package com.org.devgenie.service.coverage;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.infra.Blackhole;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.NodeList;
+
+import javax.xml.parsers.DocumentBuilder;
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Compares the streaming {@link JacocoXmlStreamParser} with the previous DOM-based parsing of
+ * jacoco.xml on synthetic reports of increasing size. Reports parse time, allocated bytes per
+ * operation (gc profiler) and the peak heap observed during each operation (aux counter).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class JacocoXmlParseBenchmark {
+
+    @Param({"2000", "20000"})
+    public int classCount;
+
+    private Path report;
+    private final JacocoXmlStreamParser streamParser = new JacocoXmlStreamParser();
+
+    @Setup(Level.Trial)
+    public void writeReport() throws IOException {
+        report = Files.createTempFile("jacoco-bench", ".xml");
+        try (BufferedWriter out = Files.newBufferedWriter(report)) {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+            out.write("<!DOCTYPE report PUBLIC \"-//JACOCO//DTD Report 1.1//EN\" \"report.dtd\">");
+            out.write("<report name=\"bench\">");
+            int classesPerPackage = 50;
+            for (int p = 0; p < classCount / classesPerPackage; p++) {
+                out.write("<package name=\"com/example/p" + p + "\">");
+                for (int c = 0; c < classesPerPackage; c++) {
+                    String name = "com/example/p" + p + "/Class" + c;
+                    out.write("<class name=\"" + name + "\" sourcefilename=\"Class" + c + ".java\">");
+                    for (int m = 0; m < 5; m++) {
+                        out.write("<method name=\"m" + m + "\" desc=\"()V\" line=\"" + (10 + m * 10) + "\">"
+                                + "<counter type=\"LINE\" missed=\"2\" covered=\"6\"/></method>");
+                    }
+                    out.write("<counter type=\"LINE\" missed=\"10\" covered=\"30\"/>"
+                            + "<counter type=\"BRANCH\" missed=\"4\" covered=\"8\"/>"
+                            + "<counter type=\"METHOD\" missed=\"1\" covered=\"4\"/></class>");
+                }
+                for (int c = 0; c < classesPerPackage; c++) {
+                    out.write("<sourcefile name=\"Class" + c + ".java\">");
+                    for (int line = 1; line <= 40; line++) {
+                        boolean missed = line % 4 == 0;
+                        out.write("<line nr=\"" + line + "\" mi=\"" + (missed ? 3 : 0) + "\" ci=\"" + (missed ? 0 : 3)
+                                + "\" mb=\"" + (line % 10 == 0 ? 1 : 0) + "\" cb=\"0\"/>");
+                    }
+                    out.write("<counter type=\"LINE\" missed=\"10\" covered=\"30\"/></sourcefile>");
+                }
+                out.write("</package>");
+            }
+            out.write("</report>");
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteReport() throws IOException {
+        Files.deleteIfExists(report);
+    }
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class HeapCounter {
+        public long peakHeapMb;
+        private List<MemoryPoolMXBean> heapPools;
+
+        @Setup(Level.Iteration)
+        public void findPools() {
+            heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .collect(Collectors.toList());
+        }
+
+        @Setup(Level.Invocation)
+        public void resetPeak() {
+            System.gc();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+        }
+
+        @TearDown(Level.Invocation)
+        public void recordPeak() {
+            long peak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+            peakHeapMb = Math.max(peakHeapMb, peak / (1024 * 1024));
+        }
+    }
+
+    @Benchmark
+    public void streaming(Blackhole blackhole, HeapCounter heap) {
+        streamParser.parse(report, blackhole::consume);
+    }
+
+    @Benchmark
+    public void dom(Blackhole blackhole, HeapCounter heap) throws Exception {
+        // Mirrors the previous JacocoService DOM path: whole-document load, then tag walks
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setFeature("http://apache.org/xml/features/nonvalidating/load-external-dtd", false);
+        DocumentBuilder builder = factory.newDocumentBuilder();
+        Document document = builder.parse(report.toFile());
+
+        NodeList packageNodes = document.getElementsByTagName("package");
+        for (int i = 0; i < packageNodes.getLength(); i++) {
+            NodeList classNodes = ((Element) packageNodes.item(i)).getElementsByTagName("class");
+            for (int j = 0; j < classNodes.getLength(); j++) {
+                NodeList counters = ((Element) classNodes.item(j)).getElementsByTagName("counter");
+                for (int k = 0; k < counters.getLength(); k++) {
+                    blackhole.consume(((Element) counters.item(k)).getAttribute("covered"));
+                }
+            }
+            NodeList lineNodes = ((Element) packageNodes.item(i)).getElementsByTagName("line");
+            for (int k = 0; k < lineNodes.getLength(); k++) {
+                blackhole.consume(((Element) lineNodes.item(k)).getAttribute("mi"));
+            }
+        }
+    }
+}
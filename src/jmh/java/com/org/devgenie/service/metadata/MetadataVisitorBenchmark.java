@@ -0,0 +1,78 @@
+package com.org.devgenie.service.metadata;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compares the combined single-pass metadata visitor against the original multi-pass
+ * extraction on real source files (this project's own sources by default).
+ * Files are parsed once during setup so only the AST traversal is measured.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MetadataVisitorBenchmark {
+
+    @Param("src/main/java")
+    public String sourceRoot;
+
+    private final MetadataAnalyzer analyzer = new MetadataAnalyzer();
+    private final List<String> paths = new ArrayList<>();
+    private final List<String> sources = new ArrayList<>();
+    private final List<CompilationUnit> units = new ArrayList<>();
+
+    @Setup(Level.Trial)
+    public void loadSources() throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Paths.get(sourceRoot))) {
+            files = walk.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        JavaParser parser = new JavaParser();
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            parser.parse(source).getResult().ifPresent(cu -> {
+                paths.add(file.toString());
+                sources.add(source);
+                units.add(cu);
+            });
+        }
+        if (units.isEmpty()) {
+            throw new IllegalStateException("No Java sources found under " + sourceRoot);
+        }
+    }
+
+    @Benchmark
+    public void singlePass(Blackhole blackhole) {
+        for (int i = 0; i < units.size(); i++) {
+            blackhole.consume(analyzer.analyzeCompilationUnit(paths.get(i), sources.get(i), units.get(i), "bench", "main"));
+        }
+    }
+
+    @Benchmark
+    public void multiPass(Blackhole blackhole) {
+        for (int i = 0; i < units.size(); i++) {
+            blackhole.consume(analyzer.analyzeCompilationUnitMultiPass(paths.get(i), sources.get(i), units.get(i), "bench", "main"));
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package com.org.devgenie.ai.cache;
+
+import com.org.devgenie.model.LlmResponseCacheEntry;
+import com.org.devgenie.mongo.LlmResponseCacheRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Two-tier cache of LLM responses.
+ * Keys are SHA-256 hashes of the model, its options and the normalized prompt, so re-running an
+ * analysis of an unchanged file returns the earlier response without a model call.
+ * The memory tier is a bounded LRU map; the persistent tier is a Mongo collection that survives
+ * restarts. Both expire entries after the configured TTL and are bounded in size; the Mongo tier
+ * is trimmed (oldest first) by a scheduled job. Mongo failures never fail the LLM call.
+ */
+@Component
+@Slf4j
+public class LlmResponseCache {
+
+    @Autowired
+    private LlmResponseCacheRepository cacheRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${llm.cache.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.cache.memory-max-entries:500}")
+    private int memoryMaxEntries;
+
+    @Value("${llm.cache.persistent-enabled:true}")
+    private boolean persistentEnabled;
+
+    @Value("${llm.cache.persistent-max-entries:5000}")
+    private int persistentMaxEntries;
+
+    @Value("${llm.cache.ttl-hours:168}")
+    private long ttlHours;
+
+    @Value("${llm.cache.namespace:v1}")
+    private String namespace; // bump to invalidate every cached response, e.g. after prompt template changes
+
+    private Map<String, CachedResponse> memoryTier;
+
+    private final AtomicLong memoryHits = new AtomicLong();
+    private final AtomicLong persistentHits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private Counter memoryHitCounter;
+    private Counter persistentHitCounter;
+    private Counter missCounter;
+
+    @PostConstruct
+    void initialize() {
+        int maxEntries = Math.max(1, memoryMaxEntries);
+        memoryTier = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedResponse> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        memoryHitCounter = Counter.builder("llm.cache.requests").tag("result", "hit_memory")
+                .description("LLM cache lookups").register(meterRegistry);
+        persistentHitCounter = Counter.builder("llm.cache.requests").tag("result", "hit_persistent")
+                .description("LLM cache lookups").register(meterRegistry);
+        missCounter = Counter.builder("llm.cache.requests").tag("result", "miss")
+                .description("LLM cache lookups").register(meterRegistry);
+        Gauge.builder("llm.cache.memory.entries", this, cache -> cache.memorySize())
+                .description("Entries in the in-memory LLM response cache").register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cache key for a prompt sent to the given model with the given options.
+     * Line endings and trailing whitespace are normalized so cosmetic differences still hit.
+     */
+    public String keyFor(String model, String options, String systemPrompt, String prompt) {
+        String material = namespace + '\u0000' + model + '\u0000' + options + '\u0000'
+                + normalize(systemPrompt) + '\u0000' + normalize(prompt);
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(material.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public Optional<String> get(String key) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+        CachedResponse cached;
+        synchronized (memoryTier) {
+            cached = memoryTier.get(key);
+            if (cached != null && isExpired(cached.createdAt)) {
+                memoryTier.remove(key);
+                cached = null;
+            }
+        }
+        if (cached != null) {
+            memoryHits.incrementAndGet();
+            memoryHitCounter.increment();
+            return Optional.of(cached.response);
+        }
+
+        Optional<LlmResponseCacheEntry> persisted = findPersisted(key);
+        if (persisted.isPresent()) {
+            persistentHits.incrementAndGet();
+            persistentHitCounter.increment();
+            putInMemory(key, persisted.get().getResponse(), persisted.get().getCreatedAt());
+            return Optional.of(persisted.get().getResponse());
+        }
+
+        misses.incrementAndGet();
+        missCounter.increment();
+        return Optional.empty();
+    }
+
+    public void put(String key, String model, int promptLength, String response) {
+        // Empty answers are usually transient failures; let the next call retry
+        if (!enabled || response == null || response.isBlank()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        putInMemory(key, response, now);
+        if (persistentEnabled) {
+            try {
+                cacheRepository.save(LlmResponseCacheEntry.builder()
+                        .key(key)
+                        .model(model)
+                        .response(response)
+                        .promptLength(promptLength)
+                        .createdAt(now)
+                        .build());
+            } catch (RuntimeException e) {
+                log.warn("Failed to persist LLM response cache entry: {}", e.getMessage());
+            }
+        }
+    }
+
+    public void evict(String key) {
+        synchronized (memoryTier) {
+            memoryTier.remove(key);
+        }
+        if (persistentEnabled) {
+            try {
+                cacheRepository.deleteById(key);
+            } catch (RuntimeException e) {
+                log.warn("Failed to evict LLM response cache entry: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Removes expired entries from the persistent tier and trims it to its size limit.
+     */
+    @Scheduled(fixedDelayString = "${llm.cache.cleanup-interval-ms:3600000}")
+    public void cleanupPersistentTier() {
+        if (!enabled || !persistentEnabled) {
+            return;
+        }
+        try {
+            long expired = cacheRepository.deleteByCreatedAtBefore(LocalDateTime.now().minusHours(ttlHours));
+            long excess = cacheRepository.count() - persistentMaxEntries;
+            if (excess > 0) {
+                cacheRepository.deleteAll(cacheRepository.findAllByOrderByCreatedAtAsc(
+                        PageRequest.of(0, (int) Math.min(excess, Integer.MAX_VALUE))));
+            }
+            if (expired > 0 || excess > 0) {
+                log.info("LLM response cache cleanup: {} expired, {} evicted for size", expired, Math.max(0, excess));
+            }
+        } catch (RuntimeException e) {
+            log.warn("LLM response cache cleanup failed: {}", e.getMessage());
+        }
+    }
+
+    public CacheStats getStats() {
+        long hits = memoryHits.get() + persistentHits.get();
+        long total = hits + misses.get();
+        return CacheStats.builder()
+                .memoryHits(memoryHits.get())
+                .persistentHits(persistentHits.get())
+                .misses(misses.get())
+                .hitRate(total == 0 ? 0.0 : (double) hits / total)
+                .memoryEntries(memorySize())
+                .build();
+    }
+
+    private Optional<LlmResponseCacheEntry> findPersisted(String key) {
+        if (!persistentEnabled) {
+            return Optional.empty();
+        }
+        try {
+            Optional<LlmResponseCacheEntry> entry = cacheRepository.findById(key);
+            if (entry.isPresent() && isExpired(entry.get().getCreatedAt())) {
+                cacheRepository.deleteById(key);
+                return Optional.empty();
+            }
+            return entry;
+        } catch (RuntimeException e) {
+            log.warn("LLM response cache lookup failed: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void putInMemory(String key, String response, LocalDateTime createdAt) {
+        synchronized (memoryTier) {
+            memoryTier.put(key, new CachedResponse(response, createdAt));
+        }
+    }
+
+    private int memorySize() {
+        synchronized (memoryTier) {
+            return memoryTier.size();
+        }
+    }
+
+    private boolean isExpired(LocalDateTime createdAt) {
+        return createdAt == null || createdAt.plus(Duration.ofHours(ttlHours)).isBefore(LocalDateTime.now());
+    }
+
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        return text.replace("\r\n", "\n").replaceAll("[ \\t]+\n", "\n").strip();
+    }
+
+    private record CachedResponse(String response, LocalDateTime createdAt) {
+    }
+
+    @Data
+    @Builder
+    public static class CacheStats {
+        private long memoryHits;
+        private long persistentHits;
+        private long misses;
+        private double hitRate;
+        private int memoryEntries;
+    }
+}
@@ -3,7 +3,6 @@ package com.org.devgenie.ai.client;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.ai.chat.client.ChatClient;
-import org.springframework.ai.chat.model.ChatModel;
 import org.springframework.stereotype.Component;
 
 @Component
@@ -11,10 +10,10 @@ public class AiClientImpl implements AiClient {
 
     private static final Logger logger = LoggerFactory.getLogger(AiClientImpl.class);
 
-    private ChatClient client;
+    private final ChatClient client;
 
-    public AiClientImpl(ChatModel model) {
-        client = ChatClient.builder(model).build();
+    public AiClientImpl(ChatClient chatClient) {
+        client = chatClient;
     }
 
     public String callApi(String systemPrompt, String input) {
@@ -0,0 +1,119 @@
+package com.org.devgenie.ai.client;
+
+import com.org.devgenie.ai.cache.LlmResponseCache;
+import com.org.devgenie.ai.gateway.LlmGateway;
+import com.org.devgenie.ai.gateway.LlmPriority;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * Entry point for prompt/response LLM calls of the coverage features.
+ * Wraps the shared {@link ChatClient} with {@link LlmResponseCache}, so repeating a prompt for the
+ * same model and options is answered from the cache.
+ */
+@Component
+@Slf4j
+public class LlmClient {
+
+    @Autowired
+    private ChatClient chatClient;
+
+    @Autowired
+    private LlmResponseCache responseCache;
+
+    @Autowired
+    private LlmGateway llmGateway;
+
+    @Value("${spring.ai.vertex.ai.gemini.chat.options.model:default}")
+    private String model;
+
+    @Value("${spring.ai.vertex.ai.gemini.chat.options.temperature:}")
+    private String temperature;
+
+    @Value("${spring.ai.vertex.ai.gemini.chat.options.max-output-tokens:}")
+    private String maxOutputTokens;
+
+    @Value("${llm.streaming.timeout-seconds:300}")
+    private long streamTimeoutSeconds;
+
+    public String call(String prompt) {
+        return call(null, prompt);
+    }
+
+    /**
+     * Calls the model in the given admission lane of the {@link LlmGateway}; cache hits bypass the gateway.
+     */
+    public String call(String prompt, LlmPriority priority) {
+        return llmGateway.withPriority(priority, () -> call(null, prompt));
+    }
+
+    public String call(String systemPrompt, String prompt) {
+        if (!responseCache.isEnabled()) {
+            return callModel(systemPrompt, prompt);
+        }
+        String key = responseCache.keyFor(model, options(), systemPrompt, prompt);
+        Optional<String> cached = responseCache.get(key);
+        if (cached.isPresent()) {
+            log.debug("LLM cache hit for prompt of {} chars", prompt.length());
+            return cached.get();
+        }
+        String response = callModel(systemPrompt, prompt);
+        responseCache.put(key, model, prompt.length(), response);
+        return response;
+    }
+
+    /**
+     * Streams the response, passing each chunk to {@code onChunk} as it arrives, and returns the
+     * complete text. A cached response is delivered as a single chunk.
+     */
+    public String stream(String prompt, Consumer<String> onChunk) {
+        String key = responseCache.isEnabled() ? responseCache.keyFor(model, options(), null, prompt) : null;
+        if (key != null) {
+            Optional<String> cached = responseCache.get(key);
+            if (cached.isPresent()) {
+                log.debug("LLM cache hit for streamed prompt of {} chars", prompt.length());
+                onChunk.accept(cached.get());
+                return cached.get();
+            }
+        }
+        StringBuilder response = new StringBuilder();
+        chatClient.prompt().user(prompt).stream().content()
+                .doOnNext(chunk -> {
+                    if (chunk != null) {
+                        response.append(chunk);
+                        onChunk.accept(chunk);
+                    }
+                })
+                .blockLast(Duration.ofSeconds(streamTimeoutSeconds));
+        if (key != null) {
+            responseCache.put(key, model, prompt.length(), response.toString());
+        }
+        return response.toString();
+    }
+
+    /**
+     * Drops a cached response, e.g. when the caller could not use it and wants a fresh answer next time.
+     */
+    public void invalidate(String systemPrompt, String prompt) {
+        responseCache.evict(responseCache.keyFor(model, options(), systemPrompt, prompt));
+    }
+
+    private String callModel(String systemPrompt, String prompt) {
+        ChatClient.ChatClientRequestSpec request = chatClient.prompt();
+        if (systemPrompt != null) {
+            request = request.system(systemPrompt);
+        }
+        return request.user(prompt).call().content();
+    }
+
+    private String options() {
+        return "temperature=" + temperature + ",maxOutputTokens=" + maxOutputTokens;
+    }
+}
@@ -0,0 +1,51 @@
+package com.org.devgenie.ai.gateway;
+
+import org.springframework.ai.chat.metadata.Usage;
+import org.springframework.ai.chat.model.ChatModel;
+import org.springframework.ai.chat.model.ChatResponse;
+import org.springframework.ai.chat.prompt.ChatOptions;
+import org.springframework.ai.chat.prompt.Prompt;
+import reactor.core.publisher.Flux;
+
+/**
+ * {@link ChatModel} decorator that routes every call of the application's shared ChatClient
+ * through the {@link LlmGateway}.
+ */
+public class GatewayChatModel implements ChatModel {
+
+    private final ChatModel delegate;
+    private final LlmGateway gateway;
+
+    public GatewayChatModel(ChatModel delegate, LlmGateway gateway) {
+        this.delegate = delegate;
+        this.gateway = gateway;
+    }
+
+    @Override
+    public ChatResponse call(Prompt prompt) {
+        return gateway.execute(gateway.estimateTokens(prompt.getContents()),
+                GatewayChatModel::totalTokens,
+                () -> delegate.call(prompt));
+    }
+
+    @Override
+    public Flux<ChatResponse> stream(Prompt prompt) {
+        return gateway.stream(gateway.estimateTokens(prompt.getContents()),
+                GatewayChatModel::totalTokens,
+                () -> delegate.stream(prompt));
+    }
+
+    @Override
+    public ChatOptions getDefaultOptions() {
+        return delegate.getDefaultOptions();
+    }
+
+    private static long totalTokens(ChatResponse response) {
+        if (response == null || response.getMetadata() == null) {
+            return 0;
+        }
+        Usage usage = response.getMetadata().getUsage();
+        Long total = usage != null ? usage.getTotalTokens() : null;
+        return total != null ? total : 0;
+    }
+}
@@ -0,0 +1,450 @@
+package com.org.devgenie.ai.gateway;
+
+import com.org.devgenie.exception.LlmGatewayException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.util.Comparator;
+import java.util.PriorityQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Process-wide admission control for Gemini calls.
+ * <ul>
+ *   <li>Two token buckets cap requests per minute and (estimated) tokens per minute.</li>
+ *   <li>The number of calls in flight follows an AIMD limit: it grows by about one per window
+ *       of successful calls and halves when the model answers 429/503 (quota or overload), at
+ *       which point admission also pauses for the retry back-off.</li>
+ *   <li>Waiting calls are admitted strictly by lane, then arrival: interactive single-file work
+ *       never queues behind a background repository sweep.</li>
+ * </ul>
+ * Overloaded calls are retried here with exponential back-off, so callers only see the error
+ * once retries are exhausted.
+ */
+@Component
+@Slf4j
+public class LlmGateway {
+
+    private static final ThreadLocal<LlmPriority> CURRENT_PRIORITY = new ThreadLocal<>();
+    private static final long MIN_DECREASE_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final String GAX_RESOURCE_EXHAUSTED = "com.google.api.gax.rpc.ResourceExhaustedException";
+    private static final String GAX_UNAVAILABLE = "com.google.api.gax.rpc.UnavailableException";
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${llm.gateway.enabled:true}")
+    private boolean enabled;
+
+    @Value("${llm.gateway.requests-per-minute:60}")
+    private int requestsPerMinute;
+
+    @Value("${llm.gateway.tokens-per-minute:250000}")
+    private int tokensPerMinute;
+
+    @Value("${llm.gateway.initial-concurrency:4}")
+    private int initialConcurrency;
+
+    @Value("${llm.gateway.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${llm.gateway.max-retries:4}")
+    private int maxRetries;
+
+    @Value("${llm.gateway.max-wait-seconds:600}")
+    private long maxWaitSeconds;
+
+    @Value("${llm.gateway.expected-output-tokens:1500}")
+    private int expectedOutputTokens;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition admissionChanged = lock.newCondition();
+    private final PriorityQueue<Waiter> waiters = new PriorityQueue<>(
+            Comparator.comparing((Waiter w) -> w.priority).thenComparingLong(w -> w.sequence));
+
+    private TokenBucket requestBucket;
+    private TokenBucket tokenBucket;
+    private double concurrencyLimit;
+    private int inFlight;
+    private long sequence;
+    private long pausedUntilNanos;
+    private long lastDecreaseNanos;
+    private Counter overloadCounter;
+
+    @PostConstruct
+    void initialize() {
+        requestBucket = new TokenBucket(requestsPerMinute);
+        tokenBucket = new TokenBucket(tokensPerMinute);
+        concurrencyLimit = Math.max(1, Math.min(initialConcurrency, maxConcurrency));
+        overloadCounter = Counter.builder("llm.gateway.overloaded")
+                .description("LLM calls rejected with 429/503").register(meterRegistry);
+        Gauge.builder("llm.gateway.concurrency.limit", this, gateway -> gateway.getStats().getConcurrencyLimit())
+                .register(meterRegistry);
+        Gauge.builder("llm.gateway.inflight", this, gateway -> gateway.getStats().getInFlight())
+                .register(meterRegistry);
+        Gauge.builder("llm.gateway.queued", this, gateway -> gateway.getStats().getQueued())
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs the supplier with the given lane as the priority of LLM calls made on this thread.
+     */
+    public <T> T withPriority(LlmPriority priority, Supplier<T> work) {
+        return runWithPriority(priority, work);
+    }
+
+    /**
+     * Wraps work that is handed to another thread so its LLM calls keep the submitting thread's lane.
+     */
+    public static <T> Supplier<T> inheritPriority(Supplier<T> work) {
+        LlmPriority priority = CURRENT_PRIORITY.get();
+        return priority == null ? work : () -> runWithPriority(priority, work);
+    }
+
+    private static <T> T runWithPriority(LlmPriority priority, Supplier<T> work) {
+        LlmPriority previous = CURRENT_PRIORITY.get();
+        CURRENT_PRIORITY.set(priority);
+        try {
+            return work.get();
+        } finally {
+            if (previous == null) {
+                CURRENT_PRIORITY.remove();
+            } else {
+                CURRENT_PRIORITY.set(previous);
+            }
+        }
+    }
+
+    public LlmPriority currentPriority() {
+        LlmPriority priority = CURRENT_PRIORITY.get();
+        return priority != null ? priority : LlmPriority.INTERACTIVE;
+    }
+
+    /**
+     * Rough token estimate for a prompt (about four characters per token) plus the expected answer.
+     */
+    public int estimateTokens(String prompt) {
+        return (prompt == null ? 0 : prompt.length() / 4) + expectedOutputTokens;
+    }
+
+    /**
+     * Executes one model call under admission control, retrying on 429/503.
+     *
+     * @param estimatedTokens tokens charged up front
+     * @param actualTokens    tokens actually used according to the response, or 0 if unknown
+     */
+    public <T> T execute(int estimatedTokens, ToLongFunction<T> actualTokens, Supplier<T> call) {
+        if (!enabled) {
+            return call.get();
+        }
+        LlmPriority priority = currentPriority();
+        for (int attempt = 0; ; attempt++) {
+            Permit permit = acquire(priority, estimatedTokens);
+            try {
+                T result = call.get();
+                onSuccess();
+                long used = actualTokens.applyAsLong(result);
+                if (used > 0) {
+                    permit.settle(used);
+                }
+                return result;
+            } catch (RuntimeException e) {
+                if (!isOverloaded(e)) {
+                    throw e;
+                }
+                long backoffMillis = onOverload(attempt);
+                if (attempt >= maxRetries) {
+                    throw new LlmGatewayException("LLM still overloaded after " + (attempt + 1) + " attempts", e);
+                }
+                // The rejected call used no tokens; free its slot for the back-off, so waiting calls
+                // (interactive ones first) are admitted ahead of this retry
+                permit.settle(0);
+                permit.release();
+                log.warn("LLM call throttled ({}), retrying in {} ms (attempt {}/{})",
+                        e.getClass().getSimpleName(), backoffMillis, attempt + 1, maxRetries);
+                sleep(backoffMillis);
+            } finally {
+                permit.release(); // no-op if released before the back-off
+            }
+        }
+    }
+
+    /**
+     * Streaming variant of {@link #execute}: the permit is held until the stream terminates and
+     * the token bucket is settled with the largest usage reported by any chunk. Overload errors
+     * lower the limit but are not retried, since part of the answer may already have been consumed.
+     */
+    public <T> Flux<T> stream(int estimatedTokens, ToLongFunction<T> actualTokens, Supplier<Flux<T>> call) {
+        if (!enabled) {
+            return Flux.defer(call);
+        }
+        LlmPriority priority = currentPriority();
+        return Flux.using(
+                () -> acquire(priority, estimatedTokens),
+                permit -> {
+                    AtomicLong used = new AtomicLong();
+                    return call.get()
+                            .doOnNext(chunk -> used.accumulateAndGet(actualTokens.applyAsLong(chunk), Math::max))
+                            .doOnComplete(() -> {
+                                onSuccess();
+                                if (used.get() > 0) {
+                                    permit.settle(used.get());
+                                }
+                            })
+                            .doOnError(error -> {
+                                if (isOverloaded(error)) {
+                                    onOverload(0);
+                                }
+                            });
+                },
+                Permit::release);
+    }
+
+    /**
+     * Blocks until the call may start. The returned permit must be released when the call ends.
+     */
+    public Permit acquire(LlmPriority priority, int estimatedTokens) {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(maxWaitSeconds);
+        lock.lock();
+        try {
+            Waiter waiter = new Waiter(priority, sequence++);
+            waiters.add(waiter);
+            try {
+                while (true) {
+                    long now = System.nanoTime();
+                    long waitNanos;
+                    if (now < pausedUntilNanos) {
+                        waitNanos = pausedUntilNanos - now;
+                    } else if (waiters.peek() != waiter || inFlight >= (int) concurrencyLimit) {
+                        waitNanos = TimeUnit.SECONDS.toNanos(1);
+                    } else {
+                        waitNanos = Math.max(requestBucket.nanosUntil(1, now), tokenBucket.nanosUntil(estimatedTokens, now));
+                        if (waitNanos == 0) {
+                            requestBucket.take(1, now);
+                            tokenBucket.take(estimatedTokens, now);
+                            inFlight++;
+                            waiters.remove(waiter);
+                            admissionChanged.signalAll();
+                            return new Permit(estimatedTokens);
+                        }
+                    }
+                    long remaining = deadline - now;
+                    if (remaining <= 0) {
+                        throw new LlmGatewayException("Timed out after " + maxWaitSeconds + " s waiting for LLM capacity");
+                    }
+                    admissionChanged.awaitNanos(Math.min(waitNanos, remaining));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new LlmGatewayException("Interrupted while waiting for LLM capacity", e);
+            } finally {
+                if (waiters.remove(waiter)) {
+                    admissionChanged.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Additive increase: roughly +1 after a full window of successful calls.
+     */
+    public void onSuccess() {
+        lock.lock();
+        try {
+            concurrencyLimit = Math.min(maxConcurrency, concurrencyLimit + 1.0 / concurrencyLimit);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Multiplicative decrease and an admission pause; returns the back-off before the retry.
+     */
+    public long onOverload(int attempt) {
+        overloadCounter.increment();
+        long backoffMillis = Math.min(60_000L, 1000L << Math.min(attempt, 6));
+        backoffMillis += ThreadLocalRandom.current().nextLong(backoffMillis / 2 + 1);
+        lock.lock();
+        try {
+            long now = System.nanoTime();
+            // Calls of the same burst fail together; count them as one congestion signal
+            if (now - lastDecreaseNanos > MIN_DECREASE_INTERVAL_NANOS) {
+                concurrencyLimit = Math.max(1, concurrencyLimit / 2);
+                lastDecreaseNanos = now;
+                log.info("LLM overloaded, concurrency limit lowered to {}", (int) concurrencyLimit);
+            }
+            pausedUntilNanos = Math.max(pausedUntilNanos, now + TimeUnit.MILLISECONDS.toNanos(backoffMillis));
+            admissionChanged.signalAll();
+        } finally {
+            lock.unlock();
+        }
+        return backoffMillis;
+    }
+
+    /**
+     * True for quota and overload errors anywhere in the cause chain: HTTP 429/503 responses and
+     * the Google API client's RESOURCE_EXHAUSTED/UNAVAILABLE exceptions. Decided by type and status
+     * code only; error messages are not inspected.
+     */
+    public static boolean isOverloaded(Throwable error) {
+        for (Throwable t = error; t != null; t = t.getCause() == t ? null : t.getCause()) {
+            if (t instanceof RestClientResponseException response && isOverloadStatus(response.getStatusCode().value())) {
+                return true;
+            }
+            if (t instanceof WebClientResponseException response && isOverloadStatus(response.getStatusCode().value())) {
+                return true;
+            }
+            // com.google.api.gax.rpc exceptions; matched by name since the gax client is only a transitive dependency
+            String type = t.getClass().getName();
+            if (type.equals(GAX_RESOURCE_EXHAUSTED) || type.equals(GAX_UNAVAILABLE)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean isOverloadStatus(int status) {
+        return status == 429 || status == 503;
+    }
+
+    public GatewayStats getStats() {
+        lock.lock();
+        try {
+            return GatewayStats.builder()
+                    .concurrencyLimit((int) concurrencyLimit)
+                    .inFlight(inFlight)
+                    .queued(waiters.size())
+                    .queuedInteractive((int) waiters.stream().filter(w -> w.priority == LlmPriority.INTERACTIVE).count())
+                    .paused(System.nanoTime() < pausedUntilNanos)
+                    .build();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new LlmGatewayException("Interrupted during LLM retry back-off", e);
+        }
+    }
+
+    /**
+     * Admission granted by {@link #acquire}. Releasing twice is harmless.
+     */
+    public class Permit {
+        private final int chargedTokens;
+        private boolean released;
+
+        private Permit(int chargedTokens) {
+            this.chargedTokens = chargedTokens;
+        }
+
+        /**
+         * Corrects the token bucket once the real usage is known.
+         */
+        public void settle(long usedTokens) {
+            lock.lock();
+            try {
+                tokenBucket.adjust(chargedTokens - usedTokens, System.nanoTime());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        public void release() {
+            lock.lock();
+            try {
+                if (!released) {
+                    released = true;
+                    inFlight--;
+                    admissionChanged.signalAll();
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private static class Waiter {
+        private final LlmPriority priority;
+        private final long sequence;
+
+        private Waiter(LlmPriority priority, long sequence) {
+            this.priority = priority;
+            this.sequence = sequence;
+        }
+    }
+
+    /**
+     * Continuously refilling bucket holding at most one minute of budget. Not thread-safe; used under the gateway lock.
+     */
+    static class TokenBucket {
+        private final double capacity;
+        private final double refillPerNano;
+        private double available;
+        private long lastRefillNanos;
+
+        TokenBucket(int perMinute) {
+            this.capacity = Math.max(1, perMinute);
+            this.refillPerNano = capacity / TimeUnit.MINUTES.toNanos(1);
+            this.available = capacity;
+            this.lastRefillNanos = System.nanoTime();
+        }
+
+        /**
+         * Nanoseconds until {@code amount} can be taken; requests larger than the bucket wait for a full bucket.
+         */
+        long nanosUntil(int amount, long now) {
+            refill(now);
+            double needed = Math.min(amount, capacity) - available;
+            return needed <= 0 ? 0 : (long) Math.ceil(needed / refillPerNano);
+        }
+
+        void take(int amount, long now) {
+            refill(now);
+            available -= amount;
+        }
+
+        void adjust(double delta, long now) {
+            refill(now);
+            available = Math.min(capacity, available + delta);
+        }
+
+        private void refill(long now) {
+            available = Math.min(capacity, available + (now - lastRefillNanos) * refillPerNano);
+            lastRefillNanos = now;
+        }
+    }
+
+    @Data
+    @Builder
+    public static class GatewayStats {
+        private int concurrencyLimit;
+        private int inFlight;
+        private int queued;
+        private int queuedInteractive;
+        private boolean paused;
+    }
+}
@@ -0,0 +1,10 @@
+package com.org.devgenie.ai.gateway;
+
+/**
+ * Admission lanes of the {@link LlmGateway}. Waiting INTERACTIVE calls are always admitted
+ * before waiting BACKGROUND calls.
+ */
+public enum LlmPriority {
+    INTERACTIVE, // single-file requests a user is waiting on
+    BACKGROUND   // repository-wide analysis and sweeps
+}
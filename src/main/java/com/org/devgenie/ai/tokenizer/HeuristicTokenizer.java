@@ -0,0 +1,28 @@
+package com.org.devgenie.ai.tokenizer;
+
+import org.springframework.stereotype.Component;
+
+/**
+ * Character-based estimate (~4 characters per token for code); used when no model tokenizer is
+ * configured or reachable.
+ */
+@Component
+public class HeuristicTokenizer implements Tokenizer {
+
+    private static final int CHARS_PER_TOKEN = 4;
+
+    @Override
+    public String getName() {
+        return "heuristic";
+    }
+
+    @Override
+    public String getModel() {
+        return "any";
+    }
+
+    @Override
+    public int countTokens(String text) {
+        return text == null ? 0 : (text.length() + CHARS_PER_TOKEN - 1) / CHARS_PER_TOKEN;
+    }
+}
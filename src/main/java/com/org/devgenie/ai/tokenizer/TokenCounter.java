@@ -0,0 +1,106 @@
+package com.org.devgenie.ai.tokenizer;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Token counts for the configured model, cached per content hash so a file is only counted once
+ * while it is unchanged. The tokenizer is chosen with {@code llm.tokenizer.type}; if it fails, the
+ * count is estimated (and not cached, so the next call tries the tokenizer again).
+ * Also exposes the model limits that prompts and batches are sized against.
+ */
+@Component
+@Slf4j
+public class TokenCounter {
+
+    @Autowired
+    private List<Tokenizer> tokenizers;
+
+    @Value("${llm.tokenizer.type:vertex}")
+    private String tokenizerType;
+
+    @Value("${llm.tokenizer.cache-max-entries:2000}")
+    private int cacheMaxEntries;
+
+    @Value("${llm.tokenizer.context-window-tokens:1048576}")
+    private int contextWindowTokens;
+
+    @Value("${llm.tokenizer.max-output-tokens:8192}")
+    private int maxOutputTokens;
+
+    private final Tokenizer fallback = new HeuristicTokenizer();
+    private Tokenizer tokenizer;
+    private Map<String, Integer> counts;
+
+    @PostConstruct
+    void initialize() {
+        tokenizer = tokenizers.stream()
+                .filter(candidate -> candidate.getName().equalsIgnoreCase(tokenizerType))
+                .findFirst()
+                .orElseGet(() -> {
+                    log.warn("No tokenizer named '{}', estimating token counts", tokenizerType);
+                    return fallback;
+                });
+        int maxEntries = Math.max(1, cacheMaxEntries);
+        counts = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Integer> eldest) {
+                return size() > maxEntries;
+            }
+        };
+        log.info("Counting tokens with the {} tokenizer for model {}", tokenizer.getName(), tokenizer.getModel());
+    }
+
+    public int countTokens(String text) {
+        if (text == null || text.isEmpty()) {
+            return 0;
+        }
+        String key = keyFor(text);
+        synchronized (counts) {
+            Integer cached = counts.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        int count;
+        try {
+            count = tokenizer.countTokens(text);
+        } catch (RuntimeException e) {
+            log.warn("{} tokenizer failed, estimating token count: {}", tokenizer.getName(), e.getMessage());
+            return fallback.countTokens(text);
+        }
+        synchronized (counts) {
+            counts.put(key, count);
+        }
+        return count;
+    }
+
+    public int getContextWindowTokens() {
+        return contextWindowTokens;
+    }
+
+    public int getMaxOutputTokens() {
+        return maxOutputTokens;
+    }
+
+    private String keyFor(String text) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update((tokenizer.getName() + '\u0000' + tokenizer.getModel() + '\u0000').getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest(text.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package com.org.devgenie.ai.tokenizer;
+
+/**
+ * Counts tokens the way a specific model does. Implementations are Spring beans selected by
+ * {@code llm.tokenizer.type}; {@link TokenCounter} adds caching and the heuristic fallback.
+ */
+public interface Tokenizer {
+
+    /**
+     * Name used to select this tokenizer in {@code llm.tokenizer.type}.
+     */
+    String getName();
+
+    /**
+     * Model whose tokenization is reproduced.
+     */
+    String getModel();
+
+    /**
+     * @throws RuntimeException if the count cannot be obtained
+     */
+    int countTokens(String text);
+}
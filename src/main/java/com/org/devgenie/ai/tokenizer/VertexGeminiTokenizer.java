@@ -0,0 +1,64 @@
+package com.org.devgenie.ai.tokenizer;
+
+import com.google.cloud.vertexai.VertexAI;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Exact token counts for the configured Gemini model, from the Vertex AI countTokens endpoint.
+ * Uses the {@link VertexAI} client of the Spring AI auto-configuration.
+ */
+@Component
+public class VertexGeminiTokenizer implements Tokenizer {
+
+    @Autowired
+    private ObjectProvider<VertexAI> vertexAi;
+
+    @Value("${spring.ai.vertex.ai.gemini.chat.options.model:gemini-2.5-flash}")
+    private String model;
+
+    private volatile GenerativeModel generativeModel;
+
+    @Override
+    public String getName() {
+        return "vertex";
+    }
+
+    @Override
+    public String getModel() {
+        return model;
+    }
+
+    @Override
+    public int countTokens(String text) {
+        try {
+            return generativeModel().countTokens(text).getTotalTokens();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Vertex AI token count failed", e);
+        }
+    }
+
+    private GenerativeModel generativeModel() {
+        GenerativeModel current = generativeModel;
+        if (current == null) {
+            synchronized (this) {
+                current = generativeModel;
+                if (current == null) {
+                    VertexAI client = vertexAi.getIfAvailable();
+                    if (client == null) {
+                        throw new IllegalStateException("Vertex AI client is not configured");
+                    }
+                    current = new GenerativeModel(model, client);
+                    generativeModel = current;
+                }
+            }
+        }
+        return current;
+    }
+}
@@ -2,6 +2,7 @@ package com.org.devgenie.config;
 
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
 import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
@@ -11,6 +12,8 @@ import java.util.concurrent.Executor;
 @EnableAsync
 public class AsyncConfig {
 
+    // Stays the default for unqualified @Async methods now that there is more than one executor
+    @Primary
     @Bean(name = "dashboardCacheExecutor")
     public Executor dashboardCacheExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -21,4 +24,18 @@ public class AsyncConfig {
         executor.initialize();
         return executor;
     }
+
+    /**
+     * Runs coverage sessions, each on one thread that works through its files, and {@code @Async} coverage methods.
+     */
+    @Bean(name = "coverageImprovementExecutor")
+    public Executor coverageImprovementExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(8);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("CoverageImprovement-");
+        executor.initialize();
+        return executor;
+    }
 }
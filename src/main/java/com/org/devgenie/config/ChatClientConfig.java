@@ -1,5 +1,7 @@
 package com.org.devgenie.config;
 
+import com.org.devgenie.ai.gateway.GatewayChatModel;
+import com.org.devgenie.ai.gateway.LlmGateway;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.ai.chat.model.ChatModel;
@@ -10,9 +12,12 @@ import org.springframework.context.annotation.Configuration;
 @Slf4j
 public class ChatClientConfig {
 
+    /**
+     * The single ChatClient of the application; all model calls pass through the rate-limiting gateway.
+     */
     @Bean
-    public ChatClient chatClient(ChatModel chatModel) {
+    public ChatClient chatClient(ChatModel chatModel, LlmGateway llmGateway) {
         log.info("Creating ChatClient with model: {}", chatModel);
-        return ChatClient.builder(chatModel).build();
+        return ChatClient.builder(new GatewayChatModel(chatModel, llmGateway)).build();
     }
 }
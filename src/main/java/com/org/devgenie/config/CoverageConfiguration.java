@@ -20,6 +20,7 @@ public class CoverageConfiguration {
             ".*Application.java"
     );
     private boolean enableParallelProcessing = true;
+    private int batchParallelism = 4; // concurrent LLM batch generations when parallel processing is enabled
     private int maxRetries = 3;
     private String testFramework = "junit5";
     private boolean enableMocking = true;
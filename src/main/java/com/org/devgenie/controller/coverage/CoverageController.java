@@ -12,12 +12,19 @@ import com.org.devgenie.service.coverage.RepositoryAnalysisService;
 import com.org.devgenie.service.coverage.RepositoryService;
 import com.org.devgenie.service.coverage.SessionManagementService;
 import com.org.devgenie.service.coverage.GitService;
+import com.org.devgenie.service.coverage.ProgressBus;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
 
+import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -46,6 +53,12 @@ public class CoverageController {
     @Autowired
     private GitService gitService;
 
+    @Autowired
+    private ProgressBus progressBus;
+
+    @Value("${coverage.progress.sse.heartbeat-seconds:15}")
+    private long sseHeartbeatSeconds;
+
     /**
      * NEW: Analyze repository and provide summary before coverage improvement
      * Sample Request:
@@ -67,6 +80,14 @@ public class CoverageController {
         }
     }
 
+    /**
+     * Running repository analyses and how many requests joined one instead of starting their own
+     */
+    @GetMapping("/analyze-repository/stats")
+    public ResponseEntity<RepositoryAnalysisService.CoalescingStats> getRepositoryAnalysisStats() {
+        return ResponseEntity.ok(repositoryAnalysisService.getCoalescingStats());
+    }
+
     /**
      * Enhanced file coverage improvement with repository context
      * Sample Request:
@@ -323,7 +344,7 @@ public class CoverageController {
                 CoverageImprovementSession session = sessionOpt.get();
                 
                 // Check if session has results and is in a completed state
-                boolean hasResults = session.getResults() != null;
+                boolean hasResults = session.hasResults();
                 boolean isCompletedState = session.getStatus() == CoverageImprovementSession.SessionStatus.COMPLETED ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.PARTIALLY_COMPLETED;
@@ -348,6 +369,29 @@ public class CoverageController {
         }
     }
 
+    /**
+     * Server-Sent Events stream of a session's progress, an alternative to the WebSocket for clients
+     * behind proxies or that connect late. Recent updates are replayed first. A client reconnecting
+     * with Last-Event-ID (EventSource does this automatically) only gets the updates it missed.
+     */
+    @GetMapping(value = "/session/{sessionId}/progress/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<Flux<ServerSentEvent<ProgressUpdate>>> streamSessionProgress(
+            @PathVariable String sessionId,
+            @RequestHeader(value = "Last-Event-ID", required = false) Long lastEventId) {
+        Flux<ServerSentEvent<ProgressUpdate>> updates = progressBus.subscribe(sessionId, lastEventId != null ? lastEventId : 0)
+                .map(sequenced -> ServerSentEvent.builder(sequenced.update())
+                        .id(String.valueOf(sequenced.sequence()))
+                        .build());
+        // Comments keep the connection from being closed as idle by proxies between updates
+        Flux<ServerSentEvent<ProgressUpdate>> heartbeats = Flux.interval(Duration.ofSeconds(sseHeartbeatSeconds))
+                .map(tick -> ServerSentEvent.<ProgressUpdate>builder().comment("heartbeat").build());
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CACHE_CONTROL, "no-cache")
+                .header("X-Accel-Buffering", "no") // disables response buffering in nginx
+                // Heartbeats stop when the session's stream ends, so the response completes with it
+                .body(updates.publish(shared -> Flux.merge(shared, heartbeats.takeUntilOther(shared.ignoreElements()))));
+    }
+
     /**
      * Get session results for file coverage improvement
      */
@@ -359,16 +403,19 @@ public class CoverageController {
                 CoverageImprovementSession session = sessionOpt.get();
 
                 // Check if session has results and is in a completed state
-                boolean hasResults = session.getResults() != null;
+                boolean hasResults = session.hasResults();
                 boolean isCompletedState = session.getStatus() == CoverageImprovementSession.SessionStatus.COMPLETED ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.PARTIALLY_COMPLETED;
 
-                if (hasResults && isCompletedState) {
+                // Only this endpoint loads the results themselves, with the generated test code
+                Optional<Object> results = hasResults && isCompletedState
+                        ? sessionManagementService.getSessionResults(sessionId) : Optional.empty();
+                if (results.isPresent()) {
                     return ResponseEntity.ok(Map.of(
                         "sessionId", sessionId,
                         "status", session.getStatus(),
-                        "results", session.getResults(),
+                        "results", results.get(),
                         "startedAt", session.getStartedAt(),
                         "progress", session.getProgress()
                     ));
@@ -409,7 +456,7 @@ public class CoverageController {
                 CoverageImprovementSession session = sessionOpt.get();
                 
                 // Check if session has results and is in a completed state
-                boolean hasResults = session.getResults() != null;
+                boolean hasResults = session.hasResults();
                 boolean isCompletedState = session.getStatus() == CoverageImprovementSession.SessionStatus.COMPLETED ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW ||
                                          session.getStatus() == CoverageImprovementSession.SessionStatus.PARTIALLY_COMPLETED;
@@ -564,7 +611,7 @@ public class CoverageController {
             case VALIDATING_TESTS:
                 return "Validating generated tests...";
             case READY_FOR_REVIEW:
-                return session.getResults() != null ? "Complete! Results are ready for review." : "Processing complete, finalizing results...";
+                return session.hasResults() ? "Complete! Results are ready for review." : "Processing complete, finalizing results...";
             case COMPLETED:
                 return "Process completed successfully!";
             case PARTIALLY_COMPLETED:
@@ -0,0 +1,11 @@
+package com.org.devgenie.exception;
+
+public class LlmGatewayException extends RuntimeException {
+    public LlmGatewayException(String message) {
+        super(message);
+    }
+
+    public LlmGatewayException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
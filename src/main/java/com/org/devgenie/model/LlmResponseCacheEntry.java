@@ -0,0 +1,26 @@
+package com.org.devgenie.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Document(collection = "llm_response_cache")
+public class LlmResponseCacheEntry {
+
+    @Id
+    private String key; // SHA-256 of model, options and normalized prompt
+
+    private String model;
+    private String response;
+    private int promptLength;
+    private LocalDateTime createdAt;
+}
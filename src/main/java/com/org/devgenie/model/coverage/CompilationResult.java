@@ -14,4 +14,10 @@ import java.util.List;
 public class CompilationResult {
     private Boolean success;
     private List<String> errors;
+    private List<String> warnings;
+    private List<String> compiledFiles;
+    private String outputDirectory; // where the compiled test classes were written
+    private Integer classpathEntries;
+    private Boolean classpathFromCache;
+    private Long compilationTimeMs;
 }
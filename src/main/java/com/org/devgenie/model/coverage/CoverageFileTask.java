@@ -0,0 +1,61 @@
+package com.org.devgenie.model.coverage;
+
+import com.org.devgenie.dto.coverage.FileCoverageImprovementResult;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * One file of a repository-wide coverage session, persisted so that the session survives restarts.
+ * Workers lease a task before processing it and renew the lease while they work; a lease that is
+ * neither renewed nor completed before it expires (the worker died) makes the task available again.
+ */
+@Document(collection = "coverage_file_tasks")
+@CompoundIndexes({
+        @CompoundIndex(name = "session_status_sequence", def = "{'sessionId': 1, 'status': 1, 'sequence': 1}"),
+        @CompoundIndex(name = "session_file", def = "{'sessionId': 1, 'filePath': 1}", unique = true)
+})
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CoverageFileTask {
+    @Id
+    private String id;
+    private String sessionId;
+    private int sequence; // processing order within the session
+    private String filePath;
+
+    // Request context needed to resume the session; the GitHub token is deliberately not stored
+    private String repositoryUrl;
+    private String branch;
+    private String workspaceId;
+    private Double targetCoverageIncrease;
+
+    private TaskStatus status;
+    private int attempts;
+    private String leaseOwner;
+    private String leaseToken; // new for every lease, so a worker whose lease was taken over cannot complete the task
+    private LocalDateTime leaseExpiresAt;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private FileCoverageImprovementResult result;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+
+    public enum TaskStatus {
+        PENDING,
+        LEASED,
+        COMPLETED,
+        FAILED,
+        CANCELLED
+    }
+}
@@ -35,9 +35,15 @@ public class CoverageImprovementSession {
     private Integer totalBatches;
     @Builder.Default
     private List<String> errors = new ArrayList<>(); // Initialize to prevent NPE
-    private Object results; // JSON field for results
+    private Object results; // only set on sessions stored before results moved to coverage_session_results
+    private Map<String, Object> resultsSummary; // metrics of the results, without the generated test code
     private Map<String, Object> metadata;
     private String workspaceId;
+    private Long version; // incremented by every partial update, for optimistic concurrency
+
+    public boolean hasResults() {
+        return resultsSummary != null || results != null;
+    }
 
     public enum SessionType { 
         FILE_IMPROVEMENT, 
@@ -0,0 +1,26 @@
+package com.org.devgenie.model.coverage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+
+import java.time.LocalDateTime;
+
+/**
+ * Full results of a coverage session, including the generated test code. Kept out of the session
+ * document so that status and list queries never load them; the session only holds a summary.
+ */
+@Document(collection = "coverage_session_results")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionResults {
+    @Id
+    private String sessionId;
+    private Object results;
+    private LocalDateTime storedAt;
+}
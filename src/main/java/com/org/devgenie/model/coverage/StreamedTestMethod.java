@@ -0,0 +1,27 @@
+package com.org.devgenie.model.coverage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A test method recognized while the LLM response is still streaming.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StreamedTestMethod {
+    private String testClass;
+    private String methodName;
+    private String description;
+    private String testCode;
+    private List<String> coveredMethods;
+    private String testFilePath;          // as announced by the response, or the expected path
+    private String partialTestContent;    // full-file responses: the class so far, closed so it compiles
+    private Integer batchIndex;           // null for full-file generation
+    private int sequence;                 // 1-based position within the response
+}
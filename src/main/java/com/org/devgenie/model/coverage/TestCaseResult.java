@@ -0,0 +1,19 @@
+package com.org.devgenie.model.coverage;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TestCaseResult {
+    private String testClass;
+    private String testMethod;
+    private String displayName;
+    private String status; // PASSED, FAILED, ABORTED, SKIPPED
+    private Long durationMs;
+    private String failureMessage;
+}
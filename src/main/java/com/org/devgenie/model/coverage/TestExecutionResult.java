@@ -18,4 +18,6 @@ public class TestExecutionResult {
     private Integer testsFailed;
     private List<String> errors;
     private Long executionTimeMs;
+    private Integer testsSkipped;
+    private List<TestCaseResult> testResults; // per-test outcome and timing
 }
@@ -1,5 +1,6 @@
 package com.org.devgenie.model.coverage;
 
+import com.org.devgenie.ai.tokenizer.TokenCounter;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -43,11 +44,24 @@ public class TestGenerationStrategy {
     private int maxTestsPerBatch;
     private boolean requiresValidation;
     
+    private static final int PROMPT_TEMPLATE_TOKENS = 1500; // instructions, guidance and response format around the source
+    private static final int MAX_TESTS_PER_BATCH = 20;
+    private static final double OUTPUT_SAFETY_MARGIN = 0.8;
+
     /**
      * Factory method to determine the best strategy for a given class analysis
      * Works seamlessly for all Java applications: Spring Boot, plain Java, Maven/Gradle projects, etc.
      */
     public static TestGenerationStrategy determine(FileAnalysisResult analysis, boolean existingTestFile, String fileContent) {
+        return determine(analysis, existingTestFile, fileContent, null);
+    }
+
+    /**
+     * Same as {@link #determine(FileAnalysisResult, boolean, String)}, but with token counts of the
+     * configured model: batches are sized to what fits its output and context limits instead of 3-5 tests.
+     */
+    public static TestGenerationStrategy determine(FileAnalysisResult analysis, boolean existingTestFile, String fileContent,
+                                                   TokenCounter tokenCounter) {
         log.info("Determining test generation strategy for class: {}", analysis.getFilePath());
         TestGenerationStrategyBuilder builder = TestGenerationStrategy.builder()
             .hasExistingTestFile(existingTestFile)
@@ -60,8 +74,12 @@ public class TestGenerationStrategy {
         
         // Estimate file size and complexity
         int estimatedLines = fileContent.split("\n").length;
-        int estimatedTokens = estimateTokens(fileContent);
-        log.info("Estimated lines: {}, Estimated tokens: {}", estimatedLines, estimatedTokens);
+        int estimatedTokens = tokenCounter != null ? tokenCounter.countTokens(fileContent) : estimateTokens(fileContent);
+        int maxTestsPerBatch = tokenCounter != null
+                ? calculateBatchSizeForModelLimits(estimatedTokens, analysis,
+                        tokenCounter.getContextWindowTokens(), tokenCounter.getMaxOutputTokens())
+                : calculateOptimalBatchSize(estimatedTokens, analysis.getComplexity());
+        log.info("Estimated lines: {}, Estimated tokens: {}, Tests per batch: {}", estimatedLines, estimatedTokens, maxTestsPerBatch);
         
         builder.estimatedLines(estimatedLines)
                .estimatedTokens(estimatedTokens);
@@ -70,7 +88,7 @@ public class TestGenerationStrategy {
         if (existingTestFile) {
             return builder.strategy(Strategy.MERGE_WITH_EXISTING)
                          .reasoning("Existing test file detected - merging new tests with existing content")
-                         .maxTestsPerBatch(calculateOptimalBatchSize(estimatedTokens, analysis.getComplexity()))
+                         .maxTestsPerBatch(maxTestsPerBatch)
                          .build();
         }
         
@@ -84,7 +102,7 @@ public class TestGenerationStrategy {
         // For complex/large classes - use batch approach
         return builder.strategy(Strategy.BATCH_METHOD_BASED)
                      .reasoning(buildBatchGenerationReasoning(characteristics, estimatedLines, estimatedTokens, analysis.getComplexity()))
-                     .maxTestsPerBatch(calculateOptimalBatchSize(estimatedTokens, analysis.getComplexity()))
+                     .maxTestsPerBatch(maxTestsPerBatch)
                      .build();
     }
     
@@ -421,4 +439,24 @@ public class TestGenerationStrategy {
         }
         return 5; // Default batch size
     }
+
+    /**
+     * Largest batch whose generated tests fit the model's output limit and, together with the prompt,
+     * its context window. One test per uncovered method, so a batch never exceeds the uncovered methods.
+     */
+    static int calculateBatchSizeForModelLimits(int sourceTokens, FileAnalysisResult analysis,
+                                                int contextWindowTokens, int maxOutputTokens) {
+        int tokensPerTest = switch (String.valueOf(analysis.getComplexity())) {
+            case "HIGH", "VERY_HIGH" -> 600;
+            case "MEDIUM" -> 400;
+            default -> 250;
+        };
+        int outputBudget = (int) (maxOutputTokens * OUTPUT_SAFETY_MARGIN);
+        int remainingWindow = contextWindowTokens - sourceTokens - PROMPT_TEMPLATE_TOKENS;
+        int fitting = Math.min(outputBudget, remainingWindow) / tokensPerTest;
+
+        int uncoveredMethods = analysis.getTestableComponents() == null ? 0 : analysis.getUncoveredMethods().size();
+        int wanted = uncoveredMethods > 0 ? Math.min(uncoveredMethods, MAX_TESTS_PER_BATCH) : MAX_TESTS_PER_BATCH;
+        return Math.max(1, Math.min(fitting, wanted));
+    }
 }
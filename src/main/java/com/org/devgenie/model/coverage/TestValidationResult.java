@@ -20,4 +20,8 @@ public class TestValidationResult {
     private List<String> executionErrors;
     private String validationMethod; // COMPILATION_ONLY, EXECUTION, COVERAGE_ANALYSIS
     private Long executionTimeMs;
+    private Integer testsSkipped;
+    private List<TestCaseResult> testResults; // per-test outcome and timing
+    private CoverageData measuredCoverage; // target file coverage measured while running the tests
+    private String coverageMeasurement; // MERGED_WITH_BASELINE, NEW_TESTS_ONLY
 }
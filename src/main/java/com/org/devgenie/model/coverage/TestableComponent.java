@@ -15,4 +15,7 @@ public class TestableComponent {
     private boolean currentlyCovered;
     private String riskLevel;
     private String description;
+    private String signature;   // set by the local AST analysis
+    private Integer startLine;
+    private Integer endLine;
 }
@@ -0,0 +1,18 @@
+package com.org.devgenie.mongo;
+
+import com.org.devgenie.model.coverage.CoverageFileTask;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface CoverageFileTaskRepository extends MongoRepository<CoverageFileTask, String> {
+
+    List<CoverageFileTask> findBySessionIdOrderBySequenceAsc(String sessionId);
+
+    long countBySessionId(String sessionId);
+
+    long countBySessionIdAndStatusIn(String sessionId, Collection<CoverageFileTask.TaskStatus> statuses);
+}
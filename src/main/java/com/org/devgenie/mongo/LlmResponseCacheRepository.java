@@ -0,0 +1,17 @@
+package com.org.devgenie.mongo;
+
+import com.org.devgenie.model.LlmResponseCacheEntry;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface LlmResponseCacheRepository extends MongoRepository<LlmResponseCacheEntry, String> {
+
+    long deleteByCreatedAtBefore(LocalDateTime cutoff);
+
+    List<LlmResponseCacheEntry> findAllByOrderByCreatedAtAsc(Pageable pageable);
+}
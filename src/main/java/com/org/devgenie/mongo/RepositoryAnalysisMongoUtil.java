@@ -66,6 +66,28 @@ public class RepositoryAnalysisMongoUtil {
         }
     }
 
+    /**
+     * Persist only the file metadata that changed since the previous analysis
+     */
+    @Async
+    public void persistFileMetadataDeltaAsync(List<MetadataAnalyzer.FileMetadata> changedMetadata,
+                                              List<MetadataAnalyzer.FileMetadata> removedMetadata,
+                                              String repoDir, String branch) {
+        try {
+            if (removedMetadata != null && !removedMetadata.isEmpty()) {
+                fileMetadataMongoRepository.deleteAll(removedMetadata);
+            }
+            if (changedMetadata != null && !changedMetadata.isEmpty()) {
+                fileMetadataMongoRepository.saveAll(changedMetadata);
+            }
+            log.info("File metadata delta persisted for repo {} branch {}: {} saved, {} removed", repoDir, branch,
+                    changedMetadata != null ? changedMetadata.size() : 0,
+                    removedMetadata != null ? removedMetadata.size() : 0);
+        } catch (Exception e) {
+            log.error("Failed to persist file metadata delta to Mongo", e);
+        }
+    }
+
     public RepositoryAnalysis getAnalysisFromMongo(String repositoryUrl, String branch) {
         try {
             RepositoryAnalysis response = analysisMongoRepository.findByRepositoryUrlAndBranch(repositoryUrl, branch);
@@ -1,21 +1,37 @@
 package com.org.devgenie.service.coverage;
 
+import com.org.devgenie.ai.gateway.LlmGateway;
+import com.org.devgenie.ai.gateway.LlmPriority;
 import com.org.devgenie.dto.coverage.EnhancedFileCoverageRequest;
 import com.org.devgenie.dto.coverage.FileCoverageImprovementResult;
 import com.org.devgenie.dto.coverage.ProgressUpdate;
 import com.org.devgenie.dto.coverage.RepositoryCoverageImprovementResult;
+import com.org.devgenie.model.coverage.CoverageFileTask;
 import com.org.devgenie.model.coverage.CoverageImprovementSession;
 import com.org.devgenie.model.coverage.EnhancedRepoCoverageRequest;
 import com.org.devgenie.websocket.CoverageProgressWebSocketHandler;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 
 @Service
 @Slf4j
@@ -29,6 +45,9 @@ public class AsyncCoverageProcessingService {
 
     @Autowired
     private CoverageProgressWebSocketHandler webSocketHandler;
+
+    @Autowired
+    private ProgressBus progressBus;
     
     @Autowired
     private UniversalProgressService progressService; // NEW: Universal progress service
@@ -36,8 +55,42 @@ public class AsyncCoverageProcessingService {
     @Autowired
     private RepositoryService repositoryService;
 
+    @Autowired
+    private CoverageTaskQueue taskQueue;
+
+    @Autowired
+    private LlmGateway llmGateway;
+
+    @Autowired
+    @Qualifier("coverageImprovementExecutor")
+    private Executor coverageImprovementExecutor;
+
+    @Value("${coverage.task-queue.poll-interval-ms:5000}")
+    private long pollIntervalMillis;
+
+    @Value("${coverage.task-queue.resume-abandoned-sessions:true}")
+    private boolean resumeAbandonedSessions;
+
     // Track running sessions for cancellation
-    private final ConcurrentHashMap<String, CompletableFuture<?>> runningSessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Future<?>> runningSessions = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService leaseHeartbeat;
+
+    @PostConstruct
+    void initializeHeartbeat() {
+        leaseHeartbeat = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "CoverageLeaseHeartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownHeartbeat() {
+        if (leaseHeartbeat != null) {
+            leaseHeartbeat.shutdownNow();
+        }
+    }
 
     /**
      * Start file coverage improvement and return session ID immediately
@@ -53,13 +106,7 @@ public class AsyncCoverageProcessingService {
         );
         
         // Start async processing
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> 
-            processFileCoverageInBackground(session.getSessionId(), request));
-        
-        runningSessions.put(session.getSessionId(), future);
-        
-        // Remove from tracking when completed
-        future.whenComplete((result, throwable) -> runningSessions.remove(session.getSessionId()));
+        submitSession(session.getSessionId(), () -> processFileCoverageInBackground(session.getSessionId(), request));
         
         return session.getSessionId();
     }
@@ -82,13 +129,7 @@ public class AsyncCoverageProcessingService {
         log.info("🔍 Created session with final sessionId: {}", session.getSessionId());
         
         // Start async processing
-        CompletableFuture<Void> future = CompletableFuture.runAsync(() -> 
-            processRepositoryCoverageInBackground(session.getSessionId(), request));
-        
-        runningSessions.put(session.getSessionId(), future);
-        
-        // Remove from tracking when completed
-        future.whenComplete((result, throwable) -> runningSessions.remove(session.getSessionId()));
+        submitSession(session.getSessionId(), () -> processRepositoryCoverageInBackground(session.getSessionId(), request));
         
         return session.getSessionId();
     }
@@ -97,17 +138,63 @@ public class AsyncCoverageProcessingService {
      * Cancel a running session
      */
     public boolean cancelSession(String sessionId) {
-        CompletableFuture<?> future = runningSessions.get(sessionId);
+        // Queued files of a repository session stop being handed out to workers on every instance
+        boolean tasksCancelled = taskQueue.cancel(sessionId) > 0;
+        Future<?> future = runningSessions.get(sessionId);
         if (future != null) {
             boolean cancelled = future.cancel(true);
             if (cancelled) {
                 sessionManagementService.updateSessionStatus(sessionId, 
                     CoverageImprovementSession.SessionStatus.CANCELLED);
+                progressBus.complete(sessionId);
                 runningSessions.remove(sessionId);
             }
             return cancelled;
         }
-        return false;
+        if (tasksCancelled) {
+            sessionManagementService.updateSessionStatus(sessionId, CoverageImprovementSession.SessionStatus.CANCELLED);
+            progressBus.complete(sessionId);
+        }
+        return tasksCancelled;
+    }
+
+    /**
+     * Picks up repository sessions whose queued files were abandoned by a shutdown or crash, on this
+     * or any other instance. Sessions another instance is still working on hold live leases and are
+     * left alone; files finished before the interruption are not processed again.
+     */
+    @Scheduled(initialDelayString = "${coverage.task-queue.resume-initial-delay-ms:30000}",
+            fixedDelayString = "${coverage.task-queue.resume-interval-ms:60000}")
+    public void resumeInterruptedSessions() {
+        if (!resumeAbandonedSessions) {
+            return;
+        }
+        try {
+            for (String sessionId : taskQueue.findAbandonedSessionIds()) {
+                if (runningSessions.containsKey(sessionId)) {
+                    continue;
+                }
+                log.info("Resuming repository coverage session {} from its queued files", sessionId);
+                submitSession(sessionId, () -> resumeRepositoryCoverageInBackground(sessionId));
+            }
+        } catch (Exception e) {
+            log.error("Could not resume interrupted coverage sessions", e);
+        }
+    }
+
+    /**
+     * Runs a session on the coverage executor. Unlike a {@link CompletableFuture}, the {@link FutureTask}
+     * interrupts the session's thread when it is cancelled.
+     */
+    private void submitSession(String sessionId, Runnable processing) {
+        FutureTask<Void> session = new FutureTask<>(processing, null) {
+            @Override
+            protected void done() {
+                runningSessions.remove(sessionId, this);
+            }
+        };
+        runningSessions.put(sessionId, session);
+        coverageImprovementExecutor.execute(session);
     }
 
     /**
@@ -218,100 +305,167 @@ public class AsyncCoverageProcessingService {
             
             log.info("Processing {} Java files for coverage improvement", javaFiles.size());
             sendProgressUpdate(sessionId, 25.0, String.format("Analyzing %d files for coverage opportunities", javaFiles.size()), ProgressUpdate.ProgressType.ANALYSIS);
-            
-            // Process files in batches
-            int batchSize = 5; // Process 5 files at a time
-            List<FileCoverageImprovementResult> allResults = new ArrayList<>();
-            int totalFiles = javaFiles.size();
-            int processedFiles = 0;
-            
-            for (int i = 0; i < javaFiles.size(); i += batchSize) {
-                // Check if session was cancelled
-                if (Thread.currentThread().isInterrupted()) {
-                    log.info("Repository coverage processing cancelled for session: {}", sessionId);
-                    return;
-                }
-                
-                int endIndex = Math.min(i + batchSize, javaFiles.size());
-                List<String> batch = javaFiles.subList(i, endIndex);
-                
-                log.info("Processing batch {}/{} with {} files", (i/batchSize) + 1, 
-                        (javaFiles.size() + batchSize - 1) / batchSize, batch.size());
-                
-                // Process each file in the batch
-                for (String filePath : batch) {
-                    try {
-                        processedFiles++;
-                        double progress = 25.0 + (processedFiles * 60.0 / totalFiles); // 25% to 85%
-                        
-                        sendProgressUpdate(sessionId, progress, 
-                                String.format("Improving coverage for %s (%d/%d files)", extractFileName(filePath), processedFiles, totalFiles), 
-                                ProgressUpdate.ProgressType.TEST_GENERATION);
-                        
-                        // Create file coverage request
-                        EnhancedFileCoverageRequest fileRequest = EnhancedFileCoverageRequest.builder()
-                                .sessionId(sessionId) // 🔑 CRITICAL FIX: Pass the current session ID
-                                .repositoryUrl(request.getRepositoryUrl())
-                                .branch(request.getBranch())
-                                .filePath(filePath)
-                                .targetCoverageIncrease(request.getTargetCoverageIncrease())
-                                .githubToken(request.getGithubToken())
-                                .workspaceId(request.getWorkspaceId())
-                                .build();
-                        
-                        // Process individual file
-                        FileCoverageImprovementResult result = coverageAgentService.improveFileCoverageEnhanced(fileRequest);
-                        
-                        if (result != null && result.getStatus() == FileCoverageImprovementResult.ProcessingStatus.COMPLETED) {
-                            allResults.add(result);
-                            log.info("Successfully processed file: {}", filePath);
-                        } else {
-                            log.warn("Failed to process file: {}", filePath);
-                        }
-                        
-                    } catch (Exception e) {
-                        log.error("Error processing file: " + filePath, e);
-                        // Continue with next file instead of failing entire batch
-                    }
-                }
-                
-                // Small delay between batches to avoid overwhelming the system
-                Thread.sleep(1000);
-            }
-            
-            sendProgressUpdate(sessionId, 90.0, "Preparing final results", ProgressUpdate.ProgressType.VALIDATION);
-            
-            // Store consolidated results in session
-            RepositoryCoverageImprovementResult repoResult = RepositoryCoverageImprovementResult.builder()
-                    .repositoryUrl(request.getRepositoryUrl())
-                    .branch(request.getBranch())
-                    .totalFilesProcessed(processedFiles)
-                    .successfulFiles(allResults.size())
-                    .fileResults(allResults)
-                    .processingTimeMs(System.currentTimeMillis()) // This would be calculated properly
-                    .build();
-            
-            sessionManagementService.setSessionResults(sessionId, repoResult);
-            
-            // Update session with final status
-            sessionManagementService.updateSessionStatus(sessionId, 
-                    CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW);
-            
-            // Send completion message after all operations are done
-            sendProgressUpdate(sessionId, 100.0, 
-                    String.format("Repository improvement complete! Successfully improved coverage for %d files. Results are ready for review.", allResults.size()), 
-                    ProgressUpdate.ProgressType.COMPLETION);
-            
-            log.info("Background repository coverage processing completed for session: {}. Processed {}/{} files successfully", 
-                    sessionId, allResults.size(), processedFiles);
-            
+
+            // Persist one task per file so the session survives restarts, then work through the queue
+            taskQueue.enqueue(sessionId, request, javaFiles);
+            processQueuedFiles(sessionId, request.getGithubToken());
+
         } catch (InterruptedException e) {
             log.info("Repository coverage processing was interrupted for session: {}", sessionId);
             Thread.currentThread().interrupt();
         } catch (Exception e) {
             log.error("Background repository coverage processing failed for session: {}", sessionId, e);
-            sessionManagementService.handleError(sessionId, e);
             sendErrorUpdate(sessionId, "Repository coverage improvement failed: " + e.getMessage());
+            sessionManagementService.handleError(sessionId, e); // ends the session's progress stream
+        }
+    }
+
+    /**
+     * Continues a repository session from its queued files. GitHub tokens are not persisted, so the
+     * files are processed in the workspace cloned before the restart.
+     */
+    private void resumeRepositoryCoverageInBackground(String sessionId) {
+        try {
+            sessionManagementService.updateSessionStatus(sessionId,
+                    CoverageImprovementSession.SessionStatus.GENERATING_TESTS);
+            sendProgressUpdate(sessionId, 25.0,
+                    String.format("Resuming: %d of %d files already processed", taskQueue.countFinished(sessionId),
+                            taskQueue.getTasks(sessionId).size()),
+                    ProgressUpdate.ProgressType.TEST_GENERATION);
+            processQueuedFiles(sessionId, null);
+        } catch (InterruptedException e) {
+            log.info("Resumed coverage processing was interrupted for session: {}", sessionId);
+            Thread.currentThread().interrupt();
+        } catch (Exception e) {
+            log.error("Resumed repository coverage processing failed for session: {}", sessionId, e);
+            sendErrorUpdate(sessionId, "Repository coverage improvement failed: " + e.getMessage());
+            sessionManagementService.handleError(sessionId, e); // ends the session's progress stream
+        }
+    }
+
+    /**
+     * Works through the session's queued files, then stores the consolidated results of every file of
+     * the session, including those finished before a restart. The files are processed one after
+     * another on the session's thread: they share the session's workspace and session state.
+     */
+    private void processQueuedFiles(String sessionId, String githubToken) throws InterruptedException {
+        long startTime = System.currentTimeMillis();
+        int totalFiles = taskQueue.getTasks(sessionId).size();
+        runWorker(sessionId, githubToken, totalFiles);
+
+        List<CoverageFileTask> tasks = taskQueue.getTasks(sessionId);
+        if (tasks.stream().anyMatch(task -> task.getStatus() == CoverageFileTask.TaskStatus.CANCELLED)) {
+            log.info("Repository coverage processing cancelled for session: {}", sessionId);
+            return;
+        }
+
+        sendProgressUpdate(sessionId, 90.0, "Preparing final results", ProgressUpdate.ProgressType.VALIDATION);
+
+        List<FileCoverageImprovementResult> allResults = tasks.stream()
+                .filter(task -> task.getStatus() == CoverageFileTask.TaskStatus.COMPLETED && task.getResult() != null)
+                .map(CoverageFileTask::getResult)
+                .toList();
+        int processedFiles = (int) tasks.stream()
+                .filter(task -> task.getStatus() == CoverageFileTask.TaskStatus.COMPLETED
+                        || task.getStatus() == CoverageFileTask.TaskStatus.FAILED)
+                .count();
+        CoverageFileTask first = tasks.isEmpty() ? null : tasks.get(0);
+
+        // Store consolidated results in session
+        RepositoryCoverageImprovementResult repoResult = RepositoryCoverageImprovementResult.builder()
+                .repositoryUrl(first != null ? first.getRepositoryUrl() : null)
+                .branch(first != null ? first.getBranch() : null)
+                .totalFilesProcessed(processedFiles)
+                .successfulFiles(allResults.size())
+                .fileResults(allResults)
+                .processingTimeMs(System.currentTimeMillis() - startTime)
+                .build();
+
+        sessionManagementService.setSessionResults(sessionId, repoResult);
+
+        // Update session with final status
+        sessionManagementService.updateSessionStatus(sessionId,
+                CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW);
+
+        // Send completion message after all operations are done
+        sendProgressUpdate(sessionId, 100.0,
+                String.format("Repository improvement complete! Successfully improved coverage for %d files. Results are ready for review.", allResults.size()),
+                ProgressUpdate.ProgressType.COMPLETION);
+
+        log.info("Background repository coverage processing completed for session: {}. Processed {}/{} files successfully",
+                sessionId, allResults.size(), processedFiles);
+    }
+
+    /**
+     * Leases and processes files of the session until none is left, renewing each lease while the
+     * file is processed. When nothing is due yet (retries backing off, or files leased by workers
+     * that may have died), it waits for the earliest one.
+     */
+    private void runWorker(String sessionId, String githubToken, int totalFiles) throws InterruptedException {
+        String workerId = taskQueue.workerId();
+        long renewalMillis = Math.max(1000, taskQueue.leaseRenewalInterval().toMillis());
+        while (true) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new InterruptedException("Coverage worker of session " + sessionId + " was interrupted");
+            }
+            Optional<CoverageFileTask> leased = taskQueue.lease(sessionId, workerId);
+            if (leased.isEmpty()) {
+                Optional<Duration> wait = taskQueue.timeUntilNextTask(sessionId);
+                if (wait.isEmpty()) {
+                    return;
+                }
+                Thread.sleep(Math.max(100, Math.min(wait.get().toMillis(), pollIntervalMillis)));
+                continue;
+            }
+
+            CoverageFileTask task = leased.get();
+            long position = taskQueue.countFinished(sessionId) + 1;
+            double progress = 25.0 + (Math.min(position, totalFiles) * 60.0 / Math.max(1, totalFiles)); // 25% to 85%
+            sendProgressUpdate(sessionId, progress,
+                    String.format("Improving coverage for %s (%d/%d files)", extractFileName(task.getFilePath()), position, totalFiles),
+                    ProgressUpdate.ProgressType.TEST_GENERATION);
+
+            ScheduledFuture<?> heartbeat = leaseHeartbeat.scheduleAtFixedRate(() -> renewLease(task),
+                    renewalMillis, renewalMillis, TimeUnit.MILLISECONDS);
+            try {
+                EnhancedFileCoverageRequest fileRequest = EnhancedFileCoverageRequest.builder()
+                        .sessionId(sessionId) // 🔑 CRITICAL FIX: Pass the current session ID
+                        .repositoryUrl(task.getRepositoryUrl())
+                        .branch(task.getBranch())
+                        .filePath(task.getFilePath())
+                        .targetCoverageIncrease(task.getTargetCoverageIncrease())
+                        .githubToken(githubToken)
+                        .workspaceId(task.getWorkspaceId())
+                        .build();
+
+                // Repository sweeps yield the LLM to interactive single-file requests
+                FileCoverageImprovementResult result = llmGateway.withPriority(LlmPriority.BACKGROUND,
+                        () -> coverageAgentService.improveFileCoverageEnhanced(fileRequest));
+
+                if (result != null && result.getStatus() == FileCoverageImprovementResult.ProcessingStatus.COMPLETED) {
+                    taskQueue.complete(task, result);
+                    log.info("Successfully processed file: {}", task.getFilePath());
+                } else {
+                    taskQueue.fail(task, new IllegalStateException("File processing ended with status "
+                            + (result != null ? result.getStatus() : null)), false);
+                }
+            } catch (Exception e) {
+                log.error("Error processing file: " + task.getFilePath(), e);
+                taskQueue.fail(task, e, true);
+            } finally {
+                heartbeat.cancel(false);
+            }
+        }
+    }
+
+    private void renewLease(CoverageFileTask task) {
+        try {
+            if (!taskQueue.renew(task)) {
+                log.warn("Could not renew the lease on {} of session {}", task.getFilePath(), task.getSessionId());
+            }
+        } catch (RuntimeException e) {
+            // Thrown out of a periodic task it would stop the renewals for good
+            log.warn("Renewing the lease on {} failed: {}", task.getFilePath(), e.getMessage());
         }
     }
 
@@ -330,6 +484,7 @@ public class AsyncCoverageProcessingService {
                 .build();
         
         webSocketHandler.sendProgressUpdate(sessionId, update);
+        progressBus.publish(update);
     }
 
     /**
@@ -352,6 +507,7 @@ public class AsyncCoverageProcessingService {
                 .build();
         
         webSocketHandler.sendProgressUpdate(sessionId, errorUpdate);
+        progressBus.publish(errorUpdate);
     }
 
     /**
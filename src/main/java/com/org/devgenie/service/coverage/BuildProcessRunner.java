@@ -0,0 +1,390 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Runs build-tool processes (Maven, Gradle, SBT) for coverage analysis.
+ * <ul>
+ *   <li>Gradle runs are forced onto the Gradle daemon and Maven runs use mvnd when it is installed,
+ *       so repeated analyses of a workspace reuse a warm JVM instead of paying JVM and build-model
+ *       startup every time.</li>
+ *   <li>stdout and stderr are drained concurrently and logged, so a chatty build can never block
+ *       on a full pipe; the last lines are kept for error messages.</li>
+ *   <li>Every run has a timeout; on timeout, interruption or shutdown the whole process tree is destroyed.</li>
+ *   <li>The number of concurrent builds on this host is capped, and builds in the same workspace
+ *       are serialized because they share target/ and build/ directories.</li>
+ * </ul>
+ */
+@Component
+@Slf4j
+public class BuildProcessRunner {
+
+    @Value("${coverage.build.max-concurrent:2}")
+    private int maxConcurrentBuilds;
+
+    @Value("${coverage.build.timeout-minutes:30}")
+    private long timeoutMinutes;
+
+    @Value("${coverage.build.queue-timeout-minutes:30}")
+    private long queueTimeoutMinutes;
+
+    @Value("${coverage.build.warm-daemons:true}")
+    private boolean warmDaemons;
+
+    @Value("${coverage.build.mvnd-command:mvnd}")
+    private String mvndCommand;
+
+    @Value("${coverage.build.output-tail-lines:200}")
+    private int outputTailLines;
+
+    private Semaphore buildPermits;
+    private ExecutorService outputDrainers;
+    private volatile Boolean mvndAvailable;
+
+    private final Map<String, ReentrantLock> workspaceLocks = new ConcurrentHashMap<>();
+    private final Map<String, RunningBuild> runningBuilds = new ConcurrentHashMap<>();
+    private final Map<String, WorkspaceStats> workspaceStats = new ConcurrentHashMap<>();
+    // Launchers whose daemons were started by this application; stopped on shutdown
+    private final Set<String> daemonLaunchers = ConcurrentHashMap.newKeySet();
+
+    @PostConstruct
+    void initialize() {
+        buildPermits = new Semaphore(Math.max(1, maxConcurrentBuilds), true);
+        AtomicInteger threadIndex = new AtomicInteger();
+        outputDrainers = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "BuildOutput-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdown() {
+        runningBuilds.keySet().forEach(this::cancel);
+        for (String launcher : daemonLaunchers) {
+            stopDaemons(launcher);
+        }
+        if (outputDrainers != null) {
+            outputDrainers.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs a build command in the given workspace with the configured timeout.
+     */
+    public BuildResult run(String repoDir, String buildTool, List<String> command, Map<String, String> environment)
+            throws IOException, InterruptedException {
+        return run(repoDir, buildTool, command, environment, Duration.ofMinutes(timeoutMinutes));
+    }
+
+    /**
+     * Runs a build command in the given workspace. Blocks until the build finishes, times out or
+     * is cancelled; waits for a free build slot first if the host is at its concurrency cap.
+     */
+    public BuildResult run(String repoDir, String buildTool, List<String> command, Map<String, String> environment,
+                           Duration timeout) throws IOException, InterruptedException {
+        String workspace = workspaceKey(repoDir);
+        List<String> effectiveCommand = applyDaemonSettings(buildTool, command);
+
+        if (!buildPermits.tryAcquire(queueTimeoutMinutes, TimeUnit.MINUTES)) {
+            throw new JacocoException("Timed out waiting for a free build slot (" + maxConcurrentBuilds
+                    + " concurrent builds allowed)");
+        }
+        ReentrantLock workspaceLock = workspaceLocks.computeIfAbsent(workspace, key -> new ReentrantLock());
+        try {
+            workspaceLock.lockInterruptibly();
+            try {
+                return execute(workspace, buildTool, effectiveCommand, environment, timeout);
+            } finally {
+                workspaceLock.unlock();
+            }
+        } finally {
+            buildPermits.release();
+        }
+    }
+
+    /**
+     * Cancels the build currently running in the given workspace, if any. Only used on shutdown:
+     * workspaces are shared between sessions, so a single session must not kill a build.
+     */
+    private boolean cancel(String repoDir) {
+        RunningBuild build = runningBuilds.get(workspaceKey(repoDir));
+        if (build == null) {
+            return false;
+        }
+        build.cancelled = true;
+        destroyProcessTree(build.process);
+        log.info("Cancelled build in {}", repoDir);
+        return true;
+    }
+
+    public boolean isRunning(String repoDir) {
+        return runningBuilds.containsKey(workspaceKey(repoDir));
+    }
+
+    public int getAvailableBuildSlots() {
+        return buildPermits.availablePermits();
+    }
+
+    private BuildResult execute(String workspace, String buildTool, List<String> command,
+                                Map<String, String> environment, Duration timeout) throws IOException, InterruptedException {
+        WorkspaceStats stats = workspaceStats.computeIfAbsent(workspace, key -> new WorkspaceStats());
+        boolean warm = stats.runs > 0;
+
+        ProcessBuilder pb = new ProcessBuilder(command);
+        pb.directory(new File(workspace));
+        if (environment != null) {
+            pb.environment().putAll(environment);
+        }
+
+        long start = System.nanoTime();
+        log.info("Starting {} build in {} ({} run): {}", buildTool, workspace, warm ? "warm" : "cold", String.join(" ", command));
+        Process process = pb.start();
+        process.getOutputStream().close();
+
+        RunningBuild build = new RunningBuild(process);
+        runningBuilds.put(workspace, build);
+        OutputTail tail = new OutputTail(outputTailLines);
+        Future<?> stdout = outputDrainers.submit(() -> drain(process.getInputStream(), tail, false));
+        Future<?> stderr = outputDrainers.submit(() -> drain(process.getErrorStream(), tail, true));
+
+        boolean timedOut = false;
+        try {
+            if (!process.waitFor(timeout.toMillis(), TimeUnit.MILLISECONDS)) {
+                timedOut = true;
+                log.warn("{} build in {} exceeded {} and is being terminated", buildTool, workspace, timeout);
+                destroyProcessTree(process);
+                process.waitFor(30, TimeUnit.SECONDS);
+            }
+        } catch (InterruptedException e) {
+            destroyProcessTree(process);
+            throw e;
+        } finally {
+            runningBuilds.remove(workspace);
+            awaitDrainer(stdout);
+            awaitDrainer(stderr);
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        Integer exitCode = process.isAlive() ? null : process.exitValue();
+        stats.record(elapsedMillis);
+        log.info("{} build in {} finished in {} ms (exit code {}, {} run, average {} ms over {} runs)",
+                buildTool, workspace, elapsedMillis, exitCode, warm ? "warm" : "cold", stats.averageMillis(), stats.runs);
+
+        return BuildResult.builder()
+                .command(command)
+                .exitCode(exitCode == null ? -1 : exitCode)
+                .timedOut(timedOut)
+                .cancelled(build.cancelled)
+                .warmRun(warm)
+                .elapsedMillis(elapsedMillis)
+                .outputTail(tail.snapshot())
+                .build();
+    }
+
+    /**
+     * Rewrites the command so it runs on a long-lived daemon when warm daemons are enabled:
+     * Gradle gets {@code --daemon} (overriding {@code --no-daemon} and CI defaults) and a plain
+     * console, Maven's {@code mvn} is swapped for mvnd when mvnd is on the PATH.
+     * Wrapper scripts such as mvnw are left alone because they pin the project's Maven version.
+     */
+    List<String> applyDaemonSettings(String buildTool, List<String> command) {
+        List<String> result = new ArrayList<>(command);
+        if (!warmDaemons || result.isEmpty() || buildTool == null) {
+            return result;
+        }
+        switch (buildTool.toLowerCase()) {
+            case "gradle":
+                result.remove("--no-daemon");
+                if (!result.contains("--daemon")) {
+                    result.add(1, "--daemon");
+                }
+                if (result.stream().noneMatch(arg -> arg.startsWith("--console"))) {
+                    result.add(1, "--console=plain");
+                }
+                daemonLaunchers.add(result.get(0));
+                break;
+            case "maven":
+                if (result.get(0).equals("mvn") && isMvndAvailable()) {
+                    result.set(0, mvndCommand);
+                    daemonLaunchers.add(mvndCommand);
+                }
+                break;
+            default:
+                break;
+        }
+        return result;
+    }
+
+    private boolean isMvndAvailable() {
+        if (mvndAvailable == null) {
+            mvndAvailable = probe(List.of(mvndCommand, "--version"));
+            log.info("Maven daemon ({}) {}", mvndCommand, mvndAvailable ? "found, Maven builds will reuse warm daemons" : "not found, using mvn");
+        }
+        return mvndAvailable;
+    }
+
+    private boolean probe(List<String> command) {
+        try {
+            Process process = new ProcessBuilder(command).redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+            if (!process.waitFor(30, TimeUnit.SECONDS)) {
+                destroyProcessTree(process);
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void stopDaemons(String launcher) {
+        // Relative wrapper paths (./gradlew) only resolve inside a workspace; their daemons
+        // expire through Gradle's own idle timeout
+        if (launcher.startsWith(".")) {
+            return;
+        }
+        log.info("Stopping build daemons started through {}", launcher);
+        probe(List.of(launcher, "--stop"));
+    }
+
+    private void drain(InputStream stream, OutputTail tail, boolean errorStream) {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                tail.add(line);
+                if (errorStream) {
+                    log.debug("[build:err] {}", line);
+                } else {
+                    log.debug("[build] {}", line);
+                }
+            }
+        } catch (IOException e) {
+            // Stream closes when the process is destroyed
+            log.debug("Build output stream closed: {}", e.getMessage());
+        }
+    }
+
+    private void awaitDrainer(Future<?> drainer) {
+        try {
+            drainer.get(10, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            // A daemon child may still hold the pipe open; the output tail is already captured
+            drainer.cancel(true);
+        } catch (Exception e) {
+            log.debug("Build output drainer failed: {}", e.getMessage());
+        }
+    }
+
+    private void destroyProcessTree(Process process) {
+        process.descendants().forEach(ProcessHandle::destroyForcibly);
+        process.destroyForcibly();
+    }
+
+    private String workspaceKey(String repoDir) {
+        return Paths.get(repoDir).toAbsolutePath().normalize().toString();
+    }
+
+    private static class RunningBuild {
+        private final Process process;
+        private volatile boolean cancelled;
+
+        private RunningBuild(Process process) {
+            this.process = process;
+        }
+    }
+
+    private static class WorkspaceStats {
+        private int runs;
+        private long totalMillis;
+
+        private synchronized void record(long elapsedMillis) {
+            runs++;
+            totalMillis += elapsedMillis;
+        }
+
+        private synchronized long averageMillis() {
+            return runs == 0 ? 0 : totalMillis / runs;
+        }
+    }
+
+    private static class OutputTail {
+        private final int capacity;
+        private final Deque<String> lines = new ArrayDeque<>();
+
+        private OutputTail(int capacity) {
+            this.capacity = Math.max(1, capacity);
+        }
+
+        private synchronized void add(String line) {
+            if (lines.size() == capacity) {
+                lines.removeFirst();
+            }
+            lines.addLast(line);
+        }
+
+        private synchronized List<String> snapshot() {
+            return new ArrayList<>(lines);
+        }
+    }
+
+    @Data
+    @Builder
+    public static class BuildResult {
+        private List<String> command;
+        private int exitCode;
+        private boolean timedOut;
+        private boolean cancelled;
+        private boolean warmRun;
+        private long elapsedMillis;
+        private List<String> outputTail;
+
+        public boolean isSuccessful() {
+            return exitCode == 0 && !timedOut && !cancelled;
+        }
+
+        /**
+         * Short failure description with the last output lines, for exceptions and logs.
+         */
+        public String describeFailure(int maxLines) {
+            String reason = timedOut ? "timed out" : cancelled ? "was cancelled" : "failed with exit code: " + exitCode;
+            List<String> lastLines = outputTail == null ? List.of()
+                    : outputTail.subList(Math.max(0, outputTail.size() - maxLines), outputTail.size());
+            return lastLines.isEmpty() ? reason : reason + "\n" + String.join("\n", lastLines);
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.org.devgenie.service.coverage;
 
+import com.org.devgenie.ai.tokenizer.TokenCounter;
 import com.org.devgenie.config.CoverageConfiguration;
 import com.org.devgenie.dto.coverage.*;
 import com.org.devgenie.exception.coverage.CoverageException;
@@ -49,6 +50,12 @@ public class CoverageAgentService {
     @Autowired
     private RepositoryService repositoryService;
 
+    @Autowired
+    private TestBatchExecutor testBatchExecutor;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
     public CoverageResponse increaseFileCoverage(FileCoverageRequest request) {
         log.info("Starting file coverage increase for: {}", request.getFilePath());
 
@@ -191,6 +198,7 @@ public class CoverageAgentService {
             log.info("🔍 Created new session ID: {}", sessionId);
         }
         LocalDateTime startTime = LocalDateTime.now();
+        StreamedTestSink draftSink = null;
 
         try {
             // Step 1: Initialize workspace and get repository (5% progress)
@@ -230,7 +238,13 @@ public class CoverageAgentService {
             boolean existingTestFile = Files.exists(Paths.get(repoDir, testFilePath));
             
             // Use TestGenerationStrategy to determine optimal approach
-            TestGenerationStrategy strategy = TestGenerationStrategy.determine(analysis, existingTestFile, sourceContent);
+            TestGenerationStrategy strategy = TestGenerationStrategy.determine(analysis, existingTestFile, sourceContent, tokenCounter);
+            if (strategy.getStrategy() == TestGenerationStrategy.Strategy.BATCH_METHOD_BASED
+                    && testGenerationService.isSpeculative(strategy, sourceContent)) {
+                // Small file: direct and batch generation race, and the winner is always one complete test class
+                strategy.setStrategy(TestGenerationStrategy.Strategy.DIRECT_FULL_FILE);
+                strategy.setReasoning("Speculative direct/batch generation: " + strategy.getReasoning());
+            }
             log.info("🎯 Selected test generation strategy: {} - {}", strategy.getStrategy(), strategy.getReasoning());
             
             sessionManagementService.updateProgress(sessionId, 35.0, 
@@ -240,12 +254,14 @@ public class CoverageAgentService {
             List<GeneratedTestInfo> allGeneratedTestsWithCode = new ArrayList<>();
             List<String> testFilePaths = new ArrayList<>();
             TestGenerationResult directTestResult = null; // Store for DIRECT_FULL_FILE strategy
+            StreamedTestSink streamedTests = new StreamedTestSink(sessionId, repoDir, 40.0);
+            draftSink = streamedTests;
             
             // Execute strategy-based test generation
             switch (strategy.getStrategy()) {
                 case DIRECT_FULL_FILE:
                     sessionManagementService.updateProgress(sessionId, 40.0, "Generating complete test file directly");
-                    directTestResult = testGenerationService.generateTestsForFileWithStrategy(analysis, strategy);
+                    directTestResult = testGenerationService.generateTestsForFileWithStrategy(analysis, strategy, streamedTests);
                     if (directTestResult.isSuccess()) {
                         allGeneratedTests.addAll(convertDirectResultToResultTestInfo(directTestResult));
                         // For DIRECT_FULL_FILE, we'll use the complete test content directly, not convert to individual methods
@@ -256,18 +272,17 @@ public class CoverageAgentService {
                     
                 case BATCH_METHOD_BASED:
                     sessionManagementService.updateProgress(sessionId, 40.0, "Generating tests in optimized batches");
-                    int totalBatches = Math.max(1, (int) Math.ceil((double) analysis.getUncoveredMethods().size() / strategy.getMaxTestsPerBatch()));
-                    
-                    for (int batchIndex = 0; batchIndex < totalBatches; batchIndex++) {
-                        double progressStart = 40.0 + (batchIndex * 40.0 / totalBatches);
-                        double progressEnd = 40.0 + ((batchIndex + 1) * 40.0 / totalBatches);
-
-                        sessionManagementService.updateProgress(sessionId, progressStart,
-                                String.format("Processing batch %d of %d", batchIndex + 1, totalBatches));
+                    int totalBatches = uncoveredMethodBatches(analysis, strategy);
 
-                        BatchTestGenerationResult batchResult = testGenerationService.generateTestsBatch(
-                                analysis, batchIndex, strategy.getMaxTestsPerBatch());
+                    List<BatchTestGenerationResult> batchResults = testBatchExecutor.generateBatches(
+                            analysis, totalBatches, strategy.getMaxTestsPerBatch(),
+                            (completed, total, batchIndex, batchResult) -> sessionManagementService.updateProgress(sessionId,
+                                    streamedTests.advanceProgress(40.0 + (completed * 40.0 / total)),
+                                    String.format("Completed batch %d (%d of %d done)", batchIndex + 1, completed, total)),
+                            streamedTests);
 
+                    for (int batchIndex = 0; batchIndex < batchResults.size(); batchIndex++) {
+                        BatchTestGenerationResult batchResult = batchResults.get(batchIndex);
                         if (batchResult.getSuccess()) {
                             allGeneratedTests.addAll(convertToResultTestInfo(batchResult.getGeneratedTests()));
                             allGeneratedTestsWithCode.addAll(batchResult.getGeneratedTests());
@@ -275,40 +290,33 @@ public class CoverageAgentService {
                         } else {
                             log.warn("Batch {} failed: {}", batchIndex + 1, batchResult.getError());
                         }
-
-                        sessionManagementService.updateProgress(sessionId, progressEnd,
-                                String.format("Completed batch %d", batchIndex + 1));
                     }
                     break;
                     
                 case MERGE_WITH_EXISTING:
                     sessionManagementService.updateProgress(sessionId, 40.0, "Generating tests to merge with existing file");
-                    int mergeBatches = Math.max(1, strategy.getMaxTestsPerBatch() / 2); // Fewer batches for merging
-                    
-                    for (int batchIndex = 0; batchIndex < mergeBatches; batchIndex++) {
-                        double progressStart = 40.0 + (batchIndex * 40.0 / mergeBatches);
-                        double progressEnd = 40.0 + ((batchIndex + 1) * 40.0 / mergeBatches);
-
-                        sessionManagementService.updateProgress(sessionId, progressStart,
-                                String.format("Generating merge batch %d of %d", batchIndex + 1, mergeBatches));
+                    int mergeBatches = uncoveredMethodBatches(analysis, strategy);
 
-                        BatchTestGenerationResult batchResult = testGenerationService.generateTestsBatch(
-                                analysis, batchIndex, strategy.getMaxTestsPerBatch());
+                    List<BatchTestGenerationResult> mergeResults = testBatchExecutor.generateBatches(
+                            analysis, mergeBatches, strategy.getMaxTestsPerBatch(),
+                            (completed, total, batchIndex, batchResult) -> sessionManagementService.updateProgress(sessionId,
+                                    streamedTests.advanceProgress(40.0 + (completed * 40.0 / total)),
+                                    String.format("Completed merge batch %d (%d of %d done)", batchIndex + 1, completed, total)),
+                            streamedTests);
 
+                    for (BatchTestGenerationResult batchResult : mergeResults) {
                         if (batchResult.getSuccess()) {
                             allGeneratedTests.addAll(convertToResultTestInfo(batchResult.getGeneratedTests()));
                             allGeneratedTestsWithCode.addAll(batchResult.getGeneratedTests());
                             testFilePaths.addAll(batchResult.getTestFilePaths());
                         }
-
-                        sessionManagementService.updateProgress(sessionId, progressEnd,
-                                String.format("Completed merge batch %d", batchIndex + 1));
                     }
                     break;
             }
 
             // Step 5: Write generated test files using strategy-aware approach (80% progress)
             sessionManagementService.updateProgress(sessionId, 80.0, "Writing test files using " + strategy.getStrategy() + " approach");
+            streamedTests.discardDrafts();
             writeGeneratedTestFilesWithStrategy(repoDir, allGeneratedTestsWithCode, testFilePaths, strategy, sourceContent, directTestResult);
             
             // Step 5.1: Ensure files are written and flushed to disk (85% progress)
@@ -332,12 +340,15 @@ public class CoverageAgentService {
             TestValidationResult validationResult = null;
             if (request.getValidateTests()) {
                 sessionManagementService.updateProgress(sessionId, 90.0, "Validating generated tests");
-                validationResult = testGenerationService.validateGeneratedTests(repoDir, testFilePaths);
+                validationResult = testGenerationService.validateGeneratedTests(repoDir, testFilePaths,
+                        request.getFilePath(), fileCoverageData);
             }
 
-            // Step 7: Calculate coverage improvement (95% progress)
+            // Step 7: Calculate coverage improvement (95% progress), measured when validation could instrument the file
             sessionManagementService.updateProgress(sessionId, 95.0, "Calculating coverage improvement");
-            CoverageData estimatedCoverage = estimateFileCoverageImprovement(fileCoverageData, allGeneratedTests);
+            CoverageData estimatedCoverage = validationResult != null && validationResult.getMeasuredCoverage() != null
+                    ? validationResult.getMeasuredCoverage()
+                    : estimateFileCoverageImprovement(fileCoverageData, allGeneratedTests);
 
             // Step 8: Prepare and store results (98% progress)
             sessionManagementService.updateProgress(sessionId, 98.0, "Preparing final results");
@@ -345,8 +356,7 @@ public class CoverageAgentService {
             // Calculate total batches processed based on strategy used
             int totalBatchesProcessed = switch (strategy.getStrategy()) {
                 case DIRECT_FULL_FILE -> 1; // Direct generation is like 1 batch
-                case BATCH_METHOD_BASED -> Math.max(1, (int) Math.ceil((double) analysis.getUncoveredMethods().size() / strategy.getMaxTestsPerBatch()));
-                case MERGE_WITH_EXISTING -> Math.max(1, strategy.getMaxTestsPerBatch() / 2);
+                case BATCH_METHOD_BASED, MERGE_WITH_EXISTING -> uncoveredMethodBatches(analysis, strategy);
             };
 
             FileCoverageImprovementResult result = FileCoverageImprovementResult.builder()
@@ -387,6 +397,9 @@ public class CoverageAgentService {
 
         } catch (Exception e) {
             log.error("Failed to improve file coverage for: {}", request.getFilePath(), e);
+            if (draftSink != null) {
+                draftSink.discardDrafts();
+            }
             sessionManagementService.handleError(sessionId, e);
             throw new CoverageException("Failed to improve file coverage: " + e.getMessage(), e);
         }
@@ -399,6 +412,13 @@ public class CoverageAgentService {
         return Math.max(1, (int) Math.ceil((double) estimatedTestsNeeded / maxTestsPerBatch));
     }
 
+    /**
+     * Batches needed to cover every uncovered method, {@code maxTestsPerBatch} at a time
+     */
+    private int uncoveredMethodBatches(FileAnalysisResult analysis, TestGenerationStrategy strategy) {
+        return Math.max(1, (int) Math.ceil((double) analysis.getUncoveredMethods().size() / strategy.getMaxTestsPerBatch()));
+    }
+
     private CoverageData findFileCoverageData(List<CoverageData> coverageDataList, String filePath) {
         return coverageDataList.stream()
                 .filter(data -> "FILE".equals(data.getType()) && filePath.equals(data.getPath()))
@@ -605,7 +625,7 @@ public class CoverageAgentService {
         
         for (int i = 0; i < testFilePaths.size() && i < generatedTests.size(); i++) {
             String testFilePath = testFilePaths.get(i);
-            String absoluteTestPath = Paths.get(repoDir, testFilePath).toString();
+            String absoluteTestPath = resolveTestPath(repoDir, testFilePath).toString();
             
             log.info("=== PROCESSING TEST FILE {} ===", i + 1);
             log.info("Relative test path: {}", testFilePath);
@@ -1576,7 +1596,7 @@ public class CoverageAgentService {
         }
         
         String testFilePath = testFilePaths.get(0); // DIRECT_FULL_FILE generates one complete test file
-        String absoluteTestPath = Paths.get(repoDir, testFilePath).toString();
+        String absoluteTestPath = resolveTestPath(repoDir, testFilePath).toString();
         
         log.info("Writing direct test file: {}", absoluteTestPath);
         
@@ -1612,4 +1632,114 @@ public class CoverageAgentService {
         log.info("{}", testContent.substring(0, Math.min(200, testContent.length())));
         log.info("=== DEBUG: Total file size written: {} characters ===", testContent.length());
     }
+
+    /**
+     * Resolves a test file path announced by the LLM against the workspace, rejecting paths that
+     * would escape it (absolute paths or ".." segments).
+     */
+    private Path resolveTestPath(String repoDir, String testFilePath) {
+        Path repoRoot = Paths.get(repoDir).toAbsolutePath().normalize();
+        Path resolved = repoRoot.resolve(testFilePath).normalize();
+        if (!resolved.startsWith(repoRoot) || resolved.equals(repoRoot)) {
+            throw new CoverageException("Test file path is outside the workspace: " + testFilePath);
+        }
+        return resolved;
+    }
+
+    /**
+     * Receives tests while the LLM response is still streaming: each one is published to the
+     * session right away and written to the workspace as a draft. Drafts are only created for
+     * test files that did not exist before - a pre-existing file is never touched - and every
+     * draft is removed again before the final write or when the improvement fails, so a failed
+     * or abandoned generation never leaves a half-written class behind.
+     */
+    private class StreamedTestSink implements TestGenerationService.GeneratedTestListener {
+
+        private final String sessionId;
+        private final String repoDir;
+        private final Map<String, List<GeneratedTestInfo>> batchDraftTests = new LinkedHashMap<>();
+        private final Set<Path> draftFiles = new HashSet<>();
+        private final Set<Path> preExistingFiles = new HashSet<>();
+        private double progress;
+
+        StreamedTestSink(String sessionId, String repoDir, double progress) {
+            this.sessionId = sessionId;
+            this.repoDir = repoDir;
+            this.progress = progress;
+        }
+
+        synchronized double advanceProgress(double newProgress) {
+            progress = Math.max(progress, newProgress);
+            return progress;
+        }
+
+        @Override
+        public synchronized void onTestGenerated(StreamedTestMethod test) {
+            sessionManagementService.publishGeneratedTest(sessionId, progress, test);
+            if (test.getTestFilePath() == null) {
+                return;
+            }
+            try {
+                Path testFile = resolveTestPath(repoDir, test.getTestFilePath());
+                if (test.getPartialTestContent() != null) {
+                    writeDraft(testFile, test.getPartialTestContent());
+                } else if (test.getBatchIndex() != null) {
+                    writeBatchDraft(testFile, test);
+                }
+            } catch (Exception e) {
+                log.debug("Could not write draft test file {}: {}", test.getTestFilePath(), e.getMessage());
+            }
+        }
+
+        private void writeBatchDraft(Path testFile, StreamedTestMethod test) throws IOException {
+            if (isPreExisting(testFile)) {
+                return;
+            }
+            List<GeneratedTestInfo> tests = batchDraftTests.computeIfAbsent(test.getTestFilePath(), path -> new ArrayList<>());
+            tests.add(GeneratedTestInfo.builder()
+                    .testMethodName(test.getMethodName())
+                    .testClass(test.getTestClass())
+                    .description(test.getDescription())
+                    .testCode(test.getTestCode())
+                    .coveredMethods(test.getCoveredMethods())
+                    .build());
+            writeDraft(testFile, generateCompleteTestClass(tests, test.getTestFilePath()));
+        }
+
+        private void writeDraft(Path testFile, String content) throws IOException {
+            if (isPreExisting(testFile)) {
+                return;
+            }
+            Files.createDirectories(testFile.getParent());
+            Files.writeString(testFile, content, StandardCharsets.UTF_8);
+            draftFiles.add(testFile);
+        }
+
+        private boolean isPreExisting(Path testFile) {
+            if (preExistingFiles.contains(testFile)) {
+                return true;
+            }
+            if (!draftFiles.contains(testFile) && Files.exists(testFile)) {
+                preExistingFiles.add(testFile);
+                return true;
+            }
+            return false;
+        }
+
+        /**
+         * Removes all drafts, either so the final write creates these files from the complete
+         * result or because the improvement failed.
+         */
+        synchronized void discardDrafts() {
+            for (Path draft : draftFiles) {
+                try {
+                    Files.deleteIfExists(draft);
+                } catch (IOException e) {
+                    log.warn("Could not remove draft test file {}: {}", draft, e.getMessage());
+                }
+            }
+            draftFiles.clear();
+            batchDraftTests.clear();
+        }
+    }
 }
@@ -0,0 +1,285 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.ai.gateway.LlmGateway;
+import com.org.devgenie.config.CoverageConfiguration;
+import com.org.devgenie.dto.coverage.FileCoverageImprovementResult;
+import com.org.devgenie.model.coverage.CoverageFileTask;
+import com.org.devgenie.model.coverage.CoverageFileTask.TaskStatus;
+import com.org.devgenie.model.coverage.EnhancedRepoCoverageRequest;
+import com.org.devgenie.mongo.CoverageFileTaskRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Mongo-backed queue of the files of repository-wide coverage sessions.
+ * <ul>
+ *   <li>Each file is a {@link CoverageFileTask}. Workers, on any instance, lease the next due task
+ *       atomically, so a file is processed by one worker at a time. Every lease carries a fresh
+ *       token; renewing, completing and failing a task only succeed while that token still holds it.</li>
+ *   <li>Workers renew their lease while processing. A lease that is neither renewed nor finished
+ *       before it expires is taken over by the next worker, which is how files of a crashed process
+ *       get picked up again; a file whose lease keeps expiring fails once its attempts are used up.</li>
+ *   <li>Failed files are retried up to {@code coverage.max-retries} times with exponential back-off.
+ *       The back-off is longer when the failure was the model's rate limit.</li>
+ * </ul>
+ */
+@Service
+@Slf4j
+public class CoverageTaskQueue {
+
+    private static final List<TaskStatus> UNFINISHED = List.of(TaskStatus.PENDING, TaskStatus.LEASED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private CoverageFileTaskRepository taskRepository;
+
+    @Autowired
+    private CoverageConfiguration config;
+
+    @Value("${coverage.task-queue.lease-duration-minutes:5}")
+    private long leaseDurationMinutes;
+
+    @Value("${coverage.task-queue.retry-backoff-ms:5000}")
+    private long retryBackoffMillis;
+
+    @Value("${coverage.task-queue.rate-limit-backoff-ms:30000}")
+    private long rateLimitBackoffMillis;
+
+    @Value("${coverage.task-queue.max-backoff-ms:600000}")
+    private long maxBackoffMillis;
+
+    private final String instanceId = ManagementFactory.getRuntimeMXBean().getName();
+
+    /**
+     * Creates one pending task per file, in order. If the session already has tasks it is being
+     * resumed, and the existing tasks are kept as they are.
+     *
+     * @return the number of tasks of the session
+     */
+    public int enqueue(String sessionId, EnhancedRepoCoverageRequest request, List<String> filePaths) {
+        long existing = taskRepository.countBySessionId(sessionId);
+        if (existing > 0) {
+            log.info("Session {} already has {} queued file(s), resuming", sessionId, existing);
+            return (int) existing;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        List<CoverageFileTask> tasks = new ArrayList<>();
+        for (int i = 0; i < filePaths.size(); i++) {
+            tasks.add(CoverageFileTask.builder()
+                    .sessionId(sessionId)
+                    .sequence(i)
+                    .filePath(filePaths.get(i))
+                    .repositoryUrl(request.getRepositoryUrl())
+                    .branch(request.getBranch())
+                    .workspaceId(request.getWorkspaceId())
+                    .targetCoverageIncrease(request.getTargetCoverageIncrease())
+                    .status(TaskStatus.PENDING)
+                    .nextAttemptAt(now)
+                    .createdAt(now)
+                    .build());
+        }
+        taskRepository.saveAll(tasks);
+        log.info("Queued {} file(s) for session {}", tasks.size(), sessionId);
+        return tasks.size();
+    }
+
+    /**
+     * Identifies one worker thread of this process in task leases.
+     */
+    public String workerId() {
+        return instanceId + "/" + Thread.currentThread().getName();
+    }
+
+    /**
+     * Leases the first task of the session, in file order, that is due for an attempt or whose lease
+     * has expired. Returns empty if there is none right now. A task whose lease expired once too
+     * often (it keeps killing or hanging its worker) is failed instead of being handed out again.
+     */
+    public Optional<CoverageFileTask> lease(String sessionId, String workerId) {
+        while (true) {
+            LocalDateTime now = LocalDateTime.now();
+            Query query = new Query(Criteria.where("sessionId").is(sessionId).orOperator(
+                    Criteria.where("status").is(TaskStatus.PENDING).and("nextAttemptAt").lte(now),
+                    Criteria.where("status").is(TaskStatus.LEASED).and("leaseExpiresAt").lt(now)))
+                    .with(Sort.by("sequence"));
+            Update update = new Update()
+                    .set("status", TaskStatus.LEASED)
+                    .set("leaseOwner", workerId)
+                    .set("leaseToken", UUID.randomUUID().toString())
+                    .set("leaseExpiresAt", now.plusMinutes(leaseDurationMinutes))
+                    .inc("attempts", 1);
+            CoverageFileTask task = mongoTemplate.findAndModify(query, update,
+                    FindAndModifyOptions.options().returnNew(true), CoverageFileTask.class);
+            if (task == null) {
+                return Optional.empty();
+            }
+            // Retries of failed attempts stop at max-retries in fail(), so only expired leases get here
+            if (task.getAttempts() > config.getMaxRetries() + 1) {
+                fail(task, new IllegalStateException("Lease expired on every one of " + (task.getAttempts() - 1)
+                        + " attempts"), false);
+                continue;
+            }
+            if (task.getAttempts() > 1) {
+                log.info("Retrying {} of session {} (attempt {})", task.getFilePath(), sessionId, task.getAttempts());
+            }
+            return Optional.of(task);
+        }
+    }
+
+    /**
+     * Extends the lease of a task that is still being processed. Returns false if the lease was lost
+     * (expired and taken over, or the session was cancelled).
+     */
+    public boolean renew(CoverageFileTask task) {
+        return updateLeased(task, new Update().set("leaseExpiresAt", LocalDateTime.now().plusMinutes(leaseDurationMinutes)));
+    }
+
+    /**
+     * How often workers renew their lease: three times per lease duration, so one missed renewal
+     * does not lose it.
+     */
+    public Duration leaseRenewalInterval() {
+        return Duration.ofMinutes(leaseDurationMinutes).dividedBy(3);
+    }
+
+    /**
+     * Marks a leased task as done. Returns false if the lease was lost in the meantime (expired and
+     * taken over, or the session was cancelled), in which case the result is dropped.
+     */
+    public boolean complete(CoverageFileTask task, FileCoverageImprovementResult result) {
+        Update update = new Update()
+                .set("status", TaskStatus.COMPLETED)
+                .set("result", result)
+                .set("completedAt", LocalDateTime.now())
+                .unset("leaseOwner")
+                .unset("leaseToken")
+                .unset("leaseExpiresAt");
+        return updateLeased(task, update);
+    }
+
+    /**
+     * Records a failed attempt. Retryable failures go back to the queue after a back-off until the
+     * retries are used up; everything else fails the file for good.
+     */
+    public boolean fail(CoverageFileTask task, Throwable error, boolean retryable) {
+        String message = error.getMessage() != null ? error.getMessage() : error.getClass().getSimpleName();
+        Update update = new Update()
+                .set("lastError", message)
+                .unset("leaseOwner")
+                .unset("leaseToken")
+                .unset("leaseExpiresAt");
+        if (retryable && task.getAttempts() <= config.getMaxRetries()) {
+            long backoff = backoffMillis(task.getAttempts(), error);
+            log.warn("Processing {} failed (attempt {}), retrying in {} ms: {}", task.getFilePath(), task.getAttempts(), backoff, message);
+            update.set("status", TaskStatus.PENDING)
+                    .set("nextAttemptAt", LocalDateTime.now().plus(Duration.ofMillis(backoff)));
+        } else {
+            log.warn("Processing {} failed after {} attempt(s): {}", task.getFilePath(), task.getAttempts(), message);
+            update.set("status", TaskStatus.FAILED)
+                    .set("completedAt", LocalDateTime.now());
+        }
+        return updateLeased(task, update);
+    }
+
+    /**
+     * How long a worker should wait before asking for another task of the session: until the earliest
+     * retry or lease expiry. Empty once every task is finished.
+     */
+    public Optional<Duration> timeUntilNextTask(String sessionId) {
+        Query unfinished = new Query(Criteria.where("sessionId").is(sessionId).and("status").in(UNFINISHED));
+        List<CoverageFileTask> tasks = mongoTemplate.find(unfinished, CoverageFileTask.class);
+        if (tasks.isEmpty()) {
+            return Optional.empty();
+        }
+        LocalDateTime now = LocalDateTime.now();
+        return Optional.of(tasks.stream()
+                .map(task -> task.getStatus() == TaskStatus.PENDING ? task.getNextAttemptAt() : task.getLeaseExpiresAt())
+                .map(due -> due == null || due.isBefore(now) ? Duration.ZERO : Duration.between(now, due))
+                .min(Duration::compareTo)
+                .orElse(Duration.ZERO));
+    }
+
+    /**
+     * Tasks of the session that are finished (completed or failed for good).
+     */
+    public long countFinished(String sessionId) {
+        return taskRepository.countBySessionIdAndStatusIn(sessionId, List.of(TaskStatus.COMPLETED, TaskStatus.FAILED));
+    }
+
+    public List<CoverageFileTask> getTasks(String sessionId) {
+        return taskRepository.findBySessionIdOrderBySequenceAsc(sessionId);
+    }
+
+    /**
+     * Sessions that no worker on any instance is processing anymore, e.g. interrupted by a restart or
+     * crash: a lease expired, or a due file was left waiting for a whole lease duration, and no file
+     * of the session is currently held by a live lease.
+     */
+    public List<String> findAbandonedSessionIds() {
+        LocalDateTime now = LocalDateTime.now();
+        Query abandoned = new Query(new Criteria().orOperator(
+                Criteria.where("status").is(TaskStatus.LEASED).and("leaseExpiresAt").lt(now),
+                Criteria.where("status").is(TaskStatus.PENDING).and("nextAttemptAt").lt(now.minusMinutes(leaseDurationMinutes))));
+        List<String> candidates = mongoTemplate.findDistinct(abandoned, "sessionId", CoverageFileTask.class, String.class);
+        if (candidates.isEmpty()) {
+            return candidates;
+        }
+        Query live = new Query(Criteria.where("sessionId").in(candidates)
+                .and("status").is(TaskStatus.LEASED).and("leaseExpiresAt").gte(now));
+        Set<String> active = new HashSet<>(mongoTemplate.findDistinct(live, "sessionId", CoverageFileTask.class, String.class));
+        return candidates.stream().filter(sessionId -> !active.contains(sessionId)).toList();
+    }
+
+    /**
+     * Cancels every unfinished task of the session; results of files still being processed are dropped.
+     */
+    public long cancel(String sessionId) {
+        Query query = new Query(Criteria.where("sessionId").is(sessionId).and("status").in(UNFINISHED));
+        long cancelled = mongoTemplate.updateMulti(query, new Update().set("status", TaskStatus.CANCELLED)
+                .unset("leaseOwner").unset("leaseToken").unset("leaseExpiresAt"), CoverageFileTask.class).getModifiedCount();
+        log.info("Cancelled {} queued file(s) of session {}", cancelled, sessionId);
+        return cancelled;
+    }
+
+    /**
+     * Exponential back-off with jitter; rate-limit failures start from a longer base so a throttled
+     * model gets time to recover instead of being hit again by every retry.
+     */
+    long backoffMillis(int attempts, Throwable error) {
+        long base = LlmGateway.isOverloaded(error) ? rateLimitBackoffMillis : retryBackoffMillis;
+        long backoff = Math.min(maxBackoffMillis, base << Math.min(Math.max(attempts - 1, 0), 10));
+        return backoff + ThreadLocalRandom.current().nextLong(backoff / 4 + 1);
+    }
+
+    private boolean updateLeased(CoverageFileTask task, Update update) {
+        Query query = new Query(Criteria.where("_id").is(task.getId())
+                .and("status").is(TaskStatus.LEASED)
+                .and("leaseToken").is(task.getLeaseToken()));
+        boolean updated = mongoTemplate.updateFirst(query, update, CoverageFileTask.class).getModifiedCount() > 0;
+        if (!updated) {
+            log.warn("Lease on {} of session {} was lost", task.getFilePath(), task.getSessionId());
+        }
+        return updated;
+    }
+}
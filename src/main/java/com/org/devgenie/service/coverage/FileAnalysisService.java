@@ -2,18 +2,24 @@ package com.org.devgenie.service.coverage;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.org.devgenie.ai.client.LlmClient;
 import com.org.devgenie.exception.coverage.FileAnalysisException;
 import com.org.devgenie.model.coverage.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 
 @Service
@@ -23,9 +29,22 @@ public class FileAnalysisService {
     @Autowired
     private ChatClient chatClient;
 
+    @Autowired
+    private LlmClient llmClient;
+
     @Autowired
     private CoverageDataService coverageDataService;
 
+    @Autowired
+    private LocalFileAnalyzer localFileAnalyzer;
+
+    @Value("${coverage.analysis.ai-enrichment:false}")
+    private boolean aiEnrichment;
+
+    /**
+     * Analyzes the file from its AST and coverage data. The LLM is only asked when the source
+     * cannot be parsed, or to enrich the local result when {@code coverage.analysis.ai-enrichment} is on.
+     */
     public FileAnalysisResult analyzeFile(String filePath) {
         log.info("Analyzing file: {}", filePath);
 
@@ -36,12 +55,31 @@ public class FileAnalysisService {
             // Get current coverage data
             FileCoverageData coverageData = coverageDataService.getFileCoverage(filePath);
 
-            // Analyze with AI
-            String analysisPrompt = createFileAnalysisPrompt(fileContent, coverageData);
-            String aiAnalysis = chatClient.prompt(analysisPrompt).call().content();
+            FileAnalysisResult localResult = analyzeLocally(filePath, fileContent, coverageData);
+            if (localResult != null && !aiEnrichment) {
+                return localResult;
+            }
 
-            // Parse AI response
-            return parseFileAnalysisResponse(aiAnalysis, filePath, coverageData);
+            // Analyze with AI
+            FileAnalysisResult aiResult;
+            try {
+                String analysisPrompt = createFileAnalysisPrompt(fileContent, coverageData);
+                String aiAnalysis = llmClient.call(analysisPrompt);
+                try {
+                    aiResult = parseFileAnalysisResponse(aiAnalysis, filePath, coverageData);
+                } catch (FileAnalysisException e) {
+                    // Unusable answer: make the next attempt ask the model again instead of the cache
+                    llmClient.invalidate(null, analysisPrompt);
+                    throw e;
+                }
+            } catch (RuntimeException e) {
+                if (localResult == null) {
+                    throw e;
+                }
+                log.warn("AI enrichment failed for {}, using local analysis: {}", filePath, e.getMessage());
+                return localResult;
+            }
+            return localResult != null ? enrichWithAiAnalysis(localResult, aiResult) : aiResult;
 
         } catch (Exception e) {
             log.error("Failed to analyze file: {}", filePath, e);
@@ -49,6 +87,42 @@ public class FileAnalysisService {
         }
     }
 
+    private FileAnalysisResult analyzeLocally(String filePath, String fileContent, FileCoverageData coverageData) {
+        try {
+            return localFileAnalyzer.analyze(filePath, fileContent, coverageData);
+        } catch (Exception e) {
+            log.warn("Local analysis failed for {}, falling back to AI analysis: {}", filePath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * The local result stays authoritative for components, lines and ratings; the AI adds method
+     * descriptions, its business priority judgement and any dependencies the AST did not show.
+     */
+    private FileAnalysisResult enrichWithAiAnalysis(FileAnalysisResult local, FileAnalysisResult ai) {
+        Map<String, String> aiDescriptions = ai.getTestableComponents().stream()
+                .filter(component -> component.getMethodName() != null && component.getDescription() != null)
+                .collect(Collectors.toMap(TestableComponent::getMethodName, TestableComponent::getDescription,
+                        (first, second) -> first));
+        for (TestableComponent component : local.getTestableComponents()) {
+            String description = aiDescriptions.get(component.getMethodName());
+            if (description != null) {
+                component.setDescription(description + " (" + component.getDescription() + ")");
+            }
+        }
+        if (ai.getBusinessLogicPriority() != null) {
+            local.setBusinessLogicPriority(ai.getBusinessLogicPriority());
+        }
+        if (local.getUncoveredCodePaths().isEmpty()) {
+            local.setUncoveredCodePaths(ai.getUncoveredCodePaths());
+        }
+        Set<String> dependencies = new LinkedHashSet<>(local.getDependencies());
+        dependencies.addAll(ai.getDependencies());
+        local.setDependencies(new ArrayList<>(dependencies));
+        return local;
+    }
+
     /*public List<FilePriority> prioritizeFiles(List<CoverageData> coverageData, double targetCoverage) {
         log.info("Prioritizing files for coverage improvement");
 
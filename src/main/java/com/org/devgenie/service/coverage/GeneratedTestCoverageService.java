@@ -0,0 +1,252 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import com.org.devgenie.model.coverage.CoverageData;
+import com.org.devgenie.model.coverage.TestExecutionResult;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.IClassCoverage;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataStore;
+import org.jacoco.core.data.SessionInfoStore;
+import org.jacoco.core.instr.Instrumenter;
+import org.jacoco.core.internal.data.CRC64;
+import org.jacoco.core.runtime.LoggerRuntime;
+import org.jacoco.core.runtime.RuntimeData;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Measures the coverage generated tests add to a single source file without a full build.
+ * Only the target class (and its nested classes) is instrumented with the JaCoCo runtime while
+ * the new tests run in the isolated launcher of {@link TestExecutionService}. When the workspace
+ * still has execution data from the baseline coverage run for the same class bytes, the new
+ * probes are merged into it, giving the exact combined line and branch coverage; otherwise the
+ * new tests' coverage is combined with the original counters as a lower bound.
+ */
+@Service
+@Slf4j
+public class GeneratedTestCoverageService {
+
+    public static final String MODE_MERGED_WITH_BASELINE = "MERGED_WITH_BASELINE";
+    public static final String MODE_NEW_TESTS_ONLY = "NEW_TESTS_ONLY";
+
+    @Autowired
+    private TestExecutionService testExecutionService;
+
+    @Autowired
+    private JacocoExecAnalyzer jacocoExecAnalyzer;
+
+    /**
+     * Runs the compiled generated tests with the target source file's classes instrumented.
+     * The execution result is always returned and the tests run exactly once; coverage is null
+     * when the target classes could not be found in the workspace's build output or analyzed.
+     */
+    public MeasuredTestRun measure(String repoDir, String sourceFilePath, CompilationResult compilation,
+                                   CoverageData originalCoverage) {
+        Map<String, byte[]> targetClasses = findTargetClasses(repoDir, sourceFilePath);
+        if (targetClasses.isEmpty()) {
+            log.info("No compiled classes found for {}; running generated tests without coverage", sourceFilePath);
+            return MeasuredTestRun.builder()
+                    .execution(testExecutionService.executeTests(repoDir, compilation))
+                    .build();
+        }
+
+        LoggerRuntime runtime = new LoggerRuntime();
+        RuntimeData runtimeData = new RuntimeData();
+        try {
+            runtime.startup(runtimeData);
+        } catch (Exception e) {
+            log.warn("Could not start the coverage runtime: {}", e.getMessage());
+            return MeasuredTestRun.builder()
+                    .execution(testExecutionService.executeTests(repoDir, compilation))
+                    .build();
+        }
+
+        TestExecutionResult execution;
+        ExecutionDataStore newTestsData = new ExecutionDataStore();
+        try {
+            Instrumenter instrumenter = new Instrumenter(runtime);
+            execution = testExecutionService.executeTests(repoDir, compilation,
+                    (className, classBytes) -> targetClasses.containsKey(className)
+                            ? instrumenter.instrument(classBytes, className)
+                            : classBytes);
+            runtimeData.collect(newTestsData, new SessionInfoStore(), false);
+        } finally {
+            runtime.shutdown();
+        }
+
+        try {
+            ExecutionDataStore baselineData = loadBaseline(repoDir);
+            boolean baselineMatches = targetClasses.values().stream()
+                    .map(this::classId)
+                    .anyMatch(id -> baselineData.get(id) != null);
+
+            CoverageData measured;
+            String mode;
+            if (baselineMatches) {
+                for (ExecutionData data : newTestsData.getContents()) {
+                    baselineData.put(data);
+                }
+                measured = analyze(targetClasses, baselineData, sourceFilePath, originalCoverage, false);
+                mode = MODE_MERGED_WITH_BASELINE;
+            } else {
+                measured = analyze(targetClasses, newTestsData, sourceFilePath, originalCoverage, true);
+                mode = MODE_NEW_TESTS_ONLY;
+            }
+            log.info("Measured coverage of {} after generated tests: {}% lines, {}% branches ({})",
+                    sourceFilePath, Math.round(measured.getLineCoverage()), Math.round(measured.getBranchCoverage()), mode);
+
+            return MeasuredTestRun.builder()
+                    .execution(execution)
+                    .coverage(measured)
+                    .measurementMode(mode)
+                    .build();
+        } catch (IOException e) {
+            // The tests already ran; report their result with coverage unavailable instead of re-running them
+            log.warn("Coverage analysis of generated tests failed for {}: {}", sourceFilePath, e.getMessage());
+            return MeasuredTestRun.builder()
+                    .execution(execution)
+                    .build();
+        }
+    }
+
+    private CoverageData analyze(Map<String, byte[]> targetClasses, ExecutionDataStore executionData,
+                                 String sourceFilePath, CoverageData original, boolean combineWithOriginal)
+            throws IOException {
+        CoverageBuilder coverageBuilder = new CoverageBuilder();
+        Analyzer analyzer = new Analyzer(executionData, coverageBuilder);
+        for (Map.Entry<String, byte[]> targetClass : targetClasses.entrySet()) {
+            analyzer.analyzeClass(targetClass.getValue(), targetClass.getKey());
+        }
+
+        int totalLines = 0, coveredLines = 0, totalBranches = 0, coveredBranches = 0, totalMethods = 0, coveredMethods = 0;
+        for (IClassCoverage classCoverage : coverageBuilder.getClasses()) {
+            totalLines += classCoverage.getLineCounter().getTotalCount();
+            coveredLines += classCoverage.getLineCounter().getCoveredCount();
+            totalBranches += classCoverage.getBranchCounter().getTotalCount();
+            coveredBranches += classCoverage.getBranchCounter().getCoveredCount();
+            totalMethods += classCoverage.getMethodCounter().getTotalCount();
+            coveredMethods += classCoverage.getMethodCounter().getCoveredCount();
+        }
+
+        if (combineWithOriginal && original != null) {
+            // Without per-line baseline data the union is at least the larger of both
+            coveredLines = Math.min(totalLines, Math.max(coveredLines, scaled(original.getLineCoverage(), totalLines)));
+            coveredBranches = Math.min(totalBranches, Math.max(coveredBranches, scaled(original.getBranchCoverage(), totalBranches)));
+            coveredMethods = Math.min(totalMethods, Math.max(coveredMethods, scaled(original.getMethodCoverage(), totalMethods)));
+        }
+
+        double lineCoverage = percentage(coveredLines, totalLines);
+        return CoverageData.builder()
+                .repoPath(original != null ? original.getRepoPath() : null)
+                .path(original != null ? original.getPath() : sourceFilePath)
+                .type("FILE")
+                .overallCoverage(lineCoverage)
+                .lineCoverage(lineCoverage)
+                .branchCoverage(percentage(coveredBranches, totalBranches))
+                .methodCoverage(percentage(coveredMethods, totalMethods))
+                .totalLines(totalLines)
+                .coveredLines(coveredLines)
+                .totalBranches(totalBranches)
+                .coveredBranches(coveredBranches)
+                .totalMethods(totalMethods)
+                .coveredMethods(coveredMethods)
+                .timestamp(LocalDateTime.now())
+                .coverageSource(CoverageData.CoverageSource.JACOCO_ANALYSIS)
+                .build();
+    }
+
+    private ExecutionDataStore loadBaseline(String repoDir) {
+        ExecFileLoader loader = new ExecFileLoader();
+        for (Path execFile : jacocoExecAnalyzer.findExecFiles(repoDir)) {
+            try {
+                loader.load(execFile.toFile());
+            } catch (IOException e) {
+                log.debug("Skipping unreadable execution data {}: {}", execFile, e.getMessage());
+            }
+        }
+        return loader.getExecutionDataStore();
+    }
+
+    /**
+     * Class files of the source file's top-level class and its nested classes, keyed by binary name.
+     */
+    private Map<String, byte[]> findTargetClasses(String repoDir, String sourceFilePath) {
+        Map<String, byte[]> classes = new LinkedHashMap<>();
+        String className = toClassName(sourceFilePath);
+        if (className == null) {
+            return classes;
+        }
+        String internalName = className.replace('.', '/');
+        String simpleName = internalName.substring(internalName.lastIndexOf('/') + 1);
+
+        for (Path classDirectory : jacocoExecAnalyzer.findClassDirectories(repoDir)) {
+            Path topLevel = classDirectory.resolve(internalName + ".class");
+            if (!Files.isRegularFile(topLevel)) {
+                continue;
+            }
+            try (Stream<Path> siblings = Files.list(topLevel.getParent())) {
+                for (Path classFile : (Iterable<Path>) siblings::iterator) {
+                    String fileName = classFile.getFileName().toString();
+                    if (fileName.equals(simpleName + ".class") || fileName.startsWith(simpleName + "$")) {
+                        String binaryName = className.substring(0, className.length() - simpleName.length())
+                                + fileName.substring(0, fileName.length() - ".class".length());
+                        classes.put(binaryName, Files.readAllBytes(classFile));
+                    }
+                }
+            } catch (IOException e) {
+                log.warn("Could not read compiled classes for {}: {}", sourceFilePath, e.getMessage());
+                classes.clear();
+            }
+            break;
+        }
+        return classes;
+    }
+
+    static String toClassName(String sourceFilePath) {
+        String normalized = sourceFilePath.replace('\\', '/');
+        for (String sourceRoot : List.of("src/main/java/", "src/main/kotlin/")) {
+            int index = normalized.lastIndexOf(sourceRoot);
+            if (index >= 0) {
+                String relative = normalized.substring(index + sourceRoot.length());
+                int extension = relative.lastIndexOf('.');
+                return (extension > 0 ? relative.substring(0, extension) : relative).replace('/', '.');
+            }
+        }
+        return null;
+    }
+
+    private long classId(byte[] classBytes) {
+        return CRC64.classId(classBytes);
+    }
+
+    private int scaled(double percentage, int total) {
+        return (int) Math.round(percentage * total / 100.0);
+    }
+
+    private double percentage(int covered, int total) {
+        return total > 0 ? (double) covered / total * 100.0 : 0.0;
+    }
+
+    @Data
+    @Builder
+    public static class MeasuredTestRun {
+        private TestExecutionResult execution;
+        private CoverageData coverage;      // null when coverage could not be measured
+        private String measurementMode;     // MERGED_WITH_BASELINE or NEW_TESTS_ONLY
+    }
+}
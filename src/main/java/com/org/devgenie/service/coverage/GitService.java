@@ -38,6 +38,9 @@ public class GitService {
     @Value("${github.api.url:https://api.github.com}")
     private String githubApiUrl;
 
+    @Value("${git.ls-remote-timeout-seconds:15}")
+    private long lsRemoteTimeoutSeconds;
+
     @Autowired
     private RestTemplate restTemplate;
 
@@ -116,6 +119,60 @@ public class GitService {
         }
     }
 
+    /**
+     * Commit id the remote branch currently points to, from {@code git ls-remote}, without cloning.
+     * Returns null if it cannot be resolved in time (unknown branch, network or auth failure).
+     * The token is passed as an HTTP authorization header through the process environment, so it
+     * never shows up in the command line or in git's error output.
+     */
+    public String resolveRemoteHead(String repositoryUrl, String branch, String token) {
+        Path output = null;
+        try {
+            output = Files.createTempFile("ls-remote-", ".out");
+            ProcessBuilder pb = new ProcessBuilder(gitCommand, "ls-remote", repositoryUrl, "refs/heads/" + branch);
+            pb.environment().put("GIT_TERMINAL_PROMPT", "0"); // fail instead of waiting for credentials
+            if (token != null && !token.isEmpty()) {
+                String credentials = Base64.getEncoder()
+                        .encodeToString(("x-access-token:" + token).getBytes(StandardCharsets.UTF_8));
+                pb.environment().put("GIT_CONFIG_COUNT", "1");
+                pb.environment().put("GIT_CONFIG_KEY_0", "http.extraHeader");
+                pb.environment().put("GIT_CONFIG_VALUE_0", "Authorization: Basic " + credentials);
+            }
+            pb.redirectError(ProcessBuilder.Redirect.DISCARD);
+            // Output goes to a file, so waiting with a timeout never blocks on a pipe that is not drained
+            pb.redirectOutput(output.toFile());
+            Process process = pb.start();
+
+            if (!process.waitFor(lsRemoteTimeoutSeconds, java.util.concurrent.TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+                log.warn("git ls-remote timed out for branch: {}", branch);
+                return null;
+            }
+            if (process.exitValue() != 0) {
+                return null;
+            }
+            String line = Files.readAllLines(output, StandardCharsets.UTF_8).stream().findFirst().orElse(null);
+            if (line == null || line.isBlank()) {
+                return null;
+            }
+            return line.split("\\s+")[0];
+        } catch (IOException e) {
+            log.warn("Failed to resolve remote head of branch {}: {}", branch, e.getMessage());
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } finally {
+            if (output != null) {
+                try {
+                    Files.deleteIfExists(output);
+                } catch (IOException e) {
+                    log.debug("Could not delete ls-remote output {}: {}", output, e.getMessage());
+                }
+            }
+        }
+    }
+
     private void applyFileChange(FileChange change) throws IOException {
         switch (change.getChangeType()) {
             case TEST_ADDED:
@@ -0,0 +1,251 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import lombok.extern.slf4j.Slf4j;
+import org.jacoco.core.analysis.Analyzer;
+import org.jacoco.core.analysis.CoverageBuilder;
+import org.jacoco.core.analysis.ICounter;
+import org.jacoco.core.analysis.ILine;
+import org.jacoco.core.analysis.ISourceFileCoverage;
+import org.jacoco.core.tools.ExecFileLoader;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Reads jacoco.exec execution data in-process with the JaCoCo core analyzer.
+ * When a workspace already holds execution data and compiled classes (e.g. from a cached build),
+ * coverage can be computed directly from them without running the build tool's report task
+ * and without parsing XML/CSV/HTML output.
+ */
+@Component
+@Slf4j
+public class JacocoExecAnalyzer {
+
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of(".git", "node_modules", ".gradle", ".idea", "src");
+    private static final Set<String> SOURCE_SKIPPED_DIRECTORIES = Set.of(".git", "node_modules", ".gradle", ".idea", "target", "build");
+    private static final int MAX_SEARCH_DEPTH = 6;
+
+    @Value("${jacoco.exec.path:target/jacoco.exec}")
+    private String jacocoExecPath;
+
+    /**
+     * Locates every execution data file in the workspace: the configured path plus the
+     * default Maven ({@code target/*.exec}) and Gradle ({@code build/jacoco/*.exec}) outputs
+     * of the root project and its modules.
+     */
+    public List<Path> findExecFiles(String repoDir) {
+        Path root = Paths.get(repoDir);
+        List<Path> execFiles = new ArrayList<>();
+        Path configured = root.resolve(jacocoExecPath);
+        if (Files.isRegularFile(configured)) {
+            execFiles.add(configured);
+        }
+        try (Stream<Path> paths = walkBuildOutputs(root)) {
+            paths.filter(Files::isRegularFile)
+                    .filter(path -> path.getFileName().toString().endsWith(".exec"))
+                    .filter(path -> isUnder(path, "target") || isUnder(path, "build/jacoco"))
+                    .filter(path -> !execFiles.contains(path))
+                    .forEach(execFiles::add);
+        } catch (IOException e) {
+            log.warn("Failed to search for Jacoco execution data in {}: {}", repoDir, e.getMessage());
+        }
+        return execFiles;
+    }
+
+    /**
+     * Locates compiled main class directories of the root project and its modules.
+     */
+    public List<Path> findClassDirectories(String repoDir) {
+        try (Stream<Path> paths = walkBuildOutputs(Paths.get(repoDir))) {
+            return paths.filter(Files::isDirectory)
+                    .filter(path -> path.endsWith(Paths.get("target", "classes"))
+                            || path.endsWith(Paths.get("build", "classes", "java", "main"))
+                            || path.endsWith(Paths.get("build", "classes", "kotlin", "main")))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Failed to search for compiled classes in {}: {}", repoDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    public boolean hasExecutionData(String repoDir) {
+        return !findExecFiles(repoDir).isEmpty() && !findClassDirectories(repoDir).isEmpty();
+    }
+
+    /**
+     * Execution data is stale when any compiled class or main source file was modified after
+     * the newest exec file was written: coverage computed from it would describe an older build.
+     */
+    public boolean isStale(String repoDir, List<Path> execFiles, List<Path> classDirectories) {
+        long newestExec = 0;
+        for (Path execFile : execFiles) {
+            newestExec = Math.max(newestExec, lastModified(execFile));
+        }
+        long threshold = newestExec;
+
+        for (Path classDirectory : classDirectories) {
+            if (anyModifiedAfter(classDirectory, path -> path.getFileName().toString().endsWith(".class"), threshold)) {
+                log.info("Compiled classes in {} are newer than the Jacoco execution data", classDirectory);
+                return true;
+            }
+        }
+        try (Stream<Path> paths = walkBuildOutputs(Paths.get(repoDir), Integer.MAX_VALUE, SOURCE_SKIPPED_DIRECTORIES)) {
+            Optional<Path> newerSource = paths
+                    .filter(this::isMainSourceFile)
+                    .filter(path -> lastModified(path) > threshold)
+                    .findFirst();
+            if (newerSource.isPresent()) {
+                log.info("Source file {} is newer than the Jacoco execution data", newerSource.get());
+                return true;
+            }
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to check Jacoco execution data freshness in {}: {}", repoDir, e.getMessage());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Merges the given execution data files and analyzes the compiled classes against them.
+     * Returns one record per source file with line, branch and method counters plus the
+     * uncovered line and branch numbers; {@code modulePath} is the module directory (relative
+     * to the repository) the class directory belongs to, empty for the root project.
+     *
+     * @throws JacocoException when classes no longer match the execution data (stale exec file)
+     */
+    public List<JacocoXmlStreamParser.ClassCoverage> analyze(String repoDir, List<Path> execFiles, List<Path> classDirectories) {
+        long start = System.nanoTime();
+        Path root = Paths.get(repoDir);
+        ExecFileLoader loader = new ExecFileLoader();
+        try {
+            for (Path execFile : execFiles) {
+                loader.load(execFile.toFile());
+            }
+
+            List<JacocoXmlStreamParser.ClassCoverage> results = new ArrayList<>();
+            long mismatched = 0;
+            for (Path classDirectory : classDirectories) {
+                // One builder per class directory so every source file keeps its module
+                CoverageBuilder coverageBuilder = new CoverageBuilder();
+                new Analyzer(loader.getExecutionDataStore(), coverageBuilder).analyzeAll(classDirectory.toFile());
+                mismatched += coverageBuilder.getClasses().stream().filter(c -> c.isNoMatch()).count();
+
+                String modulePath = modulePathOf(root, classDirectory);
+                for (ISourceFileCoverage sourceFile : coverageBuilder.getSourceFiles()) {
+                    JacocoXmlStreamParser.ClassCoverage coverage = toClassCoverage(sourceFile);
+                    coverage.setModulePath(modulePath);
+                    results.add(coverage);
+                }
+            }
+
+            if (mismatched > 0) {
+                throw new JacocoException(mismatched + " classes changed since the execution data was recorded");
+            }
+            log.info("Analyzed {} execution data file(s) against {} class director(ies): {} source files in {} ms",
+                    execFiles.size(), classDirectories.size(), results.size(), (System.nanoTime() - start) / 1_000_000);
+            return results;
+        } catch (IOException e) {
+            throw new JacocoException("Failed to analyze Jacoco execution data: " + e.getMessage(), e);
+        }
+    }
+
+    private JacocoXmlStreamParser.ClassCoverage toClassCoverage(ISourceFileCoverage sourceFile) {
+        String sourceName = sourceFile.getName();
+        int extension = sourceName.lastIndexOf('.');
+        String baseName = extension > 0 ? sourceName.substring(0, extension) : sourceName;
+        String packageName = sourceFile.getPackageName();
+
+        JacocoXmlStreamParser.ClassCoverage coverage = new JacocoXmlStreamParser.ClassCoverage();
+        coverage.setPackageName(packageName);
+        coverage.setClassName(packageName.isEmpty() ? baseName : packageName + "/" + baseName);
+        coverage.setSourceFileName(sourceName);
+        coverage.setTotalLines(sourceFile.getLineCounter().getTotalCount());
+        coverage.setCoveredLines(sourceFile.getLineCounter().getCoveredCount());
+        coverage.setTotalBranches(sourceFile.getBranchCounter().getTotalCount());
+        coverage.setCoveredBranches(sourceFile.getBranchCounter().getCoveredCount());
+        coverage.setTotalMethods(sourceFile.getMethodCounter().getTotalCount());
+        coverage.setCoveredMethods(sourceFile.getMethodCounter().getCoveredCount());
+
+        for (int nr = sourceFile.getFirstLine(); nr > 0 && nr <= sourceFile.getLastLine(); nr++) {
+            ILine line = sourceFile.getLine(nr);
+            if (line.getStatus() == ICounter.NOT_COVERED) {
+                coverage.getUncoveredLines().add(String.valueOf(nr));
+            }
+            if (line.getBranchCounter().getMissedCount() > 0) {
+                coverage.getUncoveredBranches().add(String.valueOf(nr));
+            }
+        }
+        return coverage;
+    }
+
+    private Stream<Path> walkBuildOutputs(Path root) throws IOException {
+        return walkBuildOutputs(root, MAX_SEARCH_DEPTH, SKIPPED_DIRECTORIES);
+    }
+
+    private Stream<Path> walkBuildOutputs(Path root, int maxDepth, Set<String> skipped) throws IOException {
+        return Files.walk(root, maxDepth)
+                .filter(path -> root.equals(path) || !containsSkippedDirectory(root.relativize(path), skipped));
+    }
+
+    private boolean anyModifiedAfter(Path directory, Predicate<Path> filter, long threshold) {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            return paths.filter(Files::isRegularFile)
+                    .filter(filter)
+                    .anyMatch(path -> lastModified(path) > threshold);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Failed to read modification times in {}: {}", directory, e.getMessage());
+            return true;
+        }
+    }
+
+    private boolean isMainSourceFile(Path path) {
+        String fileName = path.getFileName().toString();
+        return (fileName.endsWith(".java") || fileName.endsWith(".kt") || fileName.endsWith(".scala"))
+                && path.toString().replace('\\', '/').contains("/src/main/");
+    }
+
+    private long lastModified(Path path) {
+        try {
+            return Files.getLastModifiedTime(path).toMillis();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private String modulePathOf(Path root, Path classDirectory) {
+        Path relative = root.relativize(classDirectory);
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            String segment = relative.getName(i).toString();
+            if (segment.equals("target") || segment.equals("build")) {
+                return i == 0 ? "" : relative.subpath(0, i).toString().replace('\\', '/');
+            }
+        }
+        return "";
+    }
+
+    private boolean containsSkippedDirectory(Path relative, Set<String> skipped) {
+        for (Path segment : relative) {
+            if (skipped.contains(segment.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isUnder(Path path, String directory) {
+        return path.getParent() != null && path.getParent().endsWith(Paths.get(directory));
+    }
+}
@@ -0,0 +1,294 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Finds the Jacoco XML report of every module in a multi-module Maven/Gradle build, parses them
+ * concurrently and merges them into one set of class records.
+ * A source file that shows up in more than one report (e.g. a module report plus an aggregate report)
+ * is merged rather than double-counted: counters keep the best observed value and uncovered
+ * line/branch lists keep only lines that no report covered. Records are kept per module, so a class
+ * name that several modules define keeps one record per module.
+ */
+@Component
+@Slf4j
+public class JacocoReportMerger {
+
+    private static final Set<String> SKIPPED_DIRECTORIES = Set.of(".git", "node_modules", ".gradle", ".idea", "src");
+    private static final List<String> SOURCE_ROOTS = List.of("src/main/java", "src/main/kotlin", "src/main/scala");
+    private static final int MAX_SEARCH_DEPTH = 8;
+
+    @Autowired
+    private JacocoXmlStreamParser jacocoXmlStreamParser;
+
+    @Value("${jacoco.report-merge.parallelism:0}")
+    private int configuredParallelism;
+
+    private ExecutorService mergeExecutor;
+
+    @PostConstruct
+    void initializeExecutor() {
+        int parallelism = configuredParallelism > 0
+                ? configuredParallelism
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadIndex = new AtomicInteger();
+        mergeExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "JacocoReportMerge-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (mergeExecutor != null) {
+            mergeExecutor.shutdown();
+        }
+    }
+
+    /**
+     * Locates every Jacoco XML report under the repository: Maven {@code target/site/jacoco*}
+     * and Gradle {@code build/reports/jacoco/<task>/} outputs of the root and all modules.
+     */
+    public List<Path> findModuleReports(String repoDir) {
+        Path root = Paths.get(repoDir);
+        try (Stream<Path> paths = Files.walk(root, MAX_SEARCH_DEPTH)) {
+            return paths
+                    .filter(path -> root.equals(path) || !containsSkippedDirectory(root.relativize(path)))
+                    .filter(Files::isRegularFile)
+                    .filter(this::isJacocoXmlReport)
+                    .sorted()
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Failed to search for Jacoco reports in {}: {}", repoDir, e.getMessage());
+            return List.of();
+        }
+    }
+
+    /**
+     * Parses all reports concurrently and merges their source file records.
+     * Each record's {@code modulePath} is set to the module directory (relative to the
+     * repository) the report belongs to. Records of a root (aggregate) report are folded into the
+     * module record of the same class; those no module report has are assigned the module whose
+     * source tree actually contains the file.
+     */
+    public List<JacocoXmlStreamParser.ClassCoverage> merge(String repoDir, List<Path> reports) {
+        long start = System.nanoTime();
+        Path root = Paths.get(repoDir);
+        Map<String, JacocoXmlStreamParser.ClassCoverage> moduleRecords = new ConcurrentHashMap<>();
+        Map<String, JacocoXmlStreamParser.ClassCoverage> rootRecords = new ConcurrentHashMap<>();
+        AtomicInteger duplicates = new AtomicInteger();
+        AtomicInteger failedReports = new AtomicInteger();
+
+        List<CompletableFuture<Void>> tasks = new ArrayList<>();
+        for (Path report : reports) {
+            String modulePath = modulePathOf(root, report);
+            Map<String, JacocoXmlStreamParser.ClassCoverage> records = modulePath.isEmpty() ? rootRecords : moduleRecords;
+            tasks.add(CompletableFuture.runAsync(() -> {
+                try {
+                    jacocoXmlStreamParser.parse(report, classCoverage -> {
+                        classCoverage.setModulePath(modulePath);
+                        records.merge(recordKey(modulePath, classCoverage.getClassName()), classCoverage, (existing, incoming) -> {
+                            duplicates.incrementAndGet();
+                            return combine(existing, incoming);
+                        });
+                    });
+                } catch (JacocoException e) {
+                    failedReports.incrementAndGet();
+                    log.warn("Skipping unreadable Jacoco report {}: {}", report, e.getMessage());
+                }
+            }, mergeExecutor));
+        }
+        CompletableFuture.allOf(tasks.toArray(new CompletableFuture[0])).join();
+        List<JacocoXmlStreamParser.ClassCoverage> merged = foldRootRecords(root, rootRecords.values(), moduleRecords, duplicates);
+
+        log.info("Merged {} Jacoco report(s) ({} failed) into {} classes, {} overlapping entries combined, in {} ms",
+                reports.size(), failedReports.get(), merged.size(), duplicates.get(), (System.nanoTime() - start) / 1_000_000);
+        return merged;
+    }
+
+    /**
+     * Combines each root record with the one module record of the same class. A class name that
+     * several modules define can't be attributed, so its root record is left to the module reports.
+     */
+    private List<JacocoXmlStreamParser.ClassCoverage> foldRootRecords(Path root,
+                                                                      Collection<JacocoXmlStreamParser.ClassCoverage> rootRecords,
+                                                                      Map<String, JacocoXmlStreamParser.ClassCoverage> moduleRecords,
+                                                                      AtomicInteger duplicates) {
+        Map<String, List<String>> modulesByClass = new HashMap<>();
+        for (JacocoXmlStreamParser.ClassCoverage record : moduleRecords.values()) {
+            modulesByClass.computeIfAbsent(record.getClassName(), className -> new ArrayList<>()).add(record.getModulePath());
+        }
+        List<JacocoXmlStreamParser.ClassCoverage> rootOnly = new ArrayList<>();
+        for (JacocoXmlStreamParser.ClassCoverage record : rootRecords) {
+            List<String> modules = modulesByClass.getOrDefault(record.getClassName(), List.of());
+            if (modules.isEmpty()) {
+                rootOnly.add(record);
+            } else if (modules.size() == 1) {
+                moduleRecords.merge(recordKey(modules.get(0), record.getClassName()), record, this::combine);
+                duplicates.incrementAndGet();
+            } else {
+                log.debug("Not attributing root report record of {}, defined in modules {}", record.getClassName(), modules);
+            }
+        }
+        assignModulesToRootRecords(root, rootOnly);
+
+        List<JacocoXmlStreamParser.ClassCoverage> merged = new ArrayList<>(moduleRecords.values());
+        merged.addAll(rootOnly);
+        return merged;
+    }
+
+    private static String recordKey(String modulePath, String className) {
+        return modulePath + '!' + className;
+    }
+
+    private void assignModulesToRootRecords(Path root, Collection<JacocoXmlStreamParser.ClassCoverage> records) {
+        List<String> moduleDirectories = null;
+        for (JacocoXmlStreamParser.ClassCoverage record : records) {
+            if (!isBlank(record.getModulePath()) || record.getSourceFileName() == null) {
+                continue;
+            }
+            if (moduleDirectories == null) {
+                moduleDirectories = findModuleDirectories(root);
+            }
+            String packagePath = isBlank(record.getPackageName()) ? "" : record.getPackageName() + "/";
+            for (String module : moduleDirectories) {
+                if (containsSource(root.resolve(module), packagePath + record.getSourceFileName())) {
+                    record.setModulePath(module);
+                    break;
+                }
+            }
+        }
+    }
+
+    /**
+     * Directories (relative to the repository, root first) that have a {@code src/main} tree.
+     */
+    private List<String> findModuleDirectories(Path root) {
+        try (Stream<Path> paths = Files.walk(root, MAX_SEARCH_DEPTH)) {
+            return paths
+                    .filter(Files::isDirectory)
+                    .filter(path -> root.equals(path) || !containsSkippedDirectory(root.relativize(path)))
+                    .filter(path -> Files.isDirectory(path.resolve("src").resolve("main")))
+                    .map(path -> root.relativize(path).toString().replace('\\', '/'))
+                    .sorted(Comparator.comparingInt(String::length))
+                    .collect(Collectors.toList());
+        } catch (IOException e) {
+            log.warn("Failed to search for modules in {}: {}", root, e.getMessage());
+            return List.of();
+        }
+    }
+
+    private boolean containsSource(Path moduleDirectory, String relativeSourcePath) {
+        for (String sourceRoot : SOURCE_ROOTS) {
+            if (Files.isRegularFile(moduleDirectory.resolve(sourceRoot).resolve(relativeSourcePath))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private JacocoXmlStreamParser.ClassCoverage combine(JacocoXmlStreamParser.ClassCoverage a,
+                                                        JacocoXmlStreamParser.ClassCoverage b) {
+        JacocoXmlStreamParser.ClassCoverage result = new JacocoXmlStreamParser.ClassCoverage();
+        result.setPackageName(a.getPackageName());
+        result.setClassName(a.getClassName());
+        result.setSourceFileName(a.getSourceFileName() != null ? a.getSourceFileName() : b.getSourceFileName());
+        // Aggregate reports have no module of their own; prefer the module-specific location
+        result.setModulePath(!isBlank(a.getModulePath()) ? a.getModulePath() : b.getModulePath());
+
+        result.setTotalLines(Math.max(a.getTotalLines(), b.getTotalLines()));
+        result.setCoveredLines(Math.max(a.getCoveredLines(), b.getCoveredLines()));
+        result.setTotalBranches(Math.max(a.getTotalBranches(), b.getTotalBranches()));
+        result.setCoveredBranches(Math.max(a.getCoveredBranches(), b.getCoveredBranches()));
+        result.setTotalMethods(Math.max(a.getTotalMethods(), b.getTotalMethods()));
+        result.setCoveredMethods(Math.max(a.getCoveredMethods(), b.getCoveredMethods()));
+
+        result.setUncoveredLines(stillUncovered(a.getTotalLines() > 0, a.getUncoveredLines(),
+                b.getTotalLines() > 0, b.getUncoveredLines()));
+        result.setUncoveredBranches(stillUncovered(a.getTotalBranches() > 0, a.getUncoveredBranches(),
+                b.getTotalBranches() > 0, b.getUncoveredBranches()));
+        return result;
+    }
+
+    /**
+     * A line stays uncovered only if every report that has line data for it says so; a fully
+     * covered record (data, nothing uncovered) clears the other side's list. Records without line
+     * data (e.g. reports built without debug info) don't veto the other side.
+     */
+    private List<String> stillUncovered(boolean aHasData, List<String> a, boolean bHasData, List<String> b) {
+        if (!aHasData) {
+            return new ArrayList<>(b);
+        }
+        if (!bHasData) {
+            return new ArrayList<>(a);
+        }
+        Set<String> other = new HashSet<>(b);
+        return a.stream().filter(other::contains).collect(Collectors.toList());
+    }
+
+    private boolean isJacocoXmlReport(Path path) {
+        String fileName = path.getFileName().toString();
+        Path parent = path.getParent();
+        if (parent == null || !fileName.endsWith(".xml")) {
+            return false;
+        }
+        // Maven: target/site/jacoco/jacoco.xml, target/site/jacoco-aggregate/jacoco.xml, ...
+        if (fileName.equals("jacoco.xml") && parent.getParent() != null && parent.getParent().endsWith("site")) {
+            return true;
+        }
+        // Gradle: build/reports/jacoco/<task>/<task>.xml
+        Path reportsDir = parent.getParent();
+        return reportsDir != null && reportsDir.endsWith(Paths.get("reports", "jacoco"));
+    }
+
+    private String modulePathOf(Path root, Path report) {
+        Path relative = root.relativize(report);
+        for (int i = 0; i < relative.getNameCount(); i++) {
+            String segment = relative.getName(i).toString();
+            if (segment.equals("target") || segment.equals("build")) {
+                return i == 0 ? "" : relative.subpath(0, i).toString().replace('\\', '/');
+            }
+        }
+        return "";
+    }
+
+    private boolean containsSkippedDirectory(Path relative) {
+        for (Path segment : relative) {
+            if (SKIPPED_DIRECTORIES.contains(segment.toString())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean isBlank(String value) {
+        return value == null || value.isEmpty();
+    }
+}
@@ -2,18 +2,14 @@ package com.org.devgenie.service.coverage;
 
 import com.org.devgenie.config.JacocoConfigurationService;
 import com.org.devgenie.exception.coverage.JacocoException;
+import com.org.devgenie.model.SonarBaseComponentMetrics;
 import com.org.devgenie.model.SonarQubeMetricsResponse;
 import com.org.devgenie.model.coverage.*;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.NodeList;
 
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -25,6 +21,7 @@ import java.time.Duration;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -44,11 +41,27 @@ public class JacocoService {
     @Autowired
     private JacocoConfigurationService jacocoConfigService; // NEW: Auto-configuration service
 
+    @Autowired
+    private JacocoXmlStreamParser jacocoXmlStreamParser;
+
+    @Autowired
+    private JacocoExecAnalyzer jacocoExecAnalyzer;
+
+    @Autowired
+    private JacocoReportMerger jacocoReportMerger;
+
+    @Autowired
+    private BuildProcessRunner buildProcessRunner;
+
+    @Value("${jacoco.report-merge.enabled:true}")
+    private boolean mergeModuleReports;
+
     /**
      * ENHANCED: Main entry point with intelligent fallback strategy
      */
     public SonarQubeMetricsResponse runAnalysisWithConfig(String repoDir, String branch, ProjectConfiguration projectConfig) {
-        log.info("Running coverage analysis with {} configuration for: {}", projectConfig.getBuildTool(), repoDir);
+        String buildTool = projectConfig != null ? projectConfig.getBuildTool() : null;
+        log.info("Running coverage analysis with {} configuration for: {}", buildTool, repoDir);
 
         try {
             /*// Strategy 1: Check if Jacoco is already configured
@@ -64,6 +77,31 @@ public class JacocoService {
                 return runExistingJacocoAnalysis(repoDir, projectConfig);
             }*/
 
+            // Strategy 0: Read existing jacoco.exec data in-process (no build, no report task)
+            if (jacocoExecAnalyzer.hasExecutionData(repoDir)) {
+                try {
+                    SonarQubeMetricsResponse execResponse = analyzeExecutionData(repoDir, branch, projectConfig);
+                    if (execResponse.getCoverageDataList() != null && !execResponse.getCoverageDataList().isEmpty()) {
+                        log.info("Coverage computed directly from Jacoco execution data");
+                        return execResponse;
+                    }
+                } catch (JacocoException e) {
+                    log.warn("Jacoco execution data analysis failed, falling back: {}", e.getMessage());
+                }
+            }
+
+            // Strategy 1: Merge already generated Jacoco XML reports of every module
+            if (mergeModuleReports) {
+                List<Path> moduleReports = jacocoReportMerger.findModuleReports(repoDir);
+                if (!moduleReports.isEmpty()) {
+                    SonarQubeMetricsResponse mergedResponse = mergeModuleReports(repoDir, branch, projectConfig, moduleReports);
+                    if (mergedResponse.getCoverageDataList() != null && !mergedResponse.getCoverageDataList().isEmpty()) {
+                        log.info("Coverage merged from {} existing Jacoco report(s)", moduleReports.size());
+                        return mergedResponse;
+                    }
+                }
+            }
+
             // Strategy 3: Try SonarQube integration
             log.info("Fetching coverage using SonarQube integration");
             SonarQubeMetricsResponse sonarQubeMetricsResponse = sonarQubeService.getFlatCoverageData(repoDir, branch, projectConfig);
@@ -80,7 +118,7 @@ public class JacocoService {
         } catch (Exception e) {
             log.error("Failed to run coverage analysis", e);
             throw new JacocoException("Failed to run coverage analysis: " + e.getMessage(), e,
-                    projectConfig.getBuildTool(), repoDir);
+                    buildTool, repoDir);
         }
     }
 
@@ -102,6 +140,168 @@ public class JacocoService {
         }
     }
 
+    /**
+     * Computes coverage straight from the workspace's jacoco.exec files and compiled classes
+     * using the JaCoCo core analyzer, skipping both report generation and report parsing.
+     * Execution data older than the compiled classes or main sources is rejected as stale.
+     */
+    public SonarQubeMetricsResponse analyzeExecutionData(String repoDir, String branch, ProjectConfiguration projectConfig) {
+        String buildTool = projectConfig != null ? projectConfig.getBuildTool() : null;
+        List<Path> execFiles = jacocoExecAnalyzer.findExecFiles(repoDir);
+        List<Path> classDirectories = jacocoExecAnalyzer.findClassDirectories(repoDir);
+        if (execFiles.isEmpty() || classDirectories.isEmpty()) {
+            throw new JacocoException("No Jacoco execution data or compiled classes found", buildTool, repoDir);
+        }
+        if (jacocoExecAnalyzer.isStale(repoDir, execFiles, classDirectories)) {
+            throw new JacocoException("Jacoco execution data is older than the compiled classes or sources", buildTool, repoDir);
+        }
+
+        List<FileCoverageData> files = new ArrayList<>();
+        for (JacocoXmlStreamParser.ClassCoverage classCoverage : jacocoExecAnalyzer.analyze(repoDir, execFiles, classDirectories)) {
+            if (isValidSourceFile(classCoverage.getSourceFileName(), projectConfig)) {
+                files.add(toFileCoverageData(classCoverage, projectConfig));
+            }
+        }
+        return buildFlatCoverageResponse(files, repoDir, branch, projectConfig, CoverageData.CoverageSource.JACOCO_ANALYSIS);
+    }
+
+    /**
+     * Parses the Jacoco XML reports of all modules concurrently and merges them into one
+     * flat coverage list and directory tree; classes present in several reports are counted once.
+     */
+    public SonarQubeMetricsResponse mergeModuleReports(String repoDir, String branch, ProjectConfiguration projectConfig,
+                                                       List<Path> reports) {
+        List<FileCoverageData> files = mergeModuleFileCoverage(repoDir, projectConfig, reports);
+        return buildFlatCoverageResponse(files, repoDir, branch, projectConfig, CoverageData.CoverageSource.JACOCO_ANALYSIS);
+    }
+
+    private List<FileCoverageData> mergeModuleFileCoverage(String repoDir, ProjectConfiguration projectConfig, List<Path> reports) {
+        List<FileCoverageData> files = new ArrayList<>();
+        for (JacocoXmlStreamParser.ClassCoverage classCoverage : jacocoReportMerger.merge(repoDir, reports)) {
+            if (isValidSourceFile(classCoverage.getSourceFileName(), projectConfig)) {
+                files.add(toFileCoverageData(classCoverage, projectConfig));
+            }
+        }
+        files.sort(Comparator.comparing(FileCoverageData::getFilePath));
+        return files;
+    }
+
+    /**
+     * Builds the flat FILE/DIRECTORY coverage list (same shape as the SonarQube flat data)
+     * from file-level coverage, rolling counters up into every ancestor directory.
+     */
+    private SonarQubeMetricsResponse buildFlatCoverageResponse(List<FileCoverageData> files, String repoDir, String branch,
+                                                               ProjectConfiguration projectConfig,
+                                                               CoverageData.CoverageSource source) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, int[]> directoryTotals = new TreeMap<>();
+        Map<String, Set<String>> directoryChildren = new HashMap<>();
+        List<CoverageData> flatCoverageList = new ArrayList<>();
+        int[] overall = new int[6];
+
+        for (FileCoverageData file : files) {
+            int[] counts = {file.getTotalLines(), file.getCoveredLines(), file.getTotalBranches(),
+                    file.getCoveredBranches(), file.getTotalMethods(), file.getCoveredMethods()};
+            addCounts(overall, counts);
+
+            String path = file.getFilePath();
+            String parent = parentPath(path);
+            flatCoverageList.add(CoverageData.builder()
+                    .type("FILE")
+                    .repoPath(repoDir)
+                    .branch(branch)
+                    .path(path)
+                    .parentPath(parent)
+                    .name(file.getFileName())
+                    .fileName(file.getFileName())
+                    .className(file.getClassName())
+                    .packageName(file.getPackageName())
+                    .timestamp(now)
+                    .projectConfiguration(projectConfig)
+                    .coverageSource(source)
+                    .overallCoverage(file.getLineCoverage())
+                    .lineCoverage(file.getLineCoverage())
+                    .branchCoverage(file.getBranchCoverage())
+                    .methodCoverage(file.getMethodCoverage())
+                    .totalLines(file.getTotalLines())
+                    .coveredLines(file.getCoveredLines())
+                    .totalBranches(file.getTotalBranches())
+                    .coveredBranches(file.getCoveredBranches())
+                    .totalMethods(file.getTotalMethods())
+                    .coveredMethods(file.getCoveredMethods())
+                    .build());
+
+            // Roll the file's counters up into every ancestor directory
+            String child = path;
+            String directory = parent;
+            while (!directory.isEmpty()) {
+                addCounts(directoryTotals.computeIfAbsent(directory, d -> new int[6]), counts);
+                directoryChildren.computeIfAbsent(directory, d -> new TreeSet<>()).add(child);
+                child = directory;
+                directory = parentPath(directory);
+            }
+        }
+
+        directoryTotals.forEach((directory, counts) -> {
+            double lineCoverage = percentage(counts[1], counts[0]);
+            flatCoverageList.add(CoverageData.builder()
+                    .type("DIRECTORY")
+                    .repoPath(repoDir)
+                    .branch(branch)
+                    .path(directory)
+                    .parentPath(parentPath(directory))
+                    .name(directory.substring(directory.lastIndexOf('/') + 1))
+                    .directoryName(directory.substring(directory.lastIndexOf('/') + 1))
+                    .children(new ArrayList<>(directoryChildren.get(directory)))
+                    .timestamp(now)
+                    .projectConfiguration(projectConfig)
+                    .coverageSource(source)
+                    .overallCoverage(lineCoverage)
+                    .lineCoverage(lineCoverage)
+                    .branchCoverage(percentage(counts[3], counts[2]))
+                    .methodCoverage(percentage(counts[5], counts[4]))
+                    .totalLines(counts[0])
+                    .coveredLines(counts[1])
+                    .totalBranches(counts[2])
+                    .coveredBranches(counts[3])
+                    .totalMethods(counts[4])
+                    .coveredMethods(counts[5])
+                    .build());
+        });
+
+        SonarBaseComponentMetrics baseMetrics = SonarBaseComponentMetrics.builder()
+                .repositoryUrl(repoDir)
+                .branch(branch)
+                .overallCoverage(percentage(overall[1], overall[0]))
+                .lineCoverage(percentage(overall[1], overall[0]))
+                .branchCoverage(percentage(overall[3], overall[2]))
+                .totalLines(overall[0])
+                .coveredLines(overall[1])
+                .totalBranches(overall[2])
+                .coveredBranches(overall[3])
+                .build();
+
+        return SonarQubeMetricsResponse.builder()
+                .sonarBaseComponentMetrics(baseMetrics)
+                .coverageDataList(flatCoverageList)
+                .build();
+    }
+
+    private void addCounts(int[] target, int[] counts) {
+        for (int i = 0; i < counts.length; i++) {
+            target[i] += counts[i];
+        }
+    }
+
+    private String parentPath(String path) {
+        int lastSlash = path.lastIndexOf('/');
+        return lastSlash > 0 ? path.substring(0, lastSlash) : "";
+    }
+
+    private double percentage(int covered, int total) {
+        return total > 0 ? (double) covered / total * 100 : 0;
+    }
+
     /**
      * NEW: Run analysis when Jacoco is already configured
      */
@@ -335,27 +535,14 @@ public class JacocoService {
         // Validate Maven installation
         validateMavenInstallation(repoDir);
 
-        // Parse command and execute
-        String[] commands = coverageCommand.split("\\s+");
-        ProcessBuilder pb = new ProcessBuilder(commands);
-        pb.directory(new File(repoDir));
-        pb.inheritIO();
-
         // Set Maven-specific environment variables
-        Map<String, String> env = pb.environment();
+        Map<String, String> env = new HashMap<>();
         env.put("MAVEN_OPTS", "-Xmx1024m"); // Ensure sufficient memory
         if (projectConfig.isJUnit5()) {
             env.put("MAVEN_SUREFIRE_PLUGIN_VERSION", "3.0.0-M7"); // JUnit 5 compatibility
         }
 
-        Process process = pb.start();
-        int exitCode = process.waitFor();
-
-        if (exitCode != 0) {
-            throw new JacocoException("Maven coverage analysis failed with exit code: " + exitCode);
-        }
-
-        log.info("Maven coverage analysis completed successfully");
+        runBuild(repoDir, "maven", "Maven", coverageCommand, env);
     }
 
     private void runGradleCoverage(String repoDir, String coverageCommand, ProjectConfiguration projectConfig) throws IOException, InterruptedException {
@@ -367,23 +554,11 @@ public class JacocoService {
         // Validate Gradle installation
         validateGradleInstallation(repoDir);
 
-        String[] commands = coverageCommand.split("\\s+");
-        ProcessBuilder pb = new ProcessBuilder(commands);
-        pb.directory(new File(repoDir));
-        pb.inheritIO();
-
         // Set Gradle-specific environment variables
-        Map<String, String> env = pb.environment();
+        Map<String, String> env = new HashMap<>();
         env.put("GRADLE_OPTS", "-Xmx1024m -XX:MaxMetaspaceSize=512m");
 
-        Process process = pb.start();
-        int exitCode = process.waitFor();
-
-        if (exitCode != 0) {
-            throw new JacocoException("Gradle coverage analysis failed with exit code: " + exitCode);
-        }
-
-        log.info("Gradle coverage analysis completed successfully");
+        runBuild(repoDir, "gradle", "Gradle", coverageCommand, env);
     }
 
     private void runSbtCoverage(String repoDir, String coverageCommand, ProjectConfiguration projectConfig) throws IOException, InterruptedException {
@@ -392,26 +567,39 @@ public class JacocoService {
         // Validate SBT installation
         validateSbtInstallation(repoDir);
 
-        String[] commands = coverageCommand.split("\\s+");
-        ProcessBuilder pb = new ProcessBuilder(commands);
-        pb.directory(new File(repoDir));
-        pb.inheritIO();
-
         // Set SBT-specific environment variables
-        Map<String, String> env = pb.environment();
+        Map<String, String> env = new HashMap<>();
         env.put("SBT_OPTS", "-Xmx1024m");
 
-        Process process = pb.start();
-        int exitCode = process.waitFor();
+        runBuild(repoDir, "sbt", "SBT", coverageCommand, env);
+    }
 
-        if (exitCode != 0) {
-            throw new JacocoException("SBT coverage analysis failed with exit code: " + exitCode);
+    private void runBuild(String repoDir, String buildTool, String displayName, String coverageCommand,
+                          Map<String, String> env) throws IOException, InterruptedException {
+        List<String> commands = Arrays.asList(coverageCommand.trim().split("\\s+"));
+        BuildProcessRunner.BuildResult result = buildProcessRunner.run(repoDir, buildTool, commands, env);
+
+        if (!result.isSuccessful()) {
+            throw new JacocoException(displayName + " coverage analysis " + result.describeFailure(20));
         }
 
-        log.info("SBT coverage analysis completed successfully");
+        log.info("{} coverage analysis completed successfully in {} ms ({} run)",
+                displayName, result.getElapsedMillis(), result.isWarmRun() ? "warm" : "cold");
     }
 
     private CoverageData parseCoverageReport(String repoDir, ProjectConfiguration projectConfig) throws IOException {
+        if (mergeModuleReports) {
+            List<Path> moduleReports = jacocoReportMerger.findModuleReports(repoDir);
+            if (moduleReports.size() > 1) {
+                log.info("Found {} module coverage reports, merging", moduleReports.size());
+                // Same totals as a single report, method counters included
+                CoverageData merged = calculateOverallCoverage(
+                        mergeModuleFileCoverage(repoDir, projectConfig, moduleReports), repoDir, projectConfig);
+                merged.setCoverageSource(CoverageData.CoverageSource.JACOCO_ANALYSIS);
+                return merged;
+            }
+        }
+
         String buildTool = projectConfig.getBuildTool();
         List<String> reportPaths = getCoverageReportPaths(repoDir, buildTool);
 
@@ -481,18 +669,37 @@ public class JacocoService {
     }
 
     private CoverageData parseJacocoXmlReport(File reportFile, String repoDir, ProjectConfiguration projectConfig) throws IOException {
+        return streamJacocoXmlReport(reportFile, repoDir, projectConfig, fileData -> { });
+    }
+
+    /**
+     * Streams a Jacoco XML report, handing each file's coverage to the consumer as it is read
+     * and returning the aggregated totals. Heap use stays flat regardless of report size.
+     */
+    public CoverageData streamJacocoXmlReport(File reportFile, String repoDir, ProjectConfiguration projectConfig,
+                                              Consumer<FileCoverageData> fileConsumer) {
         log.info("Parsing Jacoco XML report: {}", reportFile.getAbsolutePath());
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        int[] totals = new int[6];
         try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(reportFile);
-
-            return parseJacocoXml(document, repoDir, projectConfig);
-
-        } catch (Exception e) {
+            jacocoXmlStreamParser.parse(reportFile.toPath(), classCoverage -> {
+                if (!isValidSourceFile(classCoverage.getSourceFileName(), projectConfig)) {
+                    return;
+                }
+                FileCoverageData fileData = toFileCoverageData(classCoverage, projectConfig);
+                totals[0] += fileData.getTotalLines();
+                totals[1] += fileData.getCoveredLines();
+                totals[2] += fileData.getTotalBranches();
+                totals[3] += fileData.getCoveredBranches();
+                totals[4] += fileData.getTotalMethods();
+                totals[5] += fileData.getCoveredMethods();
+                fileConsumer.accept(fileData);
+            });
+        } catch (JacocoException e) {
             throw new JacocoException("Failed to parse Jacoco XML report: " + reportFile.getAbsolutePath(), e);
         }
+
+        return buildOverallCoverage(repoDir, projectConfig, totals[0], totals[1], totals[2], totals[3], totals[4], totals[5]);
     }
 
     private CoverageData parseJacocoCsvReport(File reportFile, String repoDir, ProjectConfiguration projectConfig) throws IOException {
@@ -712,6 +919,14 @@ public class JacocoService {
             coveredMethods += file.getCoveredMethods();
         }
 
+        return buildOverallCoverage(repoDir, projectConfig, totalLines, coveredLines,
+                totalBranches, coveredBranches, totalMethods, coveredMethods);
+    }
+
+    private CoverageData buildOverallCoverage(String repoDir, ProjectConfiguration projectConfig,
+                                              int totalLines, int coveredLines,
+                                              int totalBranches, int coveredBranches,
+                                              int totalMethods, int coveredMethods) {
         double overallLineCoverage = totalLines > 0 ? (double) coveredLines / totalLines * 100 : 0;
         double overallBranchCoverage = totalBranches > 0 ? (double) coveredBranches / totalBranches * 100 : 0;
         double overallMethodCoverage = totalMethods > 0 ? (double) coveredMethods / totalMethods * 100 : 0;
@@ -733,64 +948,13 @@ public class JacocoService {
                 .build();
     }
 
-    private CoverageData parseJacocoXml(Document document, String repoDir, ProjectConfiguration projectConfig) {
-        CoverageData.CoverageDataBuilder builder = CoverageData.builder();
-        builder.repoPath(repoDir);
-        builder.timestamp(LocalDateTime.now());
-        builder.projectConfiguration(projectConfig);
-
-        List<FileCoverageData> files = new ArrayList<>();
-        NodeList packageNodes = document.getElementsByTagName("package");
-
-        int totalLines = 0, coveredLines = 0;
-        int totalBranches = 0, coveredBranches = 0;
-        int totalMethods = 0, coveredMethods = 0;
-
-        for (int i = 0; i < packageNodes.getLength(); i++) {
-            Element packageElement = (Element) packageNodes.item(i);
-            String packageName = packageElement.getAttribute("name");
-            NodeList classNodes = packageElement.getElementsByTagName("class");
-
-            for (int j = 0; j < classNodes.getLength(); j++) {
-                Element classElement = (Element) classNodes.item(j);
-                String sourceFileName = classElement.getAttribute("sourcefilename");
-
-                if (isValidSourceFile(sourceFileName, projectConfig)) {
-                    FileCoverageData fileData = parseClassCoverage(classElement, packageName, projectConfig);
-                    files.add(fileData);
-
-                    totalLines += fileData.getTotalLines();
-                    coveredLines += fileData.getCoveredLines();
-                    totalBranches += fileData.getTotalBranches();
-                    coveredBranches += fileData.getCoveredBranches();
-                    totalMethods += fileData.getTotalMethods();
-                    coveredMethods += fileData.getCoveredMethods();
-                }
-            }
-        }
-
-        double overallLineCoverage = totalLines > 0 ? (double) coveredLines / totalLines * 100 : 0;
-        double overallBranchCoverage = totalBranches > 0 ? (double) coveredBranches / totalBranches * 100 : 0;
-        double overallMethodCoverage = totalMethods > 0 ? (double) coveredMethods / totalMethods * 100 : 0;
-
-        return builder
-                .overallCoverage(overallLineCoverage)
-                .lineCoverage(overallLineCoverage)
-                .branchCoverage(overallBranchCoverage)
-                .methodCoverage(overallMethodCoverage)
-                .totalLines(totalLines)
-                .coveredLines(coveredLines)
-                .totalBranches(totalBranches)
-                .coveredBranches(coveredBranches)
-                .totalMethods(totalMethods)
-                .coveredMethods(coveredMethods)
-                .build();
-    }
-
     private boolean isValidSourceFile(String sourceFileName, ProjectConfiguration projectConfig) {
         if (sourceFileName == null || sourceFileName.isEmpty()) {
             return false;
         }
+        if (projectConfig == null || projectConfig.getBuildTool() == null) {
+            return sourceFileName.endsWith(".java");
+        }
 
         String buildTool = projectConfig.getBuildTool().toLowerCase();
 
@@ -805,75 +969,48 @@ public class JacocoService {
         }
     }
 
-    private FileCoverageData parseClassCoverage(Element classElement, String packageName, ProjectConfiguration projectConfig) {
-        String className = classElement.getAttribute("name");
-        String filePath = buildFilePath(packageName, className, projectConfig);
-
-        NodeList counterNodes = classElement.getElementsByTagName("counter");
-
-        int totalLines = 0, coveredLines = 0;
-        int totalBranches = 0, coveredBranches = 0;
-        int totalMethods = 0, coveredMethods = 0;
-        int totalInstructions = 0, coveredInstructions = 0;
-        int totalComplexity = 0, coveredComplexity = 0;
-
-        for (int i = 0; i < counterNodes.getLength(); i++) {
-            Element counter = (Element) counterNodes.item(i);
-            String type = counter.getAttribute("type");
-            int missed = Integer.parseInt(counter.getAttribute("missed"));
-            int covered = Integer.parseInt(counter.getAttribute("covered"));
-
-            switch (type) {
-                case "LINE":
-                    totalLines = missed + covered;
-                    coveredLines = covered;
-                    break;
-                case "BRANCH":
-                    totalBranches = missed + covered;
-                    coveredBranches = covered;
-                    break;
-                case "METHOD":
-                    totalMethods = missed + covered;
-                    coveredMethods = covered;
-                    break;
-                case "INSTRUCTION":
-                    totalInstructions = missed + covered;
-                    coveredInstructions = covered;
-                    break;
-                case "COMPLEXITY":
-                    totalComplexity = missed + covered;
-                    coveredComplexity = covered;
-                    break;
-            }
+    private FileCoverageData toFileCoverageData(JacocoXmlStreamParser.ClassCoverage classCoverage, ProjectConfiguration projectConfig) {
+        // Records are per source file in VM form (com/org/Foo); build the path from the package and file name
+        String packageName = classCoverage.getPackageName() != null ? classCoverage.getPackageName() : "";
+        String filePath = buildSourceFilePath(packageName, classCoverage.getSourceFileName(), projectConfig);
+        if (classCoverage.getModulePath() != null && !classCoverage.getModulePath().isEmpty()) {
+            filePath = classCoverage.getModulePath() + "/" + filePath;
         }
 
-        double lineCoverage = totalLines > 0 ? (double) coveredLines / totalLines * 100 : 0;
-        double branchCoverage = totalBranches > 0 ? (double) coveredBranches / totalBranches * 100 : 0;
-        double methodCoverage = totalMethods > 0 ? (double) coveredMethods / totalMethods * 100 : 0;
+        int totalLines = classCoverage.getTotalLines();
+        int totalBranches = classCoverage.getTotalBranches();
+        int totalMethods = classCoverage.getTotalMethods();
+        double lineCoverage = totalLines > 0 ? (double) classCoverage.getCoveredLines() / totalLines * 100 : 0;
+        double branchCoverage = totalBranches > 0 ? (double) classCoverage.getCoveredBranches() / totalBranches * 100 : 0;
+        double methodCoverage = totalMethods > 0 ? (double) classCoverage.getCoveredMethods() / totalMethods * 100 : 0;
 
         return FileCoverageData.builder()
                 .filePath(filePath)
+                .fileName(classCoverage.getSourceFileName())
+                .className(classCoverage.getSimpleClassName())
+                .packageName(packageName.replace('/', '.'))
                 .lineCoverage(lineCoverage)
                 .branchCoverage(branchCoverage)
                 .methodCoverage(methodCoverage)
                 .totalLines(totalLines)
-                .coveredLines(coveredLines)
+                .coveredLines(classCoverage.getCoveredLines())
                 .totalBranches(totalBranches)
-                .coveredBranches(coveredBranches)
+                .coveredBranches(classCoverage.getCoveredBranches())
                 .totalMethods(totalMethods)
-                .coveredMethods(coveredMethods)
-                .uncoveredLines(extractUncoveredLines(classElement))
-                .uncoveredBranches(extractUncoveredBranches(classElement))
+                .coveredMethods(classCoverage.getCoveredMethods())
+                .uncoveredLines(classCoverage.getUncoveredLines())
+                .uncoveredBranches(classCoverage.getUncoveredBranches())
                 .lastUpdated(LocalDateTime.now())
-                .buildTool(projectConfig.getBuildTool())
-                .testFramework(projectConfig.getTestFramework())
+                .buildTool(projectConfig != null ? projectConfig.getBuildTool() : null)
+                .testFramework(projectConfig != null ? projectConfig.getTestFramework() : null)
+                .coverageSource("JACOCO")
                 .build();
     }
 
     private String buildFilePath(String packageName, String className, ProjectConfiguration projectConfig) {
         String packagePath = packageName.replace('.', '/');
 
-        if (projectConfig != null) {
+        if (projectConfig != null && projectConfig.getBuildTool() != null) {
             String buildTool = projectConfig.getBuildTool();
 
             switch (buildTool.toLowerCase()) {
@@ -895,34 +1032,21 @@ public class JacocoService {
         return packagePath + "/" + className + ".java";
     }
 
-    private List<String> extractUncoveredLines(Element classElement) {
-        List<String> uncoveredLines = new ArrayList<>();
-        NodeList lineNodes = classElement.getElementsByTagName("line");
-
-        for (int i = 0; i < lineNodes.getLength(); i++) {
-            Element line = (Element) lineNodes.item(i);
-            String coveredInstructions = line.getAttribute("ci");
-            if ("0".equals(coveredInstructions)) { // ci = covered instructions
-                uncoveredLines.add(line.getAttribute("nr"));
-            }
-        }
-
-        return uncoveredLines;
-    }
-
-    private List<String> extractUncoveredBranches(Element classElement) {
-        List<String> uncoveredBranches = new ArrayList<>();
-        NodeList lineNodes = classElement.getElementsByTagName("line");
+    private String buildSourceFilePath(String packageName, String sourceFileName, ProjectConfiguration projectConfig) {
+        String packagePath = packageName.isEmpty() ? "" : packageName.replace('.', '/') + "/";
+        String buildTool = projectConfig != null && projectConfig.getBuildTool() != null
+                ? projectConfig.getBuildTool().toLowerCase() : "";
 
-        for (int i = 0; i < lineNodes.getLength(); i++) {
-            Element line = (Element) lineNodes.item(i);
-            String missedBranches = line.getAttribute("mb"); // mb = missed branches
-            if (!missedBranches.isEmpty() && Integer.parseInt(missedBranches) > 0) {
-                uncoveredBranches.add(line.getAttribute("nr"));
-            }
+        switch (buildTool) {
+            case "maven":
+            case "gradle":
+                return "src/main/java/" + packagePath + sourceFileName;
+            case "sbt":
+                String sourceDir = sourceFileName.endsWith(".scala") ? "src/main/scala/" : "src/main/java/";
+                return sourceDir + packagePath + sourceFileName;
+            default:
+                return packagePath + sourceFileName;
         }
-
-        return uncoveredBranches;
     }
 
     // Validation methods for build tools
@@ -1059,16 +1183,7 @@ public class JacocoService {
             throw new JacocoException("Jacoco report not found at: " + reportPath);
         }
 
-        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
-        try {
-            DocumentBuilder builder = factory.newDocumentBuilder();
-            Document document = builder.parse(reportFile);
-
-            return parseJacocoXml(document, repoPath, null);
-
-        } catch (Exception e) {
-            throw new JacocoException("Failed to parse Jacoco XML report", e);
-        }
+        return streamJacocoXmlReport(reportFile, repoPath, null, fileData -> { });
     }
 
     /**
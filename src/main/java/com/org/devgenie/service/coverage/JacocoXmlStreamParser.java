@@ -0,0 +1,270 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * Streaming (StAX) reader for JaCoCo XML reports.
+ * Emits one {@link ClassCoverage} per source file as soon as its package has been read, so memory
+ * is bounded by the largest package instead of the whole report. Counters of inner and anonymous
+ * classes are added to the record of the source file that declares them.
+ * Uncovered lines and branches come from the {@code <line mi ci mb>} elements of the matching
+ * {@code <sourcefile>}, which JaCoCo writes after the classes of the same package.
+ */
+@Component
+@Slf4j
+public class JacocoXmlStreamParser {
+
+    private static final XMLInputFactory INPUT_FACTORY = createInputFactory();
+
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        // jacoco.xml references report.dtd, which is usually not next to the report
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+
+    /**
+     * Streams the report at the given path, handing every class to the consumer.
+     *
+     * @return number of classes emitted
+     */
+    public int parse(Path reportFile, Consumer<ClassCoverage> consumer) {
+        try (InputStream in = new BufferedInputStream(Files.newInputStream(reportFile), 64 * 1024)) {
+            return parse(in, consumer);
+        } catch (IOException e) {
+            throw new JacocoException("Failed to read Jacoco XML report: " + reportFile, e);
+        }
+    }
+
+    /**
+     * Streams a report from the given input stream, handing every class to the consumer.
+     *
+     * @return number of classes emitted
+     */
+    public int parse(InputStream in, Consumer<ClassCoverage> consumer) {
+        XMLStreamReader reader = null;
+        try {
+            reader = INPUT_FACTORY.createXMLStreamReader(in);
+            return readReport(reader, consumer);
+        } catch (XMLStreamException | NumberFormatException e) {
+            throw new JacocoException("Failed to parse Jacoco XML report", e);
+        } finally {
+            if (reader != null) {
+                try {
+                    reader.close();
+                } catch (XMLStreamException e) {
+                    log.debug("Failed to close XML stream reader", e);
+                }
+            }
+        }
+    }
+
+    private int readReport(XMLStreamReader reader, Consumer<ClassCoverage> consumer) throws XMLStreamException {
+        int emitted = 0;
+        String packageName = null;
+        List<ClassCoverage> packageClasses = new ArrayList<>();
+        Map<String, SourceLines> packageSources = new HashMap<>();
+
+        ClassCoverage currentClass = null;
+        SourceLines currentSource = null;
+        int methodDepth = 0;
+
+        while (reader.hasNext()) {
+            int event = reader.next();
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "package":
+                        packageName = reader.getAttributeValue(null, "name");
+                        break;
+                    case "class":
+                        currentClass = new ClassCoverage();
+                        currentClass.setPackageName(packageName);
+                        currentClass.setClassName(reader.getAttributeValue(null, "name"));
+                        currentClass.setSourceFileName(reader.getAttributeValue(null, "sourcefilename"));
+                        break;
+                    case "method":
+                        methodDepth++;
+                        break;
+                    case "sourcefile":
+                        currentSource = new SourceLines();
+                        packageSources.put(reader.getAttributeValue(null, "name"), currentSource);
+                        break;
+                    case "line":
+                        if (currentSource != null) {
+                            readLine(reader, currentSource);
+                        }
+                        break;
+                    case "counter":
+                        // Only class-level counters; method and sourcefile counters are skipped
+                        if (currentClass != null && methodDepth == 0) {
+                            readCounter(reader, currentClass);
+                        }
+                        break;
+                    default:
+                        break;
+                }
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                switch (reader.getLocalName()) {
+                    case "class":
+                        packageClasses.add(currentClass);
+                        currentClass = null;
+                        break;
+                    case "method":
+                        methodDepth--;
+                        break;
+                    case "sourcefile":
+                        currentSource = null;
+                        break;
+                    case "package":
+                        emitted += emitPackage(packageClasses, packageSources, consumer);
+                        packageClasses.clear();
+                        packageSources.clear();
+                        packageName = null;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        }
+        return emitted;
+    }
+
+    private int emitPackage(List<ClassCoverage> classes, Map<String, SourceLines> sources,
+                            Consumer<ClassCoverage> consumer) {
+        // Inner and anonymous classes share their outer class's source file; fold them into one
+        // record per source file so they don't surface as separate (non-existent) files
+        Map<String, ClassCoverage> bySourceFile = new LinkedHashMap<>();
+        for (ClassCoverage classCoverage : classes) {
+            String sourceFileName = classCoverage.getSourceFileName();
+            if (sourceFileName == null || sourceFileName.isEmpty()) {
+                bySourceFile.put(classCoverage.getClassName(), classCoverage);
+                continue;
+            }
+            bySourceFile.merge(sourceFileName, toSourceFileRecord(classCoverage), ClassCoverage::add);
+        }
+
+        for (ClassCoverage fileCoverage : bySourceFile.values()) {
+            SourceLines lines = sources.remove(fileCoverage.getSourceFileName());
+            if (lines != null) {
+                fileCoverage.setUncoveredLines(lines.uncoveredLines);
+                fileCoverage.setUncoveredBranches(lines.uncoveredBranches);
+            }
+            consumer.accept(fileCoverage);
+        }
+        return bySourceFile.size();
+    }
+
+    private ClassCoverage toSourceFileRecord(ClassCoverage classCoverage) {
+        String sourceFileName = classCoverage.getSourceFileName();
+        int extension = sourceFileName.lastIndexOf('.');
+        String baseName = extension > 0 ? sourceFileName.substring(0, extension) : sourceFileName;
+        String packageName = classCoverage.getPackageName();
+
+        classCoverage.setClassName(packageName == null || packageName.isEmpty() ? baseName : packageName + "/" + baseName);
+        return classCoverage;
+    }
+
+    private void readLine(XMLStreamReader reader, SourceLines source) {
+        String lineNumber = reader.getAttributeValue(null, "nr");
+        int missedInstructions = parseCount(reader.getAttributeValue(null, "mi"));
+        int coveredInstructions = parseCount(reader.getAttributeValue(null, "ci"));
+        int missedBranches = parseCount(reader.getAttributeValue(null, "mb"));
+
+        if (missedInstructions > 0 && coveredInstructions == 0) {
+            source.uncoveredLines.add(lineNumber);
+        }
+        if (missedBranches > 0) {
+            source.uncoveredBranches.add(lineNumber);
+        }
+    }
+
+    private void readCounter(XMLStreamReader reader, ClassCoverage classCoverage) {
+        String type = reader.getAttributeValue(null, "type");
+        int missed = parseCount(reader.getAttributeValue(null, "missed"));
+        int covered = parseCount(reader.getAttributeValue(null, "covered"));
+
+        switch (type) {
+            case "LINE":
+                classCoverage.setTotalLines(missed + covered);
+                classCoverage.setCoveredLines(covered);
+                break;
+            case "BRANCH":
+                classCoverage.setTotalBranches(missed + covered);
+                classCoverage.setCoveredBranches(covered);
+                break;
+            case "METHOD":
+                classCoverage.setTotalMethods(missed + covered);
+                classCoverage.setCoveredMethods(covered);
+                break;
+            default:
+                break;
+        }
+    }
+
+    private int parseCount(String value) {
+        return value == null || value.isEmpty() ? 0 : Integer.parseInt(value);
+    }
+
+    private static class SourceLines {
+        private final List<String> uncoveredLines = new ArrayList<>();
+        private final List<String> uncoveredBranches = new ArrayList<>();
+    }
+
+    /**
+     * Counters and line data of a single source file, summed over the {@code <class>} elements
+     * compiled from it.
+     */
+    @Data
+    public static class ClassCoverage {
+        private String packageName;   // VM form, e.g. com/org/devgenie
+        private String className;     // VM form of the top-level class, e.g. com/org/devgenie/Foo
+        private String sourceFileName;
+        private String modulePath;    // module directory relative to the repository, empty for the root
+        private int totalLines;
+        private int coveredLines;
+        private int totalBranches;
+        private int coveredBranches;
+        private int totalMethods;
+        private int coveredMethods;
+        private List<String> uncoveredLines = new ArrayList<>();
+        private List<String> uncoveredBranches = new ArrayList<>();
+
+        /**
+         * Adds the counters of another class compiled from the same source file.
+         */
+        public ClassCoverage add(ClassCoverage other) {
+            totalLines += other.totalLines;
+            coveredLines += other.coveredLines;
+            totalBranches += other.totalBranches;
+            coveredBranches += other.coveredBranches;
+            totalMethods += other.totalMethods;
+            coveredMethods += other.coveredMethods;
+            return this;
+        }
+
+        public String getSimpleClassName() {
+            return className == null ? null : className.substring(className.lastIndexOf('/') + 1);
+        }
+    }
+}
@@ -0,0 +1,341 @@
+package com.org.devgenie.service.coverage;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.ConstructorDeclaration;
+import com.github.javaparser.ast.body.FieldDeclaration;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.Parameter;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.expr.BinaryExpr;
+import com.github.javaparser.ast.expr.ConditionalExpr;
+import com.github.javaparser.ast.stmt.*;
+import com.github.javaparser.ast.type.Type;
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import com.org.devgenie.model.coverage.FileCoverageData;
+import com.org.devgenie.model.coverage.TestableComponent;
+import com.org.devgenie.model.coverage.UncoveredCodePath;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Deterministic file analysis from the Java AST and the file's coverage data.
+ * Produces the same {@link FileAnalysisResult} the LLM analysis returns (testable components,
+ * uncovered code paths, dependencies to mock and the LOW/MEDIUM/HIGH ratings), in milliseconds
+ * and without a model call:
+ * <ul>
+ *   <li>testable components are the non-private methods with a body; a method counts as covered
+ *       when none of its lines is in the file's uncovered lines</li>
+ *   <li>uncovered code paths are runs of uncovered lines, described by the innermost branch,
+ *       loop or catch block they fall into</li>
+ *   <li>dependencies are injected fields and constructor parameters of non-value types</li>
+ * </ul>
+ * Without per-line coverage every method is reported as uncovered.
+ */
+@Component
+@Slf4j
+public class LocalFileAnalyzer {
+
+    private static final Set<String> INJECTION_ANNOTATIONS = Set.of("Autowired", "Inject", "Resource", "MockBean");
+    private static final Set<String> VALUE_TYPES = Set.of(
+            "String", "Integer", "Long", "Double", "Float", "Short", "Byte", "Character", "Boolean", "Object",
+            "Number", "BigDecimal", "BigInteger", "List", "Set", "Map", "Collection", "Optional", "UUID",
+            "LocalDate", "LocalDateTime", "Instant", "Duration", "Logger", "AtomicInteger", "AtomicLong");
+    private static final int MAX_CODE_PATHS = 50;
+
+    @Autowired
+    private MetadataAnalyzer metadataAnalyzer;
+
+    /**
+     * @throws RuntimeException if the source cannot be parsed
+     */
+    public FileAnalysisResult analyze(String filePath, String source, FileCoverageData coverageData) {
+        long start = System.nanoTime();
+        CompilationUnit cu = metadataAnalyzer.parseJavaSource(source);
+        MetadataAnalyzer.FileMetadata metadata = metadataAnalyzer.analyzeCompilationUnit(filePath, source, cu, null, null);
+        List<String> businessMethods = metadata.getBusinessComplexity().getBusinessMethods();
+
+        TreeSet<Integer> uncoveredLines = parseLineNumbers(coverageData.getUncoveredLines());
+        boolean lineDataAvailable = !uncoveredLines.isEmpty() || coverageData.getLineCoverage() >= 100.0;
+
+        List<TestableComponent> components = new ArrayList<>();
+        List<UncoveredCodePath> codePaths = new ArrayList<>();
+        int maxMethodComplexity = 0;
+
+        for (MethodDeclaration method : cu.findAll(MethodDeclaration.class)) {
+            if (method.getBody().isEmpty() || !isTypeMember(method)) {
+                continue;
+            }
+            int startLine = method.getBegin().map(position -> position.line).orElse(0);
+            int endLine = method.getEnd().map(position -> position.line).orElse(0);
+            int complexity = cyclomaticComplexity(method.getBody().get());
+            maxMethodComplexity = Math.max(maxMethodComplexity, complexity);
+            if (method.isPrivate()) {
+                continue; // exercised through the public API; its uncovered lines still become code paths
+            }
+
+            Set<Integer> methodUncovered = uncoveredLines.subSet(startLine, true, endLine, true);
+            boolean covered = lineDataAvailable && methodUncovered.isEmpty();
+            boolean raisesExceptions = !method.getThrownExceptions().isEmpty()
+                    || !method.findAll(ThrowStmt.class).isEmpty() || !method.findAll(CatchClause.class).isEmpty();
+            String riskLevel = riskLevel(complexity, businessMethods.contains(method.getNameAsString()) && !covered, raisesExceptions);
+
+            String signature = method.getDeclarationAsString(true, true, true);
+            StringBuilder description = new StringBuilder(signature)
+                    .append("; cyclomatic complexity ").append(complexity);
+            if (lineDataAvailable) {
+                description.append(", ").append(methodUncovered.size()).append(" uncovered line(s)");
+            }
+            if (raisesExceptions) {
+                description.append(", has exception paths");
+            }
+
+            components.add(TestableComponent.builder()
+                    .methodName(method.getNameAsString())
+                    .complexity(complexityLevel(complexity))
+                    .currentlyCovered(covered)
+                    .riskLevel(riskLevel)
+                    .description(description.toString())
+                    .signature(signature)
+                    .startLine(startLine)
+                    .endLine(endLine)
+                    .build());
+
+            if (!lineDataAvailable) {
+                codePaths.add(UncoveredCodePath.builder()
+                        .location(method.getNameAsString() + " (lines " + startLine + "-" + endLine + ")")
+                        .description("No line coverage recorded for " + method.getNameAsString())
+                        .priority(riskLevel)
+                        .suggestedTestType("UNIT")
+                        .build());
+            }
+        }
+
+        if (lineDataAvailable) {
+            codePaths.addAll(describeUncoveredRanges(cu, uncoveredLines, components));
+        }
+
+        long uncoveredComponents = components.stream().filter(component -> !component.isCurrentlyCovered()).count();
+        String complexity = fileComplexity(maxMethodComplexity, metadata);
+        double uncoveredFraction = lineDataAvailable && coverageData.getTotalLines() > 0
+                ? (double) uncoveredLines.size() / coverageData.getTotalLines()
+                : (100.0 - coverageData.getLineCoverage()) / 100.0;
+
+        FileAnalysisResult result = FileAnalysisResult.builder()
+                .filePath(filePath)
+                .complexity(complexity)
+                .businessLogicPriority(level(metadata.getBusinessComplexity().getBusinessCriticality(), 2.0, 5.0))
+                .testableComponents(components)
+                .uncoveredCodePaths(codePaths.size() > MAX_CODE_PATHS ? codePaths.subList(0, MAX_CODE_PATHS) : codePaths)
+                .dependencies(findDependencies(cu))
+                .estimatedEffort("HIGH".equals(complexity) || uncoveredComponents > 10 ? "HIGH"
+                        : uncoveredComponents > 3 ? "MEDIUM" : "LOW")
+                .coverageImpactPotential(level(uncoveredFraction, 0.2, 0.5))
+                .currentCoverage(coverageData.getLineCoverage())
+                .build();
+        log.info("Local analysis of {}: {} testable components ({} uncovered), {} uncovered paths in {} ms",
+                filePath, components.size(), uncoveredComponents, codePaths.size(), (System.nanoTime() - start) / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Groups consecutive uncovered lines and names the construct each group sits in.
+     */
+    private List<UncoveredCodePath> describeUncoveredRanges(CompilationUnit cu, TreeSet<Integer> uncoveredLines,
+                                                          List<TestableComponent> components) {
+        List<UncoveredCodePath> paths = new ArrayList<>();
+        Integer rangeStart = null;
+        int previous = -1;
+        for (int line : uncoveredLines) {
+            if (rangeStart != null && line > previous + 1) {
+                paths.add(describeRange(cu, rangeStart, previous, components));
+                rangeStart = null;
+            }
+            if (rangeStart == null) {
+                rangeStart = line;
+            }
+            previous = line;
+        }
+        if (rangeStart != null) {
+            paths.add(describeRange(cu, rangeStart, previous, components));
+        }
+        return paths;
+    }
+
+    private UncoveredCodePath describeRange(CompilationUnit cu, int from, int to, List<TestableComponent> components) {
+        String lines = from == to ? "line " + from : "lines " + from + "-" + to;
+        Optional<MethodDeclaration> method = innermost(cu.findAll(MethodDeclaration.class), from);
+        Optional<Node> construct = method.flatMap(m -> innermost(m.findAll(Node.class, LocalFileAnalyzer::isBranchConstruct), from));
+
+        String description;
+        String testType = "UNIT";
+        if (construct.isPresent() && construct.get() instanceof CatchClause catchClause) {
+            description = "catch (" + catchClause.getParameter().getType() + ") block is never reached";
+            testType = "EDGE_CASE";
+        } else if (construct.isPresent() && construct.get() instanceof IfStmt ifStmt) {
+            boolean inElse = ifStmt.getElseStmt().flatMap(Node::getBegin).map(p -> p.line <= from).orElse(false);
+            description = (inElse ? "else branch of if (" : "branch if (") + abbreviate(ifStmt.getCondition().toString()) + ") is not taken";
+            testType = inElse ? "EDGE_CASE" : "UNIT";
+        } else if (construct.isPresent() && construct.get() instanceof SwitchEntry entry) {
+            description = (entry.getLabels().isEmpty() ? "default case" : "case " + abbreviate(entry.getLabels().toString()))
+                    + " is not exercised";
+        } else if (construct.isPresent() && construct.get() instanceof ThrowStmt) {
+            description = "exception path is not exercised";
+            testType = "EDGE_CASE";
+        } else if (construct.isPresent()) {
+            description = "loop body is never executed";
+            testType = "EDGE_CASE";
+        } else if (method.isPresent()) {
+            description = "statements of " + method.get().getNameAsString() + " are not executed";
+        } else {
+            description = "code outside methods (initializers or constructors) is not executed";
+        }
+
+        String methodName = method.map(MethodDeclaration::getNameAsString).orElse(null);
+        String priority = components.stream()
+                .filter(component -> component.getMethodName().equals(methodName))
+                .map(TestableComponent::getRiskLevel)
+                .findFirst()
+                .orElse("MEDIUM");
+        return UncoveredCodePath.builder()
+                .location(methodName != null ? methodName + " (" + lines + ")" : lines)
+                .description(description)
+                .priority(priority)
+                .suggestedTestType(testType)
+                .build();
+    }
+
+    private static boolean isBranchConstruct(Node node) {
+        return node instanceof IfStmt || node instanceof CatchClause || node instanceof SwitchEntry
+                || node instanceof ThrowStmt || node instanceof ForStmt || node instanceof ForEachStmt
+                || node instanceof WhileStmt || node instanceof DoStmt;
+    }
+
+    /**
+     * The node with the smallest line span that contains the given line.
+     */
+    private static <N extends Node> Optional<N> innermost(List<N> nodes, int line) {
+        return nodes.stream()
+                .filter(node -> node.getBegin().isPresent() && node.getEnd().isPresent())
+                .filter(node -> node.getBegin().get().line <= line && node.getEnd().get().line >= line)
+                .min(Comparator.comparingInt(node -> node.getEnd().get().line - node.getBegin().get().line));
+    }
+
+    private List<String> findDependencies(CompilationUnit cu) {
+        Set<String> dependencies = new LinkedHashSet<>();
+        for (FieldDeclaration field : cu.findAll(FieldDeclaration.class)) {
+            if (field.isStatic() || !isTypeMember(field)) {
+                continue;
+            }
+            boolean injected = field.getAnnotations().stream()
+                    .anyMatch(annotation -> INJECTION_ANNOTATIONS.contains(annotation.getNameAsString()));
+            if (injected || field.isFinal()) {
+                addDependency(dependencies, field.getElementType());
+            }
+        }
+        for (ConstructorDeclaration constructor : cu.findAll(ConstructorDeclaration.class)) {
+            if (!constructor.isPrivate()) {
+                for (Parameter parameter : constructor.getParameters()) {
+                    addDependency(dependencies, parameter.getType());
+                }
+            }
+        }
+        return new ArrayList<>(dependencies);
+    }
+
+    private void addDependency(Set<String> dependencies, Type type) {
+        if (type.isPrimitiveType() || type.isArrayType()) {
+            return;
+        }
+        String name = type.asString().replaceAll("<.*>", "");
+        String simpleName = name.substring(name.lastIndexOf('.') + 1);
+        if (!VALUE_TYPES.contains(simpleName)) {
+            dependencies.add(simpleName);
+        }
+    }
+
+    private static boolean isTypeMember(Node node) {
+        return node.getParentNode().filter(parent -> parent instanceof TypeDeclaration).isPresent();
+    }
+
+    static int cyclomaticComplexity(Node body) {
+        int complexity = 1;
+        for (Node node : body.findAll(Node.class)) {
+            if (node instanceof IfStmt || node instanceof ForStmt || node instanceof ForEachStmt
+                    || node instanceof WhileStmt || node instanceof DoStmt || node instanceof CatchClause
+                    || node instanceof ConditionalExpr) {
+                complexity++;
+            } else if (node instanceof SwitchEntry entry && !entry.getLabels().isEmpty()) {
+                complexity++;
+            } else if (node instanceof BinaryExpr binary
+                    && (binary.getOperator() == BinaryExpr.Operator.AND || binary.getOperator() == BinaryExpr.Operator.OR)) {
+                complexity++;
+            }
+        }
+        return complexity;
+    }
+
+    private String riskLevel(int complexity, boolean uncoveredBusinessMethod, boolean raisesExceptions) {
+        if (complexity > 10 || uncoveredBusinessMethod) {
+            return "HIGH";
+        }
+        return complexity > 3 || raisesExceptions ? "MEDIUM" : "LOW";
+    }
+
+    private String complexityLevel(int complexity) {
+        return complexity > 10 ? "HIGH" : complexity > 3 ? "MEDIUM" : "LOW";
+    }
+
+    private String fileComplexity(int maxMethodComplexity, MetadataAnalyzer.FileMetadata metadata) {
+        int totalComplexity = metadata.getCodeComplexity().getCyclomaticComplexity();
+        if (maxMethodComplexity > 10 || totalComplexity > 50 || metadata.getLineCount() > 500) {
+            return "HIGH";
+        }
+        if (maxMethodComplexity <= 3 && totalComplexity <= 15 && metadata.getLineCount() <= 150) {
+            return "LOW";
+        }
+        return "MEDIUM";
+    }
+
+    private String level(double value, double medium, double high) {
+        return value >= high ? "HIGH" : value >= medium ? "MEDIUM" : "LOW";
+    }
+
+    private String abbreviate(String text) {
+        String singleLine = text.replaceAll("\\s+", " ");
+        return singleLine.length() > 80 ? singleLine.substring(0, 77) + "..." : singleLine;
+    }
+
+    /**
+     * Line numbers from coverage data entries such as {@code "42"} or {@code "42-45"}.
+     */
+    static TreeSet<Integer> parseLineNumbers(List<String> entries) {
+        TreeSet<Integer> lines = new TreeSet<>();
+        if (entries == null) {
+            return lines;
+        }
+        for (String entry : entries) {
+            try {
+                String[] bounds = entry.trim().split("\\s*-\\s*");
+                int from = Integer.parseInt(bounds[0]);
+                int to = bounds.length > 1 ? Integer.parseInt(bounds[1]) : from;
+                for (int line = from; line <= to; line++) {
+                    lines.add(line);
+                }
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring unparseable uncovered line entry: {}", entry);
+            }
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,134 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.dto.coverage.ProgressUpdate;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.BufferOverflowStrategy;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Sinks;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Reactive fan-out of session progress, independent of any WebSocket being connected. Each session
+ * has a replaying sink, so a subscriber that arrives late (or reconnects) first receives the recent
+ * updates. Updates are numbered per session so reconnecting clients can skip what they already saw.
+ * A session's stream completes with its COMPLETION update or when {@link #complete} is called, so
+ * subscribers are released when the session ends.
+ */
+@Component
+@Slf4j
+public class ProgressBus {
+
+    @Value("${coverage.progress.sse.replay-size:100}")
+    private int replaySize;
+
+    @Value("${coverage.progress.sse.max-buffered-updates:500}")
+    private int maxBufferedUpdates;
+
+    @Value("${coverage.progress.sse.retention-minutes:30}")
+    private long retentionMinutes;
+
+    private final ConcurrentHashMap<String, Channel> channels = new ConcurrentHashMap<>();
+    private ScheduledExecutorService cleaner;
+
+    /**
+     * A progress update with its position in the session's stream.
+     */
+    public record SequencedUpdate(long sequence, ProgressUpdate update) {
+    }
+
+    @PostConstruct
+    void initialize() {
+        cleaner = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "ProgressBusCleanup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        cleaner.scheduleWithFixedDelay(this::evictIdleChannels, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (cleaner != null) {
+            cleaner.shutdownNow();
+        }
+        channels.values().forEach(channel -> channel.sink.tryEmitComplete());
+    }
+
+    public void publish(ProgressUpdate update) {
+        if (update.getSessionId() == null) {
+            return;
+        }
+        Channel channel = channels.computeIfAbsent(update.getSessionId(), id -> new Channel(replaySize));
+        // Emissions to a sink must not overlap; publishers run on many threads
+        synchronized (channel) {
+            Sinks.EmitResult result = channel.sink.tryEmitNext(new SequencedUpdate(++channel.sequence, update));
+            if (result == Sinks.EmitResult.FAIL_TERMINATED) {
+                log.debug("Progress of session {} published after its stream ended", update.getSessionId());
+            } else if (result.isFailure()) {
+                log.warn("Could not publish progress of session {}: {}", update.getSessionId(), result);
+            } else if (update.getType() == ProgressUpdate.ProgressType.COMPLETION) {
+                channel.sink.tryEmitComplete();
+            }
+            channel.lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ends the session's stream after its last update, for sessions that end without a COMPLETION
+     * update (failed or cancelled). Later subscribers still receive the retained updates.
+     */
+    public void complete(String sessionId) {
+        Channel channel = channels.get(sessionId);
+        if (channel != null) {
+            synchronized (channel) {
+                channel.sink.tryEmitComplete();
+                channel.lastActivityNanos = System.nanoTime();
+            }
+        }
+    }
+
+    /**
+     * Updates of the session after {@code afterSequence} (0 for all that are still retained), then
+     * live updates. A subscriber that cannot keep up loses its oldest buffered updates rather than
+     * holding up publishers.
+     */
+    public Flux<SequencedUpdate> subscribe(String sessionId, long afterSequence) {
+        Channel channel = channels.computeIfAbsent(sessionId, id -> new Channel(replaySize));
+        return channel.sink.asFlux()
+                .filter(sequenced -> sequenced.sequence() > afterSequence)
+                .onBackpressureBuffer(maxBufferedUpdates, dropped ->
+                        log.debug("Dropped progress update {} of session {} for a slow subscriber", dropped.sequence(), sessionId),
+                        BufferOverflowStrategy.DROP_OLDEST);
+    }
+
+    private void evictIdleChannels() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(retentionMinutes);
+        channels.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                boolean idle = entry.getValue().sink.currentSubscriberCount() == 0 && entry.getValue().lastActivityNanos < cutoff;
+                if (idle) {
+                    entry.getValue().sink.tryEmitComplete();
+                }
+                return idle;
+            }
+        });
+    }
+
+    private static class Channel {
+        private final Sinks.Many<SequencedUpdate> sink;
+        private long sequence;
+        private long lastActivityNanos = System.nanoTime();
+
+        private Channel(int replaySize) {
+            this.sink = Sinks.many().replay().limit(replaySize);
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package com.org.devgenie.service.coverage;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.github.javaparser.ast.body.TypeDeclaration;
+import com.github.javaparser.ast.comments.Comment;
+import com.github.javaparser.ast.comments.LineComment;
+import com.github.javaparser.ast.expr.MethodCallExpr;
+import com.github.javaparser.ast.stmt.BlockStmt;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the source section of test generation prompts. Instead of the whole file, the prompt gets
+ * the class skeleton (package, imports, fields, constructors and every member signature) plus the
+ * method bodies that matter for the request, so batches of a large class no longer resend it in full.
+ */
+@Component
+@Slf4j
+public class PromptContextBuilder {
+
+    private static final String OMITTED_BODY = " implementation omitted";
+
+    @Autowired
+    private MetadataAnalyzer metadataAnalyzer;
+
+    /**
+     * Returns the class skeleton with bodies for {@code focusMethods} and the private helpers they call.
+     * Focus methods are in priority order: bodies are added while the context stays within
+     * {@code tokenBudget}, except the first one, which is always shown. With no focus methods every
+     * method is a candidate, in source order. Unparseable sources are returned unchanged.
+     */
+    public String buildContext(String source, List<String> focusMethods, int tokenBudget) {
+        CompilationUnit cu;
+        try {
+            cu = metadataAnalyzer.parseJavaSource(source);
+        } catch (RuntimeException e) {
+            log.warn("Could not parse source for prompt compaction, sending it in full: {}", e.getMessage());
+            return source;
+        }
+
+        List<MethodDeclaration> methods = cu.findAll(MethodDeclaration.class,
+                method -> method.getBody().isPresent()
+                        && method.getParentNode().filter(parent -> parent instanceof TypeDeclaration).isPresent());
+        List<String> candidates = focusMethods == null || focusMethods.isEmpty()
+                ? methods.stream().map(MethodDeclaration::getNameAsString).distinct().toList()
+                : focusMethods;
+        List<BlockStmt> bodies = methods.stream().map(method -> method.getBody().get()).toList();
+        List<Integer> bodyTokens = bodies.stream().map(body -> estimateTokens(body.toString())).toList();
+
+        // Render the bare skeleton once to know what the bodies can use
+        for (MethodDeclaration method : methods) {
+            method.setBody(omittedBody());
+        }
+        int tokens = estimateTokens(cu.toString());
+
+        Set<String> shown = new LinkedHashSet<>();
+        List<String> omitted = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (shown.contains(candidate)) {
+                continue;
+            }
+            Set<String> required = withCalledHelpers(methods, bodies, candidate);
+            required.removeAll(shown);
+            int cost = 0;
+            for (int i = 0; i < methods.size(); i++) {
+                if (required.contains(methods.get(i).getNameAsString())) {
+                    cost += bodyTokens.get(i);
+                }
+            }
+            if (shown.isEmpty() || tokens + cost <= tokenBudget) {
+                shown.addAll(required);
+                tokens += cost;
+            } else {
+                omitted.add(candidate);
+            }
+        }
+
+        for (int i = 0; i < methods.size(); i++) {
+            if (shown.contains(methods.get(i).getNameAsString())) {
+                methods.get(i).setBody(bodies.get(i));
+            }
+        }
+        String context = cu.toString();
+        if (estimateTokens(context) >= estimateTokens(source)) {
+            return source; // nothing was left out, keep the original formatting and line numbers
+        }
+        if (estimateTokens(context) > tokenBudget) {
+            // Javadoc and comments are the only thing left to give up
+            cu.getAllContainedComments().stream()
+                    .filter(comment -> !(comment instanceof LineComment && OMITTED_BODY.equals(comment.getContent())))
+                    .forEach(Comment::remove);
+            context = cu.toString();
+        }
+
+        log.info("Prompt context: {} of {} estimated source tokens, bodies for {} method(s), {} omitted for the budget of {}",
+                estimateTokens(context), estimateTokens(source), shown.size(), omitted.size(), tokenBudget);
+        return context;
+    }
+
+    /**
+     * The method name plus the private methods it reaches through unqualified or {@code this.} calls.
+     */
+    private Set<String> withCalledHelpers(List<MethodDeclaration> methods, List<BlockStmt> bodies, String methodName) {
+        Set<String> names = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>(List.of(methodName));
+        while (!pending.isEmpty()) {
+            String name = pending.poll();
+            if (!names.add(name)) {
+                continue;
+            }
+            for (int i = 0; i < methods.size(); i++) {
+                if (!methods.get(i).getNameAsString().equals(name)) {
+                    continue;
+                }
+                for (MethodCallExpr call : bodies.get(i).findAll(MethodCallExpr.class)) {
+                    boolean local = call.getScope().map(scope -> scope.isThisExpr()).orElse(true);
+                    String callee = call.getNameAsString();
+                    if (local && !names.contains(callee) && methods.stream()
+                            .anyMatch(method -> method.isPrivate() && method.getNameAsString().equals(callee))) {
+                        pending.add(callee);
+                    }
+                }
+            }
+        }
+        return names;
+    }
+
+    private BlockStmt omittedBody() {
+        BlockStmt body = new BlockStmt();
+        body.addOrphanComment(new LineComment(OMITTED_BODY));
+        return body;
+    }
+
+    private int estimateTokens(String text) {
+        // ~4 characters per token for code, as in TestGenerationStrategy
+        return text.length() / 4;
+    }
+}
@@ -2,15 +2,25 @@ package com.org.devgenie.service.coverage;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.org.devgenie.ai.client.LlmClient;
+import com.org.devgenie.ai.gateway.LlmPriority;
 import com.org.devgenie.exception.coverage.CoverageDataNotFoundException;
 import com.org.devgenie.model.SonarBaseComponentMetrics;
 import com.org.devgenie.model.SonarQubeMetricsResponse;
 import com.org.devgenie.model.coverage.*;
 import com.org.devgenie.mongo.RepositoryAnalysisMongoUtil;
+import com.org.devgenie.service.metadata.MetadataAnalysisEngine;
 import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.Builder;
+import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Path;
@@ -21,7 +31,11 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.stream.Collectors;
 
 @Service
@@ -38,11 +52,14 @@ public class RepositoryAnalysisService {
     private CoverageDataService coverageDataService;
 
     @Autowired
-    private MetadataAnalyzer metadataAnalyzer;
+    private MetadataAnalysisEngine metadataAnalysisEngine;
 
     @Autowired
     private ChatClient chatClient;
 
+    @Autowired
+    private LlmClient llmClient;
+
     @Autowired
     private RepositoryAnalysisMongoUtil analysisMongoUtil;
 
@@ -52,8 +69,89 @@ public class RepositoryAnalysisService {
     @Autowired
     private FastDashboardService fastDashboardService;
 
+    @Autowired
+    private GitService gitService;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
 
+    @Value("${coverage.metadata.incremental:true}")
+    private boolean incrementalMetadata;
+
+    @Value("${coverage.analysis.coalesce-repository-analyses:true}")
+    private boolean coalesceAnalyses;
+
+    // Single-flight: one running analysis per repository, branch, head commit and workspace
+    private final Map<String, CompletableFuture<RepositoryAnalysisResponse>> inFlightAnalyses = new ConcurrentHashMap<>();
+    private final AtomicLong startedAnalyses = new AtomicLong();
+    private final AtomicLong deduplicatedAnalyses = new AtomicLong();
+
+    @PostConstruct
+    void registerMetrics() {
+        Gauge.builder("repository.analysis.inflight", inFlightAnalyses, Map::size)
+                .description("Repository analyses currently running").register(meterRegistry);
+        FunctionCounter.builder("repository.analysis.deduplicated", deduplicatedAnalyses, AtomicLong::get)
+                .description("Analysis requests served by joining an identical in-flight analysis").register(meterRegistry);
+    }
+
+    /**
+     * Analyzes the repository. Concurrent calls for the same repository, branch, head commit and
+     * workspace are coalesced: the first caller runs the analysis, the others wait for it and receive
+     * the same response. Calls for different workspaces never share a response, since it names the
+     * workspace and its checkout.
+     */
     public RepositoryAnalysisResponse analyzeRepository(RepositoryAnalysisRequest request) {
+        if (!coalesceAnalyses) {
+            return performRepositoryAnalysis(request);
+        }
+        String branch = request.getBranch() != null ? request.getBranch() : "main";
+        String headCommit = gitService.resolveRemoteHead(request.getRepositoryUrl(), branch, request.getGithubToken());
+        String key = normalizeRepositoryUrl(request.getRepositoryUrl()) + "#" + branch + "@"
+                + (headCommit != null ? headCommit : "unresolved")
+                + "/" + (request.getWorkspaceId() != null ? request.getWorkspaceId() : "*");
+
+        CompletableFuture<RepositoryAnalysisResponse> analysis = new CompletableFuture<>();
+        CompletableFuture<RepositoryAnalysisResponse> inFlight = inFlightAnalyses.putIfAbsent(key, analysis);
+        if (inFlight != null) {
+            deduplicatedAnalyses.incrementAndGet();
+            log.info("Joining in-flight analysis of {}", key);
+            try {
+                return inFlight.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+
+        startedAnalyses.incrementAndGet();
+        try {
+            RepositoryAnalysisResponse response = performRepositoryAnalysis(request);
+            analysis.complete(response);
+            return response;
+        } catch (RuntimeException | Error e) {
+            analysis.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlightAnalyses.remove(key, analysis);
+        }
+    }
+
+    public CoalescingStats getCoalescingStats() {
+        return CoalescingStats.builder()
+                .inFlight(inFlightAnalyses.size())
+                .started(startedAnalyses.get())
+                .deduplicated(deduplicatedAnalyses.get())
+                .build();
+    }
+
+    private String normalizeRepositoryUrl(String repositoryUrl) {
+        String url = repositoryUrl.trim().toLowerCase();
+        if (url.endsWith("/")) {
+            url = url.substring(0, url.length() - 1);
+        }
+        return url.endsWith(".git") ? url.substring(0, url.length() - 4) : url;
+    }
+
+    private RepositoryAnalysisResponse performRepositoryAnalysis(RepositoryAnalysisRequest request) {
         log.info("Analyzing repository: {}", request.getRepositoryUrl());
         long overallStart = System.nanoTime();
         try {
@@ -89,9 +187,20 @@ public class RepositoryAnalysisService {
             // Metadata analysis for Java files
             log.info("Starting metadata analysis for {} Java files", javaFiles.size());
             stepStart = System.nanoTime();
-            List<MetadataAnalyzer.FileMetadata> fileMetadata = metadataAnalyzer.analyzeJavaFiles(javaFiles,request.getRepositoryUrl(),request.getBranch());
+            MetadataAnalysisEngine.AnalysisReport metadataReport;
+            if (incrementalMetadata) {
+                // Only added/modified files are parsed; unchanged files reuse their stored metadata
+                List<MetadataAnalyzer.FileMetadata> previousMetadata =
+                        analysisMongoUtil.getFileMetadataFromMongo(request.getRepositoryUrl(), request.getBranch());
+                metadataReport = metadataAnalysisEngine.analyzeJavaFilesIncremental(
+                        repoDir, javaFiles, request.getRepositoryUrl(), request.getBranch(), previousMetadata);
+            } else {
+                metadataReport = metadataAnalysisEngine.analyzeJavaFiles(javaFiles,request.getRepositoryUrl(),request.getBranch());
+            }
+            List<MetadataAnalyzer.FileMetadata> fileMetadata = metadataReport.getFileMetadata();
             stepEnd = System.nanoTime();
-            log.info("Metadata analysis completed for {} files in {} ms", fileMetadata.size(), (stepEnd - stepStart) / 1_000_000);
+            log.info("Metadata analysis completed for {} files ({} reused, {} failed) in {} ms", fileMetadata.size(),
+                    metadataReport.getReusedFiles(), metadataReport.getFailures().size(), (stepEnd - stepStart) / 1_000_000);
             
             // Log metadata analysis summary
             logMetadataAnalysisSummary(fileMetadata);
@@ -158,7 +267,10 @@ public class RepositoryAnalysisService {
             //Persist SonarBaseComponentMetrics
             analysisMongoUtil.persistSonarBaseComponentMetricsAsync(repoDir,request.getBranch(), sonarBaseComponentMetrics);
             // Persist file metadata separately
-            if (fileMetadata != null) {
+            if (incrementalMetadata) {
+                analysisMongoUtil.persistFileMetadataDeltaAsync(metadataReport.getChangedMetadata(),
+                        metadataReport.getRemovedMetadata(), repoDir, request.getBranch());
+            } else if (fileMetadata != null) {
                 analysisMongoUtil.persistFileMetadataBatchAsync(fileMetadata, repoDir, request.getBranch());
             }
 
@@ -242,10 +354,16 @@ public class RepositoryAnalysisService {
                 """, focusedData);
             
             log.info("Generating simplified AI analysis with prompt: {}", simplifiedPrompt);
-            String aiResponse = chatClient.prompt(simplifiedPrompt).call().content();
+            String aiResponse = llmClient.call(simplifiedPrompt, LlmPriority.BACKGROUND);
             log.info("Simplified AI response: {}", aiResponse);
             
-            return parseSimplifiedRepositoryInsights(aiResponse);
+            SimplifiedRepositoryInsights insights = parseSimplifiedRepositoryInsights(aiResponse);
+            if (insights == null) {
+                // Unusable answer: make the next attempt ask the model again instead of the cache
+                llmClient.invalidate(null, simplifiedPrompt);
+                return createDefaultSimplifiedInsights();
+            }
+            return insights;
             
         } catch (Exception e) {
             log.error("Failed to generate simplified repository insights", e);
@@ -1051,7 +1169,7 @@ public class RepositoryAnalysisService {
 
 
     /**
-     * Parse simplified repository insights from AI response
+     * Parse simplified repository insights from AI response, or null when the response is unusable
      */
     private SimplifiedRepositoryInsights parseSimplifiedRepositoryInsights(String aiResponse) {
         try {
@@ -1110,7 +1228,7 @@ public class RepositoryAnalysisService {
 
         } catch (Exception e) {
             log.error("Failed to parse simplified repository insights", e);
-            return createDefaultSimplifiedInsights();
+            return null;
         }
     }
 
@@ -1185,5 +1303,13 @@ public class RepositoryAnalysisService {
         }
     }
 
+    @Data
+    @Builder
+    public static class CoalescingStats {
+        private int inFlight;        // distinct analyses running now
+        private long started;        // analyses actually run
+        private long deduplicated;   // requests that joined a running analysis instead
+    }
+
     // ...existing code...
 }
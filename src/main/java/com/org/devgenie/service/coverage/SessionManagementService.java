@@ -2,13 +2,23 @@ package com.org.devgenie.service.coverage;
 
 import com.org.devgenie.dto.coverage.ProgressUpdate;
 import com.org.devgenie.model.coverage.CoverageImprovementSession;
+import com.org.devgenie.model.coverage.StreamedTestMethod;
 import com.org.devgenie.mongo.CoverageSessionRepository;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
 import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
@@ -20,9 +30,24 @@ public class SessionManagementService {
     @Autowired
     private CoverageSessionRepository sessionRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
     @Autowired
     private ApplicationEventPublisher eventPublisher;
 
+    @Autowired
+    private SessionProgressStore progressStore;
+
+    @Autowired
+    private SessionResultsStore resultsStore;
+
+    @Autowired
+    private ProgressBus progressBus;
+
+    @Value("${coverage.session.migrate-embedded-results:true}")
+    private boolean migrateEmbeddedResults;
+
     public CoverageImprovementSession createSession(String repositoryUrl, String branch, 
                                                   String filePath, CoverageImprovementSession.SessionType type) {
         return createSession(null, repositoryUrl, branch, filePath, type);
@@ -50,9 +75,12 @@ public class SessionManagementService {
                 .progress(0.0)
                 .currentStep("Initializing session")
                 .startedAt(LocalDateTime.now())
+                .version(0L)
                 .build();
 
-        return sessionRepository.save(session);
+        CoverageImprovementSession saved = sessionRepository.save(session);
+        progressStore.register(saved);
+        return saved;
     }
 
     public void updateProgress(String sessionId, Double progress, String step) {
@@ -61,13 +89,10 @@ public class SessionManagementService {
 
     public void updateProgress(String sessionId, Double progress, String step, 
                              String message, Map<String, Object> stepData) {
-        Optional<CoverageImprovementSession> sessionOpt = sessionRepository.findById(sessionId);
+        // Applied in memory now and written to Mongo coalesced with the following updates
+        Optional<SessionProgressStore.SessionState> sessionOpt = progressStore.updateProgress(sessionId, progress, step);
         if (sessionOpt.isPresent()) {
-            CoverageImprovementSession session = sessionOpt.get();
-            session.setProgress(progress);
-            session.setCurrentStep(step);
-            
-            sessionRepository.save(session);
+            SessionProgressStore.SessionState session = sessionOpt.get();
 
             // Send progress update via WebSocket
             ProgressUpdate update = ProgressUpdate.builder()
@@ -84,87 +109,152 @@ public class SessionManagementService {
                     .type(ProgressUpdate.ProgressType.ANALYSIS)
                     .build();
 
-            eventPublisher.publishEvent(new ProgressUpdateEvent(update));
+            publish(update);
         }
     }
 
+    /**
+     * Publishes a test method generated while the response is still streaming. Only the progress
+     * channel is notified; the session document is updated with the final results.
+     */
+    public void publishGeneratedTest(String sessionId, Double progress, StreamedTestMethod test) {
+        Map<String, Object> stepData = new HashMap<>();
+        stepData.put("testClass", test.getTestClass());
+        stepData.put("testMethod", test.getMethodName());
+        stepData.put("testFilePath", test.getTestFilePath());
+        stepData.put("testCode", test.getTestCode());
+        stepData.put("batchIndex", test.getBatchIndex());
+        stepData.put("sequence", test.getSequence());
+
+        ProgressUpdate update = ProgressUpdate.builder()
+                .sessionId(sessionId)
+                .progress(progress)
+                .currentStep("Generated test " + (test.getMethodName() != null ? test.getMethodName() : "#" + test.getSequence()))
+                .message(test.getDescription())
+                .timestamp(LocalDateTime.now())
+                .stepData(stepData)
+                .type(ProgressUpdate.ProgressType.TEST_GENERATION)
+                .severity(ProgressUpdate.MessageSeverity.SUCCESS)
+                .category("GENERATED_TEST")
+                .build();
+
+        publish(update);
+    }
+
     public void updateSessionStatus(String sessionId, CoverageImprovementSession.SessionStatus status) {
-        Optional<CoverageImprovementSession> sessionOpt = sessionRepository.findById(sessionId);
-        if (sessionOpt.isPresent()) {
-            CoverageImprovementSession session = sessionOpt.get();
-            session.setStatus(status);
-            CoverageImprovementSession savedSession = sessionRepository.save(session);
-            
-            // Verify the save was successful
-            if (savedSession.getStatus().equals(status)) {
-                log.info("Session status updated to {} for session: {}", status, sessionId);
-            } else {
-                log.warn("Session status may not have been updated properly for session: {}", sessionId);
-            }
+        // Terminal statuses are written through at once, others with the next progress flush
+        if (progressStore.updateStatus(sessionId, status).isPresent()) {
+            log.info("Session status updated to {} for session: {}", status, sessionId);
         } else {
             log.warn("Attempted to update status for non-existent session: {}", sessionId);
         }
     }
 
     public void updateBatchProgress(String sessionId, Integer currentBatch, Integer totalBatches) {
-        Optional<CoverageImprovementSession> sessionOpt = sessionRepository.findById(sessionId);
-        if (sessionOpt.isPresent()) {
-            CoverageImprovementSession session = sessionOpt.get();
-            session.setCurrentBatch(currentBatch);
-            session.setTotalBatches(totalBatches);
-            sessionRepository.save(session);
-        }
+        progressStore.updateBatchProgress(sessionId, currentBatch, totalBatches);
     }
 
+    /**
+     * Stores the results out of line and their summary on the session. The results are written
+     * first, so a session that reports results always has them available.
+     */
     public void setSessionResults(String sessionId, Object results) {
-        Optional<CoverageImprovementSession> sessionOpt = sessionRepository.findById(sessionId);
-        if (sessionOpt.isPresent()) {
-            CoverageImprovementSession session = sessionOpt.get();
-            session.setResults(results);
-            CoverageImprovementSession savedSession = sessionRepository.save(session);
-            
-            // Verify the save was successful
-            if (savedSession.getResults() != null) {
-                log.info("Session results stored successfully for session: {}", sessionId);
-            } else {
-                log.warn("Session results may not have been saved properly for session: {}", sessionId);
-            }
+        Map<String, Object> summary = resultsStore.save(sessionId, results);
+        if (updateSession(sessionId, new Update().set("resultsSummary", summary).unset("results"), null)) {
+            log.info("Session results stored successfully for session: {}", sessionId);
         } else {
             log.warn("Attempted to set results for non-existent session: {}", sessionId);
         }
     }
 
+    /**
+     * Applies a partial update to the session document in a single round trip, without reading it.
+     * With an {@code expectedVersion} the update only applies if the session was not modified since
+     * that version was read (optimistic concurrency). Returns whether a session was updated.
+     */
+    public boolean updateSession(String sessionId, Update update, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(sessionId);
+        if (expectedVersion != null) {
+            criteria = criteria.and("version").is(expectedVersion);
+        }
+        return mongoTemplate.updateFirst(new Query(criteria), update.inc("version", 1),
+                CoverageImprovementSession.class).getMatchedCount() > 0;
+    }
+
+    /**
+     * Loads a session without its results; use {@link #getSessionResults} for those.
+     */
     public Optional<CoverageImprovementSession> getSession(String sessionId) {
-        return sessionRepository.findById(sessionId);
+        Query query = new Query(Criteria.where("_id").is(sessionId));
+        query.fields().exclude("results");
+        return Optional.ofNullable(mongoTemplate.findOne(query, CoverageImprovementSession.class))
+                .map(progressStore::applyTo);
+    }
+
+    public Optional<Object> getSessionResults(String sessionId) {
+        Optional<Object> results = resultsStore.find(sessionId);
+        if (results.isPresent()) {
+            return results;
+        }
+        // Not migrated yet: results still embedded in the session document
+        Query query = new Query(Criteria.where("_id").is(sessionId));
+        query.fields().include("results");
+        return Optional.ofNullable(mongoTemplate.findOne(query, CoverageImprovementSession.class))
+                .map(CoverageImprovementSession::getResults);
+    }
+
+    /**
+     * Moves results embedded in session documents written before they were stored out of line.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void moveEmbeddedResults() {
+        if (!migrateEmbeddedResults) {
+            return;
+        }
+        int moved = 0;
+        try {
+            List<CoverageImprovementSession> sessions;
+            while (!(sessions = resultsStore.findSessionsWithEmbeddedResults(50)).isEmpty()) {
+                for (CoverageImprovementSession session : sessions) {
+                    setSessionResults(session.getSessionId(), session.getResults());
+                    moved++;
+                }
+            }
+        } catch (Exception e) {
+            log.error("Could not move embedded session results, {} moved so far", moved, e);
+        }
+        if (moved > 0) {
+            log.info("Moved the results of {} session(s) to their own collection", moved);
+        }
     }
 
     public void handleError(String sessionId, Exception error) {
-        Optional<CoverageImprovementSession> sessionOpt = sessionRepository.findById(sessionId);
+        // The status is written through at once; the error is appended without rewriting the document
+        Optional<SessionProgressStore.SessionState> sessionOpt =
+                progressStore.updateStatus(sessionId, CoverageImprovementSession.SessionStatus.FAILED);
         if (sessionOpt.isPresent()) {
-            CoverageImprovementSession session = sessionOpt.get();
-            session.setStatus(CoverageImprovementSession.SessionStatus.FAILED);
-            
-            // Initialize errors list if null to prevent NPE
-            if (session.getErrors() == null) {
-                session.setErrors(new java.util.ArrayList<>());
-            }
-            session.getErrors().add(error.getMessage());
-            sessionRepository.save(session);
+            updateSession(sessionId, new Update().push("errors", error.getMessage()), null);
 
             // Send error update via WebSocket
             ProgressUpdate update = ProgressUpdate.builder()
                     .sessionId(sessionId)
-                    .progress(session.getProgress())
+                    .progress(sessionOpt.get().getProgress())
                     .currentStep("Error occurred")
                     .message(error.getMessage())
                     .timestamp(LocalDateTime.now())
                     .type(ProgressUpdate.ProgressType.ERROR)
                     .build();
 
-            eventPublisher.publishEvent(new ProgressUpdateEvent(update));
+            publish(update);
+            progressBus.complete(sessionId); // the session has ended; release SSE subscribers
         }
     }
 
+    private void publish(ProgressUpdate update) {
+        eventPublisher.publishEvent(new ProgressUpdateEvent(update)); // WebSocket clients
+        progressBus.publish(update); // SSE clients, including ones that subscribe later
+    }
+
     // Event class for WebSocket communication
     public static class ProgressUpdateEvent {
         private final ProgressUpdate progressUpdate;
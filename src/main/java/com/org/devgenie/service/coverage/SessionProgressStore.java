@@ -0,0 +1,282 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CoverageImprovementSession;
+import com.org.devgenie.model.coverage.CoverageImprovementSession.SessionStatus;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.Builder;
+import lombok.Data;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Write-behind store for the fast-changing fields of coverage sessions (status, progress, step, batch
+ * counters). Updates are applied in memory at once, so progress events carry the current state, and
+ * reach Mongo as one partial {@code $set} per session and flush interval instead of a read and a
+ * full-document save per call. Terminal statuses are written immediately.
+ */
+@Component
+@Slf4j
+public class SessionProgressStore {
+
+    private static final Set<SessionStatus> TERMINAL = EnumSet.of(SessionStatus.READY_FOR_REVIEW,
+            SessionStatus.COMPLETED, SessionStatus.FAILED, SessionStatus.CANCELLED);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${coverage.session.flush-interval-ms:1000}")
+    private long flushIntervalMillis;
+
+    @Value("${coverage.session.idle-eviction-minutes:30}")
+    private long idleEvictionMinutes;
+
+    private final ConcurrentHashMap<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong updates = new AtomicLong();
+    private final AtomicLong writes = new AtomicLong();
+    private ScheduledExecutorService flusher;
+
+    @PostConstruct
+    void initialize() {
+        flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "SessionProgressFlush");
+            thread.setDaemon(true);
+            return thread;
+        });
+        flusher.scheduleWithFixedDelay(this::flushAll, flushIntervalMillis, flushIntervalMillis, TimeUnit.MILLISECONDS);
+        FunctionCounter.builder("session.progress.updates", updates, AtomicLong::get)
+                .description("Session progress and status changes").register(meterRegistry);
+        FunctionCounter.builder("session.progress.writes", writes, AtomicLong::get)
+                .description("Coalesced session progress writes to Mongo").register(meterRegistry);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (flusher != null) {
+            flusher.shutdownNow();
+        }
+        flushAll();
+    }
+
+    /**
+     * Progress fields of a session as last set, including changes not yet written.
+     */
+    @Data
+    @Builder(toBuilder = true)
+    public static class SessionState {
+        private SessionStatus status;
+        private Double progress;
+        private String currentStep;
+        private Integer currentBatch;
+        private Integer totalBatches;
+        private Integer processedFiles;
+        private Integer totalFiles;
+    }
+
+    /**
+     * Starts tracking a session that was just saved.
+     */
+    public void register(CoverageImprovementSession session) {
+        entries.put(session.getSessionId(), new Entry(stateOf(session)));
+    }
+
+    public Optional<SessionState> updateProgress(String sessionId, Double progress, String step) {
+        return update(sessionId, state -> {
+            state.setProgress(progress);
+            state.setCurrentStep(step);
+        }, fields("progress", progress, "currentStep", step));
+    }
+
+    public Optional<SessionState> updateBatchProgress(String sessionId, Integer currentBatch, Integer totalBatches) {
+        return update(sessionId, state -> {
+            state.setCurrentBatch(currentBatch);
+            state.setTotalBatches(totalBatches);
+        }, fields("currentBatch", currentBatch, "totalBatches", totalBatches));
+    }
+
+    /**
+     * Sets the status; terminal statuses are written before this returns and the session is no
+     * longer tracked afterwards. If that write fails the session stays tracked, so the flusher keeps
+     * retrying it until the terminal status is stored.
+     */
+    public Optional<SessionState> updateStatus(String sessionId, SessionStatus status) {
+        Optional<SessionState> state = update(sessionId, s -> s.setStatus(status), fields("status", status));
+        if (state.isPresent() && TERMINAL.contains(status)) {
+            Entry entry = entries.get(sessionId);
+            if (entry != null && flush(sessionId, entry)) {
+                untrack(sessionId, entry);
+            }
+        }
+        return state;
+    }
+
+    /**
+     * Overlays changes that are not written yet onto a session read from Mongo.
+     */
+    public CoverageImprovementSession applyTo(CoverageImprovementSession session) {
+        Entry entry = entries.get(session.getSessionId());
+        if (entry != null) {
+            SessionState state;
+            synchronized (entry) {
+                state = entry.state.toBuilder().build();
+            }
+            session.setStatus(state.getStatus());
+            session.setProgress(state.getProgress());
+            session.setCurrentStep(state.getCurrentStep());
+            session.setCurrentBatch(state.getCurrentBatch());
+            session.setTotalBatches(state.getTotalBatches());
+        }
+        return session;
+    }
+
+    /**
+     * Writes the session's pending changes now.
+     */
+    public void flush(String sessionId) {
+        Entry entry = entries.get(sessionId);
+        if (entry != null) {
+            flush(sessionId, entry);
+        }
+    }
+
+    /**
+     * Returns false when the write failed and the changes are pending again.
+     */
+    private boolean flush(String sessionId, Entry entry) {
+        // One write per session at a time, so a later state is never overwritten by an earlier one
+        synchronized (entry.flushLock) {
+            Update update = new Update();
+            synchronized (entry) {
+                if (entry.pending.isEmpty()) {
+                    return true;
+                }
+                entry.pending.forEach(update::set);
+                entry.pending.clear();
+            }
+            try {
+                mongoTemplate.updateFirst(new Query(Criteria.where("_id").is(sessionId)), update.inc("version", 1),
+                        CoverageImprovementSession.class);
+                writes.incrementAndGet();
+                return true;
+            } catch (RuntimeException e) {
+                log.warn("Could not write progress of session {}, will retry: {}", sessionId, e.getMessage());
+                synchronized (entry) {
+                    update.getUpdateObject().get("$set", org.bson.Document.class)
+                            .forEach((field, value) -> entry.pending.putIfAbsent(field, value));
+                }
+                return false;
+            }
+        }
+    }
+
+    /**
+     * Stops tracking the session unless changes arrived after its last write.
+     */
+    private void untrack(String sessionId, Entry entry) {
+        synchronized (entry) {
+            if (entry.pending.isEmpty()) {
+                entries.remove(sessionId, entry);
+            }
+        }
+    }
+
+    void flushAll() {
+        long idleCutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(idleEvictionMinutes);
+        for (Map.Entry<String, Entry> entry : entries.entrySet()) {
+            try {
+                if (flush(entry.getKey(), entry.getValue())
+                        && (isTerminal(entry.getValue()) || entry.getValue().lastUpdatedNanos < idleCutoff)) {
+                    untrack(entry.getKey(), entry.getValue());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Progress flush failed for session {}: {}", entry.getKey(), e.getMessage());
+            }
+        }
+    }
+
+    private static boolean isTerminal(Entry entry) {
+        synchronized (entry) {
+            return TERMINAL.contains(entry.state.getStatus());
+        }
+    }
+
+    private Optional<SessionState> update(String sessionId, Consumer<SessionState> change, Map<String, Object> fields) {
+        Entry entry = entries.computeIfAbsent(sessionId, this::load);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        updates.incrementAndGet();
+        synchronized (entry) {
+            change.accept(entry.state);
+            entry.pending.putAll(fields);
+            entry.lastUpdatedNanos = System.nanoTime();
+            return Optional.of(entry.state.toBuilder().build());
+        }
+    }
+
+    /**
+     * Starts tracking a session created elsewhere (another instance, or before a restart) from its
+     * stored progress fields, without reading its results.
+     */
+    private Entry load(String sessionId) {
+        Query query = new Query(Criteria.where("_id").is(sessionId));
+        query.fields().exclude("results");
+        CoverageImprovementSession session = mongoTemplate.findOne(query, CoverageImprovementSession.class);
+        return session != null ? new Entry(stateOf(session)) : null;
+    }
+
+    private static Map<String, Object> fields(Object... namesAndValues) {
+        // Values may be null, which Map.of does not allow
+        Map<String, Object> fields = new LinkedHashMap<>();
+        for (int i = 0; i < namesAndValues.length; i += 2) {
+            fields.put((String) namesAndValues[i], namesAndValues[i + 1]);
+        }
+        return fields;
+    }
+
+    private static SessionState stateOf(CoverageImprovementSession session) {
+        return SessionState.builder()
+                .status(session.getStatus())
+                .progress(session.getProgress())
+                .currentStep(session.getCurrentStep())
+                .currentBatch(session.getCurrentBatch())
+                .totalBatches(session.getTotalBatches())
+                .processedFiles(session.getProcessedFiles())
+                .totalFiles(session.getTotalFiles())
+                .build();
+    }
+
+    private static class Entry {
+        private final Object flushLock = new Object();
+        private final Map<String, Object> pending = new LinkedHashMap<>();
+        private SessionState state;
+        private volatile long lastUpdatedNanos = System.nanoTime();
+
+        private Entry(SessionState state) {
+            this.state = state;
+        }
+    }
+}
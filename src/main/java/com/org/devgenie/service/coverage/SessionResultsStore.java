@@ -0,0 +1,100 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CoverageImprovementSession;
+import com.org.devgenie.model.coverage.SessionResults;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Stores session results in their own collection, so that the generated test code is only read by
+ * the results endpoint. Sessions keep a summary of the results (coverage numbers, test counts,
+ * validation outcome, test names) that is enough for status, list and dashboard queries.
+ */
+@Component
+public class SessionResultsStore {
+
+    // Scalar and small list fields of file and repository results that are copied into the summary
+    private static final Set<String> SUMMARY_FIELDS = Set.of(
+            "fileName", "filePath", "originalCoverage", "improvedCoverage", "coverageIncrease",
+            "totalTestsGenerated", "processingTimeMs", "testsCompiled", "testsExecuted", "startedAt",
+            "completedAt", "status", "recommendations", "warnings", "errors", "totalFilesProcessed",
+            "successfulFiles", "failedFiles", "totalCoverageIncrease", "averageCoverageIncrease");
+    private static final Set<String> VALIDATION_FIELDS = Set.of(
+            "success", "testsExecuted", "testsPassed", "testsFailed", "testsSkipped", "executionTimeMs",
+            "validationMethod");
+    private static final Set<String> GENERATED_TEST_FIELDS = Set.of(
+            "testMethodName", "testClass", "description", "coveredMethods", "estimatedCoverageContribution");
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    /**
+     * Stores (or replaces) the results of a session and returns their summary.
+     */
+    public Map<String, Object> save(String sessionId, Object results) {
+        mongoTemplate.save(SessionResults.builder()
+                .sessionId(sessionId)
+                .results(results)
+                .storedAt(LocalDateTime.now())
+                .build());
+        return summarize(results);
+    }
+
+    public Optional<Object> find(String sessionId) {
+        return Optional.ofNullable(mongoTemplate.findById(sessionId, SessionResults.class))
+                .map(SessionResults::getResults);
+    }
+
+    /**
+     * Sessions stored before results were kept out of line, with their embedded results.
+     */
+    public List<CoverageImprovementSession> findSessionsWithEmbeddedResults(int limit) {
+        Query query = new Query(Criteria.where("results").ne(null).and("resultsSummary").exists(false)).limit(limit);
+        query.fields().include("results");
+        return mongoTemplate.find(query, CoverageImprovementSession.class);
+    }
+
+    Map<String, Object> summarize(Object results) {
+        Object converted = results instanceof Map ? results : mongoTemplate.getConverter().convertToMongoType(results);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (!(converted instanceof Map<?, ?> fields)) {
+            return summary;
+        }
+        fields.forEach((key, value) -> {
+            if (SUMMARY_FIELDS.contains(key)) {
+                summary.put((String) key, value);
+            }
+        });
+        if (fields.get("validationResult") instanceof Map<?, ?> validation) {
+            summary.put("validationResult", pick(validation, VALIDATION_FIELDS));
+        }
+        if (fields.get("generatedTests") instanceof List<?> tests) {
+            summary.put("generatedTests", tests.stream()
+                    .filter(test -> test instanceof Map)
+                    .map(test -> pick((Map<?, ?>) test, GENERATED_TEST_FIELDS))
+                    .collect(Collectors.toList()));
+        }
+        return summary;
+    }
+
+    private static Map<String, Object> pick(Map<?, ?> source, Set<String> keys) {
+        Map<String, Object> picked = new LinkedHashMap<>();
+        source.forEach((key, value) -> {
+            if (keys.contains(key)) {
+                picked.put((String) key, value);
+            }
+        });
+        return picked;
+    }
+}
@@ -0,0 +1,173 @@
+package com.org.devgenie.service.coverage;
+
+import com.github.javaparser.ast.CompilationUnit;
+import com.github.javaparser.ast.Node;
+import com.github.javaparser.ast.body.MethodDeclaration;
+import com.org.devgenie.ai.gateway.LlmGateway;
+import com.org.devgenie.model.coverage.CompilationResult;
+import com.org.devgenie.model.coverage.TestGenerationResult;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs several test generation candidates for the same file at once and keeps the first one that
+ * holds up: it must parse, contain at least one {@code @Test} method and, when the repository is
+ * known, compile against its test classpath. The remaining candidates are cancelled, so a small
+ * file costs about as long as its fastest good answer instead of one strategy plus its fallback.
+ */
+@Component
+@Slf4j
+public class SpeculativeTestGenerator {
+
+    @Autowired
+    private MetadataAnalyzer metadataAnalyzer;
+
+    @Autowired
+    private TestCompilationService testCompilationService;
+
+    @Value("${coverage.generation.speculative.compile-check:true}")
+    private boolean compileCheck;
+
+    @Value("${coverage.generation.speculative.timeout-seconds:600}")
+    private long timeoutSeconds;
+
+    private ExecutorService candidateExecutor;
+
+    @PostConstruct
+    void initializeExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        // Candidates spend their time waiting on the LLM gateway, which bounds the real concurrency
+        candidateExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "SpeculativeGen-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (candidateExecutor != null) {
+            candidateExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Starts every candidate and returns the first result, in completion order, that passes validation.
+     * If none does, the first successful result is returned unchanged, as the caller would have got it
+     * without speculation; if no candidate succeeded at all, a failure listing every rejection.
+     *
+     * @param repoDir repository root used for the compile check, or {@code null} to skip it
+     * @param candidates generators by strategy name
+     */
+    public TestGenerationResult generate(String sourceFilePath, String repoDir,
+                                         Map<String, Supplier<TestGenerationResult>> candidates) {
+        long start = System.nanoTime();
+        CompletionService<TestGenerationResult> completions = new ExecutorCompletionService<>(candidateExecutor);
+        Map<Future<TestGenerationResult>, String> names = new HashMap<>();
+        candidates.forEach((name, candidate) -> names.put(completions.submit(LlmGateway.inheritPriority(candidate)::get), name));
+
+        List<String> rejections = new ArrayList<>();
+        TestGenerationResult fallback = null;
+        long deadline = start + TimeUnit.SECONDS.toNanos(timeoutSeconds);
+        try {
+            for (int received = 0; received < names.size(); received++) {
+                Future<TestGenerationResult> done = completions.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (done == null) {
+                    rejections.add("timed out after " + timeoutSeconds + "s");
+                    break;
+                }
+                String name = names.get(done);
+                TestGenerationResult result;
+                try {
+                    result = done.get();
+                } catch (ExecutionException e) {
+                    rejections.add(name + ": " + e.getCause().getMessage());
+                    continue;
+                }
+
+                String rejection = validate(result, repoDir);
+                if (rejection == null) {
+                    log.info("Speculative generation for {}: {} won after {} ms", sourceFilePath, name,
+                            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+                    result.setNotes((result.getNotes() == null ? "" : result.getNotes() + "; ")
+                            + "Selected from speculative candidates: " + name);
+                    return result;
+                }
+                log.info("Speculative candidate {} for {} rejected: {}", name, sourceFilePath, rejection);
+                rejections.add(name + ": " + rejection);
+                if (fallback == null && result.isSuccess()) {
+                    fallback = result;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            rejections.add("interrupted");
+        } finally {
+            names.keySet().forEach(future -> future.cancel(true));
+        }
+
+        if (fallback != null) {
+            log.warn("No speculative candidate for {} validated, keeping the first successful one: {}", sourceFilePath, rejections);
+            return fallback;
+        }
+        return TestGenerationResult.failure(sourceFilePath, "All speculative candidates failed: " + String.join("; ", rejections));
+    }
+
+    /**
+     * Returns why the result is not usable, or {@code null} if it is.
+     */
+    String validate(TestGenerationResult result, String repoDir) {
+        if (result == null || !result.isSuccess()) {
+            return result == null ? "no result" : String.valueOf(result.getError());
+        }
+        String content = result.getGeneratedTestContent();
+        if (content == null || content.isBlank()) {
+            return "empty test class";
+        }
+
+        CompilationUnit cu;
+        try {
+            cu = metadataAnalyzer.parseJavaSource(content);
+        } catch (RuntimeException e) {
+            return "does not parse: " + e.getMessage();
+        }
+        // The parser recovers from some syntax errors; recovered nodes are marked unparsable
+        if (cu.findFirst(Node.class, node -> node.getParsed() == Node.Parsedness.UNPARSABLE).isPresent()) {
+            return "does not parse: syntax errors";
+        }
+        boolean hasTests = cu.findAll(MethodDeclaration.class).stream()
+                .anyMatch(method -> method.isAnnotationPresent("Test") || method.isAnnotationPresent("ParameterizedTest"));
+        if (!hasTests) {
+            return "no @Test methods";
+        }
+
+        if (compileCheck && repoDir != null && result.getTestFilePath() != null) {
+            CompilationResult compilation = testCompilationService.compileTestSource(repoDir, result.getTestFilePath(), content);
+            if (!Boolean.TRUE.equals(compilation.getSuccess())) {
+                List<String> errors = compilation.getErrors() == null ? List.of() : compilation.getErrors();
+                return "does not compile: " + (errors.isEmpty() ? "unknown error" : errors.get(0))
+                        + (errors.size() > 1 ? " (+" + (errors.size() - 1) + " more)" : "");
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,406 @@
+package com.org.devgenie.service.coverage;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.org.devgenie.model.coverage.StreamedTestMethod;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Incremental parser for streamed test generation responses.
+ * Chunks are scanned as they arrive, and every test method is handed to the listener as soon as
+ * its closing brace has been received:
+ * <ul>
+ *   <li>batch responses: each complete object of the {@code testMethods} array</li>
+ *   <li>full-file responses: the {@code testClassContent} string is unescaped on the fly and each
+ *       test method of the Java class is emitted together with the class so far</li>
+ * </ul>
+ * Markdown fences or text around the JSON are ignored. The parser only drives early feedback;
+ * the complete response is still parsed by {@link TestGenerationService} afterwards.
+ * Not thread-safe: use one instance per response.
+ */
+@Slf4j
+public class StreamingTestParser {
+
+    private static final Pattern TEST_ANNOTATION = Pattern.compile("@(Test|ParameterizedTest|RepeatedTest|TestFactory)\\b");
+    private static final Pattern TEST_METHOD_NAME = Pattern.compile("\\bvoid\\s+(\\w+)\\s*\\(");
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final String defaultTestFilePath;
+    private final Integer batchIndex;
+    private final TestGenerationService.GeneratedTestListener listener;
+
+    private final StringBuilder raw = new StringBuilder();
+    private int position;
+    private boolean finished;
+
+    // JSON scanner state
+    private final Deque<Character> containers = new ArrayDeque<>();
+    private boolean started;
+    private boolean inString;
+    private boolean escape;
+    private int unicodeRemaining;
+    private int unicodeValue;
+    private boolean expectKey;
+    private boolean stringIsKey;
+    private String stringValueKey;
+    private StringBuilder decoded;
+    private String currentKey;
+    private String pendingKey;
+    private int methodsArrayDepth = -1;
+    private int methodObjectStart = -1;
+
+    // Top-level fields seen so far
+    private String testClass;
+    private String testFilePath;
+    private JavaClassScanner classContent;
+
+    private int sequence;
+    private final long startNanos = System.nanoTime();
+    private long firstTestNanos;
+
+    public StreamingTestParser(String defaultTestFilePath, Integer batchIndex,
+                               TestGenerationService.GeneratedTestListener listener) {
+        this.defaultTestFilePath = defaultTestFilePath;
+        this.batchIndex = batchIndex;
+        this.listener = listener;
+    }
+
+    public void accept(String chunk) {
+        if (chunk == null || chunk.isEmpty() || finished) {
+            return;
+        }
+        raw.append(chunk);
+        scan();
+    }
+
+    /**
+     * Flushes what is left once the stream has completed.
+     */
+    public void finish() {
+        scan();
+        if (classContent != null) {
+            classContent.scan(true);
+        }
+        finished = true;
+    }
+
+    public int getEmittedCount() {
+        return sequence;
+    }
+
+    /**
+     * Milliseconds from parser creation to the first emitted test, or -1 if none was emitted.
+     */
+    public long getTimeToFirstTestMillis() {
+        return firstTestNanos == 0 ? -1 : (firstTestNanos - startNanos) / 1_000_000;
+    }
+
+    private void scan() {
+        for (; position < raw.length() && !finished; position++) {
+            char c = raw.charAt(position);
+            if (!started) {
+                if (c == '{') {
+                    started = true;
+                    openContainer(c);
+                }
+                continue;
+            }
+            if (inString) {
+                scanStringChar(c);
+            } else {
+                scanStructuralChar(c);
+            }
+        }
+    }
+
+    private void scanStructuralChar(char c) {
+        switch (c) {
+            case '"' -> {
+                inString = true;
+                stringIsKey = expectKey && isInObject();
+                stringValueKey = stringIsKey ? null : takeValueKey();
+                decoded = stringIsKey || isCapturedField(stringValueKey) ? new StringBuilder() : null;
+                if (!stringIsKey && "testClassContent".equals(stringValueKey) && containers.size() == 1) {
+                    classContent = new JavaClassScanner();
+                }
+            }
+            case '{', '[' -> {
+                String key = takeValueKey();
+                if (c == '[' && "testMethods".equals(key) && containers.size() == 1) {
+                    methodsArrayDepth = containers.size() + 1;
+                } else if (c == '{' && methodsArrayDepth > 0 && containers.size() == methodsArrayDepth) {
+                    methodObjectStart = position;
+                }
+                openContainer(c);
+            }
+            case '}', ']' -> {
+                if (c == '}' && methodObjectStart >= 0 && containers.size() == methodsArrayDepth + 1) {
+                    emitBatchMethod(raw.substring(methodObjectStart, position + 1));
+                    methodObjectStart = -1;
+                } else if (c == ']' && containers.size() == methodsArrayDepth) {
+                    methodsArrayDepth = -1;
+                }
+                containers.pollLast();
+                if (containers.isEmpty()) {
+                    finished = true;
+                }
+            }
+            case ':' -> pendingKey = currentKey;
+            case ',' -> expectKey = isInObject();
+            default -> {
+                // numbers, literals and whitespace; a scalar value consumes its key
+                if (!Character.isWhitespace(c)) {
+                    takeValueKey();
+                }
+            }
+        }
+    }
+
+    private void scanStringChar(char c) {
+        if (unicodeRemaining > 0) {
+            unicodeValue = unicodeValue * 16 + Character.digit(c, 16);
+            if (--unicodeRemaining == 0) {
+                appendDecoded((char) unicodeValue);
+            }
+            return;
+        }
+        if (escape) {
+            escape = false;
+            switch (c) {
+                case 'n' -> appendDecoded('\n');
+                case 't' -> appendDecoded('\t');
+                case 'r' -> appendDecoded('\r');
+                case 'b' -> appendDecoded('\b');
+                case 'f' -> appendDecoded('\f');
+                case 'u' -> {
+                    unicodeRemaining = 4;
+                    unicodeValue = 0;
+                }
+                default -> appendDecoded(c);
+            }
+            return;
+        }
+        if (c == '\\') {
+            escape = true;
+        } else if (c == '"') {
+            endString();
+        } else {
+            appendDecoded(c);
+        }
+    }
+
+    private void appendDecoded(char c) {
+        if (decoded != null) {
+            decoded.append(c);
+        }
+        if (classContent != null && !stringIsKey && "testClassContent".equals(stringValueKey)) {
+            classContent.append(c);
+        }
+    }
+
+    private void endString() {
+        inString = false;
+        if (stringIsKey) {
+            currentKey = decoded.toString();
+            expectKey = false;
+        } else if (containers.size() == 1 && decoded != null) {
+            switch (stringValueKey) {
+                case "testClass", "testClassName" -> testClass = decoded.toString();
+                case "testFilePath" -> testFilePath = decoded.toString();
+                default -> {
+                }
+            }
+        }
+        if (classContent != null && "testClassContent".equals(stringValueKey)) {
+            classContent.scan(true);
+        }
+        decoded = null;
+        stringValueKey = null;
+    }
+
+    private void openContainer(char c) {
+        containers.addLast(c);
+        expectKey = c == '{';
+    }
+
+    private boolean isInObject() {
+        return !containers.isEmpty() && containers.peekLast() == '{';
+    }
+
+    private String takeValueKey() {
+        String key = pendingKey;
+        pendingKey = null;
+        return key;
+    }
+
+    private boolean isCapturedField(String key) {
+        return key != null && containers.size() == 1
+                && (key.equals("testClass") || key.equals("testClassName") || key.equals("testFilePath"));
+    }
+
+    private void emitBatchMethod(String json) {
+        try {
+            JsonNode method = MAPPER.readTree(json);
+            String code = method.path("code").asText("");
+            if (code.isBlank()) {
+                return;
+            }
+            List<String> coveredMethods = new ArrayList<>();
+            method.path("coveredMethods").forEach(node -> coveredMethods.add(node.asText()));
+            emit(StreamedTestMethod.builder()
+                    .methodName(method.path("methodName").asText(null))
+                    .description(method.path("description").asText(null))
+                    .testCode(code)
+                    .coveredMethods(coveredMethods));
+        } catch (Exception e) {
+            // Left to the full parse once the response is complete
+            log.debug("Could not parse streamed test method: {}", e.getMessage());
+        }
+    }
+
+    private void emitClassMember(String member, String classSoFar) {
+        int firstLineEnd = member.indexOf('\n');
+        if (firstLineEnd >= 0 && member.substring(0, firstLineEnd).strip().startsWith("//")) {
+            member = member.substring(firstLineEnd + 1); // trailing comment of the previous member
+        }
+        Matcher name = TEST_METHOD_NAME.matcher(member);
+        emit(StreamedTestMethod.builder()
+                .methodName(name.find() ? name.group(1) : null)
+                .testCode(member.strip())
+                .partialTestContent(classSoFar.stripTrailing() + "\n}\n"));
+    }
+
+    private void emit(StreamedTestMethod.StreamedTestMethodBuilder builder) {
+        sequence++;
+        if (firstTestNanos == 0) {
+            firstTestNanos = System.nanoTime();
+        }
+        StreamedTestMethod test = builder
+                .testClass(testClass)
+                .testFilePath(testFilePath != null ? testFilePath : defaultTestFilePath)
+                .batchIndex(batchIndex)
+                .sequence(sequence)
+                .build();
+        try {
+            listener.onTestGenerated(test);
+        } catch (RuntimeException e) {
+            log.warn("Generated test listener failed for {}: {}", test.getMethodName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Tracks the brace depth of the streamed Java class, ignoring comments, string and char
+     * literals and braces inside parentheses (annotation arrays, lambdas in arguments). A member
+     * of the class body ends at a {@code ;} or at the {@code }} that returns to class level.
+     */
+    private class JavaClassScanner {
+
+        private final StringBuilder source = new StringBuilder();
+        private int pos;
+        private int braceDepth;
+        private int parenDepth;
+        private int memberStart = -1;
+        private Mode mode = Mode.CODE;
+
+        void append(char c) {
+            source.append(c);
+            scan(false);
+        }
+
+        /**
+         * Scans up to the end of the received text; unless final, the last two characters are
+         * kept back so that two- and three-character tokens are never split.
+         */
+        void scan(boolean complete) {
+            int limit = complete ? source.length() : source.length() - 2;
+            while (pos < limit) {
+                char c = source.charAt(pos);
+                char next = charAt(pos + 1);
+                switch (mode) {
+                    case LINE_COMMENT -> {
+                        if (c == '\n') {
+                            mode = Mode.CODE;
+                        }
+                    }
+                    case BLOCK_COMMENT -> {
+                        if (c == '*' && next == '/') {
+                            mode = Mode.CODE;
+                            pos++;
+                        }
+                    }
+                    case STRING, CHAR -> {
+                        if (c == '\\') {
+                            pos++;
+                        } else if (c == (mode == Mode.STRING ? '"' : '\'')) {
+                            mode = Mode.CODE;
+                        }
+                    }
+                    case TEXT_BLOCK -> {
+                        if (c == '\\') {
+                            pos++;
+                        } else if (c == '"' && next == '"' && charAt(pos + 2) == '"') {
+                            mode = Mode.CODE;
+                            pos += 2;
+                        }
+                    }
+                    case CODE -> scanCode(c, next);
+                }
+                pos++;
+            }
+        }
+
+        private void scanCode(char c, char next) {
+            if (c == '/' && next == '/') {
+                mode = Mode.LINE_COMMENT;
+                pos++;
+            } else if (c == '/' && next == '*') {
+                mode = Mode.BLOCK_COMMENT;
+                pos++;
+            } else if (c == '"') {
+                if (next == '"' && charAt(pos + 2) == '"') {
+                    mode = Mode.TEXT_BLOCK;
+                    pos += 2;
+                } else {
+                    mode = Mode.STRING;
+                }
+            } else if (c == '\'') {
+                mode = Mode.CHAR;
+            } else if (c == '(') {
+                parenDepth++;
+            } else if (c == ')') {
+                parenDepth = Math.max(0, parenDepth - 1);
+            } else if (parenDepth == 0 && c == '{') {
+                braceDepth++;
+                if (braceDepth == 1) {
+                    memberStart = pos + 1;
+                }
+            } else if (parenDepth == 0 && c == '}') {
+                braceDepth--;
+                if (braceDepth == 1 && memberStart >= 0) {
+                    String member = source.substring(memberStart, pos + 1);
+                    if (TEST_ANNOTATION.matcher(member).find()) {
+                        emitClassMember(member, source.substring(0, pos + 1));
+                    }
+                    memberStart = pos + 1;
+                }
+            } else if (c == ';' && braceDepth == 1 && parenDepth == 0) {
+                memberStart = pos + 1;
+            }
+        }
+
+        private char charAt(int index) {
+            return index < source.length() ? source.charAt(index) : '\0';
+        }
+    }
+
+    private enum Mode {
+        CODE, LINE_COMMENT, BLOCK_COMMENT, STRING, CHAR, TEXT_BLOCK
+    }
+}
@@ -0,0 +1,119 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.ai.gateway.LlmGateway;
+import com.org.devgenie.config.CoverageConfiguration;
+import com.org.devgenie.model.coverage.BatchTestGenerationResult;
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Generates the test batches of one file concurrently.
+ * Batches are independent (each covers its own slice of uncovered methods), so they are
+ * dispatched to a bounded pool and the file takes about as long as its slowest batch.
+ * Results are returned in batch order regardless of completion order, and progress is reported
+ * as a monotonically increasing count of completed batches.
+ */
+@Component
+@Slf4j
+public class TestBatchExecutor {
+
+    @Autowired
+    private TestGenerationService testGenerationService;
+
+    @Autowired
+    private CoverageConfiguration config;
+
+    private ExecutorService batchExecutor;
+
+    @PostConstruct
+    void initializeExecutor() {
+        int parallelism = config.isEnableParallelProcessing() ? Math.max(1, config.getBatchParallelism()) : 1;
+        AtomicInteger threadIndex = new AtomicInteger();
+        batchExecutor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "TestBatch-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        log.info("Test batch generation parallelism: {}", parallelism);
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (batchExecutor != null) {
+            batchExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Called after each finished batch with the number of completed batches so far (1..total)
+     * and the index of the batch that just finished.
+     */
+    @FunctionalInterface
+    public interface BatchProgressListener {
+        void onBatchCompleted(int completedBatches, int totalBatches, int batchIndex, BatchTestGenerationResult result);
+    }
+
+    /**
+     * Generates batches {@code 0..totalBatches-1} concurrently and returns their results in batch order.
+     * A batch that throws is reported as a failed result rather than failing the others.
+     */
+    public List<BatchTestGenerationResult> generateBatches(FileAnalysisResult analysis, int totalBatches,
+                                                           Integer maxTestsPerBatch, BatchProgressListener listener) {
+        return generateBatches(analysis, totalBatches, maxTestsPerBatch, listener, null);
+    }
+
+    /**
+     * As above, additionally streaming every generated test method to {@code testListener} as soon
+     * as it is complete. The test listener is called concurrently from the batch threads.
+     */
+    public List<BatchTestGenerationResult> generateBatches(FileAnalysisResult analysis, int totalBatches,
+                                                           Integer maxTestsPerBatch, BatchProgressListener listener,
+                                                           TestGenerationService.GeneratedTestListener testListener) {
+        long start = System.nanoTime();
+        Object progressLock = new Object();
+        int[] completed = {0};
+
+        List<CompletableFuture<BatchTestGenerationResult>> futures = new ArrayList<>(totalBatches);
+        for (int i = 0; i < totalBatches; i++) {
+            int batchIndex = i;
+            futures.add(CompletableFuture
+                    .supplyAsync(LlmGateway.inheritPriority(
+                                    () -> testGenerationService.generateTestsBatch(analysis, batchIndex, maxTestsPerBatch, testListener)),
+                            batchExecutor)
+                    .exceptionally(e -> BatchTestGenerationResult.failure(e.getMessage()))
+                    .thenApply(result -> {
+                        // Serialized so listeners see completed counts strictly in increasing order
+                        synchronized (progressLock) {
+                            completed[0]++;
+                            if (listener != null) {
+                                try {
+                                    listener.onBatchCompleted(completed[0], totalBatches, batchIndex, result);
+                                } catch (RuntimeException e) {
+                                    log.warn("Batch progress listener failed: {}", e.getMessage());
+                                }
+                            }
+                        }
+                        return result;
+                    }));
+        }
+
+        List<BatchTestGenerationResult> results = new ArrayList<>(totalBatches);
+        for (CompletableFuture<BatchTestGenerationResult> future : futures) {
+            results.add(future.join());
+        }
+        log.info("Generated {} batches for {} in {} ms", totalBatches, analysis.getFilePath(),
+                (System.nanoTime() - start) / 1_000_000);
+        return results;
+    }
+}
@@ -0,0 +1,421 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.StandardJavaFileManager;
+import javax.tools.StandardLocation;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Compiles generated test files in-process with the system {@link JavaCompiler}.
+ * The project's test classpath is resolved once per workspace through the build tool and cached
+ * together with a warm file manager, so re-validating a handful of generated tests only compiles
+ * those files against the already-built main and test classes instead of running a full build.
+ * The cache entry is dropped when the build file changes.
+ */
+@Service
+@Slf4j
+public class TestCompilationService {
+
+    private static final String CLASSPATH_FILE = "devgenie-test-classpath.txt";
+    private static final String GRADLE_CLASSPATH_TASK = "devgenieTestClasspath";
+    private static final String GRADLE_INIT_SCRIPT = """
+            allprojects {
+                afterEvaluate { p ->
+                    if (p.plugins.hasPlugin('java')) {
+                        p.tasks.register('%s') {
+                            doLast {
+                                def out = new File(p.layout.buildDirectory.get().asFile, '%s')
+                                out.parentFile.mkdirs()
+                                out.text = p.sourceSets.test.runtimeClasspath.asPath
+                            }
+                        }
+                    }
+                }
+            }
+            """.formatted(GRADLE_CLASSPATH_TASK, CLASSPATH_FILE);
+
+    @Autowired
+    private BuildProcessRunner buildProcessRunner;
+
+    @Autowired
+    private JacocoExecAnalyzer jacocoExecAnalyzer;
+
+    @Value("${coverage.validation.compiler-options:-proc:none -g -parameters}")
+    private String compilerOptions;
+
+    private final JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+    private final Map<String, WorkspaceClasspath> classpathCache = new ConcurrentHashMap<>();
+
+    @PreDestroy
+    void closeFileManagers() {
+        classpathCache.values().forEach(WorkspaceClasspath::close);
+        classpathCache.clear();
+    }
+
+    /**
+     * Compiles the given test files (paths relative to the repository) against the workspace's
+     * test classpath. Class files go to a fresh scratch directory reported in the result, which
+     * the caller removes with {@link #deleteOutputDirectory} once the tests have run; it is
+     * removed right away when compilation fails.
+     */
+    public CompilationResult compileTestFiles(String repoDir, List<String> testFiles) {
+        long start = System.nanoTime();
+        if (compiler == null) {
+            return failure(List.of("No system Java compiler available; the application must run on a JDK"), start);
+        }
+
+        List<File> sources = new ArrayList<>();
+        List<String> missing = new ArrayList<>();
+        for (String testFile : testFiles) {
+            Path path = Paths.get(repoDir).resolve(testFile);
+            if (Files.isRegularFile(path)) {
+                sources.add(path.toFile());
+            } else {
+                missing.add("Test file not found: " + testFile);
+            }
+        }
+        if (!missing.isEmpty()) {
+            return failure(missing, start);
+        }
+        if (sources.isEmpty()) {
+            return CompilationResult.builder()
+                    .success(true)
+                    .errors(new ArrayList<>())
+                    .warnings(new ArrayList<>())
+                    .compiledFiles(new ArrayList<>())
+                    .compilationTimeMs(elapsedMillis(start))
+                    .build();
+        }
+
+        String workspace = Paths.get(repoDir).toAbsolutePath().normalize().toString();
+        return compile(workspace, testFiles, "devgenie-test-classes",
+                fileManager -> fileManager.getJavaFileObjectsFromFiles(sources), true, start);
+    }
+
+    /**
+     * Compiles a test class held in memory, e.g. a generated candidate before it is written.
+     * {@code testFilePath} (relative to the repository) only names the source in diagnostics;
+     * the class files are not needed afterwards and their scratch directory is removed.
+     */
+    public CompilationResult compileTestSource(String repoDir, String testFilePath, String content) {
+        long start = System.nanoTime();
+        if (compiler == null) {
+            return failure(List.of("No system Java compiler available; the application must run on a JDK"), start);
+        }
+        String workspace = Paths.get(repoDir).toAbsolutePath().normalize().toString();
+        JavaFileObject source = new SimpleJavaFileObject(Paths.get(workspace).resolve(testFilePath).toUri(),
+                JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return content;
+            }
+        };
+        return compile(workspace, List.of(testFilePath), "devgenie-test-source-check", fileManager -> List.of(source),
+                false, start);
+    }
+
+    private CompilationResult compile(String workspace, List<String> testFiles, String outputName,
+                                      Function<StandardJavaFileManager, Iterable<? extends JavaFileObject>> sources,
+                                      boolean keepOutput, long start) {
+        boolean fromCache = isCached(workspace);
+        WorkspaceClasspath classpath = classpathFor(workspace);
+
+        // One compilation at a time per workspace: the cached file manager is not thread-safe
+        synchronized (classpath) {
+            Path outputDirectory = null;
+            try {
+                // A unique directory per compilation: a concurrent compile in the same workspace
+                // must not delete classes another run is still executing
+                outputDirectory = Files.createTempDirectory(outputName + "-");
+                StandardJavaFileManager fileManager = classpath.fileManager(compiler);
+                fileManager.setLocationFromPaths(StandardLocation.CLASS_OUTPUT, List.of(outputDirectory));
+
+                DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+                Iterable<? extends JavaFileObject> units = sources.apply(fileManager);
+                List<String> options = List.of(compilerOptions.trim().split("\\s+"));
+                boolean success = compiler.getTask(null, fileManager, diagnostics, options, null, units).call();
+
+                List<String> errors = new ArrayList<>();
+                List<String> warnings = new ArrayList<>();
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    if (diagnostic.getKind() == Diagnostic.Kind.ERROR) {
+                        errors.add(format(diagnostic, workspace));
+                    } else if (diagnostic.getKind() == Diagnostic.Kind.WARNING
+                            || diagnostic.getKind() == Diagnostic.Kind.MANDATORY_WARNING) {
+                        warnings.add(format(diagnostic, workspace));
+                    }
+                }
+
+                boolean compiled = success && errors.isEmpty();
+                boolean outputKept = keepOutput && compiled;
+                if (!outputKept) {
+                    deleteRecursively(outputDirectory);
+                }
+
+                long elapsed = elapsedMillis(start);
+                log.info("Compiled {} test file(s) in {} ms ({} errors, classpath of {} entries{})",
+                        testFiles.size(), elapsed, errors.size(), classpath.entries.size(), fromCache ? ", cached" : "");
+                return CompilationResult.builder()
+                        .success(compiled)
+                        .errors(errors)
+                        .warnings(warnings)
+                        .compiledFiles(new ArrayList<>(testFiles))
+                        .outputDirectory(outputKept ? outputDirectory.toString() : null)
+                        .classpathEntries(classpath.entries.size())
+                        .classpathFromCache(fromCache)
+                        .compilationTimeMs(elapsed)
+                        .build();
+            } catch (IOException | RuntimeException e) {
+                log.error("In-process test compilation failed for {}", workspace, e);
+                deleteRecursively(outputDirectory);
+                return failure(List.of("Compilation could not run: " + e.getMessage()), start);
+            }
+        }
+    }
+
+    /**
+     * Removes the scratch class directory of a compilation, once its tests have been executed.
+     * Safe to call with null or with a result that has no output directory.
+     */
+    public void deleteOutputDirectory(CompilationResult compilation) {
+        if (compilation != null && compilation.getOutputDirectory() != null) {
+            deleteRecursively(Paths.get(compilation.getOutputDirectory()));
+        }
+    }
+
+    /**
+     * Test classpath for the workspace: the build tool's resolved test runtime classpath plus the
+     * compiled class directories of every module. Resolved once and cached.
+     */
+    public List<Path> getTestClasspath(String repoDir) {
+        return List.copyOf(classpathFor(Paths.get(repoDir).toAbsolutePath().normalize().toString()).entries);
+    }
+
+    /**
+     * Drops the cached classpath of a workspace, e.g. after dependencies were changed.
+     */
+    public void invalidate(String repoDir) {
+        WorkspaceClasspath removed = classpathCache.remove(Paths.get(repoDir).toAbsolutePath().normalize().toString());
+        if (removed != null) {
+            removed.close();
+        }
+    }
+
+    private boolean isCached(String workspace) {
+        WorkspaceClasspath cached = classpathCache.get(workspace);
+        return cached != null && cached.buildFileStamp == buildFileStamp(workspace);
+    }
+
+    private WorkspaceClasspath classpathFor(String workspace) {
+        long stamp = buildFileStamp(workspace);
+        WorkspaceClasspath cached = classpathCache.get(workspace);
+        if (cached != null && cached.buildFileStamp == stamp) {
+            return cached;
+        }
+        WorkspaceClasspath resolved = new WorkspaceClasspath(resolveClasspath(workspace), stamp);
+        WorkspaceClasspath previous = classpathCache.put(workspace, resolved);
+        if (previous != null) {
+            previous.close();
+        }
+        return resolved;
+    }
+
+    private List<Path> resolveClasspath(String workspace) {
+        long start = System.nanoTime();
+        Set<Path> entries = new LinkedHashSet<>();
+        // Freshly built classes first so they win over stale jars of the same project
+        entries.addAll(jacocoExecAnalyzer.findClassDirectories(workspace));
+        entries.addAll(findTestClassDirectories(workspace));
+
+        try {
+            if (Files.exists(Paths.get(workspace, "pom.xml"))) {
+                entries.addAll(resolveMavenClasspath(workspace));
+            } else if (Files.exists(Paths.get(workspace, "build.gradle"))
+                    || Files.exists(Paths.get(workspace, "build.gradle.kts"))) {
+                entries.addAll(resolveGradleClasspath(workspace));
+            } else {
+                log.warn("No Maven or Gradle build in {}; compiling against class directories only", workspace);
+            }
+        } catch (IOException e) {
+            log.warn("Could not resolve test classpath for {}: {}", workspace, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Interrupted while resolving test classpath for {}", workspace);
+        }
+
+        List<Path> existing = entries.stream().filter(Files::exists).collect(Collectors.toList());
+        log.info("Resolved test classpath for {}: {} entries in {} ms", workspace, existing.size(), elapsedMillis(start));
+        return existing;
+    }
+
+    private List<Path> resolveMavenClasspath(String workspace) throws IOException, InterruptedException {
+        Path outputFile = Paths.get(workspace, "target", CLASSPATH_FILE);
+        Files.createDirectories(outputFile.getParent());
+        BuildProcessRunner.BuildResult result = buildProcessRunner.run(workspace, "maven", List.of("mvn", "-q", "-B",
+                "dependency:build-classpath", "-Dmdep.includeScope=test",
+                "-Dmdep.outputFile=" + outputFile.toAbsolutePath()), Map.of());
+        if (!result.isSuccessful()) {
+            log.warn("Maven classpath resolution {}", result.describeFailure(10));
+        }
+        return readClasspathFiles(List.of(outputFile));
+    }
+
+    private List<Path> resolveGradleClasspath(String workspace) throws IOException, InterruptedException {
+        Path initScript = Files.createTempFile("devgenie-classpath", ".gradle");
+        try {
+            Files.writeString(initScript, GRADLE_INIT_SCRIPT);
+            String launcher = Files.exists(Paths.get(workspace, "gradlew")) ? "./gradlew" : "gradle";
+            BuildProcessRunner.BuildResult result = buildProcessRunner.run(workspace, "gradle", List.of(launcher, "-q",
+                    "--init-script", initScript.toAbsolutePath().toString(), GRADLE_CLASSPATH_TASK), Map.of());
+            if (!result.isSuccessful()) {
+                log.warn("Gradle classpath resolution {}", result.describeFailure(10));
+            }
+        } finally {
+            Files.deleteIfExists(initScript);
+        }
+        // Every module writes its own file
+        try (Stream<Path> paths = Files.walk(Paths.get(workspace), 6)) {
+            return readClasspathFiles(paths
+                    .filter(path -> path.getFileName().toString().equals(CLASSPATH_FILE))
+                    .filter(path -> path.getParent() != null && path.getParent().endsWith("build"))
+                    .collect(Collectors.toList()));
+        }
+    }
+
+    private List<Path> readClasspathFiles(List<Path> files) throws IOException {
+        List<Path> entries = new ArrayList<>();
+        for (Path file : files) {
+            if (!Files.isRegularFile(file)) {
+                continue;
+            }
+            for (String entry : Files.readString(file, StandardCharsets.UTF_8).trim().split(File.pathSeparator)) {
+                if (!entry.isBlank()) {
+                    entries.add(Paths.get(entry.trim()));
+                }
+            }
+        }
+        return entries;
+    }
+
+    private List<Path> findTestClassDirectories(String workspace) {
+        List<Path> directories = new ArrayList<>();
+        for (Path mainClasses : jacocoExecAnalyzer.findClassDirectories(workspace)) {
+            // target/classes -> target/test-classes, build/classes/java/main -> build/classes/java/test
+            Path candidate = mainClasses.endsWith("classes")
+                    ? mainClasses.resolveSibling("test-classes")
+                    : mainClasses.resolveSibling("test");
+            if (Files.isDirectory(candidate)) {
+                directories.add(candidate);
+            }
+        }
+        return directories;
+    }
+
+    private void deleteRecursively(Path directory) {
+        if (directory == null || !Files.exists(directory)) {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).collect(Collectors.toList())) {
+                Files.deleteIfExists(path);
+            }
+        } catch (IOException e) {
+            log.warn("Could not delete compiled test classes in {}: {}", directory, e.getMessage());
+        }
+    }
+
+    private long buildFileStamp(String workspace) {
+        long stamp = 0;
+        for (String buildFile : List.of("pom.xml", "build.gradle", "build.gradle.kts", "settings.gradle", "settings.gradle.kts")) {
+            Path path = Paths.get(workspace, buildFile);
+            try {
+                if (Files.exists(path)) {
+                    stamp = 31 * stamp + Files.getLastModifiedTime(path).toMillis();
+                }
+            } catch (IOException e) {
+                log.debug("Could not stat {}: {}", path, e.getMessage());
+            }
+        }
+        return stamp;
+    }
+
+    private String format(Diagnostic<? extends JavaFileObject> diagnostic, String workspace) {
+        String source = diagnostic.getSource() == null ? "" : Paths.get(workspace)
+                .relativize(Paths.get(diagnostic.getSource().toUri())).toString();
+        String message = diagnostic.getMessage(Locale.ROOT);
+        return source.isEmpty() ? message : source + ":" + diagnostic.getLineNumber() + ": " + message;
+    }
+
+    private CompilationResult failure(List<String> errors, long start) {
+        return CompilationResult.builder()
+                .success(false)
+                .errors(new ArrayList<>(errors))
+                .warnings(new ArrayList<>())
+                .compiledFiles(new ArrayList<>())
+                .compilationTimeMs(elapsedMillis(start))
+                .build();
+    }
+
+    private long elapsedMillis(long start) {
+        return (System.nanoTime() - start) / 1_000_000;
+    }
+
+    private static class WorkspaceClasspath {
+        private final List<Path> entries;
+        private final long buildFileStamp;
+        private StandardJavaFileManager fileManager;
+
+        private WorkspaceClasspath(List<Path> entries, long buildFileStamp) {
+            this.entries = entries;
+            this.buildFileStamp = buildFileStamp;
+        }
+
+        // Kept open between compilations so opened jars and their indexes are reused
+        private StandardJavaFileManager fileManager(JavaCompiler compiler) throws IOException {
+            if (fileManager == null) {
+                fileManager = compiler.getStandardFileManager(null, Locale.ROOT, StandardCharsets.UTF_8);
+                fileManager.setLocationFromPaths(StandardLocation.CLASS_PATH, entries);
+            }
+            return fileManager;
+        }
+
+        private synchronized void close() {
+            if (fileManager != null) {
+                try {
+                    fileManager.close();
+                } catch (IOException e) {
+                    log.debug("Failed to close file manager: {}", e.getMessage());
+                }
+                fileManager = null;
+            }
+        }
+    }
+}
@@ -0,0 +1,327 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import com.org.devgenie.model.coverage.TestCaseResult;
+import com.org.devgenie.model.coverage.TestExecutionResult;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.platform.engine.TestExecutionResult.Status;
+import org.junit.platform.engine.discovery.DiscoverySelectors;
+import org.junit.platform.engine.support.descriptor.MethodSource;
+import org.junit.platform.launcher.Launcher;
+import org.junit.platform.launcher.LauncherDiscoveryRequest;
+import org.junit.platform.launcher.TestExecutionListener;
+import org.junit.platform.launcher.TestIdentifier;
+import org.junit.platform.launcher.core.LauncherDiscoveryRequestBuilder;
+import org.junit.platform.launcher.core.LauncherFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Runs compiled generated test classes in-process through the JUnit Platform launcher.
+ * Test classes, the workspace's compiled classes and its test dependencies are loaded by an
+ * isolated class loader; only the JUnit Platform API (and opentest4j, whose exceptions the
+ * platform inspects) is shared with the application so the workspace's own test engines plug
+ * into our launcher. Only the given classes are selected, so a run takes seconds instead of
+ * the minutes a full {@code mvn test} would.
+ */
+@Service
+@Slf4j
+public class TestExecutionService {
+
+    private static final List<String> SHARED_PACKAGES = List.of("org.junit.platform.", "org.opentest4j.");
+
+    @Autowired
+    private TestCompilationService testCompilationService;
+
+    @Value("${coverage.validation.test-timeout-seconds:120}")
+    private long testTimeoutSeconds;
+
+    private ExecutorService testExecutor;
+
+    @PostConstruct
+    void initializeExecutor() {
+        AtomicInteger threadIndex = new AtomicInteger();
+        testExecutor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "GeneratedTestRun-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @PreDestroy
+    void shutdownExecutor() {
+        if (testExecutor != null) {
+            testExecutor.shutdownNow();
+        }
+    }
+
+    /**
+     * Executes the test classes produced by {@link TestCompilationService#compileTestFiles}.
+     */
+    public TestExecutionResult executeTests(String repoDir, CompilationResult compilation) {
+        return executeTests(repoDir, compilation, null);
+    }
+
+    /**
+     * Executes the compiled test classes, passing every workspace class the isolated loader
+     * defines through the given transformer (e.g. to add coverage probes). May be null.
+     */
+    public TestExecutionResult executeTests(String repoDir, CompilationResult compilation, ClassTransformer transformer) {
+        long start = System.nanoTime();
+        if (compilation.getOutputDirectory() == null) {
+            return failure("No compiled test classes to execute", start);
+        }
+
+        Path outputDirectory = Paths.get(compilation.getOutputDirectory());
+        List<String> classNames;
+        try {
+            classNames = findTopLevelClasses(outputDirectory);
+        } catch (IOException e) {
+            return failure("Could not list compiled test classes: " + e.getMessage(), start);
+        }
+        if (classNames.isEmpty()) {
+            return failure("No compiled test classes found in " + outputDirectory, start);
+        }
+
+        List<Path> classpath = new ArrayList<>();
+        classpath.add(outputDirectory);
+        classpath.addAll(testCompilationService.getTestClasspath(repoDir));
+
+        Future<TestExecutionResult> run = testExecutor.submit(() -> runIsolated(classpath, classNames, transformer, start));
+        try {
+            return run.get(testTimeoutSeconds, TimeUnit.SECONDS);
+        } catch (TimeoutException e) {
+            run.cancel(true);
+            log.warn("Generated tests in {} did not finish within {} s", repoDir, testTimeoutSeconds);
+            return failure("Test execution timed out after " + testTimeoutSeconds + " seconds", start);
+        } catch (ExecutionException e) {
+            log.error("Generated test execution failed for {}", repoDir, e.getCause());
+            return failure("Test execution failed: " + e.getCause().getMessage(), start);
+        } catch (InterruptedException e) {
+            run.cancel(true);
+            Thread.currentThread().interrupt();
+            return failure("Test execution was interrupted", start);
+        }
+    }
+
+    private TestExecutionResult runIsolated(List<Path> classpath, List<String> classNames, ClassTransformer transformer,
+                                            long start) throws MalformedURLException {
+        Thread thread = Thread.currentThread();
+        ClassLoader previous = thread.getContextClassLoader();
+        try (WorkspaceTestClassLoader classLoader = new WorkspaceTestClassLoader(toUrls(classpath),
+                TestExecutionService.class.getClassLoader(), transformer)) {
+            // Engines are discovered through the context class loader
+            thread.setContextClassLoader(classLoader);
+
+            LauncherDiscoveryRequest request = LauncherDiscoveryRequestBuilder.request()
+                    .selectors(classNames.stream()
+                            .map(name -> DiscoverySelectors.selectClass(classLoader, name))
+                            .collect(Collectors.toList()))
+                    .build();
+
+            ResultCollector collector = new ResultCollector();
+            Launcher launcher = LauncherFactory.create();
+            launcher.execute(request, collector);
+
+            return collector.toResult(classNames.size(), start);
+        } catch (IOException e) {
+            return failure("Could not close test class loader: " + e.getMessage(), start);
+        } finally {
+            thread.setContextClassLoader(previous);
+        }
+    }
+
+    private List<String> findTopLevelClasses(Path outputDirectory) throws IOException {
+        try (Stream<Path> paths = Files.walk(outputDirectory)) {
+            return paths.filter(Files::isRegularFile)
+                    .map(path -> outputDirectory.relativize(path).toString().replace('\\', '/'))
+                    .filter(name -> name.endsWith(".class") && !name.contains("$"))
+                    .map(name -> name.substring(0, name.length() - ".class".length()).replace('/', '.'))
+                    .sorted()
+                    .collect(Collectors.toList());
+        }
+    }
+
+    private URL[] toUrls(List<Path> classpath) throws MalformedURLException {
+        URL[] urls = new URL[classpath.size()];
+        for (int i = 0; i < classpath.size(); i++) {
+            urls[i] = classpath.get(i).toUri().toURL();
+        }
+        return urls;
+    }
+
+    private TestExecutionResult failure(String error, long start) {
+        return TestExecutionResult.builder()
+                .success(false)
+                .testsExecuted(0)
+                .testsPassed(0)
+                .testsFailed(0)
+                .testsSkipped(0)
+                .errors(new ArrayList<>(List.of(error)))
+                .testResults(new ArrayList<>())
+                .executionTimeMs((System.nanoTime() - start) / 1_000_000)
+                .build();
+    }
+
+    /**
+     * Loads workspace classes from the given classpath, isolated from the application's classes;
+     * only JUnit Platform and opentest4j types come from the application so engines and
+     * exceptions are compatible with our launcher.
+     */
+    static class WorkspaceTestClassLoader extends URLClassLoader {
+        private final ClassLoader platformApiLoader;
+        private final ClassTransformer transformer;
+
+        WorkspaceTestClassLoader(URL[] urls, ClassLoader platformApiLoader, ClassTransformer transformer) {
+            super("devgenie-generated-tests", urls, ClassLoader.getPlatformClassLoader());
+            this.platformApiLoader = platformApiLoader;
+            this.transformer = transformer;
+        }
+
+        @Override
+        protected Class<?> findClass(String name) throws ClassNotFoundException {
+            if (transformer == null) {
+                return super.findClass(name);
+            }
+            URL resource = findResource(name.replace('.', '/') + ".class");
+            if (resource == null) {
+                throw new ClassNotFoundException(name);
+            }
+            try (InputStream in = resource.openStream()) {
+                byte[] classBytes = transformer.transform(name, in.readAllBytes());
+                return defineClass(name, classBytes, 0, classBytes.length);
+            } catch (IOException e) {
+                throw new ClassNotFoundException(name, e);
+            }
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            for (String sharedPackage : SHARED_PACKAGES) {
+                if (name.startsWith(sharedPackage)) {
+                    return platformApiLoader.loadClass(name);
+                }
+            }
+            return super.loadClass(name, resolve);
+        }
+    }
+
+    /**
+     * Rewrites class bytes as the isolated test class loader defines them.
+     */
+    @FunctionalInterface
+    public interface ClassTransformer {
+        byte[] transform(String className, byte[] classBytes) throws IOException;
+    }
+
+    private static class ResultCollector implements TestExecutionListener {
+        private final Map<String, Long> startTimes = new ConcurrentHashMap<>();
+        private final List<TestCaseResult> results = new ArrayList<>();
+        private final List<String> errors = new ArrayList<>();
+
+        @Override
+        public void executionStarted(TestIdentifier testIdentifier) {
+            startTimes.put(testIdentifier.getUniqueId(), System.nanoTime());
+        }
+
+        @Override
+        public void executionSkipped(TestIdentifier testIdentifier, String reason) {
+            if (testIdentifier.isTest()) {
+                synchronized (this) {
+                    results.add(toCaseResult(testIdentifier, "SKIPPED", 0L, reason));
+                }
+            }
+        }
+
+        @Override
+        public void executionFinished(TestIdentifier testIdentifier,
+                                      org.junit.platform.engine.TestExecutionResult result) {
+            Long started = startTimes.remove(testIdentifier.getUniqueId());
+            long durationMs = started == null ? 0 : (System.nanoTime() - started) / 1_000_000;
+            String message = result.getThrowable().map(this::describe).orElse(null);
+
+            synchronized (this) {
+                if (testIdentifier.isTest()) {
+                    String status = result.getStatus() == Status.SUCCESSFUL ? "PASSED"
+                            : result.getStatus() == Status.ABORTED ? "ABORTED" : "FAILED";
+                    results.add(toCaseResult(testIdentifier, status, durationMs, message));
+                    if (result.getStatus() == Status.FAILED) {
+                        errors.add(testIdentifier.getDisplayName() + ": " + message);
+                    }
+                } else if (result.getStatus() == Status.FAILED) {
+                    // Class-level failures (e.g. @BeforeAll or class initialization) have no test rows
+                    errors.add(testIdentifier.getDisplayName() + ": " + message);
+                }
+            }
+        }
+
+        private TestCaseResult toCaseResult(TestIdentifier identifier, String status, long durationMs, String message) {
+            String testClass = null;
+            String testMethod = null;
+            if (identifier.getSource().orElse(null) instanceof MethodSource methodSource) {
+                testClass = methodSource.getClassName();
+                testMethod = methodSource.getMethodName();
+            }
+            return TestCaseResult.builder()
+                    .testClass(testClass)
+                    .testMethod(testMethod)
+                    .displayName(identifier.getDisplayName())
+                    .status(status)
+                    .durationMs(durationMs)
+                    .failureMessage(message)
+                    .build();
+        }
+
+        private String describe(Throwable throwable) {
+            return throwable.getClass().getSimpleName() + (throwable.getMessage() == null ? "" : ": " + throwable.getMessage());
+        }
+
+        private synchronized TestExecutionResult toResult(int classCount, long start) {
+            int passed = (int) results.stream().filter(r -> "PASSED".equals(r.getStatus())).count();
+            int failed = (int) results.stream().filter(r -> "FAILED".equals(r.getStatus())).count();
+            int skipped = results.size() - passed - failed;
+            long elapsed = (System.nanoTime() - start) / 1_000_000;
+            log.info("Executed {} test(s) from {} class(es) in {} ms: {} passed, {} failed, {} skipped/aborted",
+                    results.size(), classCount, elapsed, passed, failed, skipped);
+
+            if (results.isEmpty() && errors.isEmpty()) {
+                errors.add("No tests were discovered; is a JUnit engine on the workspace test classpath?");
+            }
+            return TestExecutionResult.builder()
+                    .success(failed == 0 && errors.isEmpty())
+                    .testsExecuted(passed + failed)
+                    .testsPassed(passed)
+                    .testsFailed(failed)
+                    .testsSkipped(skipped)
+                    .errors(new ArrayList<>(errors))
+                    .testResults(new ArrayList<>(results))
+                    .executionTimeMs(elapsed)
+                    .build();
+        }
+    }
+}
@@ -2,16 +2,26 @@ package com.org.devgenie.service.coverage;
 
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.javaparser.ast.CompilationUnit;
+import com.org.devgenie.ai.client.LlmClient;
+import com.org.devgenie.ai.tokenizer.TokenCounter;
 import com.org.devgenie.model.coverage.*;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.ai.chat.client.ChatClient;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -21,11 +31,56 @@ import java.util.stream.Collectors;
 public class TestGenerationService {
 
     @Autowired
-    private ChatClient chatClient;
+    private LlmClient llmClient;
 
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private TestCompilationService testCompilationService;
+
+    @Autowired
+    private TestExecutionService testExecutionService;
+
+    @Autowired
+    private GeneratedTestCoverageService generatedTestCoverageService;
+
+    @Autowired
+    private PromptContextBuilder promptContextBuilder;
+
+    @Autowired
+    private TokenCounter tokenCounter;
+
+    @Autowired
+    private SpeculativeTestGenerator speculativeTestGenerator;
+
+    @Autowired
+    private MetadataAnalyzer metadataAnalyzer;
+
+    @Value("${coverage.validation.measure-coverage:true}")
+    private boolean measureCoverage;
+
+    @Value("${coverage.generation.streaming:true}")
+    private boolean streamingEnabled;
+
+    @Value("${coverage.generation.context-token-budget:6000}")
+    private int contextTokenBudget;
+
+    @Value("${coverage.generation.speculative.enabled:false}")
+    private boolean speculativeEnabled;
+
+    @Value("${coverage.generation.speculative.max-lines:300}")
+    private int speculativeMaxLines;
+
+    /**
+     * Receives each generated test method as soon as the streamed response contains all of it.
+     * Called on the generating thread; batches generated in parallel call it concurrently.
+     */
+    @FunctionalInterface
+    public interface GeneratedTestListener {
+        void onTestGenerated(StreamedTestMethod test);
+    }
+
     /**
      * Generate tests for a file using hybrid approach:
      * - Direct full-file generation for small/simple classes
@@ -42,11 +97,11 @@ public class TestGenerationService {
             boolean existingTestFile = checkExistingTestFile(analysis.getFilePath());
             
             // Determine optimal test generation strategy
-            TestGenerationStrategy strategy = TestGenerationStrategy.determine(analysis, existingTestFile, fileContent);
+            TestGenerationStrategy strategy = TestGenerationStrategy.determine(analysis, existingTestFile, fileContent, tokenCounter);
             log.info("Selected strategy: {} - {}", strategy.getStrategy(), strategy.getReasoning());
             
             // Execute strategy with fallback
-            return executeTestGenerationStrategy(strategy, analysis, fileContent);
+            return executeTestGenerationStrategy(strategy, analysis, fileContent, null);
 
         } catch (Exception e) {
             log.error("Failed to generate tests for file: {}", analysis.getFilePath(), e);
@@ -59,13 +114,22 @@ public class TestGenerationService {
      * This method is used when a strategy has already been determined
      */
     public TestGenerationResult generateTestsForFileWithStrategy(FileAnalysisResult analysis, TestGenerationStrategy strategy) {
+        return generateTestsForFileWithStrategy(analysis, strategy, null);
+    }
+
+    /**
+     * Generate tests for a file using a specific strategy, reporting each test method to the
+     * listener while the response is still streaming
+     */
+    public TestGenerationResult generateTestsForFileWithStrategy(FileAnalysisResult analysis, TestGenerationStrategy strategy,
+                                                                 GeneratedTestListener listener) {
         log.info("Generating tests for file: {} using strategy: {}", analysis.getFilePath(), strategy.getStrategy());
 
         try {
             String fileContent = fileService.readFile(analysis.getFilePath());
             
             // Execute the specified strategy with fallback
-            return executeTestGenerationStrategy(strategy, analysis, fileContent);
+            return executeTestGenerationStrategy(strategy, analysis, fileContent, listener);
 
         } catch (Exception e) {
             log.error("Failed to generate tests for file: {} with strategy: {}", 
@@ -79,34 +143,178 @@ public class TestGenerationService {
      */
     private TestGenerationResult executeTestGenerationStrategy(TestGenerationStrategy strategy, 
                                                              FileAnalysisResult analysis, 
-                                                             String fileContent) {
+                                                             String fileContent,
+                                                             GeneratedTestListener listener) {
+        if (isSpeculative(strategy, fileContent)) {
+            return generateSpeculatively(analysis, fileContent, strategy, listener);
+        }
         try {
             switch (strategy.getStrategy()) {
                 case DIRECT_FULL_FILE:
-                    return generateDirectFullFile(analysis, fileContent, strategy);
+                    return generateDirectFullFile(analysis, fileContent, strategy, listener);
                     
                 case BATCH_METHOD_BASED:
-                    return generateBatchMethodBased(analysis, fileContent, strategy);
+                    return generateBatchMethodBased(analysis, fileContent, strategy, listener);
                     
                 case MERGE_WITH_EXISTING:
-                    return generateAndMergeWithExisting(analysis, fileContent, strategy);
+                    return generateAndMergeWithExisting(analysis, fileContent, strategy, listener);
                     
                 default:
                     throw new IllegalArgumentException("Unknown strategy: " + strategy.getStrategy());
             }
         } catch (Exception e) {
             log.warn("Primary strategy {} failed, attempting fallback", strategy.getStrategy(), e);
-            return attemptFallbackStrategy(strategy, analysis, fileContent, e);
+            return attemptFallbackStrategy(strategy, analysis, fileContent, e, listener);
         }
     }
     
+    /**
+     * Whether generation for this file races the direct and batch strategies instead of running one.
+     * Only new test classes of small files qualify; merging into an existing test file is never speculative.
+     */
+    public boolean isSpeculative(TestGenerationStrategy strategy, String fileContent) {
+        return speculativeEnabled
+                && strategy.getStrategy() != TestGenerationStrategy.Strategy.MERGE_WITH_EXISTING
+                && fileContent != null
+                && fileContent.lines().count() <= speculativeMaxLines;
+    }
+
+    /**
+     * Runs direct full-file and batch generation concurrently and keeps the first candidate that
+     * validates. The direct candidate's streamed tests are buffered and only handed to the listener
+     * once it has won, so the session never shows the tests of a losing candidate; the batch
+     * candidate is assembled into one complete test class.
+     */
+    private TestGenerationResult generateSpeculatively(FileAnalysisResult analysis, String fileContent,
+                                                       TestGenerationStrategy strategy, GeneratedTestListener listener) {
+        log.info("Using speculative DIRECT_FULL_FILE / BATCH_METHOD_BASED generation for: {}", analysis.getFilePath());
+        TestGenerationStrategy directStrategy = TestGenerationStrategy.builder()
+                .strategy(TestGenerationStrategy.Strategy.DIRECT_FULL_FILE)
+                .reasoning("Speculative candidate: " + strategy.getReasoning())
+                .requiresValidation(false)
+                .build();
+        int testsPerBatch = strategy.getMaxTestsPerBatch() > 0 ? strategy.getMaxTestsPerBatch() : 5;
+
+        BufferedTestListener directTests = new BufferedTestListener();
+        AtomicReference<TestGenerationResult> directResult = new AtomicReference<>();
+        Map<String, Supplier<TestGenerationResult>> candidates = new LinkedHashMap<>();
+        candidates.put("DIRECT_FULL_FILE", () -> {
+            TestGenerationResult result = generateDirectFullFile(analysis, fileContent, directStrategy, directTests);
+            directResult.set(result);
+            return result;
+        });
+        candidates.put("BATCH_METHOD_BASED", () -> generateAssembledBatches(analysis, fileContent, testsPerBatch));
+
+        String repoDir = repositoryRootOf(analysis.getFilePath());
+        if (repoDir == null) {
+            log.warn("No src/main/java root in {}, speculative candidates are not compile-checked", analysis.getFilePath());
+        }
+        TestGenerationResult winner = speculativeTestGenerator.generate(analysis.getFilePath(), repoDir, candidates);
+        if (listener != null && winner != null && winner == directResult.get()) {
+            directTests.replayTo(listener);
+        }
+        return winner;
+    }
+
+    /**
+     * Repository (or module) root of a source file, resolved the same way the file itself is read,
+     * so relative paths resolve against the working directory; {@code null} outside a src/main/java layout.
+     */
+    static String repositoryRootOf(String sourceFilePath) {
+        String absolutePath = Paths.get(sourceFilePath).toAbsolutePath().normalize().toString().replace('\\', '/');
+        int sourceRoot = absolutePath.indexOf("/src/main/java/");
+        return sourceRoot >= 0 ? absolutePath.substring(0, Math.max(1, sourceRoot)) : null;
+    }
+
+    /**
+     * Holds streamed tests of a candidate that may still lose, to be replayed once it has won.
+     */
+    private static class BufferedTestListener implements GeneratedTestListener {
+
+        private final List<StreamedTestMethod> tests = new ArrayList<>();
+
+        @Override
+        public synchronized void onTestGenerated(StreamedTestMethod test) {
+            tests.add(test);
+        }
+
+        synchronized void replayTo(GeneratedTestListener listener) {
+            tests.forEach(listener::onTestGenerated);
+        }
+    }
+
+    /**
+     * Generates every batch in turn and assembles the test methods into one test class next to the
+     * source's package, importing what the source imports plus JUnit 5 and Mockito.
+     */
+    private TestGenerationResult generateAssembledBatches(FileAnalysisResult analysis, String fileContent, int testsPerBatch) {
+        int totalBatches = Math.max(1, (int) Math.ceil((double) analysis.getUncoveredMethods().size() / testsPerBatch));
+        List<GeneratedTestInfo> tests = new ArrayList<>();
+        for (int batchIndex = 0; batchIndex < totalBatches && !Thread.currentThread().isInterrupted(); batchIndex++) {
+            BatchTestGenerationResult batch = generateTestsBatch(analysis, batchIndex, testsPerBatch);
+            if (batch.getSuccess() && batch.getGeneratedTests() != null) {
+                tests.addAll(batch.getGeneratedTests());
+            }
+        }
+        if (tests.isEmpty()) {
+            return TestGenerationResult.failure(analysis.getFilePath(), "No batch produced tests");
+        }
+
+        String sourcePath = analysis.getFilePath();
+        int sourceRoot = sourcePath.indexOf("src/main/java/");
+        String testFilePath = generateTestFilePath(sourceRoot >= 0 ? sourcePath.substring(sourceRoot) : sourcePath);
+        String testClassName = extractTestClassName(testFilePath);
+
+        StringBuilder content = new StringBuilder();
+        Set<String> imports = new LinkedHashSet<>();
+        try {
+            CompilationUnit cu = metadataAnalyzer.parseJavaSource(fileContent);
+            cu.getPackageDeclaration().ifPresent(pkg -> content.append("package ").append(pkg.getNameAsString()).append(";\n\n"));
+            cu.getImports().forEach(imp -> imports.add(imp.toString().trim()));
+        } catch (RuntimeException e) {
+            log.debug("Could not parse source of {} for batch assembly: {}", sourcePath, e.getMessage());
+        }
+        imports.add("import org.junit.jupiter.api.*;");
+        imports.add("import org.mockito.*;");
+        imports.add("import static org.junit.jupiter.api.Assertions.*;");
+        imports.add("import static org.mockito.Mockito.*;");
+        imports.forEach(imp -> content.append(imp).append("\n"));
+
+        content.append("\nclass ").append(testClassName).append(" {\n");
+        for (GeneratedTestInfo test : tests) {
+            content.append("\n").append(test.getTestCode().strip().indent(4));
+        }
+        content.append("}\n");
+
+        return TestGenerationResult.builder()
+                .sourceFilePath(sourcePath)
+                .testFilePath(testFilePath)
+                .testClassName(testClassName)
+                .generatedTests(tests.stream()
+                        .map(test -> GeneratedTest.builder()
+                                .methodName(test.getTestMethodName())
+                                .description(test.getDescription())
+                                .testType("UNIT")
+                                .build())
+                        .toList())
+                .imports(new ArrayList<>(imports))
+                .generatedTestContent(content.toString())
+                .estimatedCoverageIncrease(tests.stream()
+                        .mapToDouble(test -> test.getEstimatedCoverageContribution() == null ? 0.0 : test.getEstimatedCoverageContribution())
+                        .sum())
+                .notes("Assembled from " + totalBatches + " batch(es)")
+                .success(true)
+                .build();
+    }
+
     /**
      * Attempt fallback strategy if primary fails
      */
     private TestGenerationResult attemptFallbackStrategy(TestGenerationStrategy originalStrategy,
                                                         FileAnalysisResult analysis,
                                                         String fileContent,
-                                                        Exception originalError) {
+                                                        Exception originalError,
+                                                        GeneratedTestListener listener) {
         try {
             if (originalStrategy.getStrategy() == TestGenerationStrategy.Strategy.DIRECT_FULL_FILE) {
                 log.info("Direct full-file generation failed, falling back to batch method approach");
@@ -116,7 +324,7 @@ public class TestGenerationService {
                     .maxTestsPerBatch(3)
                     .requiresValidation(true)
                     .build();
-                return generateBatchMethodBased(analysis, fileContent, fallbackStrategy);
+                return generateBatchMethodBased(analysis, fileContent, fallbackStrategy, listener);
             } else {
                 log.info("Batch method generation failed, falling back to simple direct approach");
                 TestGenerationStrategy fallbackStrategy = TestGenerationStrategy.builder()
@@ -124,7 +332,7 @@ public class TestGenerationService {
                     .reasoning("Fallback from failed batch generation")
                     .requiresValidation(false)
                     .build();
-                return generateDirectFullFile(analysis, fileContent, fallbackStrategy);
+                return generateDirectFullFile(analysis, fileContent, fallbackStrategy, listener);
             }
         } catch (Exception fallbackError) {
             log.error("Both primary and fallback strategies failed", fallbackError);
@@ -139,17 +347,22 @@ public class TestGenerationService {
      */
     private TestGenerationResult generateDirectFullFile(FileAnalysisResult analysis, 
                                                        String fileContent, 
-                                                       TestGenerationStrategy strategy) {
+                                                       TestGenerationStrategy strategy,
+                                                       GeneratedTestListener listener) {
         log.info("Using DIRECT_FULL_FILE strategy for: {}", analysis.getFilePath());
         
         String testPrompt = createDirectFullFilePrompt(fileContent, analysis, strategy);
-        String aiResponse = chatClient.prompt(testPrompt).call().content();
+        String aiResponse = requestTests(testPrompt, null, null, listener); // path is announced by the response
 
         log.info("Input Test message to LLM: {}", testPrompt);
         log.info("LLM output message : {}", aiResponse);
         
         // For DIRECT_FULL_FILE, use minimal processing to preserve LLM output quality
         TestGenerationResult result = parseDirectFullFileResponseMinimal(aiResponse, analysis, strategy);
+        if (!result.isSuccess()) {
+            // Unusable answer (e.g. truncated JSON): make a retry ask the model again instead of the cache
+            llmClient.invalidate(null, testPrompt);
+        }
         
         // Only validate if explicitly required by strategy (disabled for minimal processing)
         // if (strategy.isRequiresValidation() && result.isSuccess()) {
@@ -164,7 +377,8 @@ public class TestGenerationService {
      */
     private TestGenerationResult generateBatchMethodBased(FileAnalysisResult analysis, 
                                                          String fileContent, 
-                                                         TestGenerationStrategy strategy) {
+                                                         TestGenerationStrategy strategy,
+                                                         GeneratedTestListener listener) {
         log.info("BATCH_METHOD_BASED strategy temporarily disabled - falling back to DIRECT_FULL_FILE");
         
         // Fallback to DIRECT_FULL_FILE for now
@@ -173,7 +387,7 @@ public class TestGenerationService {
             .reasoning("Fallback from BATCH_METHOD_BASED (temporarily disabled)")
             .requiresValidation(false)
             .build();
-        return generateDirectFullFile(analysis, fileContent, fallbackStrategy);
+        return generateDirectFullFile(analysis, fileContent, fallbackStrategy, listener);
     }
     
     /**
@@ -181,11 +395,12 @@ public class TestGenerationService {
      */
     private TestGenerationResult generateAndMergeWithExisting(FileAnalysisResult analysis, 
                                                             String fileContent, 
-                                                            TestGenerationStrategy strategy) {
+                                                            TestGenerationStrategy strategy,
+                                                            GeneratedTestListener listener) {
         log.info("Using MERGE_WITH_EXISTING strategy for: {}", analysis.getFilePath());
         
         // Generate new tests using batch approach (safer for merging)
-        TestGenerationResult batchResult = generateBatchMethodBased(analysis, fileContent, strategy);
+        TestGenerationResult batchResult = generateBatchMethodBased(analysis, fileContent, strategy, listener);
         
         if (!batchResult.isSuccess()) {
             return batchResult;
@@ -641,18 +856,41 @@ public class TestGenerationService {
      * Generate tests in batches to handle token limitations
      */
     public BatchTestGenerationResult generateTestsBatch(FileAnalysisResult analysis, int batchIndex, Integer maxTestsPerBatch) {
+        return generateTestsBatch(analysis, batchIndex, maxTestsPerBatch, null);
+    }
+
+    /**
+     * Generate one test batch, reporting each test method to the listener while the response is still streaming
+     */
+    public BatchTestGenerationResult generateTestsBatch(FileAnalysisResult analysis, int batchIndex, Integer maxTestsPerBatch,
+                                                        GeneratedTestListener listener) {
         log.info("Generating test batch {} for file: {}", batchIndex + 1, analysis.getFilePath());
 
+        List<String> batchMethods = getMethodsForBatch(analysis, batchIndex, maxTestsPerBatch);
+        if (batchMethods.isEmpty()) {
+            // Past the last uncovered method: nothing left for this batch to cover
+            log.info("Skipping test batch {} for file {}: no uncovered methods left", batchIndex + 1, analysis.getFilePath());
+            BatchTestGenerationResult skipped = BatchTestGenerationResult.success(List.of(), List.of());
+            skipped.setBatchIndex(batchIndex);
+            skipped.setTestCount(0);
+            return skipped;
+        }
+
         try {
             String fileContent = fileService.readFile(analysis.getFilePath());
             
             // Create batch-specific prompt
-            String batchPrompt = createBatchTestGenerationPrompt(fileContent, analysis, batchIndex, maxTestsPerBatch);
-            String aiResponse = chatClient.prompt(batchPrompt).call().content();
+            String batchPrompt = createBatchTestGenerationPrompt(fileContent, analysis, batchIndex, batchMethods, maxTestsPerBatch);
+            String batchTestFilePath = createTestFilePaths(analysis, batchIndex, List.of()).get(0);
+            String aiResponse = requestTests(batchPrompt, batchTestFilePath, batchIndex, listener);
             log.info("Batch Test message to LLM: {}, batch index: {}", batchPrompt,batchIndex+1);
             log.info("Batch LLM output message: {}, batch index: {}", aiResponse,batchIndex+1);
 
-            return parseBatchTestGenerationResponse(aiResponse, analysis, batchIndex);
+            BatchTestGenerationResult result = parseBatchTestGenerationResponse(aiResponse, analysis, batchIndex);
+            if (!result.getSuccess()) {
+                llmClient.invalidate(null, batchPrompt);
+            }
+            return result;
 
         } catch (Exception e) {
             log.error("Failed to generate test batch {} for file: {}", batchIndex + 1, analysis.getFilePath(), e);
@@ -664,11 +902,21 @@ public class TestGenerationService {
      * Validate generated tests by compilation and optional execution
      */
     public TestValidationResult validateGeneratedTests(String repoDir, List<String> testFiles) {
+        return validateGeneratedTests(repoDir, testFiles, null, null);
+    }
+
+    /**
+     * Validate generated tests by compilation and execution; when a target source file is given
+     * and coverage measurement is enabled, the run also measures the file's coverage
+     */
+    public TestValidationResult validateGeneratedTests(String repoDir, List<String> testFiles,
+                                                       String targetSourceFile, CoverageData originalCoverage) {
         log.info("Validating {} generated test files", testFiles.size());
 
+        CompilationResult compilationResult = null;
         try {
             // First, try to compile the tests
-            CompilationResult compilationResult = compileTestFiles(repoDir, testFiles);
+            compilationResult = compileTestFiles(repoDir, testFiles);
             
             if (!compilationResult.getSuccess()) {
                 return TestValidationResult.builder()
@@ -678,11 +926,20 @@ public class TestGenerationService {
                         .testsFailed(0)
                         .compilationErrors(compilationResult.getErrors())
                         .validationMethod("COMPILATION_ONLY")
+                        .executionTimeMs(compilationResult.getCompilationTimeMs())
                         .build();
             }
 
-            // If compilation succeeds, try to run the tests
-            TestExecutionResult executionResult = executeTestFiles(repoDir, testFiles);
+            // If compilation succeeds, run the tests, measuring the target file's coverage if requested
+            TestExecutionResult executionResult;
+            GeneratedTestCoverageService.MeasuredTestRun measuredRun = null;
+            if (targetSourceFile != null && measureCoverage) {
+                measuredRun = generatedTestCoverageService.measure(repoDir, targetSourceFile, compilationResult, originalCoverage);
+                executionResult = measuredRun.getExecution();
+            } else {
+                executionResult = executeTestFiles(repoDir, compilationResult);
+            }
+            boolean measured = measuredRun != null && measuredRun.getCoverage() != null;
             
             return TestValidationResult.builder()
                     .success(executionResult.getSuccess())
@@ -690,8 +947,12 @@ public class TestGenerationService {
                     .testsPassed(executionResult.getTestsPassed())
                     .testsFailed(executionResult.getTestsFailed())
                     .executionErrors(executionResult.getErrors())
-                    .validationMethod("EXECUTION")
+                    .validationMethod(measured ? "COVERAGE_ANALYSIS" : "EXECUTION")
                     .executionTimeMs(executionResult.getExecutionTimeMs())
+                    .testsSkipped(executionResult.getTestsSkipped())
+                    .testResults(executionResult.getTestResults())
+                    .measuredCoverage(measured ? measuredRun.getCoverage() : null)
+                    .coverageMeasurement(measured ? measuredRun.getMeasurementMode() : null)
                     .build();
 
         } catch (Exception e) {
@@ -701,19 +962,23 @@ public class TestGenerationService {
                     .compilationErrors(List.of(e.getMessage()))
                     .validationMethod("VALIDATION_ERROR")
                     .build();
+        } finally {
+            // Every compilation gets its own output directory; drop it once the tests have run
+            testCompilationService.deleteOutputDirectory(compilationResult);
         }
     }
 
-    private String createBatchTestGenerationPrompt(String fileContent, FileAnalysisResult analysis, 
-                                                  int batchIndex, Integer maxTestsPerBatch) {
+    private String createBatchTestGenerationPrompt(String fileContent, FileAnalysisResult analysis, int batchIndex,
+                                                  List<String> batchMethods, Integer maxTestsPerBatch) {
         // Add intelligent class type analysis for batch generation too
         String classTypeGuidance = analyzeClassTypeForPrompt(fileContent, analysis);
+        String sourceContext = promptContextBuilder.buildContext(fileContent, batchMethods, contextTokenBudget);
         
         return String.format("""
             Generate %d JUnit 5 test methods for the following Java class (batch %d).
             Focus on different aspects of the code to maximize coverage.
             
-            Source Code:
+            Source Code (implementations of methods outside this batch are omitted):
             ```java
             %s
             ```
@@ -763,13 +1028,23 @@ public class TestGenerationService {
             - setUp methods
             - Class closing braces
             """, 
-            maxTestsPerBatch, batchIndex + 1, fileContent, classTypeGuidance, analysis.getFilePath(), 
-            analysis.getCurrentCoverage(), getMethodsForBatch(analysis, batchIndex), maxTestsPerBatch);
+            maxTestsPerBatch, batchIndex + 1, sourceContext, classTypeGuidance, analysis.getFilePath(), 
+            analysis.getCurrentCoverage(),
+            String.join(", ", batchMethods), maxTestsPerBatch);
     }
 
-    private String getMethodsForBatch(FileAnalysisResult analysis, int batchIndex) {
-        // This would intelligently select methods for this batch
-        return "Methods identified for test generation in this batch";
+    /**
+     * The uncovered methods of this batch; batches split the uncovered methods in order,
+     * {@code maxTestsPerBatch} at a time, as counted by the caller. Empty for a batch index
+     * past the last uncovered method, which is then skipped rather than prompted.
+     */
+    private List<String> getMethodsForBatch(FileAnalysisResult analysis, int batchIndex, Integer maxTestsPerBatch) {
+        List<String> uncoveredMethods = analysis.getUncoveredMethods();
+        if (maxTestsPerBatch == null || maxTestsPerBatch <= 0) {
+            return uncoveredMethods;
+        }
+        int from = Math.min(uncoveredMethods.size(), batchIndex * maxTestsPerBatch);
+        return uncoveredMethods.subList(from, Math.min(uncoveredMethods.size(), from + maxTestsPerBatch));
     }
 
     private BatchTestGenerationResult parseBatchTestGenerationResponse(String aiResponse, 
@@ -844,26 +1119,30 @@ public class TestGenerationService {
         return paths;
     }
 
+    /**
+     * Calls the model, streaming the response through {@link StreamingTestParser} when a listener is
+     * given so each test reaches the listener as soon as it is complete.
+     */
+    private String requestTests(String prompt, String expectedTestFilePath, Integer batchIndex, GeneratedTestListener listener) {
+        if (listener == null) {
+            return llmClient.call(prompt);
+        }
+        StreamingTestParser parser = new StreamingTestParser(expectedTestFilePath, batchIndex, listener);
+        String response = streamingEnabled ? llmClient.stream(prompt, parser::accept) : llmClient.call(prompt);
+        if (!streamingEnabled) {
+            parser.accept(response);
+        }
+        parser.finish();
+        log.info("Streamed {} test methods, first after {} ms", parser.getEmittedCount(), parser.getTimeToFirstTestMillis());
+        return response;
+    }
+
     private CompilationResult compileTestFiles(String repoDir, List<String> testFiles) {
-        // Implementation would use javac or Maven/Gradle to compile tests
-        // For now, return a simple success result
-        return CompilationResult.builder()
-                .success(true)
-                .errors(new ArrayList<>())
-                .build();
+        return testCompilationService.compileTestFiles(repoDir, testFiles);
     }
 
-    private TestExecutionResult executeTestFiles(String repoDir, List<String> testFiles) {
-        // Implementation would use JUnit platform to execute tests
-        // For now, return a simple success result
-        return TestExecutionResult.builder()
-                .success(true)
-                .testsExecuted(testFiles.size())
-                .testsPassed(testFiles.size())
-                .testsFailed(0)
-                .errors(new ArrayList<>())
-                .executionTimeMs(1000L)
-                .build();
+    private TestExecutionResult executeTestFiles(String repoDir, CompilationResult compilationResult) {
+        return testExecutionService.executeTests(repoDir, compilationResult);
     }
 
     /**
@@ -1007,6 +1286,14 @@ public class TestGenerationService {
     private String createDirectFullFilePrompt(String fileContent, FileAnalysisResult analysis, TestGenerationStrategy strategy) {
         log.info("Creating direct full-file generation prompt for file: {}", analysis.getFilePath());
         String classTypeGuidance = analyzeClassTypeForPrompt(fileContent, analysis);
+
+        // Uncovered methods first, so covered ones are the first to lose their bodies to the budget
+        List<String> methodsByPriority = new ArrayList<>(analysis.getUncoveredMethods());
+        analysis.getTestableComponents().stream()
+                .map(TestableComponent::getMethodName)
+                .filter(name -> !methodsByPriority.contains(name))
+                .forEach(methodsByPriority::add);
+        String sourceContext = promptContextBuilder.buildContext(fileContent, methodsByPriority, contextTokenBudget);
         
         // Determine coverage target based on complexity
         String complexityLevel = analysis.getComplexity().toString();
@@ -1070,7 +1357,7 @@ public class TestGenerationService {
             }
             """,
                 coverageTarget,
-                fileContent,
+                sourceContext,
                 classTypeGuidance,
                 analysis.getCurrentCoverage(),
                 analysis.getComplexity(),
@@ -24,6 +24,7 @@ import java.util.Map;
 public class UniversalProgressService {
     
     private final CoverageProgressWebSocketHandler webSocketHandler;
+    private final ProgressBus progressBus;
     
     /**
      * Send an info message (blue styling)
@@ -145,5 +146,6 @@ public class UniversalProgressService {
                 .build();
         
         webSocketHandler.sendProgressUpdate(sessionId, update);
+        progressBus.publish(update);
     }
 }
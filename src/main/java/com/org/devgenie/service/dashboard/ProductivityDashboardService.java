@@ -124,7 +124,10 @@ public class ProductivityDashboardService {
             criteria.and("startedAt").gte(cutoff);
         }
 
-        return new Query(criteria);
+        // Only the results summary is needed here; the full results (with the test code) are never loaded
+        Query query = new Query(criteria);
+        query.fields().exclude("results");
+        return query;
     }
 
     private Pageable buildPageable(DashboardFilterDto filter) {
@@ -138,10 +141,10 @@ public class ProductivityDashboardService {
                     sort = Sort.by(Sort.Direction.ASC, "startedAt");
                     break;
                 case "COVERAGE_DESC":
-                    sort = Sort.by(Sort.Direction.DESC, "results.coverageIncrease");
+                    sort = Sort.by(Sort.Direction.DESC, "resultsSummary.coverageIncrease");
                     break;
                 case "COVERAGE_ASC":
-                    sort = Sort.by(Sort.Direction.ASC, "results.coverageIncrease");
+                    sort = Sort.by(Sort.Direction.ASC, "resultsSummary.coverageIncrease");
                     break;
                 default:
                     sort = Sort.by(Sort.Direction.DESC, "startedAt");
@@ -205,7 +208,7 @@ public class ProductivityDashboardService {
 
     private DashboardSummaryDto.MetricCard buildCoverageIncreaseCard(List<CoverageImprovementSession> sessions) {
         double avgIncrease = sessions.stream()
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToDouble(this::extractCoverageIncrease)
                 .filter(coverage -> coverage > 0)
                 .average()
@@ -227,7 +230,7 @@ public class ProductivityDashboardService {
     private DashboardSummaryDto.MetricCard buildTimeSavedCard(List<CoverageImprovementSession> sessions) {
         // Estimate: Each generated test saves ~15 minutes of manual work
         int totalTests = sessions.stream()
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToInt(this::extractTotalTests)
                 .sum();
 
@@ -277,20 +280,17 @@ public class ProductivityDashboardService {
     // Helper methods for data extraction with improved error handling
     private double extractCoverageIncrease(CoverageImprovementSession session) {
         try {
-            if (session == null || session.getResults() == null) {
+            if (session == null || session.getResultsSummary() == null) {
                 return 0.0;
             }
 
-            if (session.getResults() instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> results = (Map<String, Object>) session.getResults();
-                if (results != null && results.containsKey("coverageIncrease")) {
-                    Object coverage = results.get("coverageIncrease");
-                    if (coverage instanceof Number) {
-                        double value = ((Number) coverage).doubleValue();
-                        log.debug("Extracted coverage increase {} for session {}", value, session.getSessionId());
-                        return value;
-                    }
+            Map<String, Object> results = session.getResultsSummary();
+            if (results.containsKey("coverageIncrease")) {
+                Object coverage = results.get("coverageIncrease");
+                if (coverage instanceof Number) {
+                    double value = ((Number) coverage).doubleValue();
+                    log.debug("Extracted coverage increase {} for session {}", value, session.getSessionId());
+                    return value;
                 }
             }
         } catch (Exception e) {
@@ -301,20 +301,17 @@ public class ProductivityDashboardService {
 
     private int extractTotalTests(CoverageImprovementSession session) {
         try {
-            if (session == null || session.getResults() == null) {
+            if (session == null || session.getResultsSummary() == null) {
                 return 0;
             }
 
-            if (session.getResults() instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> results = (Map<String, Object>) session.getResults();
-                if (results != null && results.containsKey("totalTestsGenerated")) {
-                    Object tests = results.get("totalTestsGenerated");
-                    if (tests instanceof Number) {
-                        int value = ((Number) tests).intValue();
-                        log.debug("Extracted total tests {} for session {}", value, session.getSessionId());
-                        return value;
-                    }
+            Map<String, Object> results = session.getResultsSummary();
+            if (results.containsKey("totalTestsGenerated")) {
+                Object tests = results.get("totalTestsGenerated");
+                if (tests instanceof Number) {
+                    int value = ((Number) tests).intValue();
+                    log.debug("Extracted total tests {} for session {}", value, session.getSessionId());
+                    return value;
                 }
             }
         } catch (Exception e) {
@@ -325,18 +322,15 @@ public class ProductivityDashboardService {
 
     private long extractProcessingTime(CoverageImprovementSession session) {
         try {
-            if (session == null || session.getResults() == null) {
+            if (session == null || session.getResultsSummary() == null) {
                 return 0L;
             }
 
-            if (session.getResults() instanceof Map) {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> results = (Map<String, Object>) session.getResults();
-                if (results != null && results.containsKey("processingTimeMs")) {
-                    Object time = results.get("processingTimeMs");
-                    if (time instanceof Number) {
-                        return ((Number) time).longValue();
-                    }
+            Map<String, Object> results = session.getResultsSummary();
+            if (results.containsKey("processingTimeMs")) {
+                Object time = results.get("processingTimeMs");
+                if (time instanceof Number) {
+                    return ((Number) time).longValue();
                 }
             }
         } catch (Exception e) {
@@ -398,7 +392,7 @@ public class ProductivityDashboardService {
         double thisWeekAvg = sessions.stream()
                 .filter(Objects::nonNull)
                 .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(weekAgo))
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToDouble(this::extractCoverageIncrease)
                 .average()
                 .orElse(0.0);
@@ -406,7 +400,7 @@ public class ProductivityDashboardService {
         double lastWeekAvg = sessions.stream()
                 .filter(Objects::nonNull)
                 .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(twoWeeksAgo) && s.getStartedAt().isBefore(weekAgo))
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToDouble(this::extractCoverageIncrease)
                 .average()
                 .orElse(0.0);
@@ -422,14 +416,14 @@ public class ProductivityDashboardService {
         int thisWeekTests = sessions.stream()
                 .filter(Objects::nonNull)
                 .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(weekAgo))
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToInt(this::extractTotalTests)
                 .sum();
 
         int lastWeekTests = sessions.stream()
                 .filter(Objects::nonNull)
                 .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(twoWeeksAgo) && s.getStartedAt().isBefore(weekAgo))
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .mapToInt(this::extractTotalTests)
                 .sum();
 
@@ -440,7 +434,7 @@ public class ProductivityDashboardService {
     private List<DashboardSummaryDto.TrendData> buildCoverageTrends(List<CoverageImprovementSession> sessions) {
         Map<String, List<CoverageImprovementSession>> dailyGroups = sessions.stream()
                 .filter(Objects::nonNull)
-                .filter(s -> s.getResults() != null)
+                .filter(s -> s.getResultsSummary() != null)
                 .filter(s -> s.getStartedAt() != null && s.getStartedAt().isAfter(LocalDateTime.now().minusDays(30)))
                 .collect(Collectors.groupingBy(s -> s.getStartedAt().toLocalDate().toString()));
 
@@ -484,7 +478,7 @@ public class ProductivityDashboardService {
     private List<DashboardSummaryDto.CategoryData> buildImprovementsByCategory(List<CoverageImprovementSession> sessions) {
         Map<String, List<CoverageImprovementSession>> typeGroups = sessions.stream()
                 .filter(Objects::nonNull)
-                .filter(s -> s.getResults() != null && s.getType() != null)
+                .filter(s -> s.getResultsSummary() != null && s.getType() != null)
                 .collect(Collectors.groupingBy(s -> s.getType().toString()));
 
         return typeGroups.entrySet().stream()
@@ -638,11 +632,10 @@ public class ProductivityDashboardService {
                     .filePath(session.getFilePath())
                     .startedAt(session.getStartedAt() != null ? session.getStartedAt().format(DATE_FORMATTER) : "Unknown");
 
-            // Extract data from results if available
-            if (session.getResults() instanceof Map) {
+            // Extract data from the results summary if available
+            if (session.getResultsSummary() != null) {
                 try {
-                    @SuppressWarnings("unchecked")
-                    Map<String, Object> results = (Map<String, Object>) session.getResults();
+                    Map<String, Object> results = session.getResultsSummary();
                     builder
                             .fileName(extractStringFromResults(results, "fileName"))
                             .originalCoverage(extractDoubleFromResults(results, "originalCoverage"))
@@ -0,0 +1,294 @@
+package com.org.devgenie.service.metadata;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.function.IntConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Parallel metadata analysis engine.
+ * Fans file analysis out over a bounded work-stealing pool, keeps per-file failures
+ * from stopping the batch and reports throughput for every run.
+ */
+@Service
+@Slf4j
+public class MetadataAnalysisEngine {
+
+    @Autowired
+    private MetadataAnalyzer metadataAnalyzer;
+
+    @Value("${coverage.metadata.parallelism:0}")
+    private int configuredParallelism;
+
+    private ForkJoinPool analysisPool;
+
+    @PostConstruct
+    void initializePool() {
+        int parallelism = configuredParallelism > 0
+                ? configuredParallelism
+                : Runtime.getRuntime().availableProcessors();
+        analysisPool = new ForkJoinPool(parallelism, pool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+            thread.setName("MetadataAnalysis-" + thread.getPoolIndex());
+            return thread;
+        }, null, false);
+        log.info("Metadata analysis pool initialized with parallelism {}", parallelism);
+    }
+
+    @PreDestroy
+    void shutdownPool() {
+        if (analysisPool != null) {
+            analysisPool.shutdown();
+        }
+    }
+
+    /**
+     * Analyzes all given Java files in parallel.
+     * Results keep the order of the input list; files that fail are reported in
+     * {@link AnalysisReport#getFailures()} instead of aborting the run.
+     *
+     * @param filePaths List of paths to Java files to analyze
+     * @return AnalysisReport with the metadata, failures and throughput of the run
+     */
+    public AnalysisReport analyzeJavaFiles(List<String> filePaths, String repositoryUrl, String branch) {
+        long start = System.nanoTime();
+        int total = filePaths.size();
+        MetadataAnalyzer.FileMetadata[] results = new MetadataAnalyzer.FileMetadata[total];
+        Queue<FileFailure> failures = new ConcurrentLinkedQueue<>();
+
+        runInPool(total, i -> {
+            String filePath = filePaths.get(i);
+            try {
+                results[i] = metadataAnalyzer.analyzeJavaFile(filePath, repositoryUrl, branch);
+            } catch (Exception e) {
+                failures.add(new FileFailure(filePath, e.getMessage()));
+                log.warn("Failed to analyze file: {} - {}", filePath, e.getMessage());
+            }
+        });
+
+        List<MetadataAnalyzer.FileMetadata> fileMetadata = collectResults(results);
+        return buildReport(start, total, fileMetadata, fileMetadata, List.of(), failures, 0);
+    }
+
+    /**
+     * Incrementally analyzes Java files against previously stored metadata.
+     * Each file is read once and fingerprinted with its git blob SHA-1; only added or
+     * modified files are parsed, unchanged files reuse their stored complexity, business
+     * and dependency metrics. The report lists exactly which documents need to be
+     * written ({@link AnalysisReport#getChangedMetadata()}) or removed
+     * ({@link AnalysisReport#getRemovedMetadata()}) so persistence scales with the diff.
+     *
+     * @param repoDir          Repository root the relative file paths are resolved against
+     * @param filePaths        Repository-relative paths of the Java files to analyze
+     * @param previousMetadata Metadata stored by the previous analysis of this repository/branch
+     * @return AnalysisReport with the full metadata set plus the changed/removed delta
+     */
+    public AnalysisReport analyzeJavaFilesIncremental(String repoDir, List<String> filePaths, String repositoryUrl,
+                                                      String branch, List<MetadataAnalyzer.FileMetadata> previousMetadata) {
+        long start = System.nanoTime();
+        int total = filePaths.size();
+
+        List<MetadataAnalyzer.FileMetadata> removed = new ArrayList<>();
+        Map<String, MetadataAnalyzer.FileMetadata> previousByPath = indexByPath(previousMetadata, removed);
+
+        MetadataAnalyzer.FileMetadata[] results = new MetadataAnalyzer.FileMetadata[total];
+        boolean[] changed = new boolean[total];
+        Queue<FileFailure> failures = new ConcurrentLinkedQueue<>();
+
+        runInPool(total, i -> {
+            String filePath = filePaths.get(i);
+            try {
+                byte[] content = Files.readAllBytes(Paths.get(repoDir, filePath));
+                String contentHash = gitBlobSha(content);
+                MetadataAnalyzer.FileMetadata previous = previousByPath.get(filePath);
+
+                if (previous != null && contentHash.equals(previous.getContentHash())) {
+                    results[i] = previous;
+                    return;
+                }
+
+                MetadataAnalyzer.FileMetadata metadata = metadataAnalyzer.analyzeJavaSource(
+                        filePath, new String(content, StandardCharsets.UTF_8), repositoryUrl, branch);
+                metadata.setContentHash(contentHash);
+                if (previous != null) {
+                    // Overwrite the stored document instead of inserting a duplicate
+                    metadata.setId(previous.getId());
+                }
+                results[i] = metadata;
+                changed[i] = true;
+            } catch (Exception e) {
+                failures.add(new FileFailure(filePath, e.getMessage()));
+                log.warn("Failed to analyze file: {} - {}", filePath, e.getMessage());
+            }
+        });
+
+        Set<String> currentPaths = new HashSet<>(filePaths);
+        previousByPath.forEach((path, metadata) -> {
+            if (!currentPaths.contains(path)) {
+                removed.add(metadata);
+            }
+        });
+
+        List<MetadataAnalyzer.FileMetadata> changedMetadata = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            if (changed[i]) {
+                changedMetadata.add(results[i]);
+            }
+        }
+        List<MetadataAnalyzer.FileMetadata> fileMetadata = collectResults(results);
+        int reused = fileMetadata.size() - changedMetadata.size();
+
+        return buildReport(start, total, fileMetadata, changedMetadata, removed, failures, reused);
+    }
+
+    /**
+     * Computes the git blob SHA-1 ({@code git hash-object}) of the given content so
+     * fingerprints line up with the object ids git itself reports.
+     */
+    static String gitBlobSha(byte[] content) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-1");
+            digest.update(("blob " + content.length + "\0").getBytes(StandardCharsets.US_ASCII));
+            return HexFormat.of().formatHex(digest.digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-1 not available", e);
+        }
+    }
+
+    /**
+     * Indexes stored metadata by file path. Older analyses saved a new document per run,
+     * so when a path appears more than once the most recent entry wins and the rest are
+     * queued for removal.
+     */
+    private Map<String, MetadataAnalyzer.FileMetadata> indexByPath(List<MetadataAnalyzer.FileMetadata> previousMetadata,
+                                                                   List<MetadataAnalyzer.FileMetadata> superseded) {
+        Map<String, MetadataAnalyzer.FileMetadata> byPath = new HashMap<>();
+        if (previousMetadata == null) {
+            return byPath;
+        }
+        for (MetadataAnalyzer.FileMetadata metadata : previousMetadata) {
+            if (metadata.getFilePath() == null) {
+                continue;
+            }
+            MetadataAnalyzer.FileMetadata existing = byPath.get(metadata.getFilePath());
+            if (existing == null) {
+                byPath.put(metadata.getFilePath(), metadata);
+            } else if (isNewer(metadata, existing)) {
+                byPath.put(metadata.getFilePath(), metadata);
+                superseded.add(existing);
+            } else {
+                superseded.add(metadata);
+            }
+        }
+        return byPath;
+    }
+
+    private boolean isNewer(MetadataAnalyzer.FileMetadata candidate, MetadataAnalyzer.FileMetadata existing) {
+        if (candidate.getAnalyzedAt() == null) {
+            return false;
+        }
+        return existing.getAnalyzedAt() == null || candidate.getAnalyzedAt().isAfter(existing.getAnalyzedAt());
+    }
+
+    /**
+     * Runs one task per index on the analysis pool and waits for all of them.
+     * Parallel streams started from inside the pool run on the pool, so work stealing
+     * balances large and small files without touching the common pool.
+     */
+    private void runInPool(int total, IntConsumer task) {
+        try {
+            analysisPool.submit(() -> IntStream.range(0, total).parallel().forEach(task)).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Metadata analysis interrupted before all {} files completed", total);
+        } catch (ExecutionException e) {
+            log.error("Metadata analysis aborted unexpectedly", e.getCause());
+        }
+    }
+
+    private List<MetadataAnalyzer.FileMetadata> collectResults(MetadataAnalyzer.FileMetadata[] results) {
+        return Arrays.stream(results)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private AnalysisReport buildReport(long start, int total, List<MetadataAnalyzer.FileMetadata> fileMetadata,
+                                       List<MetadataAnalyzer.FileMetadata> changedMetadata,
+                                       List<MetadataAnalyzer.FileMetadata> removedMetadata,
+                                       Queue<FileFailure> failures, int reused) {
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        double filesPerSecond = elapsedMillis > 0 ? total * 1000.0 / elapsedMillis : total;
+
+        AnalysisReport report = AnalysisReport.builder()
+                .fileMetadata(fileMetadata)
+                .changedMetadata(changedMetadata)
+                .removedMetadata(removedMetadata)
+                .failures(new ArrayList<>(failures))
+                .totalFiles(total)
+                .reusedFiles(reused)
+                .elapsedMillis(elapsedMillis)
+                .filesPerSecond(filesPerSecond)
+                .parallelism(analysisPool.getParallelism())
+                .build();
+
+        log.info("Metadata analysis processed {} files ({} parsed, {} reused, {} removed, {} failed) in {} ms - {} files/sec on {} threads",
+                total, changedMetadata.size(), reused, removedMetadata.size(), report.getFailures().size(),
+                elapsedMillis, String.format("%.1f", filesPerSecond), report.getParallelism());
+        return report;
+    }
+
+    @Data
+    @Builder
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class AnalysisReport {
+        private List<MetadataAnalyzer.FileMetadata> fileMetadata;
+        // Newly parsed entries that must be written back (all entries in full mode)
+        private List<MetadataAnalyzer.FileMetadata> changedMetadata;
+        // Stored entries for deleted files or superseded duplicates
+        private List<MetadataAnalyzer.FileMetadata> removedMetadata;
+        private List<FileFailure> failures;
+        private int totalFiles;
+        private int reusedFiles;
+        private long elapsedMillis;
+        private double filesPerSecond;
+        private int parallelism;
+    }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    public static class FileFailure {
+        private String filePath;
+        private String reason;
+    }
+}
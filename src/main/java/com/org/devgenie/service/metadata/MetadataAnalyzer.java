@@ -1,6 +1,8 @@
 package com.org.devgenie.service.metadata;
 
 import com.github.javaparser.JavaParser;
+import com.github.javaparser.ParseResult;
+import com.github.javaparser.ParserConfiguration;
 import com.github.javaparser.ast.CompilationUnit;
 import com.github.javaparser.ast.ImportDeclaration;
 import com.github.javaparser.ast.body.ClassOrInterfaceDeclaration;
@@ -13,9 +15,11 @@ import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
@@ -39,6 +43,12 @@ public class MetadataAnalyzer {
             "Service", "Controller", "Component", "Repository", "Transactional",
             "RestController", "RequestMapping", "PostMapping", "GetMapping"
     };
+
+    // JavaParser instances are not thread-safe, so each worker thread keeps its own
+    // parser (and configuration) and reuses it across files instead of building one per file
+    private static final ThreadLocal<JavaParser> PARSERS =
+            ThreadLocal.withInitial(() -> new JavaParser(new ParserConfiguration()));
+
     /**
      * Analyzes a Java file and extracts metadata including code complexity,
      * business logic patterns, and dependency impact.
@@ -55,21 +65,79 @@ public class MetadataAnalyzer {
             throw new IOException("File not found: " + filePath);
         }
 
-        // Parse the Java file
-        JavaParser parser = new JavaParser();
-        CompilationUnit cu = parser.parse(path).getResult()
-                .orElseThrow(() -> new RuntimeException("Failed to parse Java file"));
+        // Read the file once; the same content feeds both the parser and the line count
+        String source = new String(Files.readAllBytes(path), StandardCharsets.UTF_8);
+        return analyzeJavaSource(filePath, source, repositoryUrl, branch);
+    }
+
+    /**
+     * Analyzes already-loaded Java source using the calling thread's reusable parser.
+     *
+     * @param filePath Path the source was read from (recorded in the metadata)
+     * @param source   Full source text of the file
+     * @return FileMetadata object containing the analysis results
+     */
+    public FileMetadata analyzeJavaSource(String filePath, String source, String repositoryUrl, String branch) {
+        return analyzeCompilationUnit(filePath, source, parseSource(source), repositoryUrl, branch);
+    }
+
+    /**
+     * Parses Java source with the calling thread's reusable parser, for callers that also walk the AST.
+     *
+     * @throws RuntimeException if the source cannot be parsed
+     */
+    public CompilationUnit parseJavaSource(String source) {
+        return parseSource(source);
+    }
 
+    private CompilationUnit parseSource(String source) {
+        ParseResult<CompilationUnit> parseResult = PARSERS.get().parse(source);
+        return parseResult.getResult()
+                .orElseThrow(() -> new RuntimeException("Failed to parse Java file: " + parseResult.getProblems()));
+    }
+
+    /**
+     * Extracts all metrics from a parsed compilation unit with a single combined visitor.
+     */
+    public FileMetadata analyzeCompilationUnit(String filePath, String source, CompilationUnit cu,
+                                               String repositoryUrl, String branch) {
+        MetadataVisitor visitor = new MetadataVisitor();
+        cu.accept(visitor, null);
+
+        return buildFileMetadata(filePath, repositoryUrl, branch,
+                visitor.getClassName(),
+                extractPackageName(cu),
+                countLines(source),
+                visitor.getCodeComplexity(),
+                visitor.getBusinessComplexity(),
+                buildDependencyImpact(visitor.getOutgoingDependencies()));
+    }
+
+    /**
+     * Original multi-pass extraction: one traversal per metric family plus separate
+     * class-name and import scans. Kept as the reference the combined visitor is
+     * verified and benchmarked against.
+     */
+    FileMetadata analyzeCompilationUnitMultiPass(String filePath, String source, CompilationUnit cu,
+                                                 String repositoryUrl, String branch) {
         // Extract metadata
         String className = extractClassName(cu);
         String packageName = extractPackageName(cu);
-        int lineCount = (int) Files.lines(path).count();
+        int lineCount = countLines(source);
 
         // Calculate complexities
         CodeComplexity codeComplexity = calculateCodeComplexity(cu);
         BusinessComplexity businessComplexity = analyzeBusinessLogic(cu);
         DependencyImpact dependencyImpact = analyzeDependencies(cu, className);
 
+        return buildFileMetadata(filePath, repositoryUrl, branch, className, packageName, lineCount,
+                codeComplexity, businessComplexity, dependencyImpact);
+    }
+
+    private FileMetadata buildFileMetadata(String filePath, String repositoryUrl, String branch,
+                                           String className, String packageName, int lineCount,
+                                           CodeComplexity codeComplexity, BusinessComplexity businessComplexity,
+                                           DependencyImpact dependencyImpact) {
         // Calculate risk score
         double riskScore = calculateRiskScore(codeComplexity, businessComplexity, dependencyImpact, lineCount);
 
@@ -102,7 +170,7 @@ public class MetadataAnalyzer {
                 FileMetadata metadata = analyzeJavaFile(filePath,repositoryUrl,branch);
                 results.add(metadata);
                 System.out.println("✅ Successfully analyzed: " + filePath);
-            } catch (IOException e) {
+            } catch (IOException | RuntimeException e) {
                 System.err.println("❌ Failed to analyze file: " + filePath + " - " + e.getMessage());
                 // Continue with other files even if one fails
             }
@@ -111,6 +179,31 @@ public class MetadataAnalyzer {
         return results;
     }
 
+    /**
+     * Counts lines the same way {@code Files.lines(path).count()} does: \n, \r and \r\n
+     * all terminate a line and a trailing terminator does not start a new one.
+     */
+    static int countLines(String content) {
+        if (content.isEmpty()) {
+            return 0;
+        }
+        int lines = 0;
+        int length = content.length();
+        for (int i = 0; i < length; i++) {
+            char c = content.charAt(i);
+            if (c == '\n') {
+                lines++;
+            } else if (c == '\r') {
+                lines++;
+                if (i + 1 < length && content.charAt(i + 1) == '\n') {
+                    i++;
+                }
+            }
+        }
+        char last = content.charAt(length - 1);
+        return (last == '\n' || last == '\r') ? lines : lines + 1;
+    }
+
     private String extractClassName(CompilationUnit cu) {
         return cu.findFirst(ClassOrInterfaceDeclaration.class)
                 .map(cls -> cls.getNameAsString())
@@ -163,6 +256,10 @@ public class MetadataAnalyzer {
             }
         }
 
+        return buildDependencyImpact(outgoingDeps);
+    }
+
+    private DependencyImpact buildDependencyImpact(Set<String> outgoingDeps) {
         // For this standalone analyzer, we can't calculate incoming dependencies
         // without analyzing the entire project
         Set<String> incomingDeps = new HashSet<>(); // Would need project-wide analysis
@@ -180,7 +277,7 @@ public class MetadataAnalyzer {
                 .build();
     }
 
-    private boolean isProjectClass(String importName) {
+    private static boolean isProjectClass(String importName) {
         // Simple heuristic: if it doesn't start with java., javax., org.springframework, etc.
         return !importName.startsWith("java.") &&
                 !importName.startsWith("javax.") &&
@@ -361,6 +458,238 @@ public class MetadataAnalyzer {
         return recommendations;
     }
 
+    private static boolean hasValidationLogic(MethodDeclaration method) {
+        return method.getBody().map(body -> {
+            String bodyStr = body.toString();
+            return bodyStr.contains("if") &&
+                    (bodyStr.contains("throw") || bodyStr.contains("return false")) &&
+                    (bodyStr.contains("null") || bodyStr.contains("empty") ||
+                            bodyStr.contains("invalid") || bodyStr.contains("validate"));
+        }).orElse(false);
+    }
+
+    /**
+     * Combined visitor that collects class name, project imports, code complexity and
+     * business logic signals in one traversal of the compilation unit. Produces the same
+     * numbers as running CodeComplexityVisitor, BusinessLogicVisitor and the separate
+     * class-name/import scans one after another.
+     */
+    private static class MetadataVisitor extends VoidVisitorAdapter<Void> {
+        private String className;
+        private final Set<String> outgoingDependencies = new HashSet<>();
+
+        // Code complexity
+        private int cyclomaticComplexity = 1; // Base complexity
+        private int methodCount = 0;
+        private int totalMethodLines = 0;
+        private int maxNestingDepth = 0;
+        private int currentNestingDepth = 0;
+        private final List<MethodComplexity> complexMethods = new ArrayList<>();
+        private int totalCognitiveComplexity = 0;
+        private boolean inMethod = false;
+        private int methodCyclomatic = 0;
+        private int methodCognitive = 0;
+        private int methodLineCount = 0;
+        private String currentMethodName = "";
+
+        // Business logic
+        private double businessCriticality = 0.0;
+        private boolean hasBusinessAnnotations = false;
+        private int businessMethodCount = 0;
+        private int validationComplexity = 0;
+        private boolean hasTransactionHandling = false;
+        private boolean hasExceptionHandling = false;
+        private final List<String> businessMethods = new ArrayList<>();
+
+        @Override
+        public void visit(ImportDeclaration n, Void arg) {
+            String importName = n.getNameAsString();
+            if (isProjectClass(importName)) {
+                outgoingDependencies.add(importName);
+            }
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(ClassOrInterfaceDeclaration n, Void arg) {
+            // Pre-order traversal: the first declaration seen is the one findFirst would return
+            if (className == null) {
+                className = n.getNameAsString();
+            }
+            for (AnnotationExpr annotation : n.getAnnotations()) {
+                String annName = annotation.getNameAsString();
+                if (Arrays.stream(BUSINESS_ANNOTATIONS).anyMatch(ba -> ba.equals(annName))) {
+                    hasBusinessAnnotations = true;
+                    businessCriticality += 2.0;
+                }
+            }
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(MethodDeclaration n, Void arg) {
+            recordBusinessSignals(n);
+
+            inMethod = true;
+            methodCount++;
+            methodCyclomatic = 1; // Base complexity for method
+            methodCognitive = 0;
+            currentMethodName = n.getNameAsString();
+
+            int startLine = n.getBegin().map(pos -> pos.line).orElse(0);
+            int endLine = n.getEnd().map(pos -> pos.line).orElse(0);
+            methodLineCount = endLine - startLine + 1;
+            totalMethodLines += methodLineCount;
+
+            super.visit(n, arg);
+
+            totalCognitiveComplexity += methodCognitive;
+
+            // Store complex methods (threshold: cyclomatic > 10 or cognitive > 15)
+            if (methodCyclomatic > 10 || methodCognitive > 15) {
+                complexMethods.add(MethodComplexity.builder()
+                        .name(currentMethodName)
+                        .cyclomaticComplexity(methodCyclomatic)
+                        .cognitiveComplexity(methodCognitive)
+                        .lineCount(methodLineCount)
+                        .build());
+            }
+
+            inMethod = false;
+        }
+
+        private void recordBusinessSignals(MethodDeclaration n) {
+            String methodName = n.getNameAsString().toLowerCase();
+
+            if (Arrays.stream(BUSINESS_KEYWORDS).anyMatch(methodName::contains)) {
+                businessMethodCount++;
+                businessMethods.add(n.getNameAsString());
+                businessCriticality += 1.0;
+            }
+
+            if (hasValidationLogic(n)) {
+                validationComplexity++;
+                businessCriticality += 0.5;
+            }
+
+            for (AnnotationExpr annotation : n.getAnnotations()) {
+                if (annotation.getNameAsString().contains("Transactional")) {
+                    hasTransactionHandling = true;
+                    businessCriticality += 1.5;
+                }
+            }
+        }
+
+        @Override
+        public void visit(IfStmt n, Void arg) {
+            incrementComplexity(1);
+            enterNesting();
+            super.visit(n, arg);
+            currentNestingDepth--;
+        }
+
+        @Override
+        public void visit(WhileStmt n, Void arg) {
+            incrementComplexity(1);
+            enterNesting();
+            super.visit(n, arg);
+            currentNestingDepth--;
+        }
+
+        @Override
+        public void visit(ForStmt n, Void arg) {
+            incrementComplexity(1);
+            enterNesting();
+            super.visit(n, arg);
+            currentNestingDepth--;
+        }
+
+        @Override
+        public void visit(ForEachStmt n, Void arg) {
+            incrementComplexity(1);
+            enterNesting();
+            super.visit(n, arg);
+            currentNestingDepth--;
+        }
+
+        @Override
+        public void visit(SwitchStmt n, Void arg) {
+            incrementComplexity(n.getEntries().size());
+            enterNesting();
+            super.visit(n, arg);
+            currentNestingDepth--;
+        }
+
+        @Override
+        public void visit(CatchClause n, Void arg) {
+            incrementComplexity(1);
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(ConditionalExpr n, Void arg) {
+            incrementComplexity(1);
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(TryStmt n, Void arg) {
+            hasExceptionHandling = true;
+            super.visit(n, arg);
+        }
+
+        @Override
+        public void visit(ThrowStmt n, Void arg) {
+            hasExceptionHandling = true;
+            super.visit(n, arg);
+        }
+
+        private void enterNesting() {
+            currentNestingDepth++;
+            maxNestingDepth = Math.max(maxNestingDepth, currentNestingDepth);
+        }
+
+        private void incrementComplexity(int increment) {
+            cyclomaticComplexity += increment;
+            if (inMethod) {
+                methodCyclomatic += increment;
+                // Cognitive complexity adds nesting penalty (each level of nesting adds +1)
+                methodCognitive += increment + Math.max(currentNestingDepth - 1, 0);
+            }
+        }
+
+        String getClassName() {
+            return className != null ? className : "Unknown";
+        }
+
+        Set<String> getOutgoingDependencies() {
+            return outgoingDependencies;
+        }
+
+        CodeComplexity getCodeComplexity() {
+            return CodeComplexity.builder()
+                    .cyclomaticComplexity(cyclomaticComplexity)
+                    .cognitiveComplexity(totalCognitiveComplexity)
+                    .totalMethods(methodCount)
+                    .averageMethodLength(methodCount > 0 ? (double) totalMethodLines / methodCount : 0)
+                    .maxNestingDepth(maxNestingDepth)
+                    .complexMethods(complexMethods)
+                    .build();
+        }
+
+        BusinessComplexity getBusinessComplexity() {
+            return BusinessComplexity.builder()
+                    .businessCriticality(Math.min(businessCriticality, 10.0)) // Cap at 10.0
+                    .hasBusinessAnnotations(hasBusinessAnnotations)
+                    .businessMethodCount(businessMethodCount)
+                    .validationComplexity(validationComplexity)
+                    .transactionHandling(hasTransactionHandling)
+                    .exceptionHandling(hasExceptionHandling)
+                    .businessMethods(businessMethods)
+                    .build();
+        }
+    }
+
     // Visitor classes for complexity calculation
     private static class CodeComplexityVisitor extends VoidVisitorAdapter<Void> {
         private int cyclomaticComplexity = 1; // Base complexity
@@ -554,16 +883,6 @@ public class MetadataAnalyzer {
             super.visit(n, arg);
         }
 
-        private boolean hasValidationLogic(MethodDeclaration method) {
-            return method.getBody().map(body -> {
-                String bodyStr = body.toString();
-                return bodyStr.contains("if") &&
-                        (bodyStr.contains("throw") || bodyStr.contains("return false")) &&
-                        (bodyStr.contains("null") || bodyStr.contains("empty") ||
-                                bodyStr.contains("invalid") || bodyStr.contains("validate"));
-            }).orElse(false);
-        }
-
         public double getBusinessCriticality() {
             return Math.min(businessCriticality, 10.0); // Cap at 10.0
         }
@@ -581,6 +900,8 @@ public class MetadataAnalyzer {
     @NoArgsConstructor
     // Data classes
     public static class FileMetadata {
+        @Id
+        private String id;
         private String repositoryUrl;
         private String branch;
         private String filePath;
@@ -592,6 +913,8 @@ public class MetadataAnalyzer {
         private DependencyImpact dependencyImpact;
         private double riskScore;
         private LocalDateTime analyzedAt;
+        // Git blob SHA-1 of the analyzed content; unchanged hashes are reused on re-analysis
+        private String contentHash;
     }
 
     @Data
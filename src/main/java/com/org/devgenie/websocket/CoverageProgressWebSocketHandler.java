@@ -1,24 +1,81 @@
 package com.org.devgenie.websocket;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import com.org.devgenie.dto.coverage.ProgressUpdate;
 import com.org.devgenie.service.coverage.SessionManagementService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 import org.springframework.web.socket.*;
+import org.springframework.web.socket.handler.ConcurrentWebSocketSessionDecorator;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
 
 import java.io.IOException;
 import java.net.URI;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
+/**
+ * Pushes session progress to WebSocket clients.
+ * <ul>
+ *   <li>Any number of connections may follow a session. Each has its own outbound queue, drained by
+ *       a sender thread, so publishing never waits on a slow client.</li>
+ *   <li>Sessions are wrapped in a {@link ConcurrentWebSocketSessionDecorator}. A connection whose send
+ *       takes longer than {@code coverage.progress.websocket.send-time-limit-ms} is closed by a
+ *       watchdog, which frees the sender thread, so a few stalled clients cannot hold up everyone else.</li>
+ *   <li>Queued progress-only updates are conflated: an update replaces a queued update that was not
+ *       sent yet. Errors, warnings, completions and categorized messages (e.g. generated tests) are
+ *       always delivered in order.</li>
+ *   <li>The last {@code coverage.progress.websocket.replay-size} messages of a session are kept and
+ *       replayed to clients that connect late.</li>
+ * </ul>
+ */
 @Component
 @Slf4j
 public class CoverageProgressWebSocketHandler implements WebSocketHandler {
 
-    private final ConcurrentHashMap<String, WebSocketSession> sessions = new ConcurrentHashMap<>();
+    private static final Set<ProgressUpdate.ProgressType> KEPT_TYPES = EnumSet.of(ProgressUpdate.ProgressType.ERROR,
+            ProgressUpdate.ProgressType.WARNING, ProgressUpdate.ProgressType.COMPLETION);
+    private static final Set<ProgressUpdate.MessageSeverity> KEPT_SEVERITIES = EnumSet.of(
+            ProgressUpdate.MessageSeverity.ERROR, ProgressUpdate.MessageSeverity.WARNING, ProgressUpdate.MessageSeverity.SUCCESS);
+
+    @Value("${coverage.progress.websocket.replay-size:50}")
+    private int replaySize;
+
+    @Value("${coverage.progress.websocket.max-queued-messages:500}")
+    private int maxQueuedMessages;
+
+    @Value("${coverage.progress.websocket.sender-threads:4}")
+    private int senderThreads;
+
+    @Value("${coverage.progress.websocket.replay-retention-minutes:30}")
+    private long replayRetentionMinutes;
+
+    @Value("${coverage.progress.websocket.send-time-limit-ms:10000}")
+    private int sendTimeLimitMillis;
+
+    @Value("${coverage.progress.websocket.buffer-size-limit-bytes:524288}")
+    private int bufferSizeLimitBytes;
+
+    private final ConcurrentHashMap<String, SessionChannel> channels = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Connection> connections = new ConcurrentHashMap<>(); // by WebSocket session id
     private final ObjectMapper objectMapper;
+    private ExecutorService sender;
+    private ScheduledExecutorService watchdog;
 
     public CoverageProgressWebSocketHandler() {
         this.objectMapper = new ObjectMapper();
@@ -26,22 +83,62 @@ public class CoverageProgressWebSocketHandler implements WebSocketHandler {
         this.objectMapper.disable(com.fasterxml.jackson.databind.SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
     }
 
+    @PostConstruct
+    void initialize() {
+        AtomicInteger threadCount = new AtomicInteger();
+        sender = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "WebSocketSender-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // Own thread: it has to run while every sender is stuck on a slow client
+        watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "WebSocketWatchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.scheduleWithFixedDelay(this::closeStalledConnections, 1, 1, TimeUnit.SECONDS);
+        watchdog.scheduleWithFixedDelay(this::evictIdleChannels, 1, 1, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        if (watchdog != null) {
+            watchdog.shutdownNow();
+        }
+        if (sender != null) {
+            sender.shutdownNow();
+        }
+    }
+
     @Override
     public void afterConnectionEstablished(WebSocketSession session) throws Exception {
         String sessionId = extractSessionId(session.getUri());
-        sessions.put(sessionId, session);
-        log.info("WebSocket connection established for session: {}, total sessions: {}", sessionId, sessions.size());
-        
-        // Send initial connection confirmation (user-friendly)
-        ProgressUpdate initialUpdate = ProgressUpdate.builder()
-                .sessionId(sessionId)
-                .progress(0.0)
-                .currentStep("Starting analysis")
-                .message("Initializing coverage analysis")
-                .type(ProgressUpdate.ProgressType.INITIALIZATION)
-                .build();
-        
-        sendProgressUpdate(sessionId, initialUpdate);
+        Connection connection = new Connection(sessionId, new ConcurrentWebSocketSessionDecorator(session,
+                sendTimeLimitMillis, bufferSizeLimitBytes, ConcurrentWebSocketSessionDecorator.OverflowStrategy.TERMINATE));
+        connections.put(session.getId(), connection);
+        SessionChannel channel = channels.computeIfAbsent(sessionId, id -> new SessionChannel());
+        int replayed;
+        synchronized (channel) {
+            // Registered and replayed under the channel lock, so no message is missed or sent twice
+            channel.connections.add(connection);
+            replayed = channel.recent.size();
+            if (replayed > 0) {
+                channel.recent.forEach(connection::enqueue);
+            } else {
+                // Send initial connection confirmation (user-friendly)
+                ProgressUpdate initialUpdate = ProgressUpdate.builder()
+                        .sessionId(sessionId)
+                        .progress(0.0)
+                        .currentStep("Starting analysis")
+                        .message("Initializing coverage analysis")
+                        .type(ProgressUpdate.ProgressType.INITIALIZATION)
+                        .build();
+                connection.enqueue(toOutbound(initialUpdate));
+            }
+        }
+        log.info("WebSocket connection established for session: {}, subscribers: {}, replayed: {}",
+                sessionId, channel.connections.size(), replayed);
     }
 
     @Override
@@ -52,16 +149,14 @@ public class CoverageProgressWebSocketHandler implements WebSocketHandler {
 
     @Override
     public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
-        String sessionId = extractSessionId(session.getUri());
-        log.error("WebSocket transport error for session: {}", sessionId, exception);
-        sessions.remove(sessionId);
+        log.error("WebSocket transport error for session: {}", extractSessionId(session.getUri()), exception);
+        remove(session.getId());
     }
 
     @Override
     public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
-        String sessionId = extractSessionId(session.getUri());
-        sessions.remove(sessionId);
-        log.info("WebSocket connection closed for session: {}", sessionId);
+        remove(session.getId());
+        log.info("WebSocket connection closed for session: {}", extractSessionId(session.getUri()));
     }
 
     @Override
@@ -70,73 +165,24 @@ public class CoverageProgressWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * Send progress update to specific session
+     * Queues a progress update for every connection following the session and keeps it for replay.
+     * Returns without waiting for any client.
      */
     public void sendProgressUpdate(String sessionId, ProgressUpdate update) {
-        log.debug("Attempting to send progress update to session: {}, update: {}", sessionId, update);
-        WebSocketSession session = sessions.get(sessionId);
-        if (session != null && session.isOpen()) {
-            try {
-                // Check if the session is in a valid state for sending messages
-                if (!isSessionReadyForMessage(session)) {
-                    log.warn("WebSocket session {} is not ready for sending messages, state: {}", 
-                        sessionId, getSessionState(session));
-                    return;
-                }
-                
-                String json = objectMapper.writeValueAsString(update);
-                synchronized (session) { // Synchronize to prevent concurrent writes
-                    session.sendMessage(new TextMessage(json));
-                }
-                log.info("Successfully sent progress update to session {}: {}% - {}", sessionId, update.getProgress(), update.getMessage());
-            } catch (IllegalStateException e) {
-                log.warn("WebSocket session {} is in invalid state for sending messages: {}", sessionId, e.getMessage());
-                // Remove invalid session
-                sessions.remove(sessionId);
-            } catch (IOException e) {
-                log.error("Failed to send progress update to session: {}", sessionId, e);
-                // Remove failed session
-                sessions.remove(sessionId);
-            }
-        } else {
-            log.warn("No active WebSocket session found for sessionId: {}, available sessions: {}", sessionId, sessions.keySet());
-        }
-    }
-    
-    /**
-     * Check if WebSocket session is ready for sending messages
-     */
-    private boolean isSessionReadyForMessage(WebSocketSession session) {
+        Outbound message;
         try {
-            // Check if session is open and not in a partial write state
-            return session.isOpen() && !isInPartialWriteState(session);
-        } catch (Exception e) {
-            log.debug("Error checking session state: {}", e.getMessage());
-            return false;
+            message = toOutbound(update);
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize progress update for session: {}", sessionId, e);
+            return;
         }
-    }
-    
-    /**
-     * Check if session is in a partial write state (not safe for new messages)
-     */
-    private boolean isInPartialWriteState(WebSocketSession session) {
-        // This is a heuristic - if we can't determine the state safely, assume it's ready
-        try {
-            // We can't directly access the internal state, but we can check basic properties
-            return !session.isOpen();
-        } catch (Exception e) {
-            return false; // If we can't check, assume it's ready
-        }
-    }
-    
-    /**
-     * Get session state for logging (best effort)
-     */
-    private String getSessionState(WebSocketSession session) {
-        try {
-            return session.isOpen() ? "OPEN" : "CLOSED";
-        } catch (Exception e) {
-            return "UNKNOWN";
+        SessionChannel channel = channels.computeIfAbsent(sessionId, id -> new SessionChannel());
+        synchronized (channel) {
+            channel.record(message, replaySize);
+            channel.connections.forEach(connection -> connection.enqueue(message));
+            if (channel.connections.isEmpty()) {
+                log.debug("No WebSocket subscriber for session {} yet, kept for replay", sessionId);
+            }
         }
     }
 
@@ -187,38 +233,154 @@ public class CoverageProgressWebSocketHandler implements WebSocketHandler {
     }
 
     /**
-     * Get active session count (for monitoring)
+     * Get active connection count (for monitoring)
      */
     public int getActiveSessionCount() {
-        return sessions.size();
+        return connections.size();
     }
 
     /**
      * Broadcast message to all connected sessions (if needed)
      */
     public void broadcastMessage(String message) {
-        TextMessage textMessage = new TextMessage(message);
-        sessions.entrySet().removeIf(entry -> {
-            WebSocketSession session = entry.getValue();
-            String sessionId = entry.getKey();
-            
-            if (session.isOpen() && isSessionReadyForMessage(session)) {
-                try {
-                    synchronized (session) {
-                        session.sendMessage(textMessage);
-                    }
-                    return false; // Keep the session
-                } catch (IllegalStateException e) {
-                    log.warn("Session {} is in invalid state for broadcast: {}", sessionId, e.getMessage());
-                    return true; // Remove the session
-                } catch (IOException e) {
-                    log.error("Failed to broadcast message to session {}", sessionId, e);
-                    return true; // Remove the session
+        Outbound outbound = new Outbound(new TextMessage(message), false);
+        connections.values().forEach(connection -> connection.enqueue(outbound));
+    }
+
+    /**
+     * Whether an update only reports progress, so that a later update makes it obsolete.
+     */
+    private static boolean isProgressOnly(ProgressUpdate update) {
+        return (update.getType() == null || !KEPT_TYPES.contains(update.getType()))
+                && (update.getSeverity() == null || !KEPT_SEVERITIES.contains(update.getSeverity()))
+                && update.getCategory() == null;
+    }
+
+    private Outbound toOutbound(ProgressUpdate update) throws JsonProcessingException {
+        return new Outbound(new TextMessage(objectMapper.writeValueAsString(update)), isProgressOnly(update));
+    }
+
+    private void remove(String webSocketSessionId) {
+        Connection connection = connections.remove(webSocketSessionId);
+        if (connection != null) {
+            SessionChannel channel = channels.get(connection.sessionId);
+            if (channel != null) {
+                synchronized (channel) {
+                    channel.connections.remove(connection);
+                    channel.lastActivityNanos = System.nanoTime();
                 }
-            } else {
-                log.debug("Removing inactive session {} during broadcast", sessionId);
-                return true; // Remove the session
+            }
+        }
+    }
+
+    /**
+     * Closes connections whose current send has exceeded the send time limit; closing the session
+     * aborts the blocked write and returns its sender thread to the pool.
+     */
+    private void closeStalledConnections() {
+        connections.values().forEach(connection -> {
+            if (connection.session.getTimeSinceSendStarted() > sendTimeLimitMillis) {
+                log.warn("WebSocket client of session {} did not accept a message within {} ms, closing it",
+                        connection.sessionId, sendTimeLimitMillis);
+                connection.close();
+            }
+        });
+    }
+
+    private void evictIdleChannels() {
+        long cutoff = System.nanoTime() - TimeUnit.MINUTES.toNanos(replayRetentionMinutes);
+        channels.entrySet().removeIf(entry -> {
+            synchronized (entry.getValue()) {
+                return entry.getValue().connections.isEmpty() && entry.getValue().lastActivityNanos < cutoff;
             }
         });
     }
+
+    private record Outbound(TextMessage message, boolean progressOnly) {
+    }
+
+    /**
+     * Connections and recent messages of one coverage session.
+     */
+    private static class SessionChannel {
+        private final Set<Connection> connections = new CopyOnWriteArraySet<>();
+        private final Deque<Outbound> recent = new ArrayDeque<>();
+        private long lastActivityNanos = System.nanoTime();
+
+        private void record(Outbound message, int limit) {
+            if (message.progressOnly() && !recent.isEmpty() && recent.peekLast().progressOnly()) {
+                recent.pollLast();
+            }
+            recent.addLast(message);
+            while (recent.size() > limit) {
+                recent.pollFirst();
+            }
+            lastActivityNanos = System.nanoTime();
+        }
+    }
+
+    /**
+     * One WebSocket connection with its outbound queue. At most one sender drains the queue at a
+     * time, which also keeps writes to the WebSocket session sequential.
+     */
+    private class Connection {
+        private final String sessionId;
+        private final ConcurrentWebSocketSessionDecorator session;
+        private final Deque<Outbound> queue = new ArrayDeque<>();
+        private boolean draining;
+
+        private Connection(String sessionId, ConcurrentWebSocketSessionDecorator session) {
+            this.sessionId = sessionId;
+            this.session = session;
+        }
+
+        private void enqueue(Outbound message) {
+            synchronized (this) {
+                if (message.progressOnly() && !queue.isEmpty() && queue.peekLast().progressOnly()) {
+                    queue.pollLast(); // not sent yet and superseded
+                }
+                if (queue.size() >= maxQueuedMessages) {
+                    log.warn("WebSocket client of session {} is not keeping up ({} queued), closing it", sessionId, queue.size());
+                    queue.clear();
+                    watchdog.execute(this::close);
+                    return;
+                }
+                queue.addLast(message);
+                if (draining) {
+                    return;
+                }
+                draining = true;
+            }
+            sender.execute(this::drain);
+        }
+
+        private void drain() {
+            while (true) {
+                Outbound next;
+                synchronized (this) {
+                    next = queue.pollFirst();
+                    if (next == null) {
+                        draining = false;
+                        return;
+                    }
+                }
+                try {
+                    session.sendMessage(next.message());
+                } catch (IOException | IllegalStateException | SessionLimitExceededException e) {
+                    log.warn("Failed to send progress update to session {}, dropping the connection: {}", sessionId, e.getMessage());
+                    close();
+                    return;
+                }
+            }
+        }
+
+        private void close() {
+            remove(session.getId());
+            try {
+                session.close(CloseStatus.SESSION_NOT_RELIABLE);
+            } catch (IOException e) {
+                log.debug("Error closing WebSocket of session {}: {}", sessionId, e.getMessage());
+            }
+        }
+    }
 }
@@ -0,0 +1,91 @@
+package com.org.devgenie.ai.cache;
+
+import com.org.devgenie.model.LlmResponseCacheEntry;
+import com.org.devgenie.mongo.LlmResponseCacheRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmResponseCacheTest {
+
+    @Mock
+    private LlmResponseCacheRepository cacheRepository;
+
+    @InjectMocks
+    private LlmResponseCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(cache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(cache, "enabled", true);
+        ReflectionTestUtils.setField(cache, "memoryMaxEntries", 2);
+        ReflectionTestUtils.setField(cache, "persistentEnabled", true);
+        ReflectionTestUtils.setField(cache, "persistentMaxEntries", 10);
+        ReflectionTestUtils.setField(cache, "ttlHours", 1L);
+        ReflectionTestUtils.setField(cache, "namespace", "v1");
+        cache.initialize();
+    }
+
+    @Test
+    void testKeyFor_IgnoresLineEndingsAndTrailingWhitespace() {
+        String a = cache.keyFor("gemini", "t=0", null, "Analyze this:\r\nclass Foo {}  \r\n");
+        String b = cache.keyFor("gemini", "t=0", null, "Analyze this:\nclass Foo {}");
+
+        assertEquals(a, b);
+        assertNotEquals(a, cache.keyFor("gemini-pro", "t=0", null, "Analyze this:\nclass Foo {}"));
+        assertNotEquals(a, cache.keyFor("gemini", "t=1", null, "Analyze this:\nclass Foo {}"));
+    }
+
+    @Test
+    void testGet_MemoryHitThenLruEvictionFallsBackToMongo() {
+        cache.put("k1", "gemini", 10, "r1");
+        cache.put("k2", "gemini", 10, "r2");
+        assertEquals(Optional.of("r1"), cache.get("k1")); // k1 becomes most recently used
+        cache.put("k3", "gemini", 10, "r3");              // evicts k2 from memory
+
+        when(cacheRepository.findById("k2")).thenReturn(Optional.of(LlmResponseCacheEntry.builder()
+                .key("k2").response("r2").createdAt(LocalDateTime.now()).build()));
+        assertEquals(Optional.of("r2"), cache.get("k2"));
+
+        when(cacheRepository.findById("k4")).thenReturn(Optional.empty());
+        assertTrue(cache.get("k4").isEmpty());
+
+        LlmResponseCache.CacheStats stats = cache.getStats();
+        assertEquals(1, stats.getMemoryHits());
+        assertEquals(1, stats.getPersistentHits());
+        assertEquals(1, stats.getMisses());
+        verify(cacheRepository, times(3)).save(any());
+    }
+
+    @Test
+    void testGet_ExpiredPersistentEntryIsDeleted() {
+        when(cacheRepository.findById("old")).thenReturn(Optional.of(LlmResponseCacheEntry.builder()
+                .key("old").response("stale").createdAt(LocalDateTime.now().minusHours(2)).build()));
+
+        assertTrue(cache.get("old").isEmpty());
+        verify(cacheRepository).deleteById("old");
+    }
+
+    @Test
+    void testPut_BlankResponseIsNotCached() {
+        cache.put("k", "gemini", 10, "  ");
+
+        verify(cacheRepository, never()).save(any());
+        when(cacheRepository.findById(anyString())).thenReturn(Optional.empty());
+        assertTrue(cache.get("k").isEmpty());
+    }
+}
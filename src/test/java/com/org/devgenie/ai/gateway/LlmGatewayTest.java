@@ -0,0 +1,170 @@
+package com.org.devgenie.ai.gateway;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LlmGatewayTest {
+
+    private LlmGateway gateway;
+
+    @BeforeEach
+    void setUp() {
+        gateway = new LlmGateway();
+        ReflectionTestUtils.setField(gateway, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(gateway, "enabled", true);
+        ReflectionTestUtils.setField(gateway, "requestsPerMinute", 600);
+        ReflectionTestUtils.setField(gateway, "tokensPerMinute", 1_000_000);
+        ReflectionTestUtils.setField(gateway, "initialConcurrency", 4);
+        ReflectionTestUtils.setField(gateway, "maxConcurrency", 8);
+        ReflectionTestUtils.setField(gateway, "maxRetries", 2);
+        ReflectionTestUtils.setField(gateway, "maxWaitSeconds", 10L);
+        ReflectionTestUtils.setField(gateway, "expectedOutputTokens", 100);
+        gateway.initialize();
+    }
+
+    @Test
+    void testIsOverloaded_DetectsQuotaErrorsInCauseChain() {
+        assertTrue(LlmGateway.isOverloaded(new RuntimeException("wrapped",
+                new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS))));
+        assertTrue(LlmGateway.isOverloaded(
+                new WebClientResponseException(503, "Service Unavailable", null, null, null)));
+        assertFalse(LlmGateway.isOverloaded(
+                new HttpClientErrorException(HttpStatus.BAD_REQUEST)));
+        assertFalse(LlmGateway.isOverloaded(new IllegalArgumentException("Invalid prompt")));
+    }
+
+    @Test
+    void testIsOverloaded_IgnoresStatusLikeTextInMessages() {
+        assertFalse(LlmGateway.isOverloaded(new IllegalStateException("Prompt has 4290 tokens")));
+        assertFalse(LlmGateway.isOverloaded(new RuntimeException("503 Service Unavailable")));
+    }
+
+    @Test
+    void testStream_SettlesTokensAndReleasesPermit() {
+        ReflectionTestUtils.setField(gateway, "tokensPerMinute", 1_000);
+        gateway.initialize();
+
+        List<Long> chunks = gateway.stream(900, Long::longValue, () -> Flux.just(10L, 50L)).collectList().block();
+
+        assertEquals(List.of(10L, 50L), chunks);
+        assertEquals(0, gateway.getStats().getInFlight());
+        // 900 were charged up front, 50 were used: the next large call is admitted without waiting
+        assertEquals(1L, gateway.stream(900, r -> 0, () -> Flux.just(1L)).count().block());
+    }
+
+    @Test
+    void testStream_BypassesAdmissionWhenDisabled() {
+        Flux<Integer> inFlightDuringStream = gateway.stream(100, r -> 0,
+                () -> Flux.defer(() -> Flux.just(gateway.getStats().getInFlight())));
+        assertEquals(1, inFlightDuringStream.blockFirst());
+
+        ReflectionTestUtils.setField(gateway, "enabled", false);
+        assertEquals(0, gateway.stream(100, r -> 0,
+                () -> Flux.defer(() -> Flux.just(gateway.getStats().getInFlight()))).blockFirst());
+    }
+
+    @Test
+    void testOnOverload_HalvesLimitOncePerBurst() {
+        gateway.onOverload(0);
+        gateway.onOverload(0);
+
+        assertEquals(2, gateway.getStats().getConcurrencyLimit());
+        assertTrue(gateway.getStats().isPaused());
+    }
+
+    @Test
+    void testOnSuccess_IncreasesLimitAdditivelyUpToMax() {
+        for (int i = 0; i < 200; i++) {
+            gateway.onSuccess();
+        }
+
+        assertEquals(8, gateway.getStats().getConcurrencyLimit());
+    }
+
+    @Test
+    void testExecute_DoesNotRetryOtherErrors() {
+        AtomicInteger attempts = new AtomicInteger();
+
+        assertThrows(IllegalArgumentException.class, () -> gateway.execute(100, r -> 0, () -> {
+            attempts.incrementAndGet();
+            throw new IllegalArgumentException("bad request");
+        }));
+        assertEquals(1, attempts.get());
+        assertEquals(0, gateway.getStats().getInFlight());
+    }
+
+    @Test
+    void testAcquire_AdmitsInteractiveBeforeBackground() throws Exception {
+        ReflectionTestUtils.setField(gateway, "concurrencyLimit", 1.0);
+        LlmGateway.Permit held = gateway.acquire(LlmPriority.INTERACTIVE, 10);
+        List<LlmPriority> admitted = new CopyOnWriteArrayList<>();
+
+        Thread background = startWaiter(LlmPriority.BACKGROUND, admitted);
+        awaitQueued(1);
+        Thread interactive = startWaiter(LlmPriority.INTERACTIVE, admitted);
+        awaitQueued(2);
+
+        held.release();
+        background.join(5000);
+        interactive.join(5000);
+
+        assertEquals(List.of(LlmPriority.INTERACTIVE, LlmPriority.BACKGROUND), admitted);
+    }
+
+    @Test
+    void testExecute_ReleasesPermitDuringRetryBackoff() throws Exception {
+        ReflectionTestUtils.setField(gateway, "concurrencyLimit", 1.0);
+        AtomicInteger attempts = new AtomicInteger();
+        Thread background = new Thread(() -> gateway.withPriority(LlmPriority.BACKGROUND,
+                () -> gateway.execute(10, r -> 0, () -> {
+                    if (attempts.incrementAndGet() == 1) {
+                        throw new HttpClientErrorException(HttpStatus.TOO_MANY_REQUESTS);
+                    }
+                    return "ok";
+                })));
+        background.start();
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while ((attempts.get() < 1 || gateway.getStats().getInFlight() > 0) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, gateway.getStats().getInFlight()); // the throttled call is backing off without its slot
+
+        LlmGateway.Permit interactive = gateway.acquire(LlmPriority.INTERACTIVE, 10);
+        assertEquals(1, attempts.get()); // admitted ahead of the retry
+        interactive.release();
+        background.join(10_000);
+
+        assertEquals(2, attempts.get());
+        assertEquals(0, gateway.getStats().getInFlight());
+    }
+
+    private Thread startWaiter(LlmPriority priority, List<LlmPriority> admitted) {
+        Thread thread = new Thread(() -> {
+            LlmGateway.Permit permit = gateway.acquire(priority, 10);
+            admitted.add(priority);
+            permit.release();
+        });
+        thread.start();
+        return thread;
+    }
+
+    private void awaitQueued(int queued) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (gateway.getStats().getQueued() < queued && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
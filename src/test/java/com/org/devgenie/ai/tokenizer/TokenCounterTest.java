@@ -0,0 +1,71 @@
+package com.org.devgenie.ai.tokenizer;
+
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import com.org.devgenie.model.coverage.TestGenerationStrategy;
+import com.org.devgenie.model.coverage.TestableComponent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+class TokenCounterTest {
+
+    private Tokenizer modelTokenizer;
+    private TokenCounter tokenCounter;
+
+    @BeforeEach
+    void setUp() {
+        modelTokenizer = mock(Tokenizer.class);
+        when(modelTokenizer.getName()).thenReturn("vertex");
+        when(modelTokenizer.getModel()).thenReturn("gemini-2.5-flash");
+        tokenCounter = new TokenCounter();
+        ReflectionTestUtils.setField(tokenCounter, "tokenizers", List.of(new HeuristicTokenizer(), modelTokenizer));
+        ReflectionTestUtils.setField(tokenCounter, "tokenizerType", "vertex");
+        ReflectionTestUtils.setField(tokenCounter, "cacheMaxEntries", 10);
+        ReflectionTestUtils.setField(tokenCounter, "contextWindowTokens", 1_048_576);
+        ReflectionTestUtils.setField(tokenCounter, "maxOutputTokens", 8192);
+        tokenCounter.initialize();
+    }
+
+    @Test
+    void testCountTokens_CachesPerContent() {
+        when(modelTokenizer.countTokens("class A {}")).thenReturn(5);
+
+        assertEquals(5, tokenCounter.countTokens("class A {}"));
+        assertEquals(5, tokenCounter.countTokens("class A {}"));
+        verify(modelTokenizer, times(1)).countTokens(anyString());
+    }
+
+    @Test
+    void testCountTokens_EstimatesWhenTokenizerFailsAndRetriesLater() {
+        when(modelTokenizer.countTokens(anyString())).thenThrow(new IllegalStateException("unavailable")).thenReturn(7);
+
+        assertEquals(3, tokenCounter.countTokens("class A {}"));
+        assertEquals(7, tokenCounter.countTokens("class A {}"));
+    }
+
+    @Test
+    void testDetermine_SizesBatchesToModelLimits() {
+        when(modelTokenizer.countTokens(anyString())).thenReturn(6000);
+        List<TestableComponent> components = IntStream.range(0, 40)
+                .mapToObj(i -> TestableComponent.builder().methodName("method" + i).currentlyCovered(false).build())
+                .toList();
+        FileAnalysisResult analysis = FileAnalysisResult.builder()
+                .filePath("src/main/java/com/example/Big.java")
+                .complexity("HIGH")
+                .testableComponents(components)
+                .build();
+
+        TestGenerationStrategy strategy = TestGenerationStrategy.determine(analysis, true, "class Big {}", tokenCounter);
+
+        // 80% of 8192 output tokens at ~600 tokens per test of a complex class
+        assertEquals(10, strategy.getMaxTestsPerBatch());
+        assertEquals(6000, strategy.getEstimatedTokens());
+    }
+}
@@ -0,0 +1,57 @@
+package com.org.devgenie.ai.tokenizer;
+
+import com.google.cloud.vertexai.VertexAI;
+import com.google.cloud.vertexai.api.CountTokensResponse;
+import com.google.cloud.vertexai.generativeai.GenerativeModel;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class VertexGeminiTokenizerTest {
+
+    private VertexGeminiTokenizer tokenizer;
+    private ObjectProvider<VertexAI> vertexAi;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        vertexAi = mock(ObjectProvider.class);
+        tokenizer = new VertexGeminiTokenizer();
+        ReflectionTestUtils.setField(tokenizer, "vertexAi", vertexAi);
+        ReflectionTestUtils.setField(tokenizer, "model", "gemini-2.5-flash");
+    }
+
+    @Test
+    void testCountTokens_ReturnsTotalTokensOfTheModel() throws Exception {
+        GenerativeModel model = mock(GenerativeModel.class);
+        when(model.countTokens("class A {}")).thenReturn(CountTokensResponse.newBuilder().setTotalTokens(5).build());
+        ReflectionTestUtils.setField(tokenizer, "generativeModel", model);
+
+        assertEquals(5, tokenizer.countTokens("class A {}"));
+        assertEquals("vertex", tokenizer.getName());
+        assertEquals("gemini-2.5-flash", tokenizer.getModel());
+    }
+
+    @Test
+    void testCountTokens_WrapsIOException() throws Exception {
+        GenerativeModel model = mock(GenerativeModel.class);
+        when(model.countTokens(anyString())).thenThrow(new IOException("unavailable"));
+        ReflectionTestUtils.setField(tokenizer, "generativeModel", model);
+
+        assertThrows(UncheckedIOException.class, () -> tokenizer.countTokens("class A {}"));
+    }
+
+    @Test
+    void testCountTokens_FailsWithoutVertexClient() {
+        when(vertexAi.getIfAvailable()).thenReturn(null);
+
+        assertThrows(IllegalStateException.class, () -> tokenizer.countTokens("class A {}"));
+    }
+}
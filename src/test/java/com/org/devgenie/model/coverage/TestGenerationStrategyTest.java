@@ -0,0 +1,50 @@
+package com.org.devgenie.model.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGenerationStrategyTest {
+
+    private static final int CONTEXT_WINDOW = 1_048_576;
+    private static final int MAX_OUTPUT = 8192;
+
+    @Test
+    void testCalculateBatchSizeForModelLimits_BoundByOutputBudget() {
+        // 80% of 8192 output tokens at ~600 tokens per test of a complex class
+        assertEquals(10, TestGenerationStrategy.calculateBatchSizeForModelLimits(6000, analysis("HIGH", 40), CONTEXT_WINDOW, MAX_OUTPUT));
+        assertEquals(16, TestGenerationStrategy.calculateBatchSizeForModelLimits(6000, analysis("MEDIUM", 40), CONTEXT_WINDOW, MAX_OUTPUT));
+    }
+
+    @Test
+    void testCalculateBatchSizeForModelLimits_BoundByContextWindow() {
+        // 10000 - 6000 source - 1500 prompt template leaves 2500 tokens, ten simple tests
+        assertEquals(10, TestGenerationStrategy.calculateBatchSizeForModelLimits(6000, analysis("LOW", 40), 10_000, MAX_OUTPUT));
+    }
+
+    @Test
+    void testCalculateBatchSizeForModelLimits_NeverExceedsUncoveredMethodsOrCap() {
+        assertEquals(3, TestGenerationStrategy.calculateBatchSizeForModelLimits(500, analysis("LOW", 3), CONTEXT_WINDOW, MAX_OUTPUT));
+        assertEquals(20, TestGenerationStrategy.calculateBatchSizeForModelLimits(500, analysis("LOW", 40), CONTEXT_WINDOW, MAX_OUTPUT));
+        assertEquals(20, TestGenerationStrategy.calculateBatchSizeForModelLimits(500, analysis("LOW", 0), CONTEXT_WINDOW, MAX_OUTPUT));
+    }
+
+    @Test
+    void testCalculateBatchSizeForModelLimits_AtLeastOneTestWhenSourceFillsTheWindow() {
+        assertEquals(1, TestGenerationStrategy.calculateBatchSizeForModelLimits(20_000, analysis("LOW", 5), 10_000, MAX_OUTPUT));
+    }
+
+    private FileAnalysisResult analysis(String complexity, int uncoveredMethods) {
+        List<TestableComponent> components = IntStream.range(0, uncoveredMethods)
+                .mapToObj(i -> TestableComponent.builder().methodName("method" + i).currentlyCovered(false).build())
+                .toList();
+        return FileAnalysisResult.builder()
+                .filePath("src/main/java/com/example/Big.java")
+                .complexity(complexity)
+                .testableComponents(components)
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.org.devgenie.service.coverage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledOnOs;
+import org.junit.jupiter.api.condition.OS;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BuildProcessRunnerTest {
+
+    @TempDir
+    Path workspace;
+
+    private BuildProcessRunner runner;
+
+    @BeforeEach
+    void setUp() {
+        runner = new BuildProcessRunner();
+        ReflectionTestUtils.setField(runner, "maxConcurrentBuilds", 2);
+        ReflectionTestUtils.setField(runner, "timeoutMinutes", 1L);
+        ReflectionTestUtils.setField(runner, "queueTimeoutMinutes", 1L);
+        ReflectionTestUtils.setField(runner, "warmDaemons", true);
+        ReflectionTestUtils.setField(runner, "mvndCommand", "mvnd");
+        ReflectionTestUtils.setField(runner, "outputTailLines", 3);
+        runner.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        runner.shutdown();
+    }
+
+    @Test
+    void testApplyDaemonSettings_GradleUsesDaemon() {
+        List<String> command = runner.applyDaemonSettings("gradle", List.of("./gradlew", "--no-daemon", "test", "jacocoTestReport"));
+
+        assertFalse(command.contains("--no-daemon"));
+        assertTrue(command.contains("--daemon"));
+        assertTrue(command.contains("--console=plain"));
+        assertEquals("./gradlew", command.get(0));
+        assertEquals(List.of("test", "jacocoTestReport"), command.subList(command.size() - 2, command.size()));
+    }
+
+    @Test
+    void testApplyDaemonSettings_MavenSwitchesToMvndOnlyWhenAvailable() {
+        ReflectionTestUtils.setField(runner, "mvndAvailable", true);
+        assertEquals("mvnd", runner.applyDaemonSettings("maven", List.of("mvn", "test")).get(0));
+        assertEquals("./mvnw", runner.applyDaemonSettings("maven", List.of("./mvnw", "test")).get(0));
+
+        ReflectionTestUtils.setField(runner, "mvndAvailable", false);
+        assertEquals("mvn", runner.applyDaemonSettings("maven", List.of("mvn", "test")).get(0));
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void testRun_CapturesOutputTailAndExitCode() throws Exception {
+        BuildProcessRunner.BuildResult result = runner.run(workspace.toString(), "sbt",
+                List.of("sh", "-c", "exec 2>&1; for i in 1 2 3 4 5; do echo line$i; done; echo oops >&2; exit 3"), Map.of());
+
+        // stderr is folded into stdout by the fixture so the line order (and thus the tail) is deterministic
+        assertEquals(3, result.getExitCode());
+        assertFalse(result.isSuccessful());
+        assertEquals(List.of("line4", "line5", "oops"), result.getOutputTail());
+        assertEquals(2, runner.getAvailableBuildSlots());
+    }
+
+    @Test
+    @DisabledOnOs(OS.WINDOWS)
+    void testRun_TimesOutAndKillsProcess() throws Exception {
+        BuildProcessRunner.BuildResult result = runner.run(workspace.toString(), "sbt",
+                List.of("sh", "-c", "sleep 30"), Map.of(), Duration.ofMillis(300));
+
+        assertTrue(result.isTimedOut());
+        assertFalse(result.isSuccessful());
+        assertFalse(runner.isRunning(workspace.toString()));
+    }
+}
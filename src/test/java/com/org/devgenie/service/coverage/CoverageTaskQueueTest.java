@@ -0,0 +1,127 @@
+package com.org.devgenie.service.coverage;
+
+import com.mongodb.client.result.UpdateResult;
+import com.org.devgenie.config.CoverageConfiguration;
+import com.org.devgenie.model.coverage.CoverageFileTask;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CoverageTaskQueueTest {
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private CoverageConfiguration config;
+
+    @InjectMocks
+    private CoverageTaskQueue taskQueue;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taskQueue, "retryBackoffMillis", 1000L);
+        ReflectionTestUtils.setField(taskQueue, "rateLimitBackoffMillis", 30_000L);
+        ReflectionTestUtils.setField(taskQueue, "maxBackoffMillis", 600_000L);
+        ReflectionTestUtils.setField(taskQueue, "leaseDurationMinutes", 5L);
+    }
+
+    @Test
+    void testBackoff_GrowsPerAttemptAndWaitsLongerForRateLimits() {
+        long first = taskQueue.backoffMillis(1, new RuntimeException("compilation failed"));
+        long third = taskQueue.backoffMillis(3, new RuntimeException("compilation failed"));
+        long throttled = taskQueue.backoffMillis(1, new RuntimeException("429 Too Many Requests"));
+
+        assertTrue(first >= 1000 && first <= 1250);
+        assertTrue(third >= 4000 && third <= 5000);
+        assertTrue(throttled >= 30_000);
+        assertTrue(taskQueue.backoffMillis(20, new RuntimeException("x")) <= 750_000, "capped");
+    }
+
+    @Test
+    void testFail_RequeuesUntilRetriesAreUsedUp() {
+        when(config.getMaxRetries()).thenReturn(2);
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageFileTask.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        assertTrue(taskQueue.fail(task(2), new RuntimeException("timeout"), true));
+        assertTrue(taskQueue.fail(task(3), new RuntimeException("timeout"), true));
+        assertTrue(taskQueue.fail(task(1), new RuntimeException("no tests"), false));
+
+        verify(mongoTemplate, times(3)).updateFirst(any(Query.class), updates.capture(), eq(CoverageFileTask.class));
+        assertEquals(CoverageFileTask.TaskStatus.PENDING, statusOf(updates.getAllValues().get(0)));
+        assertEquals(CoverageFileTask.TaskStatus.FAILED, statusOf(updates.getAllValues().get(1)));
+        assertEquals(CoverageFileTask.TaskStatus.FAILED, statusOf(updates.getAllValues().get(2)));
+    }
+
+    @Test
+    void testLease_FailsTaskWhoseLeaseKeepsExpiring() {
+        when(config.getMaxRetries()).thenReturn(2);
+        when(mongoTemplate.findAndModify(any(Query.class), any(Update.class), any(FindAndModifyOptions.class), eq(CoverageFileTask.class)))
+                .thenReturn(task(4), task(1));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageFileTask.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+        ArgumentCaptor<Update> updates = ArgumentCaptor.forClass(Update.class);
+
+        CoverageFileTask leased = taskQueue.lease("session", "worker").orElseThrow();
+
+        assertEquals(1, leased.getAttempts());
+        verify(mongoTemplate).updateFirst(any(Query.class), updates.capture(), eq(CoverageFileTask.class));
+        assertEquals(CoverageFileTask.TaskStatus.FAILED, statusOf(updates.getValue()));
+    }
+
+    @Test
+    void testRenew_OnlyExtendsTheCurrentLease() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageFileTask.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+        ArgumentCaptor<Query> queries = ArgumentCaptor.forClass(Query.class);
+
+        assertFalse(taskQueue.renew(task(1)));
+
+        verify(mongoTemplate).updateFirst(queries.capture(), any(Update.class), eq(CoverageFileTask.class));
+        assertEquals("token-1", queries.getValue().getQueryObject().get("leaseToken"));
+        assertEquals(java.time.Duration.ofSeconds(100), taskQueue.leaseRenewalInterval());
+    }
+
+    @Test
+    void testFindAbandonedSessionIds_SkipsSessionsWithLiveLeases() {
+        when(mongoTemplate.findDistinct(any(Query.class), eq("sessionId"), eq(CoverageFileTask.class), eq(String.class)))
+                .thenReturn(List.of("crashed", "running"), List.of("running"));
+
+        assertEquals(List.of("crashed"), taskQueue.findAbandonedSessionIds());
+    }
+
+    private static CoverageFileTask task(int attempts) {
+        return CoverageFileTask.builder()
+                .id("task-" + attempts)
+                .sessionId("session")
+                .filePath("src/main/java/com/example/Foo.java")
+                .status(CoverageFileTask.TaskStatus.LEASED)
+                .leaseOwner("worker")
+                .leaseToken("token-" + attempts)
+                .attempts(attempts)
+                .build();
+    }
+
+    private static Object statusOf(Update update) {
+        return update.getUpdateObject().get("$set", org.bson.Document.class).get("status");
+    }
+}
@@ -0,0 +1,82 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.ai.cache.LlmResponseCache;
+import com.org.devgenie.ai.client.LlmClient;
+import com.org.devgenie.exception.coverage.FileAnalysisException;
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import com.org.devgenie.model.coverage.FileCoverageData;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ai.chat.client.ChatClient;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class FileAnalysisServiceTest {
+
+    @Mock
+    private CoverageDataService coverageDataService;
+
+    @Mock
+    private LocalFileAnalyzer localFileAnalyzer;
+
+    @InjectMocks
+    private FileAnalysisService fileAnalysisService;
+
+    @TempDir
+    Path tempDir;
+
+    private ChatClient chatClient;
+
+    @BeforeEach
+    void setUp() {
+        LlmResponseCache responseCache = new LlmResponseCache();
+        ReflectionTestUtils.setField(responseCache, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(responseCache, "enabled", true);
+        ReflectionTestUtils.setField(responseCache, "memoryMaxEntries", 10);
+        ReflectionTestUtils.setField(responseCache, "persistentEnabled", false);
+        ReflectionTestUtils.setField(responseCache, "ttlHours", 1L);
+        ReflectionTestUtils.setField(responseCache, "namespace", "v1");
+        ReflectionTestUtils.invokeMethod(responseCache, "initialize");
+
+        chatClient = mock(ChatClient.class, RETURNS_DEEP_STUBS);
+        LlmClient llmClient = new LlmClient();
+        ReflectionTestUtils.setField(llmClient, "chatClient", chatClient);
+        ReflectionTestUtils.setField(llmClient, "responseCache", responseCache);
+        ReflectionTestUtils.setField(llmClient, "model", "gemini");
+        ReflectionTestUtils.setField(fileAnalysisService, "llmClient", llmClient);
+    }
+
+    @Test
+    void testAnalyzeFile_UnparseableResponseIsNotServedFromCacheOnRetry() throws Exception {
+        Path source = Files.writeString(tempDir.resolve("Foo.java"), "class Foo {}");
+        when(coverageDataService.getFileCoverage(anyString()))
+                .thenReturn(FileCoverageData.builder().filePath(source.toString()).lineCoverage(40.0).build());
+        when(localFileAnalyzer.analyze(anyString(), anyString(), any())).thenReturn(null);
+        when(chatClient.prompt().user(anyString()).call().content()).thenReturn(
+                "{\"complexity\": \"LOW\", \"businessLogicPriority\": ",
+                "{\"complexity\": \"LOW\", \"businessLogicPriority\": \"HIGH\", \"testableComponents\": [],"
+                        + " \"uncoveredCodePaths\": [], \"dependencies\": [], \"estimatedEffort\": \"1h\","
+                        + " \"coverageImpactPotential\": \"MEDIUM\"}");
+
+        assertThrows(FileAnalysisException.class, () -> fileAnalysisService.analyzeFile(source.toString()));
+        FileAnalysisResult retried = fileAnalysisService.analyzeFile(source.toString());
+
+        assertEquals("LOW", retried.getComplexity());
+        assertEquals("HIGH", retried.getBusinessLogicPriority());
+        assertEquals(40.0, retried.getCurrentCoverage());
+    }
+}
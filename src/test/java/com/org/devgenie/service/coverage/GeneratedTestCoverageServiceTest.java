@@ -0,0 +1,103 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import com.org.devgenie.model.coverage.TestExecutionResult;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class GeneratedTestCoverageServiceTest {
+
+    private static final String SOURCE_PATH = "src/main/java/com/example/Foo.java";
+
+    @TempDir
+    Path workspace;
+
+    private GeneratedTestCoverageService coverageService;
+    private TestExecutionService testExecutionService;
+    private Path classes;
+    private final CompilationResult compilation = CompilationResult.builder().success(true).outputDirectory("tests").build();
+    private final TestExecutionResult passed = TestExecutionResult.builder().success(true).testsExecuted(1).testsPassed(1).build();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        classes = Files.createDirectories(workspace.resolve("target/classes"));
+        JacocoExecAnalyzer jacocoExecAnalyzer = mock(JacocoExecAnalyzer.class);
+        when(jacocoExecAnalyzer.findClassDirectories(anyString())).thenReturn(List.of(classes));
+        when(jacocoExecAnalyzer.findExecFiles(anyString())).thenReturn(List.of());
+        testExecutionService = mock(TestExecutionService.class);
+
+        coverageService = new GeneratedTestCoverageService();
+        ReflectionTestUtils.setField(coverageService, "testExecutionService", testExecutionService);
+        ReflectionTestUtils.setField(coverageService, "jacocoExecAnalyzer", jacocoExecAnalyzer);
+    }
+
+    @Test
+    void testMeasure_InstrumentsTargetClassAndReportsCoverage() throws Exception {
+        Path source = Files.createDirectories(workspace.resolve("src/main/java/com/example")).resolve("Foo.java");
+        Files.writeString(source, "package com.example;\npublic class Foo {\n  public int twice(int x) {\n    return x * 2;\n  }\n"
+                + "  public int unused(int x) {\n    return x - 1;\n  }\n}\n");
+        assertEquals(0, ToolProvider.getSystemJavaCompiler().run(null, null, null, "-g", "-d", classes.toString(), source.toString()));
+
+        // Stand-in for the isolated launcher: load the instrumented class and call one method
+        when(testExecutionService.executeTests(anyString(), eq(compilation), any())).thenAnswer(invocation -> {
+            TestExecutionService.ClassTransformer transformer = invocation.getArgument(2);
+            byte[] instrumented = transformer.transform("com.example.Foo",
+                    Files.readAllBytes(classes.resolve("com/example/Foo.class")));
+            Class<?> foo = new DefiningClassLoader().define("com.example.Foo", instrumented);
+            foo.getMethod("twice", int.class).invoke(foo.getDeclaredConstructor().newInstance(), 21);
+            return passed;
+        });
+
+        GeneratedTestCoverageService.MeasuredTestRun run = coverageService.measure(workspace.toString(), SOURCE_PATH, compilation, null);
+
+        assertSame(passed, run.getExecution());
+        assertNotNull(run.getCoverage());
+        assertEquals(GeneratedTestCoverageService.MODE_NEW_TESTS_ONLY, run.getMeasurementMode());
+        assertEquals(3, run.getCoverage().getTotalLines()); // implicit constructor, twice, unused
+        assertEquals(2, run.getCoverage().getCoveredLines());
+        verify(testExecutionService, times(1)).executeTests(anyString(), any(), any());
+    }
+
+    @Test
+    void testMeasure_AnalysisFailureReturnsExecutionWithoutRerunningTests() throws Exception {
+        Files.createDirectories(classes.resolve("com/example"));
+        Files.write(classes.resolve("com/example/Foo.class"), "not a class file".getBytes());
+        when(testExecutionService.executeTests(anyString(), eq(compilation), any())).thenReturn(passed);
+
+        GeneratedTestCoverageService.MeasuredTestRun run = coverageService.measure(workspace.toString(), SOURCE_PATH, compilation, null);
+
+        assertSame(passed, run.getExecution());
+        assertNull(run.getCoverage());
+        verify(testExecutionService, times(1)).executeTests(anyString(), any(), any());
+        verify(testExecutionService, never()).executeTests(anyString(), any());
+    }
+
+    @Test
+    void testToClassName_MapsSourcePathToBinaryName() {
+        assertEquals("com.example.Foo", GeneratedTestCoverageService.toClassName("core/src/main/java/com/example/Foo.java"));
+        assertNull(GeneratedTestCoverageService.toClassName("README.md"));
+    }
+
+    private static class DefiningClassLoader extends ClassLoader {
+        DefiningClassLoader() {
+            super(GeneratedTestCoverageServiceTest.class.getClassLoader());
+        }
+
+        Class<?> define(String name, byte[] bytes) {
+            return defineClass(name, bytes, 0, bytes.length);
+        }
+    }
+}
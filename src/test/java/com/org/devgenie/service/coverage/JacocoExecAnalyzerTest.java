@@ -0,0 +1,135 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import org.jacoco.core.data.ExecutionData;
+import org.jacoco.core.data.ExecutionDataWriter;
+import org.jacoco.core.internal.data.CRC64;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.tools.ToolProvider;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacocoExecAnalyzerTest {
+
+    @TempDir
+    Path repo;
+
+    private JacocoExecAnalyzer analyzer;
+    private Path classes;
+    private Path execFile;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        analyzer = new JacocoExecAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "jacocoExecPath", "target/jacoco.exec");
+
+        Path sources = Files.createDirectories(repo.resolve("core/src/main/java/com/example"));
+        Files.writeString(sources.resolve("Foo.java"),
+                "package com.example;\npublic class Foo {\n  public int twice(int x) {\n    return x * 2;\n  }\n}\n");
+        Files.writeString(sources.resolve("Bar.java"),
+                "package com.example;\npublic class Bar {\n  public int half(int x) {\n    return x / 2;\n  }\n}\n");
+        classes = Files.createDirectories(repo.resolve("core/target/classes"));
+        int exitCode = ToolProvider.getSystemJavaCompiler().run(null, null, null, "-g", "-d", classes.toString(),
+                sources.resolve("Foo.java").toString(), sources.resolve("Bar.java").toString());
+        assertEquals(0, exitCode);
+
+        // Foo fully executed, Bar never loaded
+        execFile = repo.resolve("core/target/jacoco.exec");
+        writeExecutionData(Map.of("com/example/Foo", CRC64.classId(Files.readAllBytes(classes.resolve("com/example/Foo.class")))));
+        setModifiedTimes(System.currentTimeMillis() - 60_000);
+    }
+
+    @Test
+    void testFindExecFilesAndClassDirectories_LocatesModuleOutputs() {
+        assertEquals(List.of(execFile), analyzer.findExecFiles(repo.toString()));
+        assertEquals(List.of(classes), analyzer.findClassDirectories(repo.toString()));
+        assertTrue(analyzer.hasExecutionData(repo.toString()));
+    }
+
+    @Test
+    void testAnalyze_ReportsPerSourceFileCoverageWithModulePath() {
+        Map<String, JacocoXmlStreamParser.ClassCoverage> bySource = analyzer
+                .analyze(repo.toString(), List.of(execFile), List.of(classes)).stream()
+                .collect(Collectors.toMap(JacocoXmlStreamParser.ClassCoverage::getSourceFileName, Function.identity()));
+
+        JacocoXmlStreamParser.ClassCoverage foo = bySource.get("Foo.java");
+        assertEquals("com/example/Foo", foo.getClassName());
+        assertEquals("core", foo.getModulePath());
+        assertTrue(foo.getTotalLines() > 0);
+        assertEquals(foo.getTotalLines(), foo.getCoveredLines());
+        assertTrue(foo.getUncoveredLines().isEmpty());
+
+        JacocoXmlStreamParser.ClassCoverage bar = bySource.get("Bar.java");
+        assertEquals("core", bar.getModulePath());
+        assertEquals(0, bar.getCoveredLines());
+        assertTrue(bar.getUncoveredLines().contains("4"));
+    }
+
+    @Test
+    void testAnalyze_MismatchedClassIdThrows() throws Exception {
+        writeExecutionData(Map.of("com/example/Foo", 42L));
+
+        assertThrows(JacocoException.class,
+                () -> analyzer.analyze(repo.toString(), List.of(execFile), List.of(classes)));
+    }
+
+    @Test
+    void testIsStale_FreshExecutionDataIsUsed() {
+        assertFalse(analyzer.isStale(repo.toString(), List.of(execFile), List.of(classes)));
+    }
+
+    @Test
+    void testIsStale_RecompiledClassesMakeExecutionDataStale() throws Exception {
+        Files.setLastModifiedTime(classes.resolve("com/example/Bar.class"),
+                FileTime.fromMillis(System.currentTimeMillis()));
+
+        assertTrue(analyzer.isStale(repo.toString(), List.of(execFile), List.of(classes)));
+    }
+
+    @Test
+    void testIsStale_EditedSourceMakesExecutionDataStale() throws Exception {
+        Files.setLastModifiedTime(repo.resolve("core/src/main/java/com/example/Foo.java"),
+                FileTime.fromMillis(System.currentTimeMillis()));
+
+        assertTrue(analyzer.isStale(repo.toString(), List.of(execFile), List.of(classes)));
+    }
+
+    private void writeExecutionData(Map<String, Long> classIds) throws Exception {
+        try (OutputStream out = Files.newOutputStream(execFile)) {
+            ExecutionDataWriter writer = new ExecutionDataWriter(out);
+            for (Map.Entry<String, Long> entry : classIds.entrySet()) {
+                boolean[] probes = new boolean[16];
+                Arrays.fill(probes, true);
+                writer.visitClassExecution(new ExecutionData(entry.getValue(), entry.getKey(), probes));
+            }
+        }
+    }
+
+    /**
+     * Ages sources and classes so the exec file written afterwards is the newest artifact.
+     */
+    private void setModifiedTimes(long millis) throws Exception {
+        try (Stream<Path> paths = Files.walk(repo.resolve("core"))) {
+            for (Path path : paths.filter(Files::isRegularFile).collect(Collectors.toList())) {
+                if (!path.equals(execFile)) {
+                    Files.setLastModifiedTime(path, FileTime.fromMillis(millis));
+                }
+            }
+        }
+        Files.setLastModifiedTime(execFile, FileTime.fromMillis(millis + 30_000));
+    }
+}
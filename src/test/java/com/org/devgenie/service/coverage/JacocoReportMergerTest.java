@@ -0,0 +1,150 @@
+package com.org.devgenie.service.coverage;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacocoReportMergerTest {
+
+    private static final String CORE_REPORT = "<report name=\"core\"><package name=\"com/example\">"
+            + "<class name=\"com/example/Foo\" sourcefilename=\"Foo.java\">"
+            + "<counter type=\"LINE\" missed=\"4\" covered=\"6\"/></class>"
+            + "<class name=\"com/example/Foo$Inner\" sourcefilename=\"Foo.java\">"
+            + "<counter type=\"LINE\" missed=\"2\" covered=\"0\"/></class>"
+            + "<sourcefile name=\"Foo.java\">"
+            + "<line nr=\"5\" mi=\"2\" ci=\"0\" mb=\"0\" cb=\"0\"/>"
+            + "<line nr=\"8\" mi=\"2\" ci=\"0\" mb=\"0\" cb=\"0\"/>"
+            + "</sourcefile>"
+            + "</package></report>";
+
+    // Aggregate report: covers line 5 of Foo (from another module's tests), plus Bar and Root
+    private static final String AGGREGATE_REPORT = "<report name=\"aggregate\"><package name=\"com/example\">"
+            + "<class name=\"com/example/Foo\" sourcefilename=\"Foo.java\">"
+            + "<counter type=\"LINE\" missed=\"3\" covered=\"7\"/></class>"
+            + "<class name=\"com/example/Foo$Inner\" sourcefilename=\"Foo.java\">"
+            + "<counter type=\"LINE\" missed=\"2\" covered=\"0\"/></class>"
+            + "<class name=\"com/example/Bar\" sourcefilename=\"Bar.java\">"
+            + "<counter type=\"LINE\" missed=\"1\" covered=\"1\"/></class>"
+            + "<class name=\"com/example/Root\" sourcefilename=\"Root.java\">"
+            + "<counter type=\"LINE\" missed=\"0\" covered=\"3\"/></class>"
+            + "<sourcefile name=\"Foo.java\">"
+            + "<line nr=\"5\" mi=\"0\" ci=\"2\" mb=\"0\" cb=\"0\"/>"
+            + "<line nr=\"8\" mi=\"2\" ci=\"0\" mb=\"0\" cb=\"0\"/>"
+            + "</sourcefile>"
+            + "</package></report>";
+
+    @TempDir
+    Path repo;
+
+    private JacocoReportMerger merger;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        merger = new JacocoReportMerger();
+        ReflectionTestUtils.setField(merger, "jacocoXmlStreamParser", new JacocoXmlStreamParser());
+        merger.initializeExecutor();
+
+        writeFile("core/target/site/jacoco/jacoco.xml", CORE_REPORT);
+        writeFile("target/site/jacoco-aggregate/jacoco.xml", AGGREGATE_REPORT);
+        writeFile("core/src/main/java/com/example/Foo.java", "package com.example; class Foo {}");
+        writeFile("api/src/main/java/com/example/Bar.java", "package com.example; class Bar {}");
+        writeFile("src/main/java/com/example/Root.java", "package com.example; class Root {}");
+    }
+
+    @AfterEach
+    void tearDown() {
+        merger.shutdownExecutor();
+    }
+
+    @Test
+    void testFindModuleReports_FindsRootAndModuleReports() {
+        List<Path> reports = merger.findModuleReports(repo.toString());
+
+        assertEquals(2, reports.size());
+        assertTrue(reports.contains(repo.resolve("core/target/site/jacoco/jacoco.xml")));
+        assertTrue(reports.contains(repo.resolve("target/site/jacoco-aggregate/jacoco.xml")));
+    }
+
+    @Test
+    void testMerge_CombinesOverlappingFilesOnceWithInnerClassesFolded() {
+        Map<String, JacocoXmlStreamParser.ClassCoverage> merged = mergeAll();
+
+        assertEquals(3, merged.size());
+        JacocoXmlStreamParser.ClassCoverage foo = merged.get("com/example/Foo");
+        assertEquals("core", foo.getModulePath());
+        assertEquals(12, foo.getTotalLines());
+        assertEquals(7, foo.getCoveredLines());
+        assertEquals(List.of("8"), foo.getUncoveredLines());
+    }
+
+    @Test
+    void testMerge_RootOnlyFilesGetTheModuleThatHoldsTheirSource() {
+        Map<String, JacocoXmlStreamParser.ClassCoverage> merged = mergeAll();
+
+        assertEquals("api", merged.get("com/example/Bar").getModulePath());
+        assertEquals("", merged.get("com/example/Root").getModulePath());
+    }
+
+    @Test
+    void testMerge_FullyCoveredRecordClearsUncoveredLinesOfTheOther() throws Exception {
+        writeFile("web/target/site/jacoco/jacoco.xml", bazReport(2, 2, "<line nr=\"3\" mi=\"1\" ci=\"0\" mb=\"0\" cb=\"0\"/>"));
+        writeFile("web/target/site/jacoco-it/jacoco.xml", bazReport(0, 4, "<line nr=\"3\" mi=\"0\" ci=\"1\" mb=\"0\" cb=\"0\"/>"));
+
+        JacocoXmlStreamParser.ClassCoverage baz = mergeAll().get("com/example/Baz");
+
+        assertEquals(4, baz.getTotalLines());
+        assertEquals(4, baz.getCoveredLines());
+        assertEquals(List.of(), baz.getUncoveredLines());
+    }
+
+    @Test
+    void testMerge_KeepsSameClassOfDifferentModulesApart() throws Exception {
+        writeFile("api/target/site/jacoco/jacoco.xml", "<report name=\"api\"><package name=\"com/example\">"
+                + "<class name=\"com/example/Foo\" sourcefilename=\"Foo.java\">"
+                + "<counter type=\"LINE\" missed=\"1\" covered=\"1\"/></class>"
+                + "<sourcefile name=\"Foo.java\"><line nr=\"9\" mi=\"1\" ci=\"0\" mb=\"0\" cb=\"0\"/></sourcefile>"
+                + "</package></report>");
+
+        Map<String, JacocoXmlStreamParser.ClassCoverage> foos = merger.merge(repo.toString(), merger.findModuleReports(repo.toString()))
+                .stream()
+                .filter(record -> record.getClassName().equals("com/example/Foo"))
+                .collect(Collectors.toMap(JacocoXmlStreamParser.ClassCoverage::getModulePath, Function.identity()));
+
+        assertEquals(2, foos.size());
+        // The aggregate's Foo can't be told apart, so neither module record absorbs it
+        assertEquals(6, foos.get("core").getCoveredLines());
+        assertEquals(List.of("5", "8"), foos.get("core").getUncoveredLines());
+        assertEquals(1, foos.get("api").getCoveredLines());
+        assertEquals(List.of("9"), foos.get("api").getUncoveredLines());
+    }
+
+    private static String bazReport(int missedLines, int coveredLines, String lines) {
+        return "<report name=\"web\"><package name=\"com/example\">"
+                + "<class name=\"com/example/Baz\" sourcefilename=\"Baz.java\">"
+                + "<counter type=\"LINE\" missed=\"" + missedLines + "\" covered=\"" + coveredLines + "\"/></class>"
+                + "<sourcefile name=\"Baz.java\">" + lines + "</sourcefile>"
+                + "</package></report>";
+    }
+
+    private Map<String, JacocoXmlStreamParser.ClassCoverage> mergeAll() {
+        return merger.merge(repo.toString(), merger.findModuleReports(repo.toString())).stream()
+                .collect(Collectors.toMap(JacocoXmlStreamParser.ClassCoverage::getClassName, Function.identity()));
+    }
+
+    private void writeFile(String relativePath, String content) throws Exception {
+        Path file = repo.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, content);
+    }
+}
@@ -0,0 +1,84 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.exception.coverage.JacocoException;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JacocoXmlStreamParserTest {
+
+    private static final String REPORT = "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+            + "<!DOCTYPE report PUBLIC \"-//JACOCO//DTD Report 1.1//EN\" \"report.dtd\">"
+            + "<report name=\"demo\">"
+            + "<package name=\"com/example\">"
+            + "<class name=\"com/example/Foo\" sourcefilename=\"Foo.java\">"
+            + "<method name=\"run\" desc=\"()V\" line=\"5\"><counter type=\"LINE\" missed=\"1\" covered=\"1\"/></method>"
+            + "<counter type=\"LINE\" missed=\"2\" covered=\"8\"/>"
+            + "<counter type=\"BRANCH\" missed=\"1\" covered=\"3\"/>"
+            + "<counter type=\"METHOD\" missed=\"1\" covered=\"2\"/>"
+            + "</class>"
+            + "<class name=\"com/example/Foo$Inner\" sourcefilename=\"Foo.java\">"
+            + "<counter type=\"LINE\" missed=\"0\" covered=\"2\"/>"
+            + "</class>"
+            + "<sourcefile name=\"Foo.java\">"
+            + "<line nr=\"5\" mi=\"0\" ci=\"4\" mb=\"0\" cb=\"0\"/>"
+            + "<line nr=\"7\" mi=\"3\" ci=\"0\" mb=\"0\" cb=\"0\"/>"
+            + "<line nr=\"9\" mi=\"1\" ci=\"2\" mb=\"1\" cb=\"1\"/>"
+            + "<counter type=\"LINE\" missed=\"2\" covered=\"10\"/>"
+            + "</sourcefile>"
+            + "</package>"
+            + "<counter type=\"LINE\" missed=\"2\" covered=\"10\"/>"
+            + "</report>";
+
+    private final JacocoXmlStreamParser parser = new JacocoXmlStreamParser();
+
+    @Test
+    void testParse_FoldsInnerClassesIntoTheirSourceFile() {
+        List<JacocoXmlStreamParser.ClassCoverage> files = new ArrayList<>();
+
+        int emitted = parser.parse(new ByteArrayInputStream(REPORT.getBytes(StandardCharsets.UTF_8)), files::add);
+
+        assertEquals(1, emitted);
+        JacocoXmlStreamParser.ClassCoverage foo = files.get(0);
+        assertEquals("com/example", foo.getPackageName());
+        assertEquals("com/example/Foo", foo.getClassName());
+        assertEquals("Foo", foo.getSimpleClassName());
+        assertEquals("Foo.java", foo.getSourceFileName());
+        assertEquals(12, foo.getTotalLines());
+        assertEquals(10, foo.getCoveredLines());
+        assertEquals(4, foo.getTotalBranches());
+        assertEquals(3, foo.getTotalMethods());
+        assertEquals(List.of("7"), foo.getUncoveredLines());
+        assertEquals(List.of("9"), foo.getUncoveredBranches());
+    }
+
+    @Test
+    void testParse_InnerClassListedBeforeOuterClassUsesSourceFileName() {
+        String report = "<report name=\"demo\"><package name=\"com/example\">"
+                + "<class name=\"com/example/Bar$1\" sourcefilename=\"Bar.java\">"
+                + "<counter type=\"LINE\" missed=\"1\" covered=\"0\"/></class>"
+                + "<class name=\"com/example/Bar\" sourcefilename=\"Bar.java\">"
+                + "<counter type=\"LINE\" missed=\"0\" covered=\"3\"/></class>"
+                + "</package></report>";
+        List<JacocoXmlStreamParser.ClassCoverage> files = new ArrayList<>();
+
+        parser.parse(new ByteArrayInputStream(report.getBytes(StandardCharsets.UTF_8)), files::add);
+
+        assertEquals(1, files.size());
+        assertEquals("com/example/Bar", files.get(0).getClassName());
+        assertEquals(4, files.get(0).getTotalLines());
+        assertEquals(3, files.get(0).getCoveredLines());
+    }
+
+    @Test
+    void testParse_MalformedReportThrowsJacocoException() {
+        byte[] broken = "<report><package name=\"a\">".getBytes(StandardCharsets.UTF_8);
+
+        assertThrows(JacocoException.class, () -> parser.parse(new ByteArrayInputStream(broken), c -> { }));
+    }
+}
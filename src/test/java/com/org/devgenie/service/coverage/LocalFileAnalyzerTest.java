@@ -0,0 +1,111 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import com.org.devgenie.model.coverage.FileCoverageData;
+import com.org.devgenie.model.coverage.TestableComponent;
+import com.org.devgenie.model.coverage.UncoveredCodePath;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LocalFileAnalyzerTest {
+
+    private static final String SOURCE = """
+            package com.example;
+
+            import org.springframework.beans.factory.annotation.Autowired;
+
+            public class OrderService {
+
+                @Autowired
+                private OrderRepository orderRepository;
+
+                private final String name = "orders";
+
+                public Order find(String id) {
+                    return orderRepository.findById(id);
+                }
+
+                public void process(Order order) {
+                    if (order == null || order.isEmpty()) {
+                        throw new IllegalArgumentException("empty order");
+                    }
+                    try {
+                        orderRepository.save(order);
+                    } catch (RuntimeException e) {
+                        log(e);
+                    }
+                }
+
+                private void log(Exception e) {
+                    System.out.println(e);
+                }
+            }
+            """;
+
+    private LocalFileAnalyzer analyzer;
+
+    @BeforeEach
+    void setUp() {
+        analyzer = new LocalFileAnalyzer();
+        ReflectionTestUtils.setField(analyzer, "metadataAnalyzer", new MetadataAnalyzer());
+    }
+
+    @Test
+    void testAnalyze_UsesUncoveredLinesPerMethod() {
+        FileCoverageData coverage = FileCoverageData.builder()
+                .lineCoverage(60.0)
+                .totalLines(10)
+                .uncoveredLines(List.of("17", "18", "23"))
+                .build();
+
+        FileAnalysisResult result = analyzer.analyze("src/main/java/com/example/OrderService.java", SOURCE, coverage);
+
+        assertEquals(List.of("find", "process"), result.getTestableComponents().stream()
+                .map(TestableComponent::getMethodName).toList());
+        TestableComponent find = result.getTestableComponents().get(0);
+        TestableComponent process = result.getTestableComponents().get(1);
+        assertTrue(find.isCurrentlyCovered());
+        assertFalse(process.isCurrentlyCovered());
+        assertEquals(16, process.getStartLine());
+        assertTrue(process.getSignature().contains("process(Order order)"));
+        assertEquals(List.of("OrderRepository"), result.getDependencies());
+
+        List<UncoveredCodePath> paths = result.getUncoveredCodePaths();
+        assertEquals(2, paths.size());
+        assertEquals("process (lines 17-18)", paths.get(0).getLocation());
+        assertTrue(paths.get(0).getDescription().startsWith("branch if (order == null || order.isEmpty())"));
+        assertEquals("EDGE_CASE", paths.get(1).getSuggestedTestType());
+        assertTrue(paths.get(1).getDescription().startsWith("catch (RuntimeException)"));
+        assertEquals(60.0, result.getCurrentCoverage());
+    }
+
+    @Test
+    void testAnalyze_WithoutLineData_ReportsEveryMethodUncovered() {
+        FileCoverageData coverage = FileCoverageData.builder()
+                .lineCoverage(0.0)
+                .uncoveredLines(List.of())
+                .build();
+
+        FileAnalysisResult result = analyzer.analyze("OrderService.java", SOURCE, coverage);
+
+        assertTrue(result.getTestableComponents().stream().noneMatch(TestableComponent::isCurrentlyCovered));
+        assertEquals(2, result.getUncoveredCodePaths().size());
+        assertEquals("HIGH", result.getCoverageImpactPotential());
+    }
+
+    @Test
+    void testCyclomaticComplexity_CountsBranchesAndConditions() {
+        MetadataAnalyzer metadataAnalyzer = new MetadataAnalyzer();
+        var method = metadataAnalyzer.parseJavaSource(SOURCE)
+                .findAll(com.github.javaparser.ast.body.MethodDeclaration.class).get(1);
+
+        // if, ||, catch
+        assertEquals(4, LocalFileAnalyzer.cyclomaticComplexity(method.getBody().orElseThrow()));
+    }
+}
@@ -0,0 +1,84 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.dto.coverage.ProgressUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import reactor.test.StepVerifier;
+
+import java.time.Duration;
+
+class ProgressBusTest {
+
+    private ProgressBus progressBus;
+
+    @BeforeEach
+    void setUp() {
+        progressBus = new ProgressBus();
+        ReflectionTestUtils.setField(progressBus, "replaySize", 2);
+        ReflectionTestUtils.setField(progressBus, "maxBufferedUpdates", 100);
+        ReflectionTestUtils.setField(progressBus, "retentionMinutes", 30L);
+        progressBus.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        progressBus.shutdown();
+    }
+
+    @Test
+    void testLateSubscriber_GetsRecentUpdatesThenLiveOnes() {
+        progressBus.publish(update(10.0));
+        progressBus.publish(update(20.0));
+        progressBus.publish(update(30.0));
+
+        StepVerifier.create(progressBus.subscribe("s1", 0).map(ProgressBus.SequencedUpdate::sequence).take(3))
+                .expectNext(2L, 3L) // only the last two are retained
+                .then(() -> progressBus.publish(update(40.0)))
+                .expectNext(4L)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testReconnectingSubscriber_SkipsUpdatesItAlreadyReceived() {
+        progressBus.publish(update(10.0));
+        progressBus.publish(update(20.0));
+
+        StepVerifier.create(progressBus.subscribe("s1", 2).map(sequenced -> sequenced.update().getProgress()).take(1))
+                .then(() -> progressBus.publish(update(30.0)))
+                .expectNext(30.0)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testSubscriber_CompletesAfterCompletionUpdate() {
+        StepVerifier.create(progressBus.subscribe("s1", 0).map(sequenced -> sequenced.update().getType()))
+                .then(() -> {
+                    progressBus.publish(update(50.0));
+                    progressBus.publish(ProgressUpdate.builder().sessionId("s1").progress(100.0)
+                            .type(ProgressUpdate.ProgressType.COMPLETION).build());
+                })
+                .expectNext(ProgressUpdate.ProgressType.ANALYSIS, ProgressUpdate.ProgressType.COMPLETION)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    @Test
+    void testLateSubscriber_OfEndedSessionGetsRetainedUpdatesThenCompletes() {
+        progressBus.publish(update(10.0));
+        progressBus.complete("s1");
+        progressBus.publish(update(20.0)); // after the end: dropped
+
+        StepVerifier.create(progressBus.subscribe("s1", 0).map(sequenced -> sequenced.update().getProgress()))
+                .expectNext(10.0)
+                .expectComplete()
+                .verify(Duration.ofSeconds(5));
+    }
+
+    private static ProgressUpdate update(double progress) {
+        return ProgressUpdate.builder().sessionId("s1").progress(progress).type(ProgressUpdate.ProgressType.ANALYSIS).build();
+    }
+}
@@ -0,0 +1,82 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PromptContextBuilderTest {
+
+    private static final String SOURCE = """
+            package com.example;
+
+            public class PriceCalculator {
+
+                private final TaxService taxService;
+
+                public PriceCalculator(TaxService taxService) {
+                    this.taxService = taxService;
+                }
+
+                public double gross(double net) {
+                    if (net < 0) {
+                        throw new IllegalArgumentException("negative");
+                    }
+                    return round(net + taxService.taxFor(net));
+                }
+
+                public double discount(double price, int percent) {
+                    return price - price * percent / 100.0;
+                }
+
+                private double round(double value) {
+                    return Math.round(value * 100) / 100.0;
+                }
+            }
+            """;
+
+    private PromptContextBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        builder = new PromptContextBuilder();
+        ReflectionTestUtils.setField(builder, "metadataAnalyzer", new MetadataAnalyzer());
+    }
+
+    @Test
+    void testBuildContext_KeepsSkeletonAndFocusBodiesOnly() {
+        String context = builder.buildContext(SOURCE, List.of("gross"), 10_000);
+
+        assertTrue(context.contains("private final TaxService taxService;"));
+        assertTrue(context.contains("this.taxService = taxService;"), "constructors keep their bodies");
+        assertTrue(context.contains("throw new IllegalArgumentException(\"negative\");"));
+        assertTrue(context.contains("Math.round(value * 100)"), "private helpers of focus methods keep their bodies");
+        assertTrue(context.contains("public double discount(double price, int percent)"));
+        assertFalse(context.contains("price * percent"));
+        assertTrue(context.length() < SOURCE.length());
+    }
+
+    @Test
+    void testBuildContext_OmitsLowerPriorityBodiesOverBudget() {
+        String context = builder.buildContext(SOURCE, List.of("discount", "gross"), 10);
+
+        assertTrue(context.contains("price * percent"), "the first focus method is always shown");
+        assertFalse(context.contains("taxService.taxFor(net)"));
+    }
+
+    @Test
+    void testBuildContext_ReturnsSourceWhenEverythingFits() {
+        assertEquals(SOURCE, builder.buildContext(SOURCE, List.of(), 10_000));
+    }
+
+    @Test
+    void testBuildContext_ReturnsUnparseableSourceUnchanged() {
+        String notJava = "this is not { java";
+
+        assertEquals(notJava, builder.buildContext(notJava, List.of("gross"), 10));
+    }
+}
@@ -9,16 +9,22 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
 
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.mockStatic;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RepositoryAnalysisServiceTest {
@@ -26,6 +32,12 @@ class RepositoryAnalysisServiceTest {
     @InjectMocks
     private RepositoryAnalysisService repositoryAnalysisService;
 
+    @Mock
+    private RepositoryService repositoryService;
+
+    @Mock
+    private GitService gitService;
+
     @Test
     void testAnalyzeRepository_WithValidRequest_ReturnsSuccessResponse() {
         RepositoryAnalysisRequest request = new RepositoryAnalysisRequest();
@@ -163,4 +175,74 @@ class RepositoryAnalysisServiceTest {
         assertEquals(1, insights.getRecommendations().size());
         assertEquals("HIGH", insights.getRecommendations().get(0).getPriority());
     }
+
+    @Test
+    void testAnalyzeRepository_CoalescesConcurrentRequestsForSameHead() throws Exception {
+        ReflectionTestUtils.setField(repositoryAnalysisService, "coalesceAnalyses", true);
+        when(gitService.resolveRemoteHead(anyString(), eq("main"), any())).thenReturn("abc123");
+        CountDownLatch setupStarted = new CountDownLatch(1);
+        CountDownLatch releaseSetup = new CountDownLatch(1);
+        when(repositoryService.setupRepository(anyString(), anyString(), anyString(), any())).thenAnswer(invocation -> {
+            setupStarted.countDown();
+            releaseSetup.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("clone failed");
+        });
+        RepositoryAnalysisRequest request = new RepositoryAnalysisRequest();
+        request.setRepositoryUrl("https://github.com/test/repo.git");
+        request.setWorkspaceId("test-workspace");
+
+        CompletableFuture<RepositoryAnalysisResponse> first =
+                CompletableFuture.supplyAsync(() -> repositoryAnalysisService.analyzeRepository(request));
+        assertTrue(setupStarted.await(5, TimeUnit.SECONDS));
+        CompletableFuture<RepositoryAnalysisResponse> second =
+                CompletableFuture.supplyAsync(() -> repositoryAnalysisService.analyzeRepository(request));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (repositoryAnalysisService.getCoalescingStats().getDeduplicated() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        releaseSetup.countDown();
+
+        assertSame(first.get(5, TimeUnit.SECONDS), second.get(5, TimeUnit.SECONDS));
+        assertFalse(first.get().isSuccess());
+        verify(repositoryService, times(1)).setupRepository(anyString(), anyString(), anyString(), any());
+        RepositoryAnalysisService.CoalescingStats stats = repositoryAnalysisService.getCoalescingStats();
+        assertEquals(1, stats.getStarted());
+        assertEquals(1, stats.getDeduplicated());
+        assertEquals(0, stats.getInFlight());
+    }
+
+    @Test
+    void testAnalyzeRepository_DoesNotCoalesceAcrossWorkspaces() throws Exception {
+        ReflectionTestUtils.setField(repositoryAnalysisService, "coalesceAnalyses", true);
+        when(gitService.resolveRemoteHead(anyString(), eq("main"), any())).thenReturn("abc123");
+        CountDownLatch setupStarted = new CountDownLatch(1);
+        CountDownLatch releaseSetup = new CountDownLatch(1);
+        when(repositoryService.setupRepository(anyString(), anyString(), eq("workspace-a"), any())).thenAnswer(invocation -> {
+            setupStarted.countDown();
+            releaseSetup.await(5, TimeUnit.SECONDS);
+            throw new IllegalStateException("clone failed");
+        });
+        when(repositoryService.setupRepository(anyString(), anyString(), eq("workspace-b"), any()))
+                .thenThrow(new IllegalStateException("clone failed"));
+        RepositoryAnalysisRequest firstRequest = new RepositoryAnalysisRequest();
+        firstRequest.setRepositoryUrl("https://github.com/test/repo.git");
+        firstRequest.setWorkspaceId("workspace-a");
+        RepositoryAnalysisRequest secondRequest = new RepositoryAnalysisRequest();
+        secondRequest.setRepositoryUrl("https://github.com/test/repo.git");
+        secondRequest.setWorkspaceId("workspace-b");
+
+        CompletableFuture<RepositoryAnalysisResponse> first =
+                CompletableFuture.supplyAsync(() -> repositoryAnalysisService.analyzeRepository(firstRequest));
+        assertTrue(setupStarted.await(5, TimeUnit.SECONDS));
+        // Completes on its own while the first analysis is still running
+        RepositoryAnalysisResponse second = repositoryAnalysisService.analyzeRepository(secondRequest);
+        releaseSetup.countDown();
+
+        assertNotSame(first.get(5, TimeUnit.SECONDS), second);
+        verify(repositoryService).setupRepository(anyString(), anyString(), eq("workspace-a"), any());
+        verify(repositoryService).setupRepository(anyString(), anyString(), eq("workspace-b"), any());
+        RepositoryAnalysisService.CoalescingStats stats = repositoryAnalysisService.getCoalescingStats();
+        assertEquals(2, stats.getStarted());
+        assertEquals(0, stats.getDeduplicated());
+    }
 }
@@ -0,0 +1,110 @@
+package com.org.devgenie.service.coverage;
+
+import com.mongodb.client.result.UpdateResult;
+import com.org.devgenie.model.coverage.CoverageImprovementSession;
+import com.org.devgenie.mongo.CoverageSessionRepository;
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SessionManagementServiceTest {
+
+    @Mock
+    private CoverageSessionRepository sessionRepository;
+
+    @Mock
+    private MongoTemplate mongoTemplate;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private SessionProgressStore progressStore;
+
+    @Mock
+    private SessionResultsStore resultsStore;
+
+    @Mock
+    private ProgressBus progressBus;
+
+    @InjectMocks
+    private SessionManagementService sessionManagementService;
+
+    @Test
+    void testHandleError_PushesErrorWithoutRewritingTheSession() {
+        when(progressStore.updateStatus("session-1", CoverageImprovementSession.SessionStatus.FAILED))
+                .thenReturn(Optional.of(SessionProgressStore.SessionState.builder().progress(40.0).build()));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageImprovementSession.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        sessionManagementService.handleError("session-1", new IllegalStateException("compilation failed"));
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(CoverageImprovementSession.class));
+        Document operations = update.getValue().getUpdateObject();
+        assertEquals("compilation failed", operations.get("$push", Document.class).get("errors"));
+        assertEquals(1, operations.get("$inc", Document.class).get("version"));
+        verify(sessionRepository, never()).save(any());
+        verify(sessionRepository, never()).findById(any());
+        verify(eventPublisher).publishEvent(any(SessionManagementService.ProgressUpdateEvent.class));
+        verify(progressBus).publish(any());
+    }
+
+    @Test
+    void testUpdateSession_WithExpectedVersionOnlyMatchesThatVersion() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageImprovementSession.class)))
+                .thenReturn(UpdateResult.acknowledged(0, 0L, null));
+
+        boolean updated = sessionManagementService.updateSession("session-1", new Update().set("results", "r"), 7L);
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).updateFirst(query.capture(), any(Update.class), eq(CoverageImprovementSession.class));
+        assertEquals(7L, query.getValue().getQueryObject().get("version"));
+        assertFalse(updated, "a concurrent writer moved the version on");
+    }
+
+    @Test
+    void testSetSessionResults_StoresResultsOutOfLineAndOnlyTheSummaryOnTheSession() {
+        Map<String, Object> results = Map.of("coverageIncrease", 5.0, "generatedTests", List.of());
+        when(resultsStore.save("session-1", results)).thenReturn(Map.of("coverageIncrease", 5.0));
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageImprovementSession.class)))
+                .thenReturn(UpdateResult.acknowledged(1, 1L, null));
+
+        sessionManagementService.setSessionResults("session-1", results);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(CoverageImprovementSession.class));
+        Document operations = update.getValue().getUpdateObject();
+        assertEquals(Map.of("coverageIncrease", 5.0), operations.get("$set", Document.class).get("resultsSummary"));
+        assertTrue(operations.get("$unset", Document.class).containsKey("results"));
+    }
+
+    @Test
+    void testGetSession_NeverLoadsTheResults() {
+        when(mongoTemplate.findOne(any(Query.class), eq(CoverageImprovementSession.class))).thenReturn(null);
+
+        assertTrue(sessionManagementService.getSession("session-1").isEmpty());
+
+        ArgumentCaptor<Query> query = ArgumentCaptor.forClass(Query.class);
+        verify(mongoTemplate).findOne(query.capture(), eq(CoverageImprovementSession.class));
+        assertEquals(0, query.getValue().getFieldsObject().get("results"));
+    }
+}
@@ -0,0 +1,105 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CoverageImprovementSession;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+class SessionProgressStoreTest {
+
+    private MongoTemplate mongoTemplate;
+    private SessionProgressStore store;
+
+    @BeforeEach
+    void setUp() {
+        mongoTemplate = mock(MongoTemplate.class);
+        store = new SessionProgressStore();
+        ReflectionTestUtils.setField(store, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(store, "meterRegistry", new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(store, "flushIntervalMillis", 60_000L); // flushed explicitly below
+        ReflectionTestUtils.setField(store, "idleEvictionMinutes", 30L);
+        store.initialize();
+        store.register(CoverageImprovementSession.builder()
+                .sessionId("session-1")
+                .status(CoverageImprovementSession.SessionStatus.CREATED)
+                .progress(0.0)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        store.shutdown();
+    }
+
+    @Test
+    void testUpdates_AreAppliedAtOnceAndWrittenCoalesced() {
+        for (int i = 1; i <= 20; i++) {
+            assertEquals(i * 1.0, store.updateProgress("session-1", i * 1.0, "step " + i).orElseThrow().getProgress());
+        }
+        store.updateBatchProgress("session-1", 2, 4);
+        verify(mongoTemplate, never()).updateFirst(any(Query.class), any(Update.class), eq(CoverageImprovementSession.class));
+
+        store.flushAll();
+        store.flushAll();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(1)).updateFirst(any(Query.class), update.capture(), eq(CoverageImprovementSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(20.0, set.get("progress"));
+        assertEquals("step 20", set.get("currentStep"));
+        assertEquals(4, set.get("totalBatches"));
+        assertFalse(set.containsKey("results"));
+    }
+
+    @Test
+    void testTerminalStatus_IsWrittenImmediately() {
+        store.updateProgress("session-1", 100.0, "Done");
+        store.updateStatus("session-1", CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW);
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate).updateFirst(any(Query.class), update.capture(), eq(CoverageImprovementSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(CoverageImprovementSession.SessionStatus.READY_FOR_REVIEW, set.get("status"));
+        assertEquals(100.0, set.get("progress"));
+    }
+
+    @Test
+    void testTerminalStatus_FailedWriteIsRetriedByFlusher() {
+        when(mongoTemplate.updateFirst(any(Query.class), any(Update.class), eq(CoverageImprovementSession.class)))
+                .thenThrow(new IllegalStateException("mongo unavailable"))
+                .thenReturn(null);
+
+        store.updateStatus("session-1", CoverageImprovementSession.SessionStatus.FAILED);
+        assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(store, "entries")).containsKey("session-1"));
+
+        store.flushAll();
+        store.flushAll();
+
+        ArgumentCaptor<Update> update = ArgumentCaptor.forClass(Update.class);
+        verify(mongoTemplate, times(2)).updateFirst(any(Query.class), update.capture(), eq(CoverageImprovementSession.class));
+        Document set = update.getValue().getUpdateObject().get("$set", Document.class);
+        assertEquals(CoverageImprovementSession.SessionStatus.FAILED, set.get("status"));
+        assertFalse(((Map<?, ?>) ReflectionTestUtils.getField(store, "entries")).containsKey("session-1"));
+    }
+
+    @Test
+    void testUnknownSession_IsLoadedOnceOrIgnored() {
+        when(mongoTemplate.findOne(any(Query.class), eq(CoverageImprovementSession.class))).thenReturn(null);
+
+        assertTrue(store.updateProgress("missing", 10.0, "step").isEmpty());
+    }
+}
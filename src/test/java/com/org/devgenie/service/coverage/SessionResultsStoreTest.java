@@ -0,0 +1,31 @@
+package com.org.devgenie.service.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionResultsStoreTest {
+
+    private final SessionResultsStore store = new SessionResultsStore();
+
+    @Test
+    void testSummarize_KeepsMetricsAndDropsTestCode() {
+        Map<String, Object> results = Map.of(
+                "coverageIncrease", 12.5,
+                "totalTestsGenerated", 2,
+                "validationResult", Map.of("success", true, "testsPassed", 2, "compilationErrors", List.of("x")),
+                "generatedTests", List.of(Map.of("testMethodName", "testAdd", "testCode", "@Test void testAdd() {}")),
+                "testFilePaths", List.of("src/test/java/FooTest.java"));
+
+        Map<String, Object> summary = store.summarize(results);
+
+        assertEquals(12.5, summary.get("coverageIncrease"));
+        assertEquals(2, summary.get("totalTestsGenerated"));
+        assertEquals(Map.of("success", true, "testsPassed", 2), summary.get("validationResult"));
+        assertEquals(List.of(Map.of("testMethodName", "testAdd")), summary.get("generatedTests"));
+        assertFalse(summary.containsKey("testFilePaths"));
+    }
+}
@@ -0,0 +1,107 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.TestGenerationResult;
+import com.org.devgenie.service.metadata.MetadataAnalyzer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpeculativeTestGeneratorTest {
+
+    private static final String VALID_TEST = """
+            package com.example;
+
+            import org.junit.jupiter.api.Test;
+
+            class PriceCalculatorTest {
+                @Test
+                void grossAddsTax() {
+                }
+            }
+            """;
+
+    private SpeculativeTestGenerator generator;
+
+    @BeforeEach
+    void setUp() {
+        generator = new SpeculativeTestGenerator();
+        ReflectionTestUtils.setField(generator, "metadataAnalyzer", new MetadataAnalyzer());
+        ReflectionTestUtils.setField(generator, "compileCheck", false);
+        ReflectionTestUtils.setField(generator, "timeoutSeconds", 10L);
+        generator.initializeExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        generator.shutdownExecutor();
+    }
+
+    @Test
+    void testGenerate_SkipsInvalidCandidateAndCancelsTheRest() throws InterruptedException {
+        CountDownLatch slowCandidateInterrupted = new CountDownLatch(1);
+        Map<String, Supplier<TestGenerationResult>> candidates = new LinkedHashMap<>();
+        candidates.put("BROKEN", () -> result("class Broken {"));
+        candidates.put("VALID", () -> {
+            sleep(200);
+            return result(VALID_TEST);
+        });
+        candidates.put("SLOW", () -> {
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                slowCandidateInterrupted.countDown();
+            }
+            return result(VALID_TEST);
+        });
+
+        TestGenerationResult winner = generator.generate("PriceCalculator.java", null, candidates);
+
+        assertTrue(winner.isSuccess());
+        assertTrue(winner.getNotes().endsWith("VALID"));
+        assertTrue(slowCandidateInterrupted.await(5, TimeUnit.SECONDS), "the losing candidate is cancelled");
+    }
+
+    @Test
+    void testGenerate_FallsBackToFirstSuccessWhenNothingValidates() {
+        Map<String, Supplier<TestGenerationResult>> candidates = new LinkedHashMap<>();
+        candidates.put("NO_TESTS", () -> result("class PriceCalculatorTest { void helper() {} }"));
+        candidates.put("FAILED", () -> TestGenerationResult.failure("PriceCalculator.java", "LLM unavailable"));
+
+        TestGenerationResult result = generator.generate("PriceCalculator.java", null, candidates);
+
+        assertTrue(result.isSuccess());
+        assertEquals("class PriceCalculatorTest { void helper() {} }", result.getGeneratedTestContent());
+    }
+
+    @Test
+    void testValidate_RejectsUnparseableContent() {
+        assertTrue(generator.validate(result("class Broken {"), null).startsWith("does not parse"));
+        assertNull(generator.validate(result(VALID_TEST), null));
+    }
+
+    private static TestGenerationResult result(String content) {
+        return TestGenerationResult.builder()
+                .sourceFilePath("PriceCalculator.java")
+                .testFilePath("src/test/java/com/example/PriceCalculatorTest.java")
+                .generatedTestContent(content)
+                .success(true)
+                .build();
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,109 @@
+package com.org.devgenie.service.coverage;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.org.devgenie.model.coverage.StreamedTestMethod;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingTestParserTest {
+
+    private static final String TEST_CLASS = """
+            package com.example;
+
+            import org.junit.jupiter.api.Test;
+
+            class FooTest {
+                private final Foo foo = new Foo(); // {
+                @ParameterizedTest
+                @ValueSource(strings = {"a", "}"})
+                void testFirst(String value) {
+                    assertEquals('}', value.charAt(0));
+                    Runnable noop = () -> { };
+                }
+
+                /* } */
+                @Test
+                void testSecond() {
+                    String text = \"""
+                        }}
+                        \""";
+                }
+            }
+            """;
+
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    void testFullFileResponse_EmitsEachMethodWhenComplete() throws Exception {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("testClassName", "FooTest");
+        response.put("testFilePath", "src/test/java/com/example/FooTest.java");
+        response.put("testClassContent", TEST_CLASS);
+        String json = "```json\n" + mapper.writeValueAsString(response) + "\n```";
+        List<StreamedTestMethod> emitted = new ArrayList<>();
+        StreamingTestParser parser = new StreamingTestParser(null, null, emitted::add);
+
+        int firstMethodEnd = json.indexOf("}\\n\\n") + "}\\n\\n".length();
+        feedInChunks(parser, json.substring(0, firstMethodEnd));
+        assertEquals(1, emitted.size(), "first method is emitted before the rest of the response arrives");
+        feedInChunks(parser, json.substring(firstMethodEnd));
+        parser.finish();
+
+        assertEquals(List.of("testFirst", "testSecond"), emitted.stream().map(StreamedTestMethod::getMethodName).toList());
+        assertEquals("src/test/java/com/example/FooTest.java", emitted.get(0).getTestFilePath());
+        assertEquals("FooTest", emitted.get(0).getTestClass());
+        assertTrue(emitted.get(0).getTestCode().startsWith("@ParameterizedTest"));
+        assertTrue(emitted.get(0).getPartialTestContent().strip().endsWith("}\n}"));
+        assertFalse(emitted.get(0).getPartialTestContent().contains("testSecond"));
+    }
+
+    @Test
+    void testBatchResponse_EmitsEachArrayElement() throws Exception {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("testClass", "FooTest");
+        response.put("testMethods", List.of(
+                Map.of("methodName", "testOne", "code", "@Test\nvoid testOne() { }", "coveredMethods", List.of("run")),
+                Map.of("methodName", "testTwo", "code", "@Test\nvoid testTwo() { assertEquals(\"é\", name()); }")));
+        List<StreamedTestMethod> emitted = new ArrayList<>();
+        StreamingTestParser parser = new StreamingTestParser("src/test/java/FooTest2.java", 1, emitted::add);
+
+        feedInChunks(parser, mapper.writeValueAsString(response).replace("é", "\\u00e9"));
+        parser.finish();
+
+        assertEquals(2, emitted.size());
+        assertEquals(List.of("run"), emitted.get(0).getCoveredMethods());
+        assertEquals(1, emitted.get(1).getBatchIndex());
+        assertEquals("src/test/java/FooTest2.java", emitted.get(1).getTestFilePath());
+        assertTrue(emitted.get(1).getTestCode().contains("\"é\""));
+        assertEquals(2, emitted.get(1).getSequence());
+    }
+
+    @Test
+    void testListenerFailure_DoesNotStopParsing() throws Exception {
+        Map<String, Object> response = Map.of("testMethods", List.of(
+                Map.of("methodName", "a", "code", "@Test void a() {}"),
+                Map.of("methodName", "b", "code", "@Test void b() {}")));
+        List<String> names = new ArrayList<>();
+        StreamingTestParser parser = new StreamingTestParser(null, 0, test -> {
+            names.add(test.getMethodName());
+            throw new IllegalStateException("listener failed");
+        });
+
+        parser.accept(mapper.writeValueAsString(response));
+        parser.finish();
+
+        assertEquals(List.of("a", "b"), names);
+    }
+
+    private void feedInChunks(StreamingTestParser parser, String text) {
+        for (int i = 0; i < text.length(); i += 7) {
+            parser.accept(text.substring(i, Math.min(text.length(), i + 7)));
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.config.CoverageConfiguration;
+import com.org.devgenie.model.coverage.BatchTestGenerationResult;
+import com.org.devgenie.model.coverage.FileAnalysisResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class TestBatchExecutorTest {
+
+    @Mock
+    private TestGenerationService testGenerationService;
+
+    @Mock
+    private CoverageConfiguration config;
+
+    @InjectMocks
+    private TestBatchExecutor testBatchExecutor;
+
+    @BeforeEach
+    void setUp() {
+        when(config.isEnableParallelProcessing()).thenReturn(true);
+        when(config.getBatchParallelism()).thenReturn(4);
+        testBatchExecutor.initializeExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        testBatchExecutor.shutdownExecutor();
+    }
+
+    @Test
+    void testGenerateBatches_RunsConcurrentlyAndKeepsBatchOrder() {
+        FileAnalysisResult analysis = FileAnalysisResult.builder().filePath("Foo.java").build();
+        when(testGenerationService.generateTestsBatch(any(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            int batchIndex = invocation.getArgument(1);
+            Thread.sleep(400 - batchIndex * 100L); // later batches finish first
+            return BatchTestGenerationResult.builder().success(batchIndex != 2).batchIndex(batchIndex).build();
+        });
+        List<Integer> completedCounts = Collections.synchronizedList(new ArrayList<>());
+
+        long start = System.nanoTime();
+        List<BatchTestGenerationResult> results = testBatchExecutor.generateBatches(analysis, 4, 5,
+                (completed, total, batchIndex, result) -> completedCounts.add(completed));
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(List.of(0, 1, 2, 3), results.stream().map(BatchTestGenerationResult::getBatchIndex).toList());
+        assertFalse(results.get(2).getSuccess());
+        assertEquals(List.of(1, 2, 3, 4), completedCounts);
+        assertTrue(elapsedMillis < 900, "batches should overlap, took " + elapsedMillis + " ms");
+    }
+
+    @Test
+    void testGenerateBatches_FailedBatchDoesNotFailOthers() {
+        FileAnalysisResult analysis = FileAnalysisResult.builder().filePath("Foo.java").build();
+        when(testGenerationService.generateTestsBatch(any(), anyInt(), any(), any())).thenAnswer(invocation -> {
+            if ((int) invocation.getArgument(1) == 0) {
+                throw new IllegalStateException("LLM unavailable");
+            }
+            return BatchTestGenerationResult.builder().success(true).build();
+        });
+
+        List<BatchTestGenerationResult> results = testBatchExecutor.generateBatches(analysis, 2, 5, null);
+
+        assertFalse(results.get(0).getSuccess());
+        assertTrue(results.get(1).getSuccess());
+    }
+}
@@ -0,0 +1,96 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestCompilationServiceTest {
+
+    @TempDir
+    Path workspace;
+
+    private TestCompilationService compilationService;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        compilationService = new TestCompilationService();
+        ReflectionTestUtils.setField(compilationService, "jacocoExecAnalyzer", new JacocoExecAnalyzer());
+        ReflectionTestUtils.setField(compilationService, "compilerOptions", "-proc:none -g");
+
+        Path testDir = Files.createDirectories(workspace.resolve("src/test/java/com/example"));
+        Files.writeString(testDir.resolve("GoodTest.java"),
+                "package com.example; public class GoodTest { int answer() { return 42; } }");
+        Files.writeString(testDir.resolve("BrokenTest.java"),
+                "package com.example; public class BrokenTest { int answer() { return \"42\"; } }");
+    }
+
+    @AfterEach
+    void tearDown() {
+        compilationService.closeFileManagers();
+    }
+
+    @Test
+    void testCompileTestFiles_WritesClassesAndCachesClasspath() {
+        CompilationResult first = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/GoodTest.java"));
+        CompilationResult second = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/GoodTest.java"));
+
+        assertTrue(first.getSuccess(), () -> String.valueOf(first.getErrors()));
+        assertFalse(first.getClasspathFromCache());
+        assertTrue(second.getClasspathFromCache());
+        assertTrue(Files.exists(Paths.get(second.getOutputDirectory(), "com/example/GoodTest.class")));
+    }
+
+    @Test
+    void testCompileTestFiles_EachCompilationGetsItsOwnOutputDirectory() {
+        CompilationResult first = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/GoodTest.java"));
+        CompilationResult second = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/GoodTest.java"));
+
+        assertNotEquals(first.getOutputDirectory(), second.getOutputDirectory());
+        compilationService.deleteOutputDirectory(first);
+        assertFalse(Files.exists(Paths.get(first.getOutputDirectory())));
+        assertTrue(Files.exists(Paths.get(second.getOutputDirectory(), "com/example/GoodTest.class")));
+        compilationService.deleteOutputDirectory(second);
+    }
+
+    @Test
+    void testCompileTestFiles_FailedCompilationLeavesNoOutput() {
+        CompilationResult result = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/BrokenTest.java"));
+
+        assertFalse(result.getSuccess());
+        assertNull(result.getOutputDirectory());
+    }
+
+    @Test
+    void testCompileTestFiles_ReportsErrorsWithLocation() {
+        CompilationResult result = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/BrokenTest.java"));
+
+        assertFalse(result.getSuccess());
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("src/test/java/com/example/BrokenTest.java:1:"));
+    }
+
+    @Test
+    void testCompileTestFiles_MissingFileFails() {
+        CompilationResult result = compilationService.compileTestFiles(workspace.toString(),
+                List.of("src/test/java/com/example/MissingTest.java"));
+
+        assertFalse(result.getSuccess());
+        assertTrue(result.getErrors().get(0).contains("MissingTest.java"));
+    }
+}
@@ -0,0 +1,130 @@
+package com.org.devgenie.service.coverage;
+
+import com.org.devgenie.model.coverage.CompilationResult;
+import com.org.devgenie.model.coverage.TestCaseResult;
+import com.org.devgenie.model.coverage.TestExecutionResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import javax.tools.ToolProvider;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TestExecutionServiceTest {
+
+    @TempDir
+    Path workspace;
+
+    private TestExecutionService executionService;
+    private List<Path> junitJars;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // The isolated loader only shares the platform API, so Jupiter API and engine come from the "workspace"
+        junitJars = List.of(locationOf(Test.class), locationOf(Class.forName("org.junit.jupiter.engine.JupiterTestEngine")));
+        TestCompilationService compilationService = mock(TestCompilationService.class);
+        when(compilationService.getTestClasspath(anyString())).thenReturn(junitJars);
+
+        executionService = new TestExecutionService();
+        ReflectionTestUtils.setField(executionService, "testCompilationService", compilationService);
+        ReflectionTestUtils.setField(executionService, "testTimeoutSeconds", 60L);
+        executionService.initializeExecutor();
+    }
+
+    @AfterEach
+    void tearDown() {
+        executionService.shutdownExecutor();
+    }
+
+    @Test
+    void testExecuteTests_ReportsPassedAndFailedTests() throws Exception {
+        CompilationResult compilation = compile("SampleTest", """
+                package com.example;
+                import org.junit.jupiter.api.Test;
+                import static org.junit.jupiter.api.Assertions.assertEquals;
+                public class SampleTest {
+                    @Test void passes() { assertEquals(2, 1 + 1); }
+                    @Test void fails() { assertEquals(3, 1 + 1, "math is hard"); }
+                }
+                """);
+
+        TestExecutionResult result = executionService.executeTests(workspace.toString(), compilation);
+
+        assertFalse(result.getSuccess());
+        assertEquals(2, result.getTestsExecuted());
+        assertEquals(1, result.getTestsPassed());
+        assertEquals(1, result.getTestsFailed());
+        assertEquals(0, result.getTestsSkipped());
+
+        Map<String, TestCaseResult> byMethod = result.getTestResults().stream()
+                .collect(Collectors.toMap(TestCaseResult::getTestMethod, Function.identity()));
+        assertEquals("PASSED", byMethod.get("passes").getStatus());
+        assertEquals("FAILED", byMethod.get("fails").getStatus());
+        assertEquals("com.example.SampleTest", byMethod.get("fails").getTestClass());
+        assertTrue(byMethod.get("fails").getFailureMessage().contains("AssertionFailedError"));
+        assertTrue(byMethod.get("fails").getFailureMessage().contains("math is hard"));
+        assertEquals(1, result.getErrors().size());
+        assertTrue(result.getErrors().get(0).startsWith("fails()"));
+    }
+
+    @Test
+    void testExecuteTests_AllPassingTestsSucceed() throws Exception {
+        CompilationResult compilation = compile("PassingTest", """
+                package com.example;
+                import org.junit.jupiter.api.Disabled;
+                import org.junit.jupiter.api.Test;
+                public class PassingTest {
+                    @Test void one() { }
+                    @Test void two() { }
+                    @Disabled @Test void skipped() { }
+                }
+                """);
+
+        TestExecutionResult result = executionService.executeTests(workspace.toString(), compilation);
+
+        assertTrue(result.getSuccess(), () -> String.valueOf(result.getErrors()));
+        assertEquals(2, result.getTestsExecuted());
+        assertEquals(2, result.getTestsPassed());
+        assertEquals(1, result.getTestsSkipped());
+        assertTrue(result.getErrors().isEmpty());
+    }
+
+    @Test
+    void testExecuteTests_MissingOutputDirectoryFails() {
+        TestExecutionResult result = executionService.executeTests(workspace.toString(),
+                CompilationResult.builder().success(true).build());
+
+        assertFalse(result.getSuccess());
+        assertEquals(0, result.getTestsExecuted());
+        assertFalse(result.getErrors().isEmpty());
+    }
+
+    private CompilationResult compile(String className, String source) throws Exception {
+        Path sourceFile = Files.createDirectories(workspace.resolve("src/test/java/com/example")).resolve(className + ".java");
+        Files.writeString(sourceFile, source);
+        Path output = Files.createDirectories(workspace.resolve("classes-" + className));
+        String classpath = junitJars.stream().map(Path::toString).collect(Collectors.joining(java.io.File.pathSeparator));
+
+        int exitCode = ToolProvider.getSystemJavaCompiler().run(null, null, null,
+                "-proc:none", "-cp", classpath, "-d", output.toString(), sourceFile.toString());
+        assertEquals(0, exitCode);
+        return CompilationResult.builder().success(true).outputDirectory(output.toString()).build();
+    }
+
+    private Path locationOf(Class<?> type) throws Exception {
+        return Paths.get(type.getProtectionDomain().getCodeSource().getLocation().toURI());
+    }
+}
@@ -0,0 +1,24 @@
+package com.org.devgenie.service.coverage;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Paths;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TestGenerationServiceTest {
+
+    @Test
+    void testRepositoryRootOf_ResolvesRelativePathsAgainstWorkingDirectory() {
+        String workingDirectory = Paths.get("").toAbsolutePath().normalize().toString().replace('\\', '/');
+
+        assertEquals(workingDirectory, TestGenerationService.repositoryRootOf("src/main/java/com/example/Foo.java"));
+        assertEquals(workingDirectory + "/core", TestGenerationService.repositoryRootOf("core/src/main/java/com/example/Foo.java"));
+    }
+
+    @Test
+    void testRepositoryRootOf_AbsolutePathAndUnknownLayout() {
+        assertEquals("/work/repo", TestGenerationService.repositoryRootOf("/work/repo/src/main/java/com/example/Foo.java"));
+        assertNull(TestGenerationService.repositoryRootOf("/work/repo/lib/Foo.java"));
+    }
+}
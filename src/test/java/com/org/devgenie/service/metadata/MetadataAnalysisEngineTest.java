@@ -0,0 +1,109 @@
+package com.org.devgenie.service.metadata;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataAnalysisEngineTest {
+
+    @TempDir
+    Path tempDir;
+
+    private MetadataAnalysisEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new MetadataAnalysisEngine();
+        ReflectionTestUtils.setField(engine, "metadataAnalyzer", new MetadataAnalyzer());
+        ReflectionTestUtils.setField(engine, "configuredParallelism", 4);
+        engine.initializePool();
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.shutdownPool();
+    }
+
+    @Test
+    void testAnalyzeJavaFiles_KeepsInputOrderAndReportsFailures() throws Exception {
+        List<String> files = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            Path file = tempDir.resolve("Sample" + i + ".java");
+            Files.writeString(file, "package com.example;\n\npublic class Sample" + i + " {\n"
+                    + "    public int validate(int value) {\n"
+                    + "        if (value < 0) { throw new IllegalArgumentException(\"invalid\"); }\n"
+                    + "        return value;\n"
+                    + "    }\n"
+                    + "}\n");
+            files.add(file.toString());
+        }
+        files.add(5, tempDir.resolve("Missing.java").toString());
+
+        MetadataAnalysisEngine.AnalysisReport report = engine.analyzeJavaFiles(files, "https://github.com/test/repo.git", "main");
+
+        assertEquals(21, report.getTotalFiles());
+        assertEquals(20, report.getFileMetadata().size());
+        assertEquals(1, report.getFailures().size());
+        assertTrue(report.getFailures().get(0).getFilePath().endsWith("Missing.java"));
+        assertEquals("Sample0", report.getFileMetadata().get(0).getClassName());
+        assertEquals("Sample19", report.getFileMetadata().get(19).getClassName());
+        assertEquals(8, report.getFileMetadata().get(0).getLineCount());
+        assertTrue(report.getFilesPerSecond() > 0);
+    }
+
+    @Test
+    void testAnalyzeJavaFilesIncremental_ParsesOnlyChangedFiles() throws Exception {
+        Files.writeString(tempDir.resolve("Unchanged.java"), "public class Unchanged {}\n");
+        Files.writeString(tempDir.resolve("Modified.java"), "public class Modified {}\n");
+        Files.writeString(tempDir.resolve("Deleted.java"), "public class Deleted {}\n");
+        List<String> firstRun = List.of("Unchanged.java", "Modified.java", "Deleted.java");
+
+        MetadataAnalysisEngine.AnalysisReport initial = engine.analyzeJavaFilesIncremental(
+                tempDir.toString(), firstRun, "https://github.com/test/repo.git", "main", List.of());
+        assertEquals(3, initial.getChangedMetadata().size());
+        assertEquals(0, initial.getReusedFiles());
+        initial.getFileMetadata().forEach(metadata -> metadata.setId(metadata.getFilePath()));
+
+        Files.writeString(tempDir.resolve("Modified.java"), "public class Modified { void run() {} }\n");
+        Files.writeString(tempDir.resolve("Added.java"), "public class Added {}\n");
+        List<String> secondRun = List.of("Unchanged.java", "Modified.java", "Added.java");
+
+        MetadataAnalysisEngine.AnalysisReport report = engine.analyzeJavaFilesIncremental(
+                tempDir.toString(), secondRun, "https://github.com/test/repo.git", "main", initial.getFileMetadata());
+
+        assertEquals(3, report.getFileMetadata().size());
+        assertEquals(1, report.getReusedFiles());
+        assertSame(initial.getFileMetadata().get(0), report.getFileMetadata().get(0));
+        assertEquals(2, report.getChangedMetadata().size());
+        assertEquals("Modified.java", report.getChangedMetadata().get(0).getId());
+        assertEquals(1, report.getChangedMetadata().get(0).getCodeComplexity().getTotalMethods());
+        assertNull(report.getChangedMetadata().get(1).getId());
+        assertEquals(1, report.getRemovedMetadata().size());
+        assertEquals("Deleted.java", report.getRemovedMetadata().get(0).getFilePath());
+    }
+
+    @Test
+    void testGitBlobSha_MatchesGitHashObject() {
+        // echo -n "hello" | git hash-object --stdin
+        assertEquals("b6fc4c620b67d95f953a5c1c1230aaab5db5a1b0",
+                MetadataAnalysisEngine.gitBlobSha("hello".getBytes()));
+    }
+
+    @Test
+    void testCountLines_MatchesFilesLinesSemantics() {
+        assertEquals(0, MetadataAnalyzer.countLines(""));
+        assertEquals(1, MetadataAnalyzer.countLines("a"));
+        assertEquals(1, MetadataAnalyzer.countLines("a\n"));
+        assertEquals(2, MetadataAnalyzer.countLines("a\r\nb"));
+        assertEquals(3, MetadataAnalyzer.countLines("a\rb\n\n"));
+    }
+}
@@ -0,0 +1,46 @@
+package com.org.devgenie.service.metadata;
+
+import com.github.javaparser.JavaParser;
+import com.github.javaparser.ast.CompilationUnit;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MetadataAnalyzerTest {
+
+    private final MetadataAnalyzer analyzer = new MetadataAnalyzer();
+
+    @Test
+    void testSinglePassVisitor_MatchesMultiPassOnProjectSources() throws Exception {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(Paths.get("src/main/java/com/org/devgenie/service"))) {
+            files = walk.filter(path -> path.toString().endsWith(".java")).collect(Collectors.toList());
+        }
+        assertFalse(files.isEmpty());
+
+        JavaParser parser = new JavaParser();
+        for (Path file : files) {
+            String source = new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+            CompilationUnit cu = parser.parse(source).getResult().orElseThrow();
+
+            MetadataAnalyzer.FileMetadata single = analyzer.analyzeCompilationUnit(file.toString(), source, cu, "repo", "main");
+            MetadataAnalyzer.FileMetadata multi = analyzer.analyzeCompilationUnitMultiPass(file.toString(), source, cu, "repo", "main");
+
+            assertEquals(multi.getClassName(), single.getClassName(), file.toString());
+            assertEquals(multi.getPackageName(), single.getPackageName(), file.toString());
+            assertEquals(multi.getLineCount(), single.getLineCount(), file.toString());
+            assertEquals(multi.getCodeComplexity(), single.getCodeComplexity(), file.toString());
+            assertEquals(multi.getBusinessComplexity(), single.getBusinessComplexity(), file.toString());
+            assertEquals(multi.getDependencyImpact(), single.getDependencyImpact(), file.toString());
+            assertEquals(multi.getRiskScore(), single.getRiskScore(), 1e-9, file.toString());
+        }
+    }
+}
@@ -0,0 +1,145 @@
+package com.org.devgenie.websocket;
+
+import com.org.devgenie.dto.coverage.ProgressUpdate;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CoverageProgressWebSocketHandlerTest {
+
+    private CoverageProgressWebSocketHandler handler;
+
+    @BeforeEach
+    void setUp() {
+        handler = new CoverageProgressWebSocketHandler();
+        ReflectionTestUtils.setField(handler, "replaySize", 50);
+        ReflectionTestUtils.setField(handler, "maxQueuedMessages", 500);
+        ReflectionTestUtils.setField(handler, "senderThreads", 2);
+        ReflectionTestUtils.setField(handler, "replayRetentionMinutes", 30L);
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMillis", 10_000);
+        ReflectionTestUtils.setField(handler, "bufferSizeLimitBytes", 512 * 1024);
+        handler.initialize();
+    }
+
+    @AfterEach
+    void tearDown() {
+        handler.shutdown();
+    }
+
+    @Test
+    void testSlowClient_DoesNotBlockPublisherAndOnlyLosesSupersededProgress() throws Exception {
+        CountDownLatch sending = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch delivered = new CountDownLatch(4);
+        List<String> payloads = new CopyOnWriteArrayList<>();
+        WebSocketSession client = client("ws-1", payloads, delivered);
+        doAnswer(invocation -> {
+            sending.countDown();
+            assertTrue(release.await(5, TimeUnit.SECONDS));
+            payloads.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            delivered.countDown();
+            return null;
+        }).doAnswer(invocation -> {
+            payloads.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            delivered.countDown();
+            return null;
+        }).when(client).sendMessage(any());
+
+        handler.afterConnectionEstablished(client);
+        assertTrue(sending.await(5, TimeUnit.SECONDS), "initial message is being sent");
+
+        handler.sendProgressUpdate("s1", progress(10.0, ProgressUpdate.ProgressType.ANALYSIS));
+        handler.sendProgressUpdate("s1", progress(20.0, ProgressUpdate.ProgressType.ANALYSIS));
+        handler.sendProgressUpdate("s1", progress(25.0, ProgressUpdate.ProgressType.ERROR));
+        handler.sendProgressUpdate("s1", progress(30.0, ProgressUpdate.ProgressType.ANALYSIS));
+        handler.sendProgressUpdate("s1", progress(40.0, ProgressUpdate.ProgressType.ANALYSIS));
+        release.countDown();
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(4, payloads.size());
+        assertTrue(payloads.get(0).contains("INITIALIZATION"));
+        assertTrue(payloads.get(1).contains("\"progress\":20.0"));
+        assertTrue(payloads.get(2).contains("\"type\":\"ERROR\""));
+        assertTrue(payloads.get(3).contains("\"progress\":40.0"));
+    }
+
+    @Test
+    void testLateSubscribers_GetTheRecentMessagesReplayed() throws Exception {
+        handler.sendProgressUpdate("s1", progress(10.0, ProgressUpdate.ProgressType.ANALYSIS));
+        handler.sendProgressUpdate("s1", progress(100.0, ProgressUpdate.ProgressType.COMPLETION));
+
+        CountDownLatch delivered = new CountDownLatch(4);
+        List<String> first = new CopyOnWriteArrayList<>();
+        List<String> second = new CopyOnWriteArrayList<>();
+        handler.afterConnectionEstablished(client("ws-1", first, delivered));
+        handler.afterConnectionEstablished(client("ws-2", second, delivered));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(first, second);
+        assertTrue(first.get(1).contains("COMPLETION"));
+        assertEquals(2, handler.getActiveSessionCount());
+    }
+
+    @Test
+    void testStalledClient_IsClosedSoOtherClientsStillGetTheirMessages() throws Exception {
+        handler.shutdown();
+        ReflectionTestUtils.setField(handler, "senderThreads", 1);
+        ReflectionTestUtils.setField(handler, "sendTimeLimitMillis", 200);
+        handler.initialize();
+
+        CountDownLatch closed = new CountDownLatch(1);
+        WebSocketSession stalled = client("ws-1", new CopyOnWriteArrayList<>(), new CountDownLatch(1));
+        doAnswer(invocation -> {
+            // Blocks like a write to a client that stopped reading, until the socket is closed
+            assertTrue(closed.await(5, TimeUnit.SECONDS));
+            throw new java.io.IOException("closed");
+        }).when(stalled).sendMessage(any());
+        doAnswer(invocation -> {
+            closed.countDown();
+            return null;
+        }).when(stalled).close(any(CloseStatus.class));
+        handler.afterConnectionEstablished(stalled);
+
+        CountDownLatch delivered = new CountDownLatch(1);
+        List<String> payloads = new CopyOnWriteArrayList<>();
+        handler.afterConnectionEstablished(client("ws-2", "s2", payloads, delivered));
+
+        assertTrue(delivered.await(5, TimeUnit.SECONDS), "the only sender thread is freed by the watchdog");
+        verify(stalled).close(CloseStatus.SESSION_NOT_RELIABLE);
+        assertEquals(1, handler.getActiveSessionCount());
+    }
+
+    private static WebSocketSession client(String id, List<String> payloads, CountDownLatch delivered) throws Exception {
+        return client(id, "s1", payloads, delivered);
+    }
+
+    private static WebSocketSession client(String id, String sessionId, List<String> payloads, CountDownLatch delivered) throws Exception {
+        WebSocketSession client = mock(WebSocketSession.class);
+        when(client.getId()).thenReturn(id);
+        when(client.getUri()).thenReturn(URI.create("ws://localhost/ws/coverage-progress?sessionId=" + sessionId));
+        doAnswer(invocation -> {
+            payloads.add(((TextMessage) invocation.getArgument(0)).getPayload());
+            delivered.countDown();
+            return null;
+        }).when(client).sendMessage(any());
+        return client;
+    }
+
+    private static ProgressUpdate progress(double progress, ProgressUpdate.ProgressType type) {
+        return ProgressUpdate.builder().sessionId("s1").progress(progress).type(type).build();
+    }
+}